@@ -26,6 +26,7 @@ import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
@@ -34,12 +35,20 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -54,6 +63,15 @@ public class DefaultStatementBatcher implements StatementBatcher {
   protected final int maxBatchStatements;
   protected final long maxSizeInBytes;
 
+  /**
+   * The maximum number of batches worth of statements packed together when batching a stream of
+   * statements in {@linkplain BatchMode#REPLICA_SET replica set} mode.
+   */
+  protected static final int PACKING_WINDOW_BATCHES = 8;
+
+  private final ConcurrentMap<CqlIdentifier, ReplicaSetIndex> replicaSetIndexes =
+      new ConcurrentHashMap<>();
+
   /**
    * Creates a new {@link DefaultStatementBatcher} that produces {@linkplain
    * DefaultBatchType#UNLOGGED unlogged} batches, operates in {@linkplain BatchMode#PARTITION_KEY
@@ -240,7 +258,9 @@ public class DefaultStatementBatcher implements StatementBatcher {
         .collect(Collectors.groupingBy(this::groupingKey))
         .values()
         .stream()
-        .flatMap(stmts -> maybeBatch(stmts).stream())
+        .flatMap(
+            stmts ->
+                (batchMode == BatchMode.REPLICA_SET ? pack(stmts) : maybeBatch(stmts)).stream())
         .collect(Collectors.toList());
   }
 
@@ -283,6 +303,85 @@ public class DefaultStatementBatcher implements StatementBatcher {
     }
   }
 
+  /**
+   * Packs the given statements into as few batches as possible, and balances the data size of the
+   * resulting batches.
+   *
+   * <p>Unlike {@link #batchAll(Collection)}, which fills batches in arrival order and usually
+   * produces a small leftover batch at the end, this method first computes the minimum number of
+   * batches required to hold all statements given the maximum number of statements and the maximum
+   * data size, then places statements by decreasing size in the least loaded batch (worst-fit
+   * decreasing). Resulting batches thus have near-equal sizes. A batch is only added if a statement
+   * does not fit in any batch, e.g. because it is larger than the maximum data size.
+   *
+   * <p>Note that, unlike {@link #batchAll(Collection)}, the maximum data size is never exceeded,
+   * unless a single statement is larger than it.
+   *
+   * @param stmts the statements to pack; cannot be empty.
+   * @return The packed statements.
+   */
+  @NonNull
+  protected List<Statement<?>> pack(@NonNull List<BatchableStatement<?>> stmts) {
+    Preconditions.checkArgument(!stmts.isEmpty());
+    if (stmts.size() == 1) {
+      return Collections.singletonList(stmts.get(0));
+    }
+    int maxStatements = maxBatchStatements <= 0 ? Integer.MAX_VALUE : maxBatchStatements;
+    long maxBytes = maxSizeInBytes <= 0 ? Long.MAX_VALUE : maxSizeInBytes;
+    int n = stmts.size();
+    long[] sizes = new long[n];
+    long totalBytes = 0;
+    for (int i = 0; i < n; i++) {
+      sizes[i] = DataSizes.getDataSize(stmts.get(i), protocolVersion, codecRegistry);
+      totalBytes += sizes[i];
+    }
+    long minBins =
+        Math.max(
+            (n + (long) maxStatements - 1) / maxStatements,
+            maxBytes == Long.MAX_VALUE ? 1 : (totalBytes + maxBytes - 1) / maxBytes);
+    int numBins = (int) Math.min(n, Math.max(1, minBins));
+    List<Bin> bins = new ArrayList<>(numBins);
+    PriorityQueue<Bin> open =
+        new PriorityQueue<>(
+            numBins,
+            Comparator.<Bin>comparingLong(bin -> bin.bytes)
+                .thenComparingInt(bin -> bin.children.size()));
+    for (int i = 0; i < numBins; i++) {
+      Bin bin = new Bin();
+      bins.add(bin);
+      open.add(bin);
+    }
+    Integer[] bySizeDesc = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      bySizeDesc[i] = i;
+    }
+    Arrays.sort(bySizeDesc, (i1, i2) -> Long.compare(sizes[i2], sizes[i1]));
+    for (int i : bySizeDesc) {
+      Bin bin = open.poll();
+      if (bin != null && !bin.children.isEmpty() && bin.bytes + sizes[i] > maxBytes) {
+        // the least loaded batch cannot hold this statement, so no batch can
+        open.add(bin);
+        bin = null;
+      }
+      if (bin == null) {
+        bin = new Bin();
+        bins.add(bin);
+      }
+      bin.children.add(stmts.get(i));
+      bin.bytes += sizes[i];
+      if (bin.children.size() < maxStatements) {
+        open.add(bin);
+      }
+    }
+    ImmutableList.Builder<Statement<?>> batches = ImmutableList.builder();
+    for (Bin bin : bins) {
+      if (!bin.children.isEmpty()) {
+        flush(bin.children, batches);
+      }
+    }
+    return batches.build();
+  }
+
   private void flush(
       List<BatchableStatement<?>> current, ImmutableList.Builder<Statement<?>> batches) {
     if (current.size() == 1) {
@@ -302,14 +401,9 @@ public class DefaultStatementBatcher implements StatementBatcher {
         if (keyspace != null) {
           TokenMap tokenMap = session.getMetadata().getTokenMap().orElse(null);
           if (tokenMap != null) {
-            Set<Node> replicas = null;
-            if (routingKey != null) {
-              replicas = tokenMap.getReplicas(keyspace, routingKey);
-            } else if (routingToken != null) {
-              replicas = tokenMap.getReplicas(keyspace, routingToken);
-            }
-            if (replicas != null && !replicas.isEmpty()) {
-              return replicas.hashCode();
+            Object replicaSet = replicaSetKey(tokenMap, keyspace, routingKey, routingToken);
+            if (replicaSet != null) {
+              return replicaSet;
             }
           }
         }
@@ -327,6 +421,37 @@ public class DefaultStatementBatcher implements StatementBatcher {
     return statement;
   }
 
+  /**
+   * Returns the replica set owning the given routing key or routing token, or null if the replica
+   * set is unknown. Replica sets are looked up in an index built once per keyspace and per token
+   * map. The replica set itself is used as the grouping key, so that keys computed for different
+   * keyspaces never collide, unless their replicas are the same.
+   */
+  @Nullable
+  private Object replicaSetKey(
+      @NonNull TokenMap tokenMap,
+      @NonNull CqlIdentifier keyspace,
+      @Nullable ByteBuffer routingKey,
+      @Nullable Token routingToken) {
+    ReplicaSetIndex index = replicaSetIndexes.get(keyspace);
+    if (index == null || index.tokenMap != tokenMap) {
+      index = new ReplicaSetIndex(tokenMap, keyspace);
+      replicaSetIndexes.put(keyspace, index);
+    }
+    if (index.ring.length > 0) {
+      Token token = routingKey != null ? tokenMap.newToken(routingKey) : routingToken;
+      return token == null ? null : index.lookup(token);
+    }
+    // the token map does not expose its ring, look up the replicas directly
+    Set<Node> replicas = null;
+    if (routingKey != null) {
+      replicas = tokenMap.getReplicas(keyspace, routingKey);
+    } else if (routingToken != null) {
+      replicas = tokenMap.getReplicas(keyspace, routingToken);
+    }
+    return replicas == null || replicas.isEmpty() ? null : replicas;
+  }
+
   @Nullable
   private CqlIdentifier getKeyspace(Statement<?> statement) {
     if (statement.getKeyspace() != null) {
@@ -338,6 +463,37 @@ public class DefaultStatementBatcher implements StatementBatcher {
     return session.getKeyspace().orElse(null);
   }
 
+  /**
+   * A predicate that closes windows of statements to {@linkplain #pack(List) pack} when batching an
+   * unbounded stream of statements, so that only a bounded number of statements per group is held
+   * in memory. Windows hold up to {@value #PACKING_WINDOW_BATCHES} batches worth of statements.
+   */
+  protected class PackingWindowPredicate extends AdaptiveSizingBatchPredicate {
+
+    @Override
+    int getMaxBatchStatements() {
+      int max = super.getMaxBatchStatements();
+      return max > Integer.MAX_VALUE / PACKING_WINDOW_BATCHES
+          ? Integer.MAX_VALUE
+          : max * PACKING_WINDOW_BATCHES;
+    }
+
+    @Override
+    long getMaxSizeInBytes() {
+      long max = super.getMaxSizeInBytes();
+      return max > Long.MAX_VALUE / PACKING_WINDOW_BATCHES
+          ? Long.MAX_VALUE
+          : max * PACKING_WINDOW_BATCHES;
+    }
+  }
+
+  /** A batch being packed. */
+  private static class Bin {
+
+    private final List<BatchableStatement<?>> children = new ArrayList<>();
+    private long bytes;
+  }
+
   protected class AdaptiveSizingBatchPredicate implements Predicate<BatchableStatement<?>> {
 
     private int statementsCounter = 0;
@@ -356,6 +512,12 @@ public class DefaultStatementBatcher implements StatementBatcher {
       return shouldFlush;
     }
 
+    /** Resets this predicate, as if no statement had been tested yet. */
+    public void reset() {
+      statementsCounter = 0;
+      bytesInCurrentBatch = 0;
+    }
+
     long calculateSize(@NonNull Statement<?> statement) {
       return DataSizes.getDataSize(statement, protocolVersion, codecRegistry);
     }
@@ -374,4 +536,52 @@ public class DefaultStatementBatcher implements StatementBatcher {
       return maxSizeInBytes;
     }
   }
+
+  /**
+   * An index of the replica sets of a keyspace, designed to allow binary searches by token.
+   *
+   * <p>'ring' stores the start tokens of all ranges, and 'replicaSets' stores the replica set
+   * owning the range ending at the same index, or null if the range has no replicas. Both are
+   * filled so that ring[i] == end of the range owned by replicaSets[i]; the same set instance is
+   * used for all ranges sharing the same replicas. This is the same structure as the one used by
+   * the count workflow to count rows per range and per node.
+   */
+  private static class ReplicaSetIndex {
+
+    private final TokenMap tokenMap;
+    private final Token[] ring;
+    private final List<Set<Node>> replicaSets;
+
+    private ReplicaSetIndex(@NonNull TokenMap tokenMap, @NonNull CqlIdentifier keyspace) {
+      this.tokenMap = tokenMap;
+      Set<TokenRange> ranges = new TreeSet<>(tokenMap.getTokenRanges());
+      ring = new Token[ranges.size()];
+      replicaSets = new ArrayList<>(ranges.size());
+      Map<Token, TokenRange> rangesByEndingToken = new HashMap<>();
+      for (TokenRange range : ranges) {
+        rangesByEndingToken.put(range.getEnd(), range);
+      }
+      Map<Set<Node>, Set<Node>> canonical = new HashMap<>();
+      int i = 0;
+      for (TokenRange r1 : ranges) {
+        ring[i] = r1.getStart();
+        TokenRange r2 = rangesByEndingToken.get(r1.getStart());
+        Set<Node> replicas = tokenMap.getReplicas(keyspace, r2);
+        replicaSets.add(replicas.isEmpty() ? null : canonical.computeIfAbsent(replicas, k -> k));
+        i++;
+      }
+    }
+
+    @Nullable
+    private Set<Node> lookup(@NonNull Token token) {
+      int i = Arrays.binarySearch(ring, token);
+      if (i < 0) {
+        i = -i - 1;
+        if (i >= ring.length) {
+          i = 0;
+        }
+      }
+      return replicaSets.get(i);
+    }
+  }
 }
@@ -18,6 +18,7 @@ package com.datastax.oss.dsbulk.batcher.api;
 import com.datastax.oss.driver.api.core.cql.BatchableStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
 import org.reactivestreams.Publisher;
 
 /**
@@ -45,7 +46,10 @@ public interface ReactiveStatementBatcher extends StatementBatcher {
    *
    * <p>When {@link BatchMode#REPLICA_SET REPLICA_SET} is used, the grouping key is the replica set
    * owning the statement's {@linkplain Statement#getRoutingKey() routing key} or {@linkplain
-   * Statement#getRoutingToken() routing token}, whichever is available.
+   * Statement#getRoutingToken() routing token}, whichever is available. In this mode, statements of
+   * each group are packed into as few batches as possible, of near-equal data sizes. Packing is
+   * done on consecutive windows of a few batches worth of statements per group, so that the given
+   * publisher may be unbounded.
    *
    * @param statements the statements to batch together.
    * @return A {@link Publisher} of batched statements.
@@ -53,6 +57,61 @@ public interface ReactiveStatementBatcher extends StatementBatcher {
   @NonNull
   Publisher<Statement<?>> batchByGroupingKey(@NonNull Publisher<BatchableStatement<?>> statements);
 
+  /**
+   * Batches together the given statements into groups of statements having the same grouping key,
+   * keeping batches open across the whole stream.
+   *
+   * <p>Unlike {@link #batchByGroupingKey(Publisher)}, which expects a bounded chunk of statements,
+   * this method is meant to be applied to an entire, possibly unbounded stream: statements are
+   * added to an open batch for their grouping key as they arrive, and a batch is emitted as soon as
+   * it reaches the maximum number of statements or the maximum data size. Statements for the same
+   * grouping key can thus be batched together even if they are far apart in the stream.
+   *
+   * <p>An open batch is also emitted early if it has been open for longer than {@code maxLinger},
+   * or if the total number of statements held in open batches exceeds {@code
+   * maxBufferedStatements}, in which case the oldest open batch is emitted first. All remaining
+   * open batches are emitted when the upstream publisher completes.
+   *
+   * <p>Note that when a resulting group contains only one statement, this method will not create a
+   * batch statement containing that single statement; instead, it will return that same statement.
+   *
+   * @param statements the statements to batch together.
+   * @param maxBufferedStatements the maximum number of statements to hold in open batches; must be
+   *     strictly positive.
+   * @param maxLinger the maximum amount of time a batch can stay open; zero or negative durations
+   *     disable this limit.
+   * @return A {@link Publisher} of batched statements.
+   */
+  @NonNull
+  Publisher<Statement<?>> batchByGroupingKeyContinuously(
+      @NonNull Publisher<BatchableStatement<?>> statements,
+      int maxBufferedStatements,
+      @NonNull Duration maxLinger);
+
+  /**
+   * Batches together the given statements into groups of consecutive statements having the same
+   * grouping key, assuming that the statements are sorted by grouping key.
+   *
+   * <p>Unlike {@link #batchByGroupingKey(Publisher)}, this method does not group statements: it
+   * only holds the batch being built, and emits it as soon as a statement with a different grouping
+   * key arrives, or when the batch reaches the maximum number of statements or the maximum data
+   * size. Memory usage is thus bounded by the size of one batch, regardless of the size of the
+   * stream.
+   *
+   * <p>If the statements are not sorted, all of them are still emitted, but statements for the same
+   * grouping key that are not adjacent end up in different batches; in the worst case, no batch is
+   * created at all.
+   *
+   * <p>Note that when a resulting group contains only one statement, this method will not create a
+   * batch statement containing that single statement; instead, it will return that same statement.
+   *
+   * @param statements the statements to batch together.
+   * @return A {@link Publisher} of batched statements.
+   */
+  @NonNull
+  Publisher<Statement<?>> batchSortedByGroupingKey(
+      @NonNull Publisher<BatchableStatement<?>> statements);
+
   /**
    * Batches together all the given statements into groups of statements, <em>regardless of their
    * grouping key</em>. Each group size is capped by the maximum number of statements and the
@@ -61,7 +61,8 @@ public interface StatementBatcher {
    *
    * <p>When {@link BatchMode#REPLICA_SET REPLICA_SET} is used, the grouping key is the replica set
    * owning the statement's {@linkplain Statement#getRoutingKey() routing key} or {@linkplain
-   * Statement#getRoutingToken() routing token}, whichever is available.
+   * Statement#getRoutingToken() routing token}, whichever is available. In this mode, statements of
+   * each group are packed into as few batches as possible, of near-equal data sizes.
    *
    * @param statements the statements to batch together.
    * @return A list of batched statements.
@@ -91,7 +92,8 @@ public interface StatementBatcher {
    *
    * <p>When {@link BatchMode#REPLICA_SET REPLICA_SET} is used, the grouping key is the replica set
    * owning the statement's {@linkplain Statement#getRoutingKey() routing key} or {@linkplain
-   * Statement#getRoutingToken() routing token}, whichever is available.
+   * Statement#getRoutingToken() routing token}, whichever is available. In this mode, statements of
+   * each group are packed into as few batches as possible, of near-equal data sizes.
    *
    * @param statements the statements to batch together.
    * @return A list of batched statements.
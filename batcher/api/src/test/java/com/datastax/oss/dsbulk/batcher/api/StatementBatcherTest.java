@@ -26,6 +26,7 @@ import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.data.ByteUtils;
@@ -33,8 +34,14 @@ import com.datastax.oss.driver.api.core.metadata.Metadata;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3TokenRange;
+import com.datastax.oss.driver.shaded.guava.common.base.Strings;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import com.datastax.oss.driver.shaded.guava.common.collect.Sets;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -136,6 +143,102 @@ public class StatementBatcherTest {
         .contains(tuple(stmt1, stmt2, stmt5, stmt6), tuple(stmt3, stmt4));
   }
 
+  @Test
+  void should_batch_by_replica_set_using_token_ring() {
+    assignRoutingKeys();
+    Metadata metadata = mock(Metadata.class);
+    TokenMap tokenMap = mock(TokenMap.class);
+    when(session.getMetadata()).thenReturn(metadata);
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    Murmur3Token t1 = new Murmur3Token(-100);
+    Murmur3Token t2 = new Murmur3Token(0);
+    Murmur3Token t3 = new Murmur3Token(100);
+    TokenRange r1 = new Murmur3TokenRange(t3, t1);
+    TokenRange r2 = new Murmur3TokenRange(t1, t2);
+    TokenRange r3 = new Murmur3TokenRange(t2, t3);
+    when(tokenMap.getTokenRanges()).thenReturn(ImmutableSet.of(r1, r2, r3));
+    when(tokenMap.getReplicas(ks, r1)).thenReturn(replicaSet1);
+    when(tokenMap.getReplicas(ks, r2)).thenReturn(replicaSet2);
+    // equal to replicaSet1, but not the same instance
+    when(tokenMap.getReplicas(ks, r3)).thenReturn(Sets.newHashSet(node1, node2, node3));
+    when(tokenMap.newToken(key1)).thenReturn(new Murmur3Token(-50));
+    when(tokenMap.newToken(key2)).thenReturn(new Murmur3Token(50));
+    when(tokenMap.newToken(key3)).thenReturn(new Murmur3Token(150));
+    StatementBatcher batcher = new DefaultStatementBatcher(session, BatchMode.REPLICA_SET);
+    List<Statement<?>> statements =
+        batcher.batchByGroupingKey(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6);
+    assertThat(statements)
+        .extracting(EXTRACTOR)
+        .containsOnly(tuple(stmt1, stmt2, stmt6), tuple(stmt3, stmt4, stmt5));
+  }
+
+  @Test
+  void should_not_group_different_replica_sets_of_different_keyspaces() {
+    assignRoutingKeys();
+    CqlIdentifier ks2 = CqlIdentifier.fromInternal("ks2");
+    stmt3 = stmt3.setKeyspace(ks2);
+    stmt4 = stmt4.setKeyspace(ks2);
+    Metadata metadata = mock(Metadata.class);
+    TokenMap tokenMap = mock(TokenMap.class);
+    when(session.getMetadata()).thenReturn(metadata);
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    Murmur3Token t1 = new Murmur3Token(-100);
+    Murmur3Token t2 = new Murmur3Token(100);
+    TokenRange r1 = new Murmur3TokenRange(t2, t1);
+    TokenRange r2 = new Murmur3TokenRange(t1, t2);
+    when(tokenMap.getTokenRanges()).thenReturn(ImmutableSet.of(r1, r2));
+    // both keyspaces have one replica set per range, but not the same ones
+    when(tokenMap.getReplicas(ks, r1)).thenReturn(replicaSet1);
+    when(tokenMap.getReplicas(ks, r2)).thenReturn(replicaSet1);
+    when(tokenMap.getReplicas(ks2, r1)).thenReturn(replicaSet2);
+    when(tokenMap.getReplicas(ks2, r2)).thenReturn(replicaSet2);
+    when(tokenMap.newToken(key1)).thenReturn(new Murmur3Token(-50));
+    when(tokenMap.newToken(key2)).thenReturn(new Murmur3Token(50));
+    when(tokenMap.newToken(key3)).thenReturn(new Murmur3Token(150));
+    StatementBatcher batcher = new DefaultStatementBatcher(session, BatchMode.REPLICA_SET);
+    List<Statement<?>> statements =
+        batcher.batchByGroupingKey(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6);
+    assertThat(statements)
+        .extracting(EXTRACTOR)
+        .containsOnly(tuple(stmt1, stmt2, stmt5, stmt6), tuple(stmt3, stmt4));
+  }
+
+  @Test
+  void should_pack_statements_by_replica_set() {
+    assignRoutingKeys();
+    mockSingleReplicaSet();
+    StatementBatcher batcher =
+        new DefaultStatementBatcher(session, BatchMode.REPLICA_SET, DefaultBatchType.UNLOGGED, 4);
+    List<Statement<?>> statements =
+        batcher.batchByGroupingKey(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6);
+    // greedy batching would produce batches of 4 and 2 statements
+    assertThat(statements)
+        .allSatisfy(stmt -> assertThat(stmt).isInstanceOf(BatchStatement.class))
+        .extracting(stmt -> ((BatchStatement) stmt).size())
+        .containsExactly(3, 3);
+  }
+
+  @Test
+  void should_pack_statements_by_replica_set_and_data_size() {
+    List<BatchableStatement<?>> children = new ArrayList<>();
+    for (int size : new int[] {10, 7, 5, 4, 3, 1}) {
+      children.add(
+          SimpleStatement.newInstance("stmt", Strings.repeat("x", size))
+              .setKeyspace(ks)
+              .setRoutingKey(key1));
+    }
+    mockSingleReplicaSet();
+    StatementBatcher batcher =
+        new DefaultStatementBatcher(
+            session, BatchMode.REPLICA_SET, DefaultBatchType.UNLOGGED, 100, 16);
+    List<Statement<?>> statements = batcher.batchByGroupingKey(children);
+    // greedy batching would produce batches of 17 and 13 bytes
+    assertThat(statements)
+        .extracting(
+            stmt -> DataSizes.getDataSize(stmt, ProtocolVersion.DEFAULT, CodecRegistry.DEFAULT))
+        .containsExactly(15L, 15L);
+  }
+
   @Test
   void should_batch_by_replica_set_and_routing_token() {
     assignRoutingTokens();
@@ -323,6 +426,16 @@ public class StatementBatcherTest {
         .contains(tuple(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6));
   }
 
+  protected void mockSingleReplicaSet() {
+    Metadata metadata = mock(Metadata.class);
+    TokenMap tokenMap = mock(TokenMap.class);
+    when(session.getMetadata()).thenReturn(metadata);
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    when(tokenMap.getReplicas(ks, key1)).thenReturn(replicaSet1);
+    when(tokenMap.getReplicas(ks, key2)).thenReturn(replicaSet1);
+    when(tokenMap.getReplicas(ks, key3)).thenReturn(replicaSet1);
+  }
+
   protected void assignRoutingKeys() {
     stmt1 = stmt1.setRoutingKey(key1).setRoutingToken(null);
     stmt2 = stmt2.setRoutingKey(key1).setRoutingToken(null);
@@ -28,13 +28,24 @@ import com.datastax.oss.dsbulk.batcher.api.DefaultStatementBatcher;
 import com.datastax.oss.dsbulk.batcher.api.ReactiveStatementBatcher;
 import com.datastax.oss.dsbulk.batcher.api.ReactiveStatementBatcherFactory;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class ReactorStatementBatcher extends DefaultStatementBatcher
     implements ReactiveStatementBatcher {
 
+  /** Signals the completion of the upstream publisher in continuous mode. */
+  private static final Object END_OF_STREAM = new Object();
+
   /**
    * Creates a new {@link ReactorStatementBatcher} that produces {@linkplain
    * DefaultBatchType#UNLOGGED unlogged} batches, operates in {@linkplain BatchMode#PARTITION_KEY
@@ -173,9 +184,83 @@ public class ReactorStatementBatcher extends DefaultStatementBatcher
   @NonNull
   public Flux<Statement<?>> batchByGroupingKey(
       @NonNull Publisher<BatchableStatement<?>> statements) {
+    if (batchMode == BatchMode.REPLICA_SET) {
+      // statements of a replica set can be spread across many partitions: pack them, one bounded
+      // window at a time, since the stream may be unbounded
+      return Flux.from(statements)
+          .groupBy(this::groupingKey)
+          .flatMap(
+              group ->
+                  group
+                      .windowUntil(new ReactorPackingWindowPredicate(), false)
+                      .concatMap(
+                          window ->
+                              window
+                                  .collectList()
+                                  .filter(stmts -> !stmts.isEmpty())
+                                  .flatMapIterable(this::pack)));
+    }
     return Flux.from(statements).groupBy(this::groupingKey).flatMap(this::batchAll);
   }
 
+  @Override
+  @NonNull
+  public Flux<Statement<?>> batchByGroupingKeyContinuously(
+      @NonNull Publisher<BatchableStatement<?>> statements,
+      int maxBufferedStatements,
+      @NonNull Duration maxLinger) {
+    if (maxBufferedStatements <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting maximum buffered statements to be strictly positive, got: "
+              + maxBufferedStatements);
+    }
+    return Flux.defer(
+        () -> {
+          OpenBatches batches = new OpenBatches(maxBufferedStatements, maxLinger);
+          Flux<Object> signals = Flux.concat(statements, Mono.just(END_OF_STREAM));
+          if (!maxLinger.isNegative() && !maxLinger.isZero()) {
+            // check for expired batches twice per linger period
+            Duration period = maxLinger.dividedBy(2);
+            if (period.isZero()) {
+              period = Duration.ofNanos(1);
+            }
+            // ticks are dropped when downstream is not ready to receive them
+            signals =
+                Flux.merge(signals, Flux.interval(period, period).onBackpressureDrop())
+                    .takeUntil(signal -> signal == END_OF_STREAM);
+          }
+          return signals.concatMapIterable(
+              signal -> {
+                if (signal == END_OF_STREAM) {
+                  return batches.flushAll();
+                } else if (signal instanceof Long) {
+                  return batches.flushExpired();
+                } else {
+                  return batches.add((BatchableStatement<?>) signal);
+                }
+              });
+        });
+  }
+
+  @Override
+  @NonNull
+  public Flux<Statement<?>> batchSortedByGroupingKey(
+      @NonNull Publisher<BatchableStatement<?>> statements) {
+    return Flux.defer(
+        () -> {
+          CurrentBatch batch = new CurrentBatch();
+          return Flux.from(statements)
+              .<Statement<?>>handle(
+                  (statement, sink) -> {
+                    Statement<?> closed = batch.add(statement);
+                    if (closed != null) {
+                      sink.next(closed);
+                    }
+                  })
+              .concatWith(Mono.fromSupplier(batch::close));
+        });
+  }
+
   @Override
   @NonNull
   public Flux<Statement<?>> batchAll(@NonNull Publisher<BatchableStatement<?>> statements) {
@@ -198,4 +283,126 @@ public class ReactorStatementBatcher extends DefaultStatementBatcher
   }
 
   private class ReactorAdaptiveSizingBatchPredicate extends AdaptiveSizingBatchPredicate {}
+
+  private class ReactorPackingWindowPredicate extends PackingWindowPredicate {}
+
+  /** The batch being built from a stream of statements sorted by grouping key. */
+  private class CurrentBatch {
+
+    private final List<BatchableStatement<?>> children = new ArrayList<>();
+    private final AdaptiveSizingBatchPredicate shouldFlush =
+        new ReactorAdaptiveSizingBatchPredicate();
+    private Object key;
+    private boolean full;
+
+    /**
+     * Adds the given statement, and returns the batch that it closed, if any. A full batch is only
+     * closed when the next statement arrives, so that at most one batch is closed per statement.
+     */
+    @Nullable
+    private Statement<?> add(BatchableStatement<?> statement) {
+      Object key = groupingKey(statement);
+      Statement<?> closed = null;
+      if (full || (!children.isEmpty() && !key.equals(this.key))) {
+        closed = close();
+      }
+      this.key = key;
+      children.add(statement);
+      full = shouldFlush.test(statement);
+      return closed;
+    }
+
+    /** Closes the batch being built, and returns it, or null if it was empty. */
+    @Nullable
+    private Statement<?> close() {
+      Statement<?> batch;
+      if (children.isEmpty()) {
+        batch = null;
+      } else if (children.size() == 1) {
+        batch = children.get(0);
+      } else {
+        // the batch copies its children, so the list can be reused
+        batch = BatchStatement.newInstance(batchType, children);
+      }
+      children.clear();
+      shouldFlush.reset();
+      full = false;
+      return batch;
+    }
+  }
+
+  /** The open batches of a continuous stream of statements, in creation order. */
+  private class OpenBatches {
+
+    private final Map<Object, OpenBatch> batches = new LinkedHashMap<>();
+    private final int maxBufferedStatements;
+    private final long maxLingerNanos;
+    private int buffered;
+
+    private OpenBatches(int maxBufferedStatements, Duration maxLinger) {
+      this.maxBufferedStatements = maxBufferedStatements;
+      this.maxLingerNanos = maxLinger.toNanos();
+    }
+
+    private List<Statement<?>> add(BatchableStatement<?> statement) {
+      Object key = groupingKey(statement);
+      OpenBatch batch = batches.get(key);
+      if (batch == null) {
+        batch = new OpenBatch();
+        batches.put(key, batch);
+      }
+      batch.children.add(statement);
+      buffered++;
+      if (batch.shouldFlush.test(statement)) {
+        batches.remove(key);
+        return Collections.singletonList(close(batch));
+      }
+      if (buffered > maxBufferedStatements) {
+        Iterator<OpenBatch> it = batches.values().iterator();
+        OpenBatch oldest = it.next();
+        it.remove();
+        return Collections.singletonList(close(oldest));
+      }
+      return Collections.emptyList();
+    }
+
+    private List<Statement<?>> flushExpired() {
+      long now = System.nanoTime();
+      List<Statement<?>> expired = new ArrayList<>();
+      for (Iterator<OpenBatch> it = batches.values().iterator(); it.hasNext(); ) {
+        OpenBatch batch = it.next();
+        if (now - batch.createdNanos < maxLingerNanos) {
+          // batches are iterated in creation order, so the remaining ones are not expired either
+          break;
+        }
+        it.remove();
+        expired.add(close(batch));
+      }
+      return expired;
+    }
+
+    private List<Statement<?>> flushAll() {
+      List<Statement<?>> all = new ArrayList<>(batches.size());
+      for (OpenBatch batch : batches.values()) {
+        all.add(close(batch));
+      }
+      batches.clear();
+      return all;
+    }
+
+    private Statement<?> close(OpenBatch batch) {
+      buffered -= batch.children.size();
+      return batch.children.size() == 1
+          ? batch.children.get(0)
+          : BatchStatement.newInstance(batchType, batch.children);
+    }
+  }
+
+  private class OpenBatch {
+
+    private final List<BatchableStatement<?>> children = new ArrayList<>();
+    private final AdaptiveSizingBatchPredicate shouldFlush =
+        new ReactorAdaptiveSizingBatchPredicate();
+    private final long createdNanos = System.nanoTime();
+  }
 }
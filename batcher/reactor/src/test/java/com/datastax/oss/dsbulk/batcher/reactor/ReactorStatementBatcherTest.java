@@ -21,12 +21,16 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
 import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.dsbulk.batcher.api.BatchMode;
 import com.datastax.oss.dsbulk.batcher.api.StatementBatcherTest;
+import java.time.Duration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
@@ -73,6 +77,35 @@ class ReactorStatementBatcherTest extends StatementBatcherTest {
         .contains(tuple(stmt1, stmt2, stmt5, stmt6), tuple(stmt3, stmt4));
   }
 
+  @Test
+  void should_pack_statements_by_replica_set_reactive() {
+    assignRoutingKeys();
+    mockSingleReplicaSet();
+    ReactorStatementBatcher batcher =
+        new ReactorStatementBatcher(session, BatchMode.REPLICA_SET, DefaultBatchType.UNLOGGED, 4);
+    Flux<Statement<?>> statements =
+        Flux.from(batcher.batchByGroupingKey(Flux.just(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6)));
+    assertThat(statements.collectList().block())
+        .extracting(stmt -> ((BatchStatement) stmt).size())
+        .containsExactly(3, 3);
+  }
+
+  @Test
+  void should_pack_unbounded_stream_by_replica_set_reactive() {
+    assignRoutingKeys();
+    mockSingleReplicaSet();
+    ReactorStatementBatcher batcher =
+        new ReactorStatementBatcher(session, BatchMode.REPLICA_SET, DefaultBatchType.UNLOGGED, 2);
+    Flux<BatchableStatement<?>> unbounded =
+        Flux.<BatchableStatement<?>>just(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6).repeat();
+    // a window holds 8 batches of 2 statements
+    List<Statement<?>> statements =
+        batcher.batchByGroupingKey(unbounded).take(8).collectList().block();
+    assertThat(statements)
+        .extracting(stmt -> ((BatchStatement) stmt).size())
+        .containsExactly(2, 2, 2, 2, 2, 2, 2, 2);
+  }
+
   @Test
   void should_batch_by_replica_set_and_routing_token_reactive() {
     assignRoutingTokens();
@@ -244,4 +277,86 @@ class ReactorStatementBatcherTest extends StatementBatcherTest {
         .extracting(EXTRACTOR)
         .contains(tuple(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6));
   }
+
+  @Test
+  void should_batch_by_routing_key_continuously() {
+    assignRoutingKeys();
+    ReactorStatementBatcher batcher = new ReactorStatementBatcher();
+    Flux<Statement<?>> statements =
+        batcher.batchByGroupingKeyContinuously(
+            Flux.just(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6), 100, Duration.ZERO);
+    assertThat(statements.collectList().block())
+        .extracting(EXTRACTOR)
+        .containsExactly(tuple(stmt1, stmt2, stmt6), tuple(stmt3, stmt4), tuple(stmt5));
+  }
+
+  @Test
+  void should_honor_max_batch_statements_continuously() {
+    assignRoutingKeys();
+    ReactorStatementBatcher batcher = new ReactorStatementBatcher(2);
+    Flux<Statement<?>> statements =
+        batcher.batchByGroupingKeyContinuously(
+            Flux.just(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6), 100, Duration.ZERO);
+    assertThat(statements.collectList().block())
+        .extracting(EXTRACTOR)
+        .containsExactly(tuple(stmt1, stmt2), tuple(stmt3, stmt4), tuple(stmt5), tuple(stmt6));
+  }
+
+  @Test
+  void should_flush_oldest_batch_when_max_buffered_statements_exceeded() {
+    assignRoutingKeys();
+    ReactorStatementBatcher batcher = new ReactorStatementBatcher();
+    Flux<Statement<?>> statements =
+        batcher.batchByGroupingKeyContinuously(
+            Flux.just(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6), 2, Duration.ZERO);
+    assertThat(statements.collectList().block())
+        .extracting(EXTRACTOR)
+        .containsExactly(tuple(stmt1, stmt2), tuple(stmt3, stmt4), tuple(stmt5), tuple(stmt6));
+  }
+
+  @Test
+  void should_flush_batch_when_max_linger_elapsed() {
+    assignRoutingKeys();
+    ReactorStatementBatcher batcher = new ReactorStatementBatcher();
+    Flux<BatchableStatement<?>> neverEnding =
+        Flux.<BatchableStatement<?>>just(stmt1, stmt2).concatWith(Flux.never());
+    Flux<Statement<?>> statements =
+        batcher.batchByGroupingKeyContinuously(neverEnding, 100, Duration.ofMillis(50));
+    assertThat(statements.blockFirst(Duration.ofSeconds(5)))
+        .extracting(EXTRACTOR)
+        .isEqualTo(tuple(stmt1, stmt2));
+  }
+
+  @Test
+  void should_batch_sorted_statements_by_routing_key() {
+    assignRoutingKeys();
+    ReactorStatementBatcher batcher = new ReactorStatementBatcher();
+    Flux<Statement<?>> statements =
+        batcher.batchSortedByGroupingKey(Flux.just(stmt1, stmt2, stmt6, stmt3, stmt4, stmt5));
+    assertThat(statements.collectList().block())
+        .extracting(EXTRACTOR)
+        .containsExactly(tuple(stmt1, stmt2, stmt6), tuple(stmt3, stmt4), tuple(stmt5));
+  }
+
+  @Test
+  void should_honor_max_batch_statements_when_batching_sorted_statements() {
+    assignRoutingKeys();
+    ReactorStatementBatcher batcher = new ReactorStatementBatcher(2);
+    Flux<Statement<?>> statements =
+        batcher.batchSortedByGroupingKey(Flux.just(stmt1, stmt2, stmt6, stmt3, stmt4, stmt5));
+    assertThat(statements.collectList().block())
+        .extracting(EXTRACTOR)
+        .containsExactly(tuple(stmt1, stmt2), tuple(stmt6), tuple(stmt3, stmt4), tuple(stmt5));
+  }
+
+  @Test
+  void should_batch_adjacent_statements_only_when_not_sorted() {
+    assignRoutingKeys();
+    ReactorStatementBatcher batcher = new ReactorStatementBatcher();
+    Flux<Statement<?>> statements =
+        batcher.batchSortedByGroupingKey(Flux.just(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6));
+    assertThat(statements.collectList().block())
+        .extracting(EXTRACTOR)
+        .containsExactly(tuple(stmt1, stmt2), tuple(stmt3, stmt4), tuple(stmt5), tuple(stmt6));
+  }
 }
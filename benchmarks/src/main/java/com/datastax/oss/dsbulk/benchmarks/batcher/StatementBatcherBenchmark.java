@@ -0,0 +1,110 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.batcher;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
+import com.datastax.oss.dsbulk.batcher.api.BatchMode;
+import com.datastax.oss.dsbulk.batcher.api.DefaultStatementBatcher;
+import com.datastax.oss.dsbulk.batcher.reactor.ReactorStatementBatcher;
+import com.datastax.oss.dsbulk.benchmarks.utils.SyntheticTable;
+import com.datastax.oss.dsbulk.tests.driver.DriverUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+/**
+ * Measures the cost of grouping statements by partition key and batching them with {@link
+ * DefaultStatementBatcher} and {@link ReactorStatementBatcher}.
+ *
+ * <p>As in the load workflow, statements are first buffered in chunks of 4 times the maximum number
+ * of statements per batch, then each chunk is batched. The number of distinct partitions controls
+ * how many statements end up in each batch: 1 partition yields full batches, while 10,000
+ * partitions yield mostly unbatched statements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(StatementBatcherBenchmark.STATEMENTS)
+public class StatementBatcherBenchmark {
+
+  static final int STATEMENTS = 10_000;
+
+  private static final int MAX_BATCH_STATEMENTS = 32;
+
+  private static final int BUFFER_SIZE = 4 * MAX_BATCH_STATEMENTS;
+
+  @Param({"1", "10", "10000"})
+  private int partitions;
+
+  private DefaultStatementBatcher defaultBatcher;
+
+  private ReactorStatementBatcher reactorBatcher;
+
+  private List<BatchableStatement<?>> statements;
+
+  private List<List<BatchableStatement<?>>> chunks;
+
+  @Setup
+  public void setup() {
+    // the session is only used to retrieve the protocol version and the codec registry
+    CqlSession session = DriverUtils.mockSession();
+    defaultBatcher =
+        new DefaultStatementBatcher(
+            session, BatchMode.PARTITION_KEY, DefaultBatchType.UNLOGGED, MAX_BATCH_STATEMENTS);
+    reactorBatcher =
+        new ReactorStatementBatcher(
+            session, BatchMode.PARTITION_KEY, DefaultBatchType.UNLOGGED, MAX_BATCH_STATEMENTS);
+    statements =
+        new ArrayList<>(new SyntheticTable(partitions).generateBoundStatements(STATEMENTS));
+    chunks = Lists.partition(statements, BUFFER_SIZE);
+  }
+
+  @Benchmark
+  public void defaultBatcher(Blackhole bh) {
+    for (List<BatchableStatement<?>> chunk : chunks) {
+      bh.consume(defaultBatcher.batchByGroupingKey(chunk));
+    }
+  }
+
+  @Benchmark
+  public void reactorBatcher(Blackhole bh) {
+    Flux.fromIterable(statements)
+        .window(BUFFER_SIZE)
+        .flatMap(reactorBatcher::batchByGroupingKey)
+        .doOnNext(bh::consume)
+        .blockLast();
+  }
+}
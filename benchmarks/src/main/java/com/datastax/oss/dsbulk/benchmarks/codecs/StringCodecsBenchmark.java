@@ -0,0 +1,143 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.codecs;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
+import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of converting strings to and from CQL values with the {@code StringTo*Codec}
+ * family of codecs, using the default text conversion settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(StringCodecsBenchmark.VALUES)
+public class StringCodecsBenchmark {
+
+  static final int VALUES = 1000;
+
+  @Param({"int", "bigint", "double", "decimal", "boolean", "text", "timestamp", "uuid"})
+  private String cqlType;
+
+  private ConvertingCodec<String, Object> codec;
+
+  private String[] strings;
+
+  private ByteBuffer[] bytes;
+
+  @Setup
+  public void setup() {
+    ConvertingCodecFactory codecFactory = new ConvertingCodecFactory(new TextConversionContext());
+    codec = codecFactory.createConvertingCodec(dataType(cqlType), GenericType.STRING, true);
+    Random random = new Random(42);
+    strings = new String[VALUES];
+    bytes = new ByteBuffer[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      strings[i] = randomValue(cqlType, random);
+      bytes[i] = codec.encode(strings[i], ProtocolVersion.DEFAULT);
+    }
+  }
+
+  /** Converts strings to serialized CQL values, as done when loading. */
+  @Benchmark
+  public void encode(Blackhole bh) {
+    for (String s : strings) {
+      bh.consume(codec.encode(s, ProtocolVersion.DEFAULT));
+    }
+  }
+
+  /** Converts serialized CQL values to strings, as done when unloading. */
+  @Benchmark
+  public void decode(Blackhole bh) {
+    for (ByteBuffer bb : bytes) {
+      bh.consume(codec.decode(bb.duplicate(), ProtocolVersion.DEFAULT));
+    }
+  }
+
+  private static DataType dataType(String cqlType) {
+    switch (cqlType) {
+      case "int":
+        return DataTypes.INT;
+      case "bigint":
+        return DataTypes.BIGINT;
+      case "double":
+        return DataTypes.DOUBLE;
+      case "decimal":
+        return DataTypes.DECIMAL;
+      case "boolean":
+        return DataTypes.BOOLEAN;
+      case "text":
+        return DataTypes.TEXT;
+      case "timestamp":
+        return DataTypes.TIMESTAMP;
+      case "uuid":
+        return DataTypes.UUID;
+      default:
+        throw new IllegalArgumentException("Unsupported CQL type: " + cqlType);
+    }
+  }
+
+  private static String randomValue(String cqlType, Random random) {
+    switch (cqlType) {
+      case "int":
+        return String.valueOf(random.nextInt());
+      case "bigint":
+        return String.valueOf(random.nextLong());
+      case "double":
+        return String.valueOf(random.nextDouble() * 1_000_000);
+      case "decimal":
+        return BigDecimal.valueOf(random.nextLong(), 4).toPlainString();
+      case "boolean":
+        return String.valueOf(random.nextBoolean());
+      case "text":
+        return Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+      case "timestamp":
+        return Instant.ofEpochMilli(random.nextLong() >>> 24).toString();
+      case "uuid":
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+      default:
+        throw new IllegalArgumentException("Unsupported CQL type: " + cqlType);
+    }
+  }
+}
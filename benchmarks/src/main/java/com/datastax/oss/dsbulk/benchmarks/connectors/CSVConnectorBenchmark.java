@@ -0,0 +1,98 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.connectors;
+
+import com.datastax.oss.dsbulk.benchmarks.utils.SyntheticTable;
+import com.datastax.oss.dsbulk.connectors.csv.CSVConnector;
+import com.datastax.oss.dsbulk.tests.utils.StringUtils;
+import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
+import com.typesafe.config.Config;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+/**
+ * Measures the cost of reading and parsing CSV records with the {@link CSVConnector}.
+ *
+ * <p>The file is generated once per trial and is small enough to stay in the OS page cache, so this
+ * benchmark mostly measures parsing and record creation, not disk access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(CSVConnectorBenchmark.RECORDS)
+public class CSVConnectorBenchmark {
+
+  static final int RECORDS = 10_000;
+
+  @Param({"true", "false"})
+  private boolean header;
+
+  private Path file;
+
+  private CSVConnector connector;
+
+  @Setup
+  public void setup() throws IOException, URISyntaxException {
+    file = Files.createTempFile("dsbulk-benchmark", ".csv");
+    String csv = new SyntheticTable(1000).generateCsv(RECORDS);
+    Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+    connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.csv",
+            "url",
+            StringUtils.quoteJson(file.toUri().toString()),
+            "header",
+            header,
+            "skipRecords",
+            header ? 0 : 1);
+    connector.configure(settings, true, false);
+    connector.init();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    connector.close();
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public void read(Blackhole bh) {
+    Flux.merge(connector.read()).doOnNext(bh::consume).blockLast();
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.executor;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
+import com.datastax.oss.dsbulk.executor.reactor.DefaultReactorBulkExecutor;
+import com.datastax.oss.dsbulk.tests.driver.MockAsyncResultSet;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares the cost of executing writes by flat-mapping each statement to its own publisher, with
+ * the cost of executing them through a single {@link
+ * com.datastax.oss.dsbulk.executor.api.publisher.BulkWriteResultPublisher
+ * BulkWriteResultPublisher}.
+ *
+ * <p>The session completes all requests immediately, so this benchmark only measures the executor's
+ * own overhead. Run it with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(WriteExecutorBenchmark.STATEMENTS)
+public class WriteExecutorBenchmark {
+
+  static final int STATEMENTS = 10_000;
+
+  private static final int CONCURRENCY = 256;
+
+  @Param({"false", "true"})
+  private boolean withListener;
+
+  private DefaultReactorBulkExecutor executor;
+
+  private List<Statement<?>> statements;
+
+  @Setup
+  public void setup() {
+    CqlSession session = newSession();
+    executor =
+        DefaultReactorBulkExecutor.builder(session)
+            .withExecutionListener(withListener ? new MetricsCollectingExecutionListener() : null)
+            .withMaxInFlightRequests(1024)
+            .withMaxRequestsPerSecond(-1)
+            .build();
+    statements = new ArrayList<>(STATEMENTS);
+    for (int i = 0; i < STATEMENTS; i++) {
+      statements.add(SimpleStatement.newInstance("INSERT INTO ks.t (pk, v) VALUES (?, ?)", i, i));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.close();
+  }
+
+  @Benchmark
+  public void flatMap(Blackhole bh) {
+    Flux.fromIterable(statements)
+        .flatMap(executor::writeReactive, CONCURRENCY)
+        .doOnNext(bh::consume)
+        .blockLast();
+  }
+
+  @Benchmark
+  public void bulkWrite(Blackhole bh) {
+    executor
+        .writeReactive(Flux.fromIterable(statements), CONCURRENCY)
+        .doOnNext(bh::consume)
+        .blockLast();
+  }
+
+  /** Creates a session that completes all requests immediately and successfully. */
+  private static CqlSession newSession() {
+    CompletableFuture<AsyncResultSet> response =
+        CompletableFuture.completedFuture(new MockAsyncResultSet(0, null, null));
+    return (CqlSession)
+        Proxy.newProxyInstance(
+            WriteExecutorBenchmark.class.getClassLoader(),
+            new Class<?>[] {CqlSession.class},
+            (proxy, method, args) -> {
+              if (method.getName().equals("executeAsync")) {
+                return response;
+              }
+              throw new UnsupportedOperationException(method.getName());
+            });
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.sampler;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.dsbulk.benchmarks.utils.SyntheticTable;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures the cost of computing data sizes with {@link DataSizes}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(DataSizesBenchmark.ELEMENTS)
+public class DataSizesBenchmark {
+
+  static final int ELEMENTS = 10_240;
+
+  private static final int BATCH_SIZE = 32;
+
+  private List<BoundStatement> statements;
+
+  private BatchStatement[] batches;
+
+  private List<Row> rows;
+
+  @Setup
+  public void setup() {
+    SyntheticTable table = new SyntheticTable(1000);
+    statements = table.generateBoundStatements(ELEMENTS);
+    rows = table.generateRows(ELEMENTS);
+    batches = new BatchStatement[ELEMENTS / BATCH_SIZE];
+    for (int i = 0; i < batches.length; i++) {
+      batches[i] =
+          BatchStatement.newInstance(DefaultBatchType.UNLOGGED)
+              .addAll(statements.subList(i * BATCH_SIZE, (i + 1) * BATCH_SIZE));
+    }
+  }
+
+  @Benchmark
+  public void boundStatement(Blackhole bh) {
+    for (BoundStatement statement : statements) {
+      bh.consume(DataSizes.getDataSize(statement, ProtocolVersion.DEFAULT, CodecRegistry.DEFAULT));
+    }
+  }
+
+  /** Each batch contains 32 statements; the score is expressed in statements per second. */
+  @Benchmark
+  public void batchStatement(Blackhole bh) {
+    for (BatchStatement batch : batches) {
+      bh.consume(DataSizes.getDataSize(batch, ProtocolVersion.DEFAULT, CodecRegistry.DEFAULT));
+    }
+  }
+
+  @Benchmark
+  public void row(Blackhole bh) {
+    for (Row row : rows) {
+      bh.consume(DataSizes.getDataSize(row));
+    }
+  }
+}
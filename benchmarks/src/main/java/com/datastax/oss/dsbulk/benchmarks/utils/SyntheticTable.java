@@ -0,0 +1,278 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.utils;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.DefaultPreparedStatement;
+import com.datastax.oss.driver.internal.core.cql.DefaultRow;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSetMultimap;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * A synthetic table used by benchmarks, and a generator of random data for it.
+ *
+ * <p>The table has the following schema:
+ *
+ * <pre>{@code
+ * CREATE TABLE ks1.table1 (
+ *   pk int, cc bigint, name text, score double, created timestamp, id uuid,
+ *   PRIMARY KEY (pk, cc))
+ * }</pre>
+ *
+ * All driver objects created by this class are regular driver objects, and not mocks, so that
+ * benchmarks measure realistic costs. Data is generated with a fixed seed, so that runs are
+ * reproducible.
+ */
+public class SyntheticTable {
+
+  public static final String KEYSPACE = "ks1";
+
+  public static final String TABLE = "table1";
+
+  public static final String INSERT_QUERY =
+      "INSERT INTO ks1.table1 (pk, cc, name, score, created, id) VALUES (?, ?, ?, ?, ?, ?)";
+
+  public static final ImmutableList<String> COLUMNS =
+      ImmutableList.of("pk", "cc", "name", "score", "created", "id");
+
+  public static final ImmutableSet<CQLWord> PARTITION_KEY =
+      ImmutableSet.of(CQLWord.fromInternal("pk"));
+
+  public static final ImmutableSet<CQLWord> CLUSTERING_COLUMNS =
+      ImmutableSet.of(CQLWord.fromInternal("cc"));
+
+  private static final ImmutableList<Integer> TYPES =
+      ImmutableList.of(
+          ProtocolConstants.DataType.INT,
+          ProtocolConstants.DataType.BIGINT,
+          ProtocolConstants.DataType.VARCHAR,
+          ProtocolConstants.DataType.DOUBLE,
+          ProtocolConstants.DataType.TIMESTAMP,
+          ProtocolConstants.DataType.UUID);
+
+  private static final long SEED = 42L;
+
+  private final int partitions;
+  private final ColumnDefinitions definitions;
+  private final PreparedStatement insertStatement;
+
+  /**
+   * Creates a new table.
+   *
+   * @param partitions The number of distinct partition keys that generated rows will spread over.
+   */
+  public SyntheticTable(int partitions) {
+    this.partitions = partitions;
+    List<ColumnDefinition> defs = new ArrayList<>(COLUMNS.size());
+    for (int i = 0; i < COLUMNS.size(); i++) {
+      ColumnSpec spec =
+          new ColumnSpec(KEYSPACE, TABLE, COLUMNS.get(i), i, RawType.PRIMITIVES.get(TYPES.get(i)));
+      defs.add(new DefaultColumnDefinition(spec, AttachmentPoint.NONE));
+    }
+    definitions = DefaultColumnDefinitions.valueOf(defs);
+    insertStatement =
+        new DefaultPreparedStatement(
+            ByteBuffer.wrap(new byte[] {1, 2, 3, 4}),
+            INSERT_QUERY,
+            definitions,
+            Collections.singletonList(0),
+            null,
+            DefaultColumnDefinitions.valueOf(Collections.emptyList()),
+            CqlIdentifier.fromInternal(KEYSPACE),
+            Collections.emptyMap(),
+            null,
+            null,
+            null,
+            null,
+            null,
+            Collections.emptyMap(),
+            null,
+            null,
+            null,
+            Integer.MIN_VALUE,
+            null,
+            null,
+            false,
+            CodecRegistry.DEFAULT,
+            ProtocolVersion.DEFAULT);
+  }
+
+  /** @return the definitions of all the columns of this table. */
+  @NonNull
+  public ColumnDefinitions getColumnDefinitions() {
+    return definitions;
+  }
+
+  /** @return an INSERT statement prepared against this table, binding all its columns. */
+  @NonNull
+  public PreparedStatement getInsertStatement() {
+    return insertStatement;
+  }
+
+  /**
+   * @return fields named after the columns of this table, in the same order, e.g. to map CSV header
+   *     fields.
+   */
+  @NonNull
+  public Field[] getFields() {
+    return COLUMNS.stream().map(DefaultMappedField::new).toArray(Field[]::new);
+  }
+
+  /** @return a multimap of fields to variables, mapping each field to the column of same name. */
+  @NonNull
+  public ImmutableSetMultimap<Field, CQLWord> getFieldsToVariables() {
+    ImmutableSetMultimap.Builder<Field, CQLWord> builder = ImmutableSetMultimap.builder();
+    for (Field field : getFields()) {
+      builder.put(field, CQLWord.fromInternal(field.toString()));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Generates rows of random values, as Java objects.
+   *
+   * @param count The number of rows to generate.
+   * @return The generated rows.
+   */
+  @NonNull
+  public List<Object[]> generateValues(int count) {
+    Random random = new Random(SEED);
+    long now = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+    List<Object[]> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(
+          new Object[] {
+            random.nextInt(partitions),
+            (long) i,
+            randomText(random),
+            random.nextDouble() * 1000,
+            Instant.ofEpochMilli(now - random.nextInt(Integer.MAX_VALUE)),
+            new UUID(random.nextLong(), random.nextLong())
+          });
+    }
+    return rows;
+  }
+
+  /**
+   * Generates rows of random values, formatted as strings in a way that the default text codecs can
+   * parse.
+   *
+   * @param count The number of rows to generate.
+   * @return The generated rows.
+   */
+  @NonNull
+  public List<String[]> generateStrings(int count) {
+    List<String[]> rows = new ArrayList<>(count);
+    for (Object[] values : generateValues(count)) {
+      rows.add(Arrays.stream(values).map(String::valueOf).toArray(String[]::new));
+    }
+    return rows;
+  }
+
+  /**
+   * Generates CSV text with a header line and random values.
+   *
+   * @param count The number of lines to generate, excluding the header.
+   * @return The generated CSV text.
+   */
+  @NonNull
+  public String generateCsv(int count) {
+    StringBuilder sb = new StringBuilder(count * 128);
+    sb.append(String.join(",", COLUMNS)).append('\n');
+    for (String[] values : generateStrings(count)) {
+      // name is the only field that may contain spaces, quote it
+      values[2] = '"' + values[2] + '"';
+      sb.append(String.join(",", values)).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Generates bound statements with random values.
+   *
+   * @param count The number of statements to generate.
+   * @return The generated statements.
+   */
+  @NonNull
+  public List<BoundStatement> generateBoundStatements(int count) {
+    List<BoundStatement> statements = new ArrayList<>(count);
+    for (Object[] values : generateValues(count)) {
+      statements.add(insertStatement.bind(values));
+    }
+    return statements;
+  }
+
+  /**
+   * Generates rows with random values, as if they were returned by a SELECT query retrieving all
+   * the columns of this table.
+   *
+   * @param count The number of rows to generate.
+   * @return The generated rows.
+   */
+  @NonNull
+  public List<Row> generateRows(int count) {
+    List<Row> rows = new ArrayList<>(count);
+    ProtocolVersion version = ProtocolVersion.DEFAULT;
+    for (Object[] values : generateValues(count)) {
+      List<ByteBuffer> data = new ArrayList<>(values.length);
+      data.add(TypeCodecs.INT.encode((Integer) values[0], version));
+      data.add(TypeCodecs.BIGINT.encode((Long) values[1], version));
+      data.add(TypeCodecs.TEXT.encode((String) values[2], version));
+      data.add(TypeCodecs.DOUBLE.encode((Double) values[3], version));
+      data.add(TypeCodecs.TIMESTAMP.encode((Instant) values[4], version));
+      data.add(TypeCodecs.UUID.encode((UUID) values[5], version));
+      rows.add(new DefaultRow(definitions, data));
+    }
+    return rows;
+  }
+
+  private static String randomText(Random random) {
+    int length = 8 + random.nextInt(24);
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      int c = random.nextInt(27);
+      sb.append(c == 26 ? ' ' : (char) ('a' + c));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.workflow;
+
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.dsbulk.benchmarks.utils.SyntheticTable;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
+import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
+import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.mapping.DefaultMapping;
+import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultMapper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of mapping rows to textual records with {@link DefaultReadResultMapper}, as
+ * done when unloading data to CSV.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(ReadResultMapperBenchmark.ROWS)
+public class ReadResultMapperBenchmark {
+
+  static final int ROWS = 10_000;
+
+  private ReadResultMapper mapper;
+
+  private List<ReadResult> results;
+
+  @Setup
+  public void setup() {
+    SyntheticTable table = new SyntheticTable(1000);
+    ConvertingCodecFactory codecFactory = new ConvertingCodecFactory(new TextConversionContext());
+    DefaultMapping mapping =
+        new DefaultMapping(table.getFieldsToVariables(), codecFactory, ImmutableSet.of());
+    mapper =
+        new DefaultReadResultMapper(
+            mapping, (field, cqlType) -> GenericType.STRING, URI.create("cql://ks1/table1"), false);
+    Statement<?> statement = SimpleStatement.newInstance("SELECT * FROM ks1.table1");
+    List<Row> rows = table.generateRows(ROWS);
+    results =
+        rows.stream()
+            .map(row -> new DefaultReadResult(statement, null, row))
+            .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public void map(Blackhole bh) {
+    for (ReadResult result : results) {
+      bh.consume(mapper.map(result));
+    }
+  }
+}
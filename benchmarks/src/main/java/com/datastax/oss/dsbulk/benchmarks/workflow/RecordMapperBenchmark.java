@@ -0,0 +1,100 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.workflow;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.dsbulk.benchmarks.utils.SyntheticTable;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
+import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.mapping.DefaultMapping;
+import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultRecordMapper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of mapping textual records to bound statements with {@link
+ * DefaultRecordMapper}, as done when loading CSV data.
+ *
+ * <p>Since the mapper clears the records it maps, records are re-created at each invocation; the
+ * cost of creating them is included in the results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(RecordMapperBenchmark.RECORDS)
+public class RecordMapperBenchmark {
+
+  static final int RECORDS = 10_000;
+
+  private static final URI RESOURCE = URI.create("file://benchmark.csv");
+
+  private RecordMapper mapper;
+
+  private Field[] fields;
+
+  private List<String[]> values;
+
+  @Setup
+  public void setup() {
+    SyntheticTable table = new SyntheticTable(1000);
+    ConvertingCodecFactory codecFactory = new ConvertingCodecFactory(new TextConversionContext());
+    DefaultMapping mapping =
+        new DefaultMapping(table.getFieldsToVariables(), codecFactory, ImmutableSet.of());
+    mapper =
+        new DefaultRecordMapper(
+            table.getInsertStatement(),
+            SyntheticTable.PARTITION_KEY,
+            SyntheticTable.CLUSTERING_COLUMNS,
+            ProtocolVersion.DEFAULT,
+            mapping,
+            (field, cqlType) -> GenericType.STRING,
+            true,
+            false,
+            false);
+    fields = table.getFields();
+    values = table.generateStrings(RECORDS);
+  }
+
+  @Benchmark
+  public void map(Blackhole bh) {
+    for (int i = 0; i < RECORDS; i++) {
+      Record record = DefaultRecord.mapped(null, RESOURCE, i, fields, (Object[]) values.get(i));
+      bh.consume(mapper.map(record));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.api;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+
+/**
+ * A codec that can encode some external values straight to their binary form, without creating the
+ * intermediate Java objects that {@link TypeCodec#encode(Object, ProtocolVersion)} would create,
+ * such as the value's internal form.
+ *
+ * <p>Direct encoding is an optimization: it only applies to the most common inputs, and only if the
+ * conversion context guarantees that the result is identical to the one of the regular encoding
+ * path. For all other inputs, including nulls, callers must fall back to {@link
+ * TypeCodec#encode(Object, ProtocolVersion)}.
+ *
+ * @param <EXTERNAL> The external type (as produced by the connector).
+ */
+public interface DirectEncoder<EXTERNAL> {
+
+  /**
+   * Encodes the given external value directly, if possible.
+   *
+   * @param external The value to encode.
+   * @param protocolVersion The protocol version to use.
+   * @return The encoded value, or {@code null} if the value cannot be encoded directly. The
+   *     returned buffer may be carved out of a larger {@link
+   *     com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab slab}, and retain it for as long as
+   *     it is reachable; callers keeping it for longer than the statement it is bound to should
+   *     copy it.
+   */
+  @Nullable
+  ByteBuffer encodeDirectly(@Nullable EXTERNAL external, @NonNull ProtocolVersion protocolVersion);
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.api.util;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import java.nio.ByteBuffer;
+
+/**
+ * A per-thread slab of heap memory, from which the small buffers of directly encoded values are
+ * carved.
+ *
+ * <p>Encoded values are typically a few bytes long, and are retained by the statements they are
+ * bound to until these are written. Carving them out of a shared slab, instead of allocating one
+ * array per value, greatly reduces the number of allocations. A slab is never rewound: once it is
+ * exhausted, a new one is allocated, and the old one is reclaimed when all the values carved out of
+ * it are garbage.
+ *
+ * <p>As a consequence, every buffer carved out of a slab retains the whole 64 KiB slab: a single
+ * small value that is kept alive, e.g. in a cache or a long-lived statement, keeps its slab from
+ * being reclaimed. Values that may outlive the statements they are bound to must thus be copied
+ * first. Also, {@link ByteBuffer#array()} returns the slab's array: carved buffers must be read
+ * relative to their {@link ByteBuffer#arrayOffset() array offset}.
+ */
+public final class ByteBufferSlab {
+
+  private static final int SLAB_SIZE = 64 * 1024;
+
+  /** Buffers larger than this are allocated separately, to avoid wasting slab space. */
+  private static final int MAX_CARVED_SIZE = SLAB_SIZE / 16;
+
+  private static final FastThreadLocal<ByteBufferSlab> SLABS =
+      new FastThreadLocal<ByteBufferSlab>() {
+        @Override
+        protected ByteBufferSlab initialValue() {
+          return new ByteBufferSlab();
+        }
+      };
+
+  private ByteBuffer slab = ByteBuffer.allocate(SLAB_SIZE);
+
+  private ByteBufferSlab() {}
+
+  /**
+   * Allocates a heap buffer of the given length, with position zero and limit equal to the given
+   * length.
+   *
+   * @param length The length of the buffer.
+   * @return A new buffer; its contents are not shared with any other caller, but it may retain a
+   *     larger slab of memory, see above.
+   */
+  public static ByteBuffer allocate(int length) {
+    return SLABS.get().carve(length);
+  }
+
+  private ByteBuffer carve(int length) {
+    if (length > MAX_CARVED_SIZE) {
+      return ByteBuffer.allocate(length);
+    }
+    if (slab.remaining() < length) {
+      slab = ByteBuffer.allocate(SLAB_SIZE);
+    }
+    ByteBuffer buffer = slab.slice();
+    buffer.limit(length);
+    slab.position(slab.position() + length);
+    return buffer;
+  }
+}
@@ -15,11 +15,17 @@
  */
 package com.datastax.oss.dsbulk.codecs.text.string;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
-public class StringToBooleanCodec extends StringConvertingCodec<Boolean> {
+public class StringToBooleanCodec extends StringConvertingCodec<Boolean>
+    implements DirectEncoder<String> {
 
   private final Map<String, Boolean> inputs;
   private final Map<Boolean, String> outputs;
@@ -54,4 +60,18 @@ public class StringToBooleanCodec extends StringConvertingCodec<Boolean> {
     }
     return s;
   }
+
+  @Override
+  public ByteBuffer encodeDirectly(String s, @NonNull ProtocolVersion protocolVersion) {
+    if (isNullOrEmpty(s)) {
+      return null;
+    }
+    Boolean b = inputs.get(s.toLowerCase());
+    if (b == null) {
+      return null;
+    }
+    ByteBuffer bytes = ByteBufferSlab.allocate(1);
+    bytes.put(0, b ? (byte) 1 : (byte) 0);
+    return bytes;
+  }
 }
@@ -17,12 +17,17 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static java.util.stream.Collectors.toList;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
+import edu.umd.cs.findbugs.annotations.NonNull;
 import io.netty.util.concurrent.FastThreadLocal;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.text.NumberFormat;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -30,7 +35,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-public class StringToDoubleCodec extends StringToNumberCodec<Double> {
+public class StringToDoubleCodec extends StringToNumberCodec<Double>
+    implements DirectEncoder<String> {
 
   public StringToDoubleCodec(
       FastThreadLocal<NumberFormat> numberFormat,
@@ -65,4 +71,15 @@ public class StringToDoubleCodec extends StringToNumberCodec<Double> {
     }
     return narrowNumber(number, Double.class);
   }
+
+  @Override
+  public ByteBuffer encodeDirectly(String s, @NonNull ProtocolVersion protocolVersion) {
+    double value = parseCanonicalDecimal(s);
+    if (Double.isNaN(value)) {
+      return null;
+    }
+    ByteBuffer bytes = ByteBufferSlab.allocate(8);
+    bytes.putDouble(0, value);
+    return bytes;
+  }
 }
@@ -15,20 +15,40 @@
  */
 package com.datastax.oss.dsbulk.codecs.text.string;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab;
 import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
+import com.datastax.oss.dsbulk.codecs.api.util.CqlTemporalFormat;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.chrono.IsoChronology;
 import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneRules;
 import java.util.List;
 
-public class StringToInstantCodec extends StringToTemporalCodec<Instant> {
+public class StringToInstantCodec extends StringToTemporalCodec<Instant>
+    implements DirectEncoder<String> {
+
+  private static final long DAYS_0000_TO_1970 = 719528L;
 
   private final ZoneId timeZone;
   private final ZonedDateTime epoch;
 
+  /** Whether inputs can be encoded directly; only the default CQL format is supported. */
+  private final boolean direct;
+
+  /**
+   * The offset applied to inputs without zone information when encoding directly, in seconds; or
+   * null if such inputs cannot be encoded directly, because the time zone has variable offsets.
+   */
+  private final Integer defaultOffsetSeconds;
+
   public StringToInstantCodec(
       TemporalFormat temporalFormat,
       ZoneId timeZone,
@@ -37,6 +57,8 @@ public class StringToInstantCodec extends StringToTemporalCodec<Instant> {
     super(TypeCodecs.TIMESTAMP, temporalFormat, nullStrings);
     this.timeZone = timeZone;
     this.epoch = epoch;
+    direct = temporalFormat.getClass() == CqlTemporalFormat.class;
+    defaultOffsetSeconds = direct ? fixedOffset((CqlTemporalFormat) temporalFormat) : null;
   }
 
   @Override
@@ -47,4 +69,137 @@ public class StringToInstantCodec extends StringToTemporalCodec<Instant> {
     }
     return CodecUtils.toInstant(temporal, timeZone, epoch.toLocalDate());
   }
+
+  /**
+   * Encodes inputs of the form {@code yyyy-MM-dd(T| )HH:mm:ss(.S+)?(Z|+HH:MM|-HH:MM)?} without
+   * creating any intermediary temporal object. Only enabled for the default CQL format, since
+   * custom formats may interpret such inputs differently; other inputs are left to the regular
+   * path.
+   */
+  @Override
+  public ByteBuffer encodeDirectly(String s, @NonNull ProtocolVersion protocolVersion) {
+    if (!direct || s == null || s.length() < 19 || isNull(s)) {
+      return null;
+    }
+    int year = digits(s, 0, 4);
+    int month = digits(s, 5, 2);
+    int day = digits(s, 8, 2);
+    int hour = digits(s, 11, 2);
+    int minute = digits(s, 14, 2);
+    int second = digits(s, 17, 2);
+    char separator = s.charAt(10);
+    if (year < 0
+        || month < 1
+        || month > 12
+        || day < 1
+        || day > lengthOfMonth(year, month)
+        || hour < 0
+        || hour > 23
+        || minute < 0
+        || minute > 59
+        || second < 0
+        || second > 59
+        || s.charAt(4) != '-'
+        || s.charAt(7) != '-'
+        || (separator != 'T' && separator != ' ')
+        || s.charAt(13) != ':'
+        || s.charAt(16) != ':') {
+      return null;
+    }
+    int position = 19;
+    int length = s.length();
+    long nanos = 0;
+    if (position < length && s.charAt(position) == '.') {
+      int start = ++position;
+      while (position < length && position - start < 9) {
+        int digit = s.charAt(position) - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        nanos = nanos * 10 + digit;
+        position++;
+      }
+      if (position == start) {
+        return null;
+      }
+      for (int i = position - start; i < 9; i++) {
+        nanos *= 10;
+      }
+    }
+    int offsetSeconds;
+    if (position == length) {
+      if (defaultOffsetSeconds == null) {
+        return null;
+      }
+      offsetSeconds = defaultOffsetSeconds;
+    } else if (position + 1 == length && s.charAt(position) == 'Z') {
+      offsetSeconds = 0;
+    } else if (position + 6 == length && s.charAt(position + 3) == ':') {
+      char sign = s.charAt(position);
+      int offsetHours = digits(s, position + 1, 2);
+      int offsetMinutes = digits(s, position + 4, 2);
+      if ((sign != '+' && sign != '-')
+          || offsetHours < 0
+          || offsetMinutes < 0
+          || offsetMinutes > 59
+          || offsetHours * 60 + offsetMinutes > 18 * 60) {
+        return null;
+      }
+      offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+    } else {
+      return null;
+    }
+    long epochSeconds =
+        epochDay(year, month, day) * 86400L + hour * 3600 + minute * 60 + second - offsetSeconds;
+    ByteBuffer bytes = ByteBufferSlab.allocate(8);
+    bytes.putLong(0, epochSeconds * 1000 + nanos / 1_000_000);
+    return bytes;
+  }
+
+  private static Integer fixedOffset(CqlTemporalFormat temporalFormat) {
+    ZoneRules rules = temporalFormat.getTimeZone().getRules();
+    return rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH).getTotalSeconds() : null;
+  }
+
+  /** Parses the given number of ASCII digits at the given position, or returns -1. */
+  private static int digits(String s, int start, int count) {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      int digit = s.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return IsoChronology.INSTANCE.isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /** Same algorithm as {@link java.time.LocalDate#toEpochDay()}. */
+  private static long epochDay(long year, int month, int day) {
+    long total = 365 * year;
+    total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+    total += (367 * month - 362) / 12;
+    total += day - 1;
+    if (month > 2) {
+      total--;
+      if (!IsoChronology.INSTANCE.isLeapYear(year)) {
+        total--;
+      }
+    }
+    return total - DAYS_0000_TO_1970;
+  }
 }
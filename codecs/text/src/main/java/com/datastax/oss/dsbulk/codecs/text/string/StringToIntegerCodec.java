@@ -17,12 +17,17 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static java.util.stream.Collectors.toList;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
+import edu.umd.cs.findbugs.annotations.NonNull;
 import io.netty.util.concurrent.FastThreadLocal;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.text.NumberFormat;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -30,7 +35,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-public class StringToIntegerCodec extends StringToNumberCodec<Integer> {
+public class StringToIntegerCodec extends StringToNumberCodec<Integer>
+    implements DirectEncoder<String> {
 
   public StringToIntegerCodec(
       FastThreadLocal<NumberFormat> numberFormat,
@@ -65,4 +71,15 @@ public class StringToIntegerCodec extends StringToNumberCodec<Integer> {
     }
     return narrowNumber(number, Integer.class);
   }
+
+  @Override
+  public ByteBuffer encodeDirectly(String s, @NonNull ProtocolVersion protocolVersion) {
+    long value = parseCanonicalInteger(s, 10);
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      return null;
+    }
+    ByteBuffer bytes = ByteBufferSlab.allocate(4);
+    bytes.putInt(0, (int) value);
+    return bytes;
+  }
 }
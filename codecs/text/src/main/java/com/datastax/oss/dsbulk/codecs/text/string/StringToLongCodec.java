@@ -17,12 +17,17 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static java.util.stream.Collectors.toList;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.PrimitiveLongCodec;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
+import edu.umd.cs.findbugs.annotations.NonNull;
 import io.netty.util.concurrent.FastThreadLocal;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.text.NumberFormat;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -30,7 +35,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-public class StringToLongCodec extends StringToNumberCodec<Long> {
+public class StringToLongCodec extends StringToNumberCodec<Long> implements DirectEncoder<String> {
 
   public StringToLongCodec(
       PrimitiveLongCodec targetCodec,
@@ -66,4 +71,15 @@ public class StringToLongCodec extends StringToNumberCodec<Long> {
     }
     return narrowNumber(number, Long.class);
   }
+
+  @Override
+  public ByteBuffer encodeDirectly(String s, @NonNull ProtocolVersion protocolVersion) {
+    long value = parseCanonicalInteger(s, 18);
+    if (value == Long.MIN_VALUE) {
+      return null;
+    }
+    ByteBuffer bytes = ByteBufferSlab.allocate(8);
+    bytes.putLong(0, value);
+    return bytes;
+  }
 }
@@ -20,6 +20,7 @@ import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
 import io.netty.util.concurrent.FastThreadLocal;
+import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
 import java.time.ZoneId;
@@ -30,6 +31,10 @@ import java.util.concurrent.TimeUnit;
 
 public abstract class StringToNumberCodec<N extends Number> extends StringConvertingCodec<N> {
 
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+  };
+
   private final FastThreadLocal<NumberFormat> numberFormat;
   private final OverflowStrategy overflowStrategy;
   private final RoundingMode roundingMode;
@@ -39,6 +44,8 @@ public abstract class StringToNumberCodec<N extends Number> extends StringConver
   private final ZonedDateTime epoch;
   private final Map<String, Boolean> booleanStrings;
   private final List<N> booleanNumbers;
+  private final boolean canonicalIntegers;
+  private final boolean canonicalDecimals;
 
   StringToNumberCodec(
       TypeCodec<N> targetCodec,
@@ -62,6 +69,8 @@ public abstract class StringToNumberCodec<N extends Number> extends StringConver
     this.epoch = epoch;
     this.booleanStrings = booleanStrings;
     this.booleanNumbers = booleanNumbers;
+    canonicalIntegers = parsesAsItself("-1234");
+    canonicalDecimals = parsesAsItself("-1234.5");
   }
 
   @Override
@@ -90,4 +99,92 @@ public abstract class StringToNumberCodec<N extends Number> extends StringConver
   N narrowNumber(Number number, Class<? extends N> targetClass) {
     return CodecUtils.narrowNumber(number, targetClass, overflowStrategy, roundingMode);
   }
+
+  /**
+   * Parses the given string as a canonical integer literal, that is, an optional minus sign
+   * followed by at most {@code maxDigits} ASCII digits, without any other character.
+   *
+   * <p>Such literals are parsed without creating any intermediate object, but only if the
+   * conversion context guarantees that {@link #parseNumber(String)} would return the same value.
+   *
+   * @param s The string to parse.
+   * @param maxDigits The maximum number of digits; must be lesser than 19.
+   * @return The parsed value, or {@link Long#MIN_VALUE} if the string is not a canonical integer
+   *     literal, or if the conversion context does not allow parsing it as such.
+   */
+  long parseCanonicalInteger(String s, int maxDigits) {
+    if (!canonicalIntegers || s == null || isNull(s)) {
+      return Long.MIN_VALUE;
+    }
+    int length = s.length();
+    boolean negative = length > 0 && s.charAt(0) == '-';
+    int start = negative ? 1 : 0;
+    if (length == start || length - start > maxDigits) {
+      return Long.MIN_VALUE;
+    }
+    long value = 0;
+    for (int i = start; i < length; i++) {
+      int digit = s.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return Long.MIN_VALUE;
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses the given string as a canonical decimal literal, that is, an optional minus sign
+   * followed by ASCII digits, optionally followed by a dot and more ASCII digits, with at most 15
+   * digits in total.
+   *
+   * <p>Such literals are exactly representable as doubles, and are parsed without creating any
+   * intermediate object, but only if the conversion context guarantees that {@link
+   * #parseNumber(String)} would return the same value.
+   *
+   * @param s The string to parse.
+   * @return The parsed value, or {@link Double#NaN} if the string is not a canonical decimal
+   *     literal, or if the conversion context does not allow parsing it as such.
+   */
+  double parseCanonicalDecimal(String s) {
+    if (!canonicalDecimals || s == null || isNull(s)) {
+      return Double.NaN;
+    }
+    int length = s.length();
+    boolean negative = length > 0 && s.charAt(0) == '-';
+    int start = negative ? 1 : 0;
+    long mantissa = 0;
+    int digits = 0;
+    int scale = -1;
+    for (int i = start; i < length; i++) {
+      char c = s.charAt(i);
+      if (c == '.' && scale == -1 && digits > 0) {
+        scale = 0;
+      } else if (c >= '0' && c <= '9' && digits < 15) {
+        mantissa = mantissa * 10 + (c - '0');
+        digits++;
+        if (scale != -1) {
+          scale++;
+        }
+      } else {
+        return Double.NaN;
+      }
+    }
+    if (digits == 0 || scale == 0 || (negative && mantissa == 0)) {
+      // no digits, no digits after the dot, or negative zero
+      return Double.NaN;
+    }
+    // both operands are exact, so the quotient is correctly rounded
+    double value = scale == -1 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+    return negative ? -value : value;
+  }
+
+  private boolean parsesAsItself(String s) {
+    try {
+      Number number = parseNumber(s);
+      return number != null && CodecUtils.toBigDecimal(number).compareTo(new BigDecimal(s)) == 0;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
 }
@@ -15,13 +15,23 @@
  */
 package com.datastax.oss.dsbulk.codecs.text.string;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
 import java.util.List;
 
-public class StringToStringCodec extends StringConvertingCodec<String> {
+public class StringToStringCodec extends StringConvertingCodec<String>
+    implements DirectEncoder<String> {
+
+  private final boolean utf8;
 
   public StringToStringCodec(TypeCodec<String> innerCodec, List<String> nullStrings) {
     super(innerCodec, nullStrings);
+    utf8 = innerCodec.getCqlType().equals(DataTypes.TEXT);
   }
 
   @Override
@@ -40,4 +50,61 @@ public class StringToStringCodec extends StringConvertingCodec<String> {
     }
     return value;
   }
+
+  @Override
+  public ByteBuffer encodeDirectly(String s, @NonNull ProtocolVersion protocolVersion) {
+    if (!utf8 || isNull(s)) {
+      return null;
+    }
+    int length = s.length();
+    int encodedLength = 0;
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        encodedLength++;
+      } else if (c < 0x800) {
+        encodedLength += 2;
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(s.charAt(i + 1))) {
+          encodedLength += 4;
+          i++;
+        } else {
+          // malformed surrogates are replaced with '?', like String.getBytes() does
+          encodedLength++;
+        }
+      } else {
+        encodedLength += 3;
+      }
+    }
+    ByteBuffer bytes = ByteBufferSlab.allocate(encodedLength);
+    int position = 0;
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        bytes.put(position++, (byte) c);
+      } else if (c < 0x800) {
+        bytes.put(position++, (byte) (0xC0 | (c >> 6)));
+        bytes.put(position++, (byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(s.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, s.charAt(++i));
+          bytes.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+          bytes.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+          bytes.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+          bytes.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+          bytes.put(position++, (byte) '?');
+        }
+      } else {
+        bytes.put(position++, (byte) (0xE0 | (c >> 12)));
+        bytes.put(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+        bytes.put(position++, (byte) (0x80 | (c & 0x3F)));
+      }
+    }
+    return bytes;
+  }
 }
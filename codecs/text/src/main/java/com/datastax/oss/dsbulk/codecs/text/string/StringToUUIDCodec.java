@@ -15,18 +15,26 @@
  */
 package com.datastax.oss.dsbulk.codecs.text.string;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.codecs.api.util.ByteBufferSlab;
 import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
 import com.datastax.oss.dsbulk.codecs.api.util.TimeUUIDGenerator;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
-public class StringToUUIDCodec extends StringConvertingCodec<UUID> {
+public class StringToUUIDCodec extends StringConvertingCodec<UUID>
+    implements DirectEncoder<String> {
 
   private final ConvertingCodec<String, Instant> instantCodec;
   private final TimeUUIDGenerator generator;
+  private final boolean timeBased;
 
   public StringToUUIDCodec(
       TypeCodec<UUID> targetCodec,
@@ -36,6 +44,7 @@ public class StringToUUIDCodec extends StringConvertingCodec<UUID> {
     super(targetCodec, nullStrings);
     this.instantCodec = instantCodec;
     this.generator = generator;
+    timeBased = targetCodec.getCqlType().equals(DataTypes.TIMEUUID);
   }
 
   @Override
@@ -53,4 +62,40 @@ public class StringToUUIDCodec extends StringConvertingCodec<UUID> {
     }
     return value.toString();
   }
+
+  @Override
+  public ByteBuffer encodeDirectly(String s, @NonNull ProtocolVersion protocolVersion) {
+    // only the canonical form: 8-4-4-4-12 hexadecimal digits
+    if (s == null || s.length() != 36 || isNull(s)) {
+      return null;
+    }
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < 36; i++) {
+      char c = s.charAt(i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-') {
+          return null;
+        }
+        continue;
+      }
+      int digit = Character.digit(c, 16);
+      if (digit == -1) {
+        return null;
+      }
+      if (i < 19) {
+        msb = msb << 4 | digit;
+      } else {
+        lsb = lsb << 4 | digit;
+      }
+    }
+    if (timeBased && (msb >> 12 & 0xF) != 1) {
+      // not a time-based UUID, let the regular path reject it
+      return null;
+    }
+    ByteBuffer bytes = ByteBufferSlab.allocate(16);
+    bytes.putLong(0, msb);
+    bytes.putLong(8, lsb);
+    return bytes;
+  }
 }
@@ -67,4 +67,15 @@ class StringToBooleanCodecTest {
   void should_not_convert_from_invalid_external() {
     assertThat(codec).cannotConvertFromExternal("not a valid boolean");
   }
+
+  @Test
+  void should_encode_external_directly() {
+    assertThat(codec)
+        .encodesDirectly("foo")
+        .encodesDirectly("BAR")
+        .doesNotEncodeDirectly("baz")
+        .doesNotEncodeDirectly("NULL")
+        .doesNotEncodeDirectly("")
+        .doesNotEncodeDirectly(null);
+  }
 }
@@ -90,4 +90,24 @@ class StringToDoubleCodecTest {
   void should_not_convert_from_invalid_external() {
     assertThat(codec).cannotConvertFromExternal("not a valid double");
   }
+
+  @Test
+  void should_encode_canonical_external_directly() {
+    assertThat(codec)
+        .encodesDirectly("0")
+        .encodesDirectly("1.5")
+        .encodesDirectly("-1234.5678")
+        .encodesDirectly("0.1")
+        .encodesDirectly("123456789012345")
+        .encodesDirectly("0.00000000000001")
+        .doesNotEncodeDirectly("-0")
+        .doesNotEncodeDirectly("-0.0")
+        .doesNotEncodeDirectly(".5")
+        .doesNotEncodeDirectly("1.")
+        .doesNotEncodeDirectly("1234567890123456")
+        .doesNotEncodeDirectly("1,234.5")
+        .doesNotEncodeDirectly("1e3")
+        .doesNotEncodeDirectly("NULL")
+        .doesNotEncodeDirectly("");
+  }
 }
@@ -26,6 +26,8 @@ import com.datastax.oss.dsbulk.codecs.api.util.CqlTemporalFormat;
 import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -140,4 +142,45 @@ class StringToInstantCodecTest {
   void should_not_convert_from_invalid_external() {
     assertThat(codec1).cannotConvertFromExternal("not a valid date format");
   }
+
+  @Test
+  void should_encode_cql_timestamps_directly() {
+    assertThat(codec1)
+        .encodesDirectly("2016-07-24T20:34:12")
+        .encodesDirectly("2016-07-24 20:34:12")
+        .encodesDirectly("2016-07-24T20:34:12Z")
+        .encodesDirectly("2016-07-24T20:34:12.999+01:00")
+        .encodesDirectly("2016-07-24T20:34:12.123456789-07:30")
+        .encodesDirectly("2016-07-24T20:34:12.1")
+        .encodesDirectly("1969-12-31T23:59:59.999Z")
+        .encodesDirectly("0001-01-01T00:00:00Z")
+        .encodesDirectly("2000-02-29T00:00:00Z")
+        .doesNotEncodeDirectly("1900-02-29T00:00:00Z")
+        .doesNotEncodeDirectly("2016-07-24T24:00:00Z")
+        .doesNotEncodeDirectly("2016-07-24T20:34")
+        .doesNotEncodeDirectly("2016-07-24T20:34:12.")
+        .doesNotEncodeDirectly("2016-07-24T20:34:12+0100")
+        .doesNotEncodeDirectly("2016-07-24T20:34:12 UTC")
+        .doesNotEncodeDirectly("NULL")
+        .doesNotEncodeDirectly("");
+    assertThat(codec2).doesNotEncodeDirectly("2016-07-24T20:34:12Z");
+    StringToInstantCodec fixedOffset =
+        (StringToInstantCodec)
+            new ConvertingCodecFactory(
+                    new TextConversionContext().setTimeZone(ZoneOffset.ofHours(-3)))
+                .<String, Instant>createConvertingCodec(
+                    DataTypes.TIMESTAMP, GenericType.STRING, true);
+    assertThat(fixedOffset)
+        .encodesDirectly("2016-07-24T20:34:12")
+        .encodesDirectly("2016-07-24T20:34:12+02:00");
+    StringToInstantCodec regionZone =
+        (StringToInstantCodec)
+            new ConvertingCodecFactory(
+                    new TextConversionContext().setTimeZone(ZoneId.of("Europe/Paris")))
+                .<String, Instant>createConvertingCodec(
+                    DataTypes.TIMESTAMP, GenericType.STRING, true);
+    assertThat(regionZone)
+        .doesNotEncodeDirectly("2016-07-24T20:34:12")
+        .encodesDirectly("2016-07-24T20:34:12Z");
+  }
 }
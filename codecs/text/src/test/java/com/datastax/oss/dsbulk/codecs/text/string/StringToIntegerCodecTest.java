@@ -156,4 +156,22 @@ class StringToIntegerCodecTest {
         .cannotConvertFromExternal("2000-01-01T00:00:00Z") // overflow
     ;
   }
+
+  @Test
+  void should_encode_canonical_external_directly() {
+    assertThat(codec1)
+        .encodesDirectly("0")
+        .encodesDirectly("-0")
+        .encodesDirectly("42")
+        .encodesDirectly("2147483647")
+        .encodesDirectly("-2147483648")
+        .doesNotEncodeDirectly("2147483648")
+        .doesNotEncodeDirectly("2,147,483,647")
+        .doesNotEncodeDirectly("1.0")
+        .doesNotEncodeDirectly("+1")
+        .doesNotEncodeDirectly("TRUE")
+        .doesNotEncodeDirectly("")
+        .doesNotEncodeDirectly(null);
+    assertThat(codec2).encodesDirectly("123").doesNotEncodeDirectly("NULL");
+  }
 }
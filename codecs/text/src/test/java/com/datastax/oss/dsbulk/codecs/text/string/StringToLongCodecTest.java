@@ -90,4 +90,18 @@ class StringToLongCodecTest {
         .cannotConvertFromExternal("9223372036854775808")
         .cannotConvertFromExternal("-9223372036854775809");
   }
+
+  @Test
+  void should_encode_canonical_external_directly() {
+    assertThat(codec)
+        .encodesDirectly("0")
+        .encodesDirectly("-1")
+        .encodesDirectly("999999999999999999")
+        .encodesDirectly("-999999999999999999")
+        .doesNotEncodeDirectly("9223372036854775807")
+        .doesNotEncodeDirectly("1,000")
+        .doesNotEncodeDirectly("1970-01-01T00:00:00Z")
+        .doesNotEncodeDirectly("NULL")
+        .doesNotEncodeDirectly("");
+  }
 }
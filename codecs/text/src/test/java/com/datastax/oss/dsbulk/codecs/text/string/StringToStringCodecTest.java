@@ -79,4 +79,19 @@ class StringToStringCodecTest {
         .convertsFromInternal(null)
         .toExternal("NULL");
   }
+
+  @Test
+  void should_encode_text_directly() {
+    StringToStringCodec codec =
+        new StringToStringCodec(TypeCodecs.TEXT, Lists.newArrayList("NULL"));
+    assertThat(codec)
+        .encodesDirectly("foo")
+        .encodesDirectly("")
+        .encodesDirectly("caf\u00e9 \u20ac \ud83d\ude00")
+        .encodesDirectly("unpaired \ud83d surrogate \ude00")
+        .doesNotEncodeDirectly("NULL")
+        .doesNotEncodeDirectly(null);
+    assertThat(new StringToStringCodec(TypeCodecs.ASCII, Collections.emptyList()))
+        .doesNotEncodeDirectly("foo");
+  }
 }
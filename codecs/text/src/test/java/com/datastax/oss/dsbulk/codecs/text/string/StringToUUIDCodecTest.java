@@ -115,4 +115,21 @@ class StringToUUIDCodecTest {
   void should_not_convert_from_invalid_external() {
     assertThat(codec).cannotConvertFromExternal("not a valid UUID");
   }
+
+  @Test
+  void should_encode_canonical_external_directly() {
+    assertThat(codec)
+        .encodesDirectly("a15341ec-ebef-4eab-b91d-ff16bf801a79")
+        .encodesDirectly("A15341EC-EBEF-4EAB-B91D-FF16BF801A79")
+        .doesNotEncodeDirectly("a15341ec-ebef-4eab-b91d-ff16bf801a7")
+        .doesNotEncodeDirectly("a15341ec+ebef-4eab-b91d-ff16bf801a79")
+        .doesNotEncodeDirectly("2016-07-24T20:34:12Z")
+        .doesNotEncodeDirectly("NULL")
+        .doesNotEncodeDirectly("");
+    assertThat(
+            new StringToUUIDCodec(
+                TypeCodecs.TIMEUUID, instantCodec, TimeUUIDGenerator.MIN, nullStrings))
+        .encodesDirectly("fe2b4360-28c6-11e2-81c1-0800200c9a66")
+        .doesNotEncodeDirectly("a15341ec-ebef-4eab-b91d-ff16bf801a79");
+  }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.api;
+
+import com.datastax.oss.driver.shaded.guava.common.base.MoreObjects;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.net.URI;
+import java.util.AbstractList;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Record} whose values are stored in a plain array, and whose fields are described by a
+ * {@link RecordSchema} shared by all records of the same resource.
+ *
+ * <p>Contrary to {@link DefaultRecord}, creating such a record does not allocate any field object
+ * nor any map entry; and values can be retrieved by {@linkplain #getFieldValue(int) field index},
+ * without hashing.
+ */
+public final class ArrayBackedRecord implements Record {
+
+  private final Object source;
+  private final URI resource;
+  private final long position;
+  private final RecordSchema schema;
+  private Object[] values;
+
+  /**
+   * Creates a new record.
+   *
+   * @param source the record source (its original form); may be null if the source cannot be
+   *     determined or should not be retained.
+   * @param resource the record resource (where it comes from: file, database, etc).
+   * @param position the record position inside the resource (line number, etc.).
+   * @param schema the record schema.
+   * @param values the record values, one per {@linkplain RecordSchema#width() slot} of the schema;
+   *     the array is used as is, without any defensive copy.
+   */
+  public ArrayBackedRecord(
+      @Nullable Object source,
+      @NonNull URI resource,
+      long position,
+      @NonNull RecordSchema schema,
+      @NonNull Object[] values) {
+    if (schema.width() != values.length) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expecting record to contain %d fields but found %d.",
+              schema.width(), values.length));
+    }
+    this.source = source;
+    this.resource = resource;
+    this.position = position;
+    this.schema = schema;
+    this.values = values;
+  }
+
+  @Nullable
+  @Override
+  public Object getSource() {
+    return source;
+  }
+
+  @NonNull
+  @Override
+  public URI getResource() {
+    return resource;
+  }
+
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  /** @return the schema of this record. */
+  @NonNull
+  public RecordSchema getSchema() {
+    return schema;
+  }
+
+  @NonNull
+  @Override
+  public Set<Field> fields() {
+    return values == null ? Collections.emptySet() : schema.fields();
+  }
+
+  @NonNull
+  @Override
+  public Collection<Object> values() {
+    Object[] values = this.values;
+    if (values == null) {
+      return Collections.emptyList();
+    }
+    return new AbstractList<Object>() {
+      @Override
+      public Object get(int index) {
+        return values[schema.getSlot(index)];
+      }
+
+      @Override
+      public int size() {
+        return schema.size();
+      }
+    };
+  }
+
+  @Override
+  public Object getFieldValue(@NonNull Field field) {
+    int index = schema.indexOf(field);
+    return index == -1 ? null : getFieldValue(index);
+  }
+
+  /**
+   * Returns the value of the field at the given index in this record's schema.
+   *
+   * @param index the field index, between 0 and {@link RecordSchema#size()} (exclusive).
+   * @return the value of the field; or null if the value is null, or if the record was cleared.
+   */
+  @Nullable
+  public Object getFieldValue(int index) {
+    Object[] values = this.values;
+    return values == null ? null : values[schema.getSlot(index)];
+  }
+
+  @Override
+  public void clear() {
+    values = null;
+  }
+
+  @Override
+  public String toString() {
+    List<Map.Entry<Field, Object>> entries = new ArrayList<>();
+    if (values != null) {
+      for (int i = 0; i < schema.size(); i++) {
+        entries.add(new SimpleImmutableEntry<>(schema.getField(i), getFieldValue(i)));
+      }
+    }
+    return MoreObjects.toStringHelper(this)
+        .add("source", source)
+        .add("resource", resource)
+        .add("position", position)
+        .add("entries", entries)
+        .toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ArrayBackedRecord)) {
+      return false;
+    }
+    ArrayBackedRecord that = (ArrayBackedRecord) o;
+    return position == that.position
+        && Objects.equals(source, that.source)
+        && resource.equals(that.resource)
+        && schema.equals(that.schema)
+        && Arrays.equals(values, that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(source, resource, position, schema, Arrays.hashCode(values));
+  }
+}
@@ -36,5 +36,12 @@ public enum CommonConnectorFeature implements ConnectorFeature {
    * more than once, then data size sampling should be disallowed. This is notably the case when
    * reading live data streams such as {@linkplain System#in standard input}.
    */
-  DATA_SIZE_SAMPLING
+  DATA_SIZE_SAMPLING,
+
+  /**
+   * Indicates that the connector reads records on threads of its own, such as virtual threads, and
+   * emits them on those threads. DSBulk then hands the records off to its own threads before
+   * processing them, so that CPU-bound work does not run on the connector's threads.
+   */
+  READS_ON_OWN_THREADS
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.api;
+
+import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The layout of a group of {@link ArrayBackedRecord}s, typically all the records read from the same
+ * file: an ordered list of fields, and for each field, the slot holding its value in the records'
+ * value arrays.
+ *
+ * <p>Several fields may share the same slot; this is how a record read from a file with a header
+ * exposes each value both under its {@linkplain MappedField name} and under its {@linkplain
+ * IndexedField index}.
+ *
+ * <p>Instances of this class are immutable and meant to be created once and shared by all records
+ * having the same layout.
+ */
+public final class RecordSchema {
+
+  /**
+   * Creates a schema for records containing the given number of values, each one exposed under an
+   * {@link IndexedField}.
+   *
+   * @param width the number of values in each record.
+   * @return a new schema.
+   */
+  @NonNull
+  public static RecordSchema indexed(int width) {
+    Field[] fields = new Field[width];
+    int[] slots = new int[width];
+    for (int i = 0; i < width; i++) {
+      fields[i] = new DefaultIndexedField(i);
+      slots[i] = i;
+    }
+    return new RecordSchema(width, fields, slots);
+  }
+
+  /**
+   * Creates a schema for records whose values are exposed under the given fields, in order.
+   *
+   * @param fields the record fields; must not contain duplicates.
+   * @return a new schema.
+   */
+  @NonNull
+  public static RecordSchema mapped(@NonNull Field... fields) {
+    int[] slots = new int[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      slots[i] = i;
+    }
+    // copy to a Field[], since the given array may be of a narrower type, e.g. MappedField[]
+    return new RecordSchema(
+        fields.length, Arrays.copyOf(fields, fields.length, Field[].class), slots);
+  }
+
+  private final int width;
+  private final Field[] fields;
+  private final int[] slots;
+  private final ImmutableSet<Field> fieldSet;
+  private final Map<Field, Integer> fieldIndices;
+  private final int hashCode;
+
+  private RecordSchema(int width, Field[] fields, int[] slots) {
+    this.width = width;
+    this.fields = fields;
+    this.slots = slots;
+    fieldSet = ImmutableSet.copyOf(fields);
+    Preconditions.checkArgument(
+        fieldSet.size() == fields.length, "Duplicate fields: %s", Arrays.toString(fields));
+    fieldIndices = new HashMap<>();
+    for (int i = 0; i < fields.length; i++) {
+      fieldIndices.put(fields[i], i);
+    }
+    hashCode = 31 * Arrays.hashCode(fields) + Arrays.hashCode(slots);
+  }
+
+  /**
+   * Returns a schema with the same fields as this one, followed by one {@link IndexedField} for
+   * each value slot.
+   *
+   * @return a new schema.
+   */
+  @NonNull
+  public RecordSchema withIndexedFields() {
+    Field[] fields = Arrays.copyOf(this.fields, this.fields.length + width);
+    int[] slots = Arrays.copyOf(this.slots, this.slots.length + width);
+    for (int i = 0; i < width; i++) {
+      fields[this.fields.length + i] = new DefaultIndexedField(i);
+      slots[this.fields.length + i] = i;
+    }
+    return new RecordSchema(width, fields, slots);
+  }
+
+  /** @return the number of values in each record. */
+  public int width() {
+    return width;
+  }
+
+  /** @return the number of fields in each record. */
+  public int size() {
+    return fields.length;
+  }
+
+  /**
+   * Returns the field at the given index.
+   *
+   * @param index the field index, between 0 and {@link #size()} (exclusive).
+   * @return the field at the given index.
+   */
+  @NonNull
+  public Field getField(int index) {
+    return fields[index];
+  }
+
+  /**
+   * Returns the value slot of the field at the given index.
+   *
+   * @param index the field index, between 0 and {@link #size()} (exclusive).
+   * @return the value slot of the field, between 0 and {@link #width()} (exclusive).
+   */
+  public int getSlot(int index) {
+    return slots[index];
+  }
+
+  /**
+   * Returns the index of the given field.
+   *
+   * @param field the field to look up.
+   * @return the field index, or -1 if this schema does not contain such field.
+   */
+  public int indexOf(@NonNull Field field) {
+    Integer index = fieldIndices.get(field);
+    return index == null ? -1 : index;
+  }
+
+  /** @return all the fields of this schema, in order. */
+  @NonNull
+  public ImmutableSet<Field> fields() {
+    return fieldSet;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RecordSchema that = (RecordSchema) o;
+    return width == that.width
+        && hashCode == that.hashCode
+        && Arrays.equals(fields, that.fields)
+        && Arrays.equals(slots, that.slots);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return fieldSet.toString();
+  }
+}
@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.connectors.commons;
 
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.Connector;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
@@ -39,6 +40,7 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -48,6 +50,8 @@ import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /** A parent class for connectors that read from and write to text-based files. */
 public abstract class AbstractFileBasedConnector implements Connector {
@@ -64,6 +68,7 @@ public abstract class AbstractFileBasedConnector implements Connector {
   protected static final String MAX_CONCURRENT_FILES = "maxConcurrentFiles";
   protected static final String RECURSIVE = "recursive";
   protected static final String FILE_NAME_FORMAT = "fileNameFormat";
+  protected static final String VIRTUAL_THREADS = "virtualThreads";
 
   protected boolean read;
   protected boolean retainRecordSources;
@@ -83,6 +88,8 @@ public abstract class AbstractFileBasedConnector implements Connector {
   protected RecordWriter singleWriter;
   protected AtomicInteger fileCounter;
   protected AtomicInteger nextWriterIndex;
+  protected boolean virtualThreads;
+  protected Scheduler virtualThreadScheduler;
 
   // Public API
 
@@ -135,10 +142,23 @@ public abstract class AbstractFileBasedConnector implements Connector {
     }
     skipRecords = settings.getLong(SKIP_RECORDS);
     maxRecords = settings.getLong(MAX_RECORDS);
+    virtualThreads = settings.getBoolean(VIRTUAL_THREADS);
   }
 
   @Override
   public void init() throws URISyntaxException, IOException {
+    if (virtualThreads) {
+      ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+      if (executor == null) {
+        LOGGER.warn(
+            "Virtual threads are not available in this JVM (Java 21 or higher is required), "
+                + "connector.{}.{} will be ignored.",
+            getConnectorName(),
+            VIRTUAL_THREADS);
+      } else {
+        virtualThreadScheduler = Schedulers.fromExecutorService(executor, "virtual");
+      }
+    }
     if (read) {
       processURLsForRead();
     } else {
@@ -162,7 +182,8 @@ public abstract class AbstractFileBasedConnector implements Connector {
     assert read;
     return Flux.concat(
             Flux.fromIterable(roots).flatMap(this::scanRootDirectory), Flux.fromIterable(files))
-        .map(url -> readSingleFile(url).transform(this::applyPerFileLimits));
+        .concatMap(this::readSplits)
+        .map(this::subscribeOnVirtualThread);
   }
 
   @SuppressWarnings("BlockingMethodInNonBlockingContext")
@@ -172,7 +193,7 @@ public abstract class AbstractFileBasedConnector implements Connector {
     assert !read;
     if (!roots.isEmpty() && maxConcurrentFiles > 1) {
       return records ->
-          Flux.from(records)
+          publishOnVirtualThread(Flux.from(records))
               .concatMap(
                   record ->
                       Mono.subscriberContext()
@@ -203,7 +224,7 @@ public abstract class AbstractFileBasedConnector implements Connector {
               .subscriberContext(ctx -> ctx.put("WRITER", writers.remove()));
     } else {
       return records ->
-          Flux.from(records)
+          publishOnVirtualThread(Flux.from(records))
               .concatMap(
                   record -> {
                     try {
@@ -229,6 +250,9 @@ public abstract class AbstractFileBasedConnector implements Connector {
 
   @Override
   public void close() {
+    if (virtualThreadScheduler != null) {
+      virtualThreadScheduler.dispose();
+    }
     if (writers != null) {
       IOException e = null;
       for (RecordWriter writer : writers) {
@@ -268,6 +292,24 @@ public abstract class AbstractFileBasedConnector implements Connector {
   @NonNull
   protected abstract String getConnectorName();
 
+  /**
+   * Reads a single text file accessible through the given URL, possibly split in many chunks that
+   * can be read concurrently. Used during the {@linkplain #read() data reading phase}.
+   *
+   * <p>The default implementation does not split files: it returns a single chunk of records, as
+   * returned by {@link #readSingleFile(URL)}, with {@code maxRecords} and {@code skipRecords}
+   * applied. Implementors that split files are responsible for applying these limits, or for not
+   * splitting files when they are in use.
+   *
+   * @param url The URL to read; must not be null; must be accessible and readable (but not
+   *     necessarily hosted on the local filesystem).
+   * @return A stream of chunks of {@link Record}s; never null.
+   */
+  @NonNull
+  protected Flux<Flux<Record>> readSplits(@NonNull URL url) {
+    return Flux.just(readSingleFile(url).transform(this::applyPerFileLimits));
+  }
+
   /**
    * Reads a single text file accessible through the given URL. Used during the {@linkplain #read()
    * data reading phase}.
@@ -547,6 +589,32 @@ public abstract class AbstractFileBasedConnector implements Connector {
     return records;
   }
 
+  /**
+   * Makes the given chunk of records be read by a dedicated virtual thread, if virtual threads are
+   * {@linkplain #VIRTUAL_THREADS enabled}; blocking reads then park the virtual thread instead of
+   * blocking a platform thread.
+   *
+   * <p>Records are then emitted on that virtual thread: this connector reports {@link
+   * CommonConnectorFeature#READS_ON_OWN_THREADS} so that the workflow publishes them back on its
+   * own CPU-bound threads.
+   */
+  @NonNull
+  protected Flux<Record> subscribeOnVirtualThread(@NonNull Flux<Record> records) {
+    return virtualThreadScheduler == null ? records : records.subscribeOn(virtualThreadScheduler);
+  }
+
+  /**
+   * Makes the given records be written by virtual threads, if virtual threads are {@linkplain
+   * #VIRTUAL_THREADS enabled}; blocking writes then park a virtual thread instead of blocking a
+   * platform thread.
+   */
+  @NonNull
+  protected Flux<Record> publishOnVirtualThread(@NonNull Flux<Record> records) {
+    return virtualThreadScheduler == null
+        ? records
+        : records.publishOn(virtualThreadScheduler, 500);
+  }
+
   /**
    * Returns the URL that the connector should write to. Not used for reads.
    *
@@ -569,6 +637,16 @@ public abstract class AbstractFileBasedConnector implements Connector {
     return urls.get(0);
   }
 
+  /**
+   * Checks whether records are read, and emitted, on virtual threads; this is the case when virtual
+   * threads are {@linkplain #VIRTUAL_THREADS enabled} and available in this JVM.
+   *
+   * @return true if records are read on virtual threads, false otherwise.
+   */
+  protected boolean isReadingOnVirtualThreads() {
+    return read && virtualThreadScheduler != null;
+  }
+
   /**
    * Checks whether it is safe to perform data size sampling on this connector's data source. Data
    * size sampling is usually not safe if the data can only be streamed once.
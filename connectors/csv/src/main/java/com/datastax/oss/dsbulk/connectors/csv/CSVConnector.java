@@ -16,19 +16,21 @@
 package com.datastax.oss.dsbulk.connectors.csv;
 
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.ConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.DefaultErrorRecord;
-import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
-import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.MappedField;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
+import com.datastax.oss.dsbulk.io.IOUtils;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import com.univocity.parsers.common.ParsingContext;
@@ -47,11 +49,18 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.nio.channels.ClosedChannelException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.SynchronousSink;
 
 /**
@@ -69,6 +78,9 @@ public class CSVConnector extends AbstractFileBasedConnector {
   private static final Logger LOGGER = LoggerFactory.getLogger(CSVConnector.class);
   private static final GenericType<String> STRING_TYPE = GenericType.STRING;
   private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Set<Charset> SPLITTABLE_CHARSETS =
+      ImmutableSet.of(
+          StandardCharsets.UTF_8, StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1);
 
   private static final String DELIMITER = "delimiter";
   private static final String QUOTE = "quote";
@@ -88,6 +100,9 @@ public class CSVConnector extends AbstractFileBasedConnector {
   private static final String NORMALIZE_LINE_ENDINGS_IN_QUOTES = "normalizeLineEndingsInQuotes";
   private static final String NULL_VALUE = "nullValue";
   private static final String EMPTY_VALUE = "emptyValue";
+  private static final String SPLIT_SIZE = "splitSize";
+  private static final String EMBEDDED_NEWLINES = "embeddedNewlines";
+  private static final String MEMORY_MAPPED = "memoryMapped";
   private static final String AUTO = "AUTO";
 
   private String delimiter;
@@ -105,7 +120,11 @@ public class CSVConnector extends AbstractFileBasedConnector {
   private boolean normalizeLineEndingsInQuotes;
   private String nullValue;
   private String emptyValue;
+  private long splitSize;
+  private boolean embeddedNewlines;
+  private boolean memoryMapped;
   private CsvParserSettings parserSettings;
+  private CsvParserSettings splitParserSettings;
   private CsvWriterSettings writerSettings;
 
   @Override
@@ -140,6 +159,15 @@ public class CSVConnector extends AbstractFileBasedConnector {
       normalizeLineEndingsInQuotes = settings.getBoolean(NORMALIZE_LINE_ENDINGS_IN_QUOTES);
       nullValue = settings.getIsNull(NULL_VALUE) ? null : settings.getString(NULL_VALUE);
       emptyValue = settings.getIsNull(EMPTY_VALUE) ? null : settings.getString(EMPTY_VALUE);
+      splitSize = settings.getBytes(SPLIT_SIZE);
+      if (splitSize < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for dsbulk.connector.csv.%s: Expecting positive or zero size, got: '%s'",
+                SPLIT_SIZE, settings.getString(SPLIT_SIZE)));
+      }
+      embeddedNewlines = settings.getBoolean(EMBEDDED_NEWLINES);
+      memoryMapped = settings.getBoolean(MEMORY_MAPPED);
       if (!AUTO_NEWLINE.equalsIgnoreCase(newline) && (newline.isEmpty() || newline.length() > 2)) {
         throw new IllegalArgumentException(
             String.format(
@@ -182,6 +210,9 @@ public class CSVConnector extends AbstractFileBasedConnector {
       } else {
         format.setLineSeparator(newline);
       }
+      // chunks of split files never contain the header line
+      splitParserSettings = parserSettings.clone();
+      splitParserSettings.setHeaderExtractionEnabled(false);
     } else {
       writerSettings = new CsvWriterSettings();
       writerSettings.setFormat(format);
@@ -208,6 +239,27 @@ public class CSVConnector extends AbstractFileBasedConnector {
     return (field, cqlType) -> STRING_TYPE;
   }
 
+  @Override
+  public int readConcurrency() {
+    int readConcurrency = super.readConcurrency();
+    if (splitSize > 0 && readConcurrency < maxConcurrentFiles) {
+      // each chunk of a split file counts as a separate resource
+      long resources = resourceCount;
+      for (URL url : files) {
+        Path file = getSplittableFile(url);
+        if (file != null) {
+          try {
+            resources += (Files.size(file) - 1) / splitSize;
+          } catch (IOException ignored) {
+            // will be reported when reading
+          }
+        }
+      }
+      readConcurrency = (int) Math.min(resources, maxConcurrentFiles);
+    }
+    return readConcurrency;
+  }
+
   @Override
   public boolean supports(@NonNull ConnectorFeature feature) {
     if (feature instanceof CommonConnectorFeature) {
@@ -221,6 +273,8 @@ public class CSVConnector extends AbstractFileBasedConnector {
           return true;
         case DATA_SIZE_SAMPLING:
           return isDataSizeSamplingAvailable();
+        case READS_ON_OWN_THREADS:
+          return isReadingOnVirtualThreads();
       }
     }
     return false;
@@ -232,25 +286,178 @@ public class CSVConnector extends AbstractFileBasedConnector {
     return new CSVRecordReader(url);
   }
 
+  @NonNull
+  @Override
+  protected Flux<Flux<Record>> readSplits(@NonNull URL url) {
+    Path file = getSplittableFile(url);
+    if (file == null) {
+      return super.readSplits(url);
+    }
+    return Flux.defer(
+        () -> {
+          RecordSchema headerSchema = null;
+          if (header) {
+            // parse the header line only, chunks will share its schema
+            try (CSVRecordReader reader = new CSVRecordReader(url)) {
+              headerSchema = reader.headerSchema;
+            } catch (IOException e) {
+              return Flux.error(e);
+            }
+          }
+          RecordSchema schema = headerSchema;
+          return Flux.generate(
+              () -> newSplitter(url, file),
+              (CSVFileSplitter splitter, SynchronousSink<Flux<Record>> sink) -> {
+                try {
+                  CSVFileSplitter.Split split = splitter.next();
+                  if (split == null) {
+                    sink.complete();
+                  } else {
+                    LOGGER.debug("Reading {} range {}", url, split);
+                    sink.next(
+                        readSplit(url, file, schema, newSplitParserSettings(splitter), split));
+                  }
+                } catch (IOException e) {
+                  sink.error(new IOException("Error splitting " + url, e));
+                }
+                return splitter;
+              },
+              splitter -> {
+                try {
+                  splitter.close();
+                } catch (IOException e) {
+                  LOGGER.error("Error closing " + url, e);
+                }
+              });
+        });
+  }
+
+  @NonNull
+  private CSVFileSplitter newSplitter(@NonNull URL url, @NonNull Path file) throws IOException {
+    try {
+      return new CSVFileSplitter(
+          file,
+          splitSize,
+          delimiter.charAt(0),
+          quote,
+          escape,
+          embeddedNewlines,
+          ignoreLeadingWhitespaces,
+          header,
+          AUTO_NEWLINE.equalsIgnoreCase(newline) ? null : newline.equals("\r\n"),
+          memoryMapped);
+    } catch (IOException e) {
+      throw new IOException("Error splitting " + url, e);
+    }
+  }
+
+  @NonNull
+  private CsvParserSettings newSplitParserSettings(@NonNull CSVFileSplitter splitter) {
+    CsvParserSettings settings = splitParserSettings;
+    if (settings.isLineSeparatorDetectionEnabled()) {
+      // each chunk could detect a different line separator: use the one of the first line,
+      // as detected by the splitter, which is also what the parser would detect for the file
+      settings = settings.clone();
+      settings.setLineSeparatorDetectionEnabled(false);
+      settings.getFormat().setLineSeparator(splitter.isCrlf() ? "\r\n" : "\n");
+    }
+    return settings;
+  }
+
+  @NonNull
+  private Flux<Record> readSplit(
+      @NonNull URL url,
+      @NonNull Path file,
+      RecordSchema headerSchema,
+      @NonNull CsvParserSettings settings,
+      @NonNull CSVFileSplitter.Split split) {
+    return Flux.generate(
+        () -> new CSVRecordReader(url, file, headerSchema, settings, split),
+        RecordReader::readNext,
+        recordReader -> {
+          try {
+            recordReader.close();
+          } catch (IOException e) {
+            LOGGER.error("Error closing " + url, e);
+          }
+        });
+  }
+
+  /**
+   * Returns the local file to read if it can be split in chunks to be parsed concurrently, or null
+   * otherwise. Splitting requires a local, uncompressed file larger than {@code splitSize}, a
+   * charset that encodes line feeds, delimiters and quotes as single bytes, and record positions
+   * that can be computed for each chunk independently.
+   */
+  private Path getSplittableFile(@NonNull URL url) {
+    if (splitSize <= 0
+        || !"file".equals(url.getProtocol())
+        || !CompressedIOUtils.isNoneCompression(compression)
+        || !SPLITTABLE_CHARSETS.contains(encoding)
+        || delimiter.length() != 1
+        || comment != '\0'
+        || !(AUTO_NEWLINE.equalsIgnoreCase(newline) || newline.endsWith("\n"))
+        || skipRecords != 0
+        || maxRecords != -1) {
+      return null;
+    }
+    try {
+      Path file = Paths.get(url.toURI());
+      return Files.isRegularFile(file) && Files.size(file) > splitSize ? file : null;
+    } catch (URISyntaxException | IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
   private class CSVRecordReader implements RecordReader {
 
     private final URL url;
     private final URI resource;
     private final CsvParser parser;
     private final ParsingContext context;
-    private final MappedField[] fieldNames;
+    private final RecordSchema headerSchema;
+    private final CSVFileSplitter.Split split;
+
+    // schema for files without header, created lazily and replaced if the row width changes
+    private RecordSchema indexedSchema;
 
-    private long recordNumber = 1;
+    private long recordNumber;
 
     private CSVRecordReader(URL url) throws IOException {
       this.url = url;
+      recordNumber = 1;
       try {
         resource = URI.create(url.toExternalForm());
         parser = new CsvParser(parserSettings);
-        Reader r = CompressedIOUtils.newBufferedReader(url, encoding, compression);
+        Reader r = CompressedIOUtils.newBufferedReader(url, encoding, compression, memoryMapped);
+        parser.beginParsing(r);
+        context = parser.getContext();
+        // named fields followed by indexed fields, as records can be mapped either way
+        headerSchema =
+            header ? RecordSchema.mapped(getFieldNames(url, context)).withIndexedFields() : null;
+      } catch (Exception e) {
+        throw asIOException(url, e, "Error creating CSV parser for " + url);
+      }
+      split = null;
+    }
+
+    private CSVRecordReader(
+        URL url,
+        Path file,
+        RecordSchema headerSchema,
+        CsvParserSettings settings,
+        CSVFileSplitter.Split split)
+        throws IOException {
+      this.url = url;
+      this.headerSchema = headerSchema;
+      this.split = split;
+      recordNumber = split.firstRecord;
+      try {
+        resource = URI.create(url.toExternalForm());
+        parser = new CsvParser(settings);
+        Reader r = IOUtils.newBufferedReader(file, split.start, split.end, encoding, memoryMapped);
         parser.beginParsing(r);
         context = parser.getContext();
-        fieldNames = header ? getFieldNames(url, context) : null;
       } catch (Exception e) {
         throw asIOException(url, e, "Error creating CSV parser for " + url);
       }
@@ -292,7 +499,21 @@ public class CSVConnector extends AbstractFileBasedConnector {
           LOGGER.trace("Emitting record {}", record);
           sink.next(record);
         } else {
-          LOGGER.debug("Done reading {}", url);
+          if (split == null) {
+            LOGGER.debug("Done reading {}", url);
+          } else {
+            LOGGER.debug("Done reading {} range {}", url, split);
+            long parsed = recordNumber - split.firstRecord;
+            if (parsed != split.records) {
+              LOGGER.warn(
+                  "Expected {} records in {} range {}, but parsed {}; "
+                      + "record positions in this file may be inaccurate.",
+                  split.records,
+                  url,
+                  split,
+                  parsed);
+            }
+          }
           sink.complete();
         }
       } catch (Exception e) {
@@ -310,17 +531,14 @@ public class CSVConnector extends AbstractFileBasedConnector {
       Record record;
       try {
         Object[] values = row.getValues();
-        if (header) {
-          record = DefaultRecord.mapped(source, resource, recordNumber++, fieldNames, values);
-          // also emit indexed fields
-          for (int i = 0; i < values.length; i++) {
-            DefaultIndexedField field = new DefaultIndexedField(i);
-            Object value = values[i];
-            ((DefaultRecord) record).setFieldValue(field, value);
+        RecordSchema schema = headerSchema;
+        if (schema == null) {
+          if (indexedSchema == null || indexedSchema.width() != values.length) {
+            indexedSchema = RecordSchema.indexed(values.length);
           }
-        } else {
-          record = DefaultRecord.indexed(source, resource, recordNumber++, values);
+          schema = indexedSchema;
         }
+        record = new ArrayBackedRecord(source, resource, recordNumber++, schema, values);
       } catch (Exception e) {
         record = new DefaultErrorRecord(source, resource, recordNumber, e);
       }
@@ -0,0 +1,313 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+import com.datastax.oss.dsbulk.io.IOUtils;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Splits a local CSV file into ranges of bytes that can be parsed independently, and counts the
+ * records in each range, so that parsers of ranges can number their records exactly like a parser
+ * of the whole file would.
+ *
+ * <p>Ranges always begin at the beginning of a record, and end after a line feed character. When
+ * values may contain line breaks, the splitter tracks whether each line feed is inside a quoted
+ * value or not, following the same rules as the CSV parser: a value is quoted if it starts with the
+ * quote character (optionally preceded by whitespace, if leading whitespace is ignored); a quoted
+ * value ends with a quote character followed by optional whitespace and then by a delimiter or a
+ * line break; inside a quoted value, the escape character followed by a quote character is a
+ * literal quote.
+ *
+ * <p>Empty lines are not counted as records. The header line, if any, is not counted either, and is
+ * not included in any range.
+ *
+ * <p>The file is scanned sequentially, and lazily: each call to {@link #next()} scans just enough
+ * bytes to produce the next range. This scan is much cheaper than parsing, and only requires the
+ * file charset to encode line feeds, delimiters, quotes and escape characters as single bytes that
+ * cannot appear inside multi-byte characters, which is the case of UTF-8 and ASCII-compatible
+ * single-byte charsets.
+ */
+class CSVFileSplitter implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private enum State {
+    /** Outside quotes. */
+    UNQUOTED,
+    /** Inside a quoted value. */
+    QUOTED,
+    /** Inside a quoted value, right after an escape character. */
+    ESCAPED,
+    /** Inside a quoted value, right after a quote that may close the value. */
+    QUOTE,
+    /** Right after a quote that may close the value, and whitespace. */
+    QUOTE_WHITESPACE
+  }
+
+  private final long splitSize;
+  private final byte delimiter;
+  private final byte quote;
+  private final byte escape;
+  private final boolean embeddedNewlines;
+  private final boolean ignoreLeadingWhitespaces;
+  private final long fileSize;
+  private final InputStream in;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  private int bufferPosition;
+  private int bufferLimit;
+  private long offset;
+
+  private boolean headerPending;
+  private State state = State.UNQUOTED;
+  private boolean fieldStart = true;
+  private boolean lineHasContent;
+  private boolean pendingCarriageReturn;
+  private Boolean crlf;
+
+  private long splitStart;
+  private long nextRecord = 1;
+
+  /**
+   * Creates a new splitter.
+   *
+   * @param file The file to split.
+   * @param splitSize The minimum size of each range, in bytes; ranges are extended up to the end of
+   *     the record where this size is reached.
+   * @param delimiter The field delimiter.
+   * @param quote The quote character.
+   * @param escape The character used to escape quotes inside quoted values.
+   * @param embeddedNewlines Whether quoted values may contain line breaks; if false, every line
+   *     feed is assumed to end a record, and quotes are not tracked.
+   * @param ignoreLeadingWhitespaces Whether leading whitespace in values is ignored; if true, lines
+   *     containing only whitespace are considered empty, and quotes may be preceded by whitespace.
+   * @param header Whether the file starts with a header line.
+   * @param crlf Whether lines end with CRLF, in which case a carriage return followed by a line
+   *     feed is not considered as content; or null to detect it from the first line feed in the
+   *     file, like the parser does.
+   * @param memoryMapped Whether to scan the file through memory-mapped windows.
+   * @throws IOException If the file cannot be opened.
+   */
+  CSVFileSplitter(
+      @NonNull Path file,
+      long splitSize,
+      char delimiter,
+      char quote,
+      char escape,
+      boolean embeddedNewlines,
+      boolean ignoreLeadingWhitespaces,
+      boolean header,
+      @Nullable Boolean crlf,
+      boolean memoryMapped)
+      throws IOException {
+    this.splitSize = splitSize;
+    this.delimiter = (byte) delimiter;
+    this.quote = (byte) quote;
+    this.escape = (byte) escape;
+    this.embeddedNewlines = embeddedNewlines;
+    this.ignoreLeadingWhitespaces = ignoreLeadingWhitespaces;
+    this.headerPending = header;
+    this.crlf = crlf;
+    fileSize = Files.size(file);
+    in = IOUtils.newInputStream(file, 0, fileSize, memoryMapped);
+  }
+
+  /**
+   * Scans the file up to the end of the next range.
+   *
+   * @return The next range, or null if the whole file has been scanned.
+   * @throws IOException If the file cannot be read.
+   */
+  @Nullable
+  Split next() throws IOException {
+    long records = 0;
+    while (true) {
+      if (bufferPosition == bufferLimit) {
+        bufferLimit = in.read(buffer, 0, BUFFER_SIZE);
+        bufferPosition = 0;
+        if (bufferLimit <= 0) {
+          bufferLimit = 0;
+          // end of file: the last record may not end with a line break
+          if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            markContent((byte) '\r');
+          }
+          if (lineHasContent && !headerPending) {
+            records++;
+          }
+          lineHasContent = false;
+          if (offset > splitStart && (records > 0 || nextRecord == 1)) {
+            return newSplit(offset, records);
+          }
+          return null;
+        }
+      }
+      byte b = buffer[bufferPosition++];
+      offset++;
+      if (pendingCarriageReturn) {
+        pendingCarriageReturn = false;
+        if (crlf == null && b == '\n') {
+          crlf = true;
+        }
+        if (b != '\n' || !crlf) {
+          markContent((byte) '\r');
+        }
+      }
+      if (crlf == null && b == '\n') {
+        crlf = false;
+      }
+      if (b == '\n' && (!embeddedNewlines || state == State.UNQUOTED || isQuoteClosed())) {
+        // end of record
+        state = State.UNQUOTED;
+        fieldStart = true;
+        if (lineHasContent) {
+          lineHasContent = false;
+          if (headerPending) {
+            headerPending = false;
+            splitStart = offset;
+          } else {
+            records++;
+            if (offset - splitStart >= splitSize) {
+              return newSplit(offset, records);
+            }
+          }
+        } else if (headerPending) {
+          // empty lines before the header
+          splitStart = offset;
+        }
+      } else {
+        if (b == '\r') {
+          // content, unless it is part of a CRLF line ending
+          pendingCarriageReturn = true;
+        } else {
+          markContent(b);
+        }
+        if (embeddedNewlines) {
+          track(b);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return whether lines end with CRLF, as specified when creating this splitter, or as detected
+   *     from the first line feed scanned so far.
+   */
+  boolean isCrlf() {
+    return Boolean.TRUE.equals(crlf);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private Split newSplit(long end, long records) {
+    Split split = new Split(splitStart, end, nextRecord, records);
+    splitStart = end;
+    nextRecord += records;
+    return split;
+  }
+
+  private void markContent(byte b) {
+    if (!ignoreLeadingWhitespaces || lineHasContent || !isWhitespace(b)) {
+      lineHasContent = true;
+    }
+  }
+
+  /** Whether a line feed in the current state closes the current quoted value. */
+  private boolean isQuoteClosed() {
+    return state == State.QUOTE || state == State.QUOTE_WHITESPACE;
+  }
+
+  private void track(byte b) {
+    switch (state) {
+      case UNQUOTED:
+        if (b == delimiter) {
+          fieldStart = true;
+        } else if (fieldStart && b == quote) {
+          state = State.QUOTED;
+          fieldStart = false;
+        } else if (!(fieldStart && ignoreLeadingWhitespaces && isWhitespace(b))) {
+          fieldStart = false;
+        }
+        break;
+      case QUOTED:
+        if (b == escape && escape != quote) {
+          state = State.ESCAPED;
+        } else if (b == quote) {
+          state = State.QUOTE;
+        }
+        break;
+      case ESCAPED:
+        state = b == escape && escape != quote ? State.ESCAPED : State.QUOTED;
+        break;
+      case QUOTE:
+      case QUOTE_WHITESPACE:
+        if (b == delimiter) {
+          state = State.UNQUOTED;
+          fieldStart = true;
+        } else if (b == ' ' || b == '\t' || b == '\r') {
+          state = State.QUOTE_WHITESPACE;
+        } else if (b == quote && state == State.QUOTE) {
+          // doubled quote: a literal quote
+          state = State.QUOTED;
+        } else {
+          // a literal quote inside the quoted value
+          state = b == quote ? State.QUOTE : State.QUOTED;
+        }
+        break;
+    }
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b >= 0 && b <= ' ';
+  }
+
+  /** A range of bytes of the file, starting at the beginning of a record. */
+  static final class Split {
+
+    /** The offset of the first byte of the range, inclusive. */
+    final long start;
+
+    /** The offset of the last byte of the range, exclusive. */
+    final long end;
+
+    /** The position of the first record in the range. */
+    final long firstRecord;
+
+    /** The number of records in the range. */
+    final long records;
+
+    Split(long start, long end, long firstRecord, long records) {
+      this.start = start;
+      this.end = end;
+      this.firstRecord = firstRecord;
+      this.records = records;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "[%d, %d) (records %d to %d)", start, end, firstRecord, firstRecord + records - 1);
+    }
+  }
+}
@@ -30,6 +30,7 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 import com.datastax.oss.driver.shaded.guava.common.base.Charsets;
 import com.datastax.oss.driver.shaded.guava.common.base.Strings;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
@@ -60,6 +61,7 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -68,6 +70,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -81,6 +86,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.reactivestreams.Publisher;
@@ -488,6 +494,36 @@ class CSVConnectorTest {
     connector.close();
   }
 
+  @Test
+  void should_read_all_resources_in_directory_with_virtual_threads() throws Exception {
+    CSVConnector connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.csv",
+            "url",
+            url("/root"),
+            "recursive",
+            true,
+            "maxConcurrentFiles",
+            5,
+            "virtualThreads",
+            true);
+    connector.configure(settings, true, true);
+    connector.init();
+    Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+    assertThat(
+            Flux.merge(connector.read())
+                .doOnNext(record -> virtual.add(isVirtual(Thread.currentThread())))
+                .count()
+                .block())
+        .isEqualTo(500);
+    // virtual threads are only available with Java 21+, readers run on the caller thread otherwise
+    assertThat(virtual).containsExactly(hasVirtualThreads());
+    assertThat(connector.supports(CommonConnectorFeature.READS_ON_OWN_THREADS))
+        .isEqualTo(hasVirtualThreads());
+    connector.close();
+  }
+
   @Test
   void should_scan_directory_recursively_with_custom_file_name_format() throws Exception {
     CSVConnector connector = new CSVConnector();
@@ -1931,4 +1967,116 @@ class CSVConnectorTest {
   private static URL rawURL(String resource) {
     return CSVConnectorTest.class.getResource(resource);
   }
+
+  @ParameterizedTest(
+      name = "[{index}] header {0}, embedded newlines {1}, CRLF {2}, memory-mapped {3}")
+  @CsvSource({
+    "true,true,false,false",
+    "false,true,false,false",
+    "true,false,false,false",
+    "false,false,false,false",
+    "true,true,true,false",
+    "false,false,true,false",
+    "true,true,false,true",
+    "false,false,true,true"
+  })
+  void should_read_split_file_like_whole_file(
+      boolean header, boolean embeddedNewlines, boolean crlf, boolean memoryMapped)
+      throws Exception {
+    String eol = crlf ? "\r\n" : "\n";
+    StringBuilder sb = new StringBuilder();
+    sb.append(eol).append("a,b,c").append(eol);
+    for (int i = 0; i < 50; i++) {
+      if (i % 7 == 0) {
+        sb.append(eol);
+      }
+      if (!crlf && !header && i % 11 == 0) {
+        // a record containing a single carriage return
+        sb.append("\r\n");
+      }
+      if (embeddedNewlines && i % 3 == 0) {
+        sb.append(i).append(",\"multi").append(eol).append("line, \\\"quoted\\\"\",x");
+      } else if (i % 5 == 0) {
+        sb.append(i).append(",\"plain, \\\"quoted\\\"\",y");
+      } else {
+        sb.append(i).append(",unquoted \u00e9").append(i).append(",z");
+      }
+      sb.append(eol);
+    }
+    sb.append("50,last,record");
+    Path file = Files.createTempFile("split", ".csv");
+    try {
+      Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+      List<Record> expected = readFile(file, header, 0, embeddedNewlines, false, 1);
+      List<Record> actual = readFile(file, header, 32, embeddedNewlines, memoryMapped, -1);
+      assertThat(expected)
+          .hasSize(header ? 51 : (crlf ? 52 : 57))
+          .allMatch(ArrayBackedRecord.class::isInstance);
+      assertThat(actual).hasSameSizeAs(expected);
+      for (int i = 0; i < expected.size(); i++) {
+        Record e = expected.get(i);
+        Record a = actual.get(i);
+        assertThat(a.getPosition()).isEqualTo(e.getPosition());
+        assertThat(a.getResource()).isEqualTo(e.getResource());
+        assertThat(a.getSource()).isEqualTo(e.getSource());
+        assertThat(a.fields()).isEqualTo(e.fields());
+        assertThat(a.values()).isEqualTo(e.values());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static List<Record> readFile(
+      Path file,
+      boolean header,
+      long splitSize,
+      boolean embeddedNewlines,
+      boolean memoryMapped,
+      int expectedConcurrency)
+      throws Exception {
+    CSVConnector connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.csv",
+            "url",
+            StringUtils.quoteJson(file),
+            "header",
+            header,
+            "splitSize",
+            splitSize,
+            "embeddedNewlines",
+            embeddedNewlines,
+            "memoryMapped",
+            memoryMapped,
+            "maxConcurrentFiles",
+            4);
+    connector.configure(settings, true, true);
+    connector.init();
+    if (expectedConcurrency > 0) {
+      assertThat(connector.readConcurrency()).isEqualTo(expectedConcurrency);
+    } else {
+      assertThat(connector.readConcurrency()).isEqualTo(4);
+    }
+    List<Record> records = Flux.concat(connector.read()).collectList().block();
+    connector.close();
+    return records;
+  }
+
+  private static boolean hasVirtualThreads() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException | RuntimeException e) {
+      return false;
+    }
+  }
+
+  private static boolean isVirtual(Thread thread) {
+    try {
+      return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    } catch (ReflectiveOperationException e) {
+      return false;
+    }
+  }
 }
@@ -166,6 +166,8 @@ public class JsonConnector extends AbstractFileBasedConnector {
           return false;
         case DATA_SIZE_SAMPLING:
           return isDataSizeSamplingAvailable();
+        case READS_ON_OWN_THREADS:
+          return isReadingOnVirtualThreads();
       }
     }
     return false;
@@ -17,11 +17,21 @@ package com.datastax.oss.dsbulk.executor.api;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.datastax.oss.dsbulk.executor.api.limiter.AdaptiveConcurrencyLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.straggler.StragglerMitigator;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /** Base class for implementations of {@link BulkExecutor}. */
 public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseable {
@@ -38,12 +48,39 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
 
   protected final @Nullable Semaphore maxConcurrentRequests;
 
+  protected final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+
+  protected final @Nullable BytesLimiter bytesLimiter;
+
   protected final @Nullable RateLimiter rateLimiter;
 
+  protected final @NonNull PagingOptions pagingOptions;
+
   protected final @Nullable ExecutionListener listener;
 
+  protected final @Nullable AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+  protected final @Nullable StragglerMitigator stragglerMitigator;
+
+  /**
+   * The executor to fetch pages from when prefetch is disabled and the paging options do not
+   * provide one; owned by this executor and shut down when it is closed.
+   */
+  private final @Nullable ExecutorService fetchExecutor;
+
   protected AbstractBulkExecutor(CqlSession session) {
-    this(session, true, DEFAULT_MAX_IN_FLIGHT_REQUESTS, DEFAULT_MAX_REQUESTS_PER_SECOND, null);
+    this(
+        session,
+        true,
+        DEFAULT_MAX_IN_FLIGHT_REQUESTS,
+        -1,
+        DEFAULT_MAX_REQUESTS_PER_SECOND,
+        -1,
+        -1,
+        PagingOptions.DEFAULT,
+        null,
+        null,
+        null);
   }
 
   protected AbstractBulkExecutor(AbstractBulkExecutorBuilder<?> builder) {
@@ -51,27 +88,93 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
         builder.session,
         builder.failFast,
         builder.maxInFlightRequests,
+        builder.maxInFlightRequestsPerNode,
         builder.maxRequestsPerSecond,
-        builder.listener);
+        builder.maxBytesPerSecond,
+        builder.maxBytesInFlight,
+        builder.pagingOptions,
+        builder.listener,
+        builder.concurrencyLimiter,
+        builder.stragglerMitigator);
   }
 
   private AbstractBulkExecutor(
       @NonNull CqlSession session,
       boolean failFast,
       int maxInFlightRequests,
+      int maxInFlightRequestsPerNode,
       int maxRequestsPerSecond,
-      @Nullable ExecutionListener listener) {
+      long maxBytesPerSecond,
+      long maxBytesInFlight,
+      @NonNull PagingOptions pagingOptions,
+      @Nullable ExecutionListener listener,
+      @Nullable AdaptiveConcurrencyLimiter concurrencyLimiter,
+      @Nullable StragglerMitigator stragglerMitigator) {
     Objects.requireNonNull(session, "session cannot be null");
     this.session = session;
     this.failFast = failFast;
-    this.maxConcurrentRequests =
-        maxInFlightRequests <= 0 ? null : new Semaphore(maxInFlightRequests);
+    if (concurrencyLimiter != null) {
+      this.maxConcurrentRequests = concurrencyLimiter.getPermits();
+      concurrencyLimiter.start();
+    } else {
+      this.maxConcurrentRequests =
+          maxInFlightRequests <= 0 ? null : new Semaphore(maxInFlightRequests);
+    }
+    this.maxConcurrentRequestsPerNode =
+        maxInFlightRequestsPerNode <= 0
+            ? null
+            : new PerNodeInFlightLimiter(session, maxInFlightRequestsPerNode);
+    this.bytesLimiter =
+        maxBytesPerSecond <= 0 && maxBytesInFlight <= 0
+            ? null
+            : new BytesLimiter(session, maxBytesPerSecond, maxBytesInFlight);
     this.rateLimiter = maxRequestsPerSecond <= 0 ? null : RateLimiter.create(maxRequestsPerSecond);
+    Objects.requireNonNull(pagingOptions, "pagingOptions cannot be null");
+    if (!pagingOptions.isPrefetch() && pagingOptions.getFetchExecutor() == null) {
+      this.fetchExecutor = newFetchExecutor();
+      this.pagingOptions = pagingOptions.withFetchExecutor(fetchExecutor);
+    } else {
+      this.fetchExecutor = null;
+      this.pagingOptions = pagingOptions;
+    }
     this.listener = listener;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.stragglerMitigator = stragglerMitigator;
+    if (stragglerMitigator != null) {
+      stragglerMitigator.start();
+    }
+  }
+
+  /**
+   * Creates the executor to fetch pages from when prefetch is disabled. Fetching a page only blocks
+   * while acquiring permits, so a small number of threads, bounded by the number of processors,
+   * suffices; idle threads are reclaimed.
+   */
+  private static ExecutorService newFetchExecutor() {
+    int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("page-fetcher-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   @Override
   public void close() {
-    // no-op
+    if (fetchExecutor != null) {
+      // interrupt fetches still waiting for permits, they fail their query
+      fetchExecutor.shutdownNow();
+    }
+    if (concurrencyLimiter != null) {
+      concurrencyLimiter.close();
+    }
+    if (stragglerMitigator != null) {
+      stragglerMitigator.close();
+    }
   }
 }
@@ -16,7 +16,10 @@
 package com.datastax.oss.dsbulk.executor.api;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.dsbulk.executor.api.limiter.AdaptiveConcurrencyLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.straggler.StragglerMitigator;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
 
 @SuppressWarnings("WeakerAccess")
 public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
@@ -30,8 +33,20 @@ public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
 
   protected int maxRequestsPerSecond = AbstractBulkExecutor.DEFAULT_MAX_REQUESTS_PER_SECOND;
 
+  protected int maxInFlightRequestsPerNode = -1;
+
+  protected long maxBytesPerSecond = -1;
+
+  protected long maxBytesInFlight = -1;
+
+  protected PagingOptions pagingOptions = PagingOptions.DEFAULT;
+
   protected ExecutionListener listener;
 
+  protected AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+  protected StragglerMitigator stragglerMitigator;
+
   protected AbstractBulkExecutorBuilder(CqlSession session) {
     this.session = session;
   }
@@ -57,10 +72,55 @@ public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
     return this;
   }
 
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withMaxInFlightRequestsPerNode(
+      int maxInFlightRequestsPerNode) {
+    this.maxInFlightRequestsPerNode = maxInFlightRequestsPerNode;
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withMaxBytesPerSecond(long maxBytesPerSecond) {
+    this.maxBytesPerSecond = maxBytesPerSecond;
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withMaxBytesInFlight(long maxBytesInFlight) {
+    this.maxBytesInFlight = maxBytesInFlight;
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withPagingOptions(PagingOptions pagingOptions) {
+    this.pagingOptions = pagingOptions;
+    return this;
+  }
+
   @Override
   @SuppressWarnings("UnusedReturnValue")
   public AbstractBulkExecutorBuilder<T> withExecutionListener(ExecutionListener listener) {
     this.listener = listener;
     return this;
   }
+
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withAdaptiveConcurrencyLimiter(
+      AdaptiveConcurrencyLimiter concurrencyLimiter) {
+    this.concurrencyLimiter = concurrencyLimiter;
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withStragglerMitigator(
+      StragglerMitigator stragglerMitigator) {
+    this.stragglerMitigator = stragglerMitigator;
+    return this;
+  }
 }
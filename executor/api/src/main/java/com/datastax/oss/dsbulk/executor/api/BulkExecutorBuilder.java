@@ -17,10 +17,13 @@ package com.datastax.oss.dsbulk.executor.api;
 
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
+import com.datastax.oss.dsbulk.executor.api.limiter.AdaptiveConcurrencyLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.Result;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.api.straggler.StragglerMitigator;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
 
 /** A builder for {@link BulkExecutor} instances. */
 public interface BulkExecutorBuilder<T extends BulkExecutor> {
@@ -83,6 +86,70 @@ public interface BulkExecutorBuilder<T extends BulkExecutor> {
   @SuppressWarnings("UnusedReturnValue")
   BulkExecutorBuilder<T> withMaxRequestsPerSecond(int maxRequestsPerSecond);
 
+  /**
+   * Sets the maximum number of in-flight requests per node. If that limit is reached for any of the
+   * replicas of a request, the executor will block until the number of in-flight requests for that
+   * replica drops below the threshold. <em>This feature should not be used in a fully non-blocking
+   * application</em>.
+   *
+   * <p>Unlike {@link #withMaxInFlightRequests(int)}, this limit only throttles requests targeting a
+   * saturated node, and lets requests targeting other nodes proceed. It is applied in addition to
+   * the global limit. Replicas are determined from the session's token map and the statement's
+   * routing information; requests whose replicas cannot be determined are not subject to this
+   * limit. The default is -1, i.e., disabled. Setting this option to any negative value or zero
+   * will disable it.
+   *
+   * @param maxInFlightRequestsPerNode the maximum number of in-flight requests per node.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withMaxInFlightRequestsPerNode(int maxInFlightRequestsPerNode);
+
+  /**
+   * Sets the maximum number of bytes per second. If that limit is reached, the executor will block
+   * until the number of bytes per second drops below the threshold. <em>This feature should not be
+   * used in a fully non-blocking application</em>.
+   *
+   * <p>Bytes are computed with {@link com.datastax.oss.dsbulk.sampler.DataSizes DataSizes}: when
+   * writing, this is the data size of each statement; when reading, this is the data size of each
+   * row received. This limit is applied in addition to {@link #withMaxRequestsPerSecond(int)}. The
+   * default is -1, i.e., disabled. Setting this option to any negative value or zero will disable
+   * it.
+   *
+   * @param maxBytesPerSecond the maximum number of bytes per second.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withMaxBytesPerSecond(long maxBytesPerSecond);
+
+  /**
+   * Sets the maximum number of in-flight bytes. If that limit is reached, the executor will block
+   * until the number of in-flight bytes drops below the threshold. <em>This feature should not be
+   * used in a fully non-blocking application</em>.
+   *
+   * <p>Bytes are computed with {@link com.datastax.oss.dsbulk.sampler.DataSizes DataSizes}: when
+   * writing, this is the data size of each statement; when reading, since the size of a page cannot
+   * be known before it is received, the data size of the previous page is used as an estimate. This
+   * limit is applied in addition to {@link #withMaxInFlightRequests(int)}. The default is -1, i.e.,
+   * disabled. Setting this option to any negative value or zero will disable it.
+   *
+   * @param maxBytesInFlight the maximum number of in-flight bytes.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withMaxBytesInFlight(long maxBytesInFlight);
+
+  /**
+   * Sets the {@link PagingOptions} to use for reads: how many pages, or how many bytes, can be
+   * received ahead of their consumption, and whether the next page should be requested as soon as
+   * the current one arrives. The default is {@link PagingOptions#DEFAULT}.
+   *
+   * @param pagingOptions the paging options to use.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withPagingOptions(PagingOptions pagingOptions);
+
   /**
    * Sets an optional {@link ExecutionListener}.
    *
@@ -92,6 +159,35 @@ public interface BulkExecutorBuilder<T extends BulkExecutor> {
   @SuppressWarnings("UnusedReturnValue")
   BulkExecutorBuilder<T> withExecutionListener(ExecutionListener listener);
 
+  /**
+   * Sets an optional {@link AdaptiveConcurrencyLimiter}.
+   *
+   * <p>When set, the maximum number of in-flight requests is controlled by the limiter, and is
+   * adjusted while the executor runs according to observed latencies; the value set with {@link
+   * #withMaxInFlightRequests(int)} is then ignored. The limiter is started when the executor is
+   * built, and closed when the executor is closed.
+   *
+   * @param concurrencyLimiter the {@link AdaptiveConcurrencyLimiter} to use.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withAdaptiveConcurrencyLimiter(
+      AdaptiveConcurrencyLimiter concurrencyLimiter);
+
+  /**
+   * Sets an optional {@link StragglerMitigator}.
+   *
+   * <p>When set, page requests of reads that take longer than a percentile of the latencies
+   * observed so far are speculatively re-executed on another replica. Only applicable to reads that
+   * do not use continuous paging. The mitigator is started when the executor is built, and closed
+   * when the executor is closed.
+   *
+   * @param stragglerMitigator the {@link StragglerMitigator} to use.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withStragglerMitigator(StragglerMitigator stragglerMitigator);
+
   /**
    * Builds a new instance.
    *
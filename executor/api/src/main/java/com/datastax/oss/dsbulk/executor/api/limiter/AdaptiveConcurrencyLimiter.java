@@ -0,0 +1,236 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.limiter;
+
+import com.codahale.metrics.Gauge;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A concurrency limiter that periodically adjusts the maximum number of in-flight requests
+ * according to observed latencies, using an Additive-Increase/Multiplicative-Decrease (AIMD)
+ * algorithm.
+ *
+ * <p>Latencies are read from the {@linkplain
+ * MetricsCollectingExecutionListener#getTotalReadsWritesLatencySum() exact latency sum} and {@link
+ * MetricsCollectingExecutionListener#getTotalReadsWritesLatencyCount() count} of a {@link
+ * MetricsCollectingExecutionListener}. At each update, the mean latency observed since the previous
+ * update is compared to a baseline latency, which tracks the lowest latencies observed so far, and
+ * slowly drifts towards higher values if the cluster becomes durably slower:
+ *
+ * <ol>
+ *   <li>If the latency exceeds the baseline multiplied by the latency tolerance, the limit is
+ *       multiplied by the backoff ratio;
+ *   <li>Otherwise, the limit is increased by a fixed increment.
+ * </ol>
+ *
+ * The limit starts at a configured initial limit, which should be kept low so that the cluster is
+ * not overloaded before any latency was observed, and always stays between the configured minimum
+ * and maximum limits. It is applied to the {@link ResizableSemaphore} returned by {@link
+ * #getPermits()}, and is exposed as a gauge named {@value #LIMIT_METRIC_NAME} in the listener's
+ * registry.
+ */
+public class AdaptiveConcurrencyLimiter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+  /** The name of the gauge reporting the current limit. */
+  public static final String LIMIT_METRIC_NAME = "executor/in-flight-limit";
+
+  /**
+   * How fast the baseline latency drifts towards higher observed latencies, expressed as a fraction
+   * of the difference between the observed latency and the current baseline.
+   */
+  private static final double BASELINE_DRIFT = 0.01;
+
+  private final MetricsCollectingExecutionListener listener;
+  private final ResizableSemaphore permits;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int increment;
+  private final double latencyTolerance;
+  private final double backoffRatio;
+  private final Duration updateInterval;
+
+  private volatile int limit;
+
+  private ScheduledExecutorService scheduler;
+  private ScheduledFuture<?> updates;
+
+  // the following fields are only accessed by the scheduler thread
+
+  private long lastCount = 0;
+  private long lastSum = 0;
+  private double baseline = Double.NaN;
+
+  /**
+   * Creates a new limiter.
+   *
+   * @param listener The {@link MetricsCollectingExecutionListener} to read latencies from, and to
+   *     register the limit gauge in.
+   * @param initialLimit The initial limit; will be adjusted to fit between the minimum and maximum
+   *     limits.
+   * @param minLimit The minimum limit; must be strictly positive.
+   * @param maxLimit The maximum limit; must be greater than or equal to the minimum limit.
+   * @param increment The amount by which the limit is increased when latencies are stable; must be
+   *     strictly positive.
+   * @param latencyTolerance The maximum ratio between observed and baseline latencies above which
+   *     the limit is decreased; must be greater than 1.
+   * @param backoffRatio The ratio to apply to the limit when decreasing it; must be strictly
+   *     between 0 and 1.
+   * @param updateInterval The interval between two limit updates.
+   */
+  public AdaptiveConcurrencyLimiter(
+      @NonNull MetricsCollectingExecutionListener listener,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      int increment,
+      double latencyTolerance,
+      double backoffRatio,
+      @NonNull Duration updateInterval) {
+    if (minLimit <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting minimum limit to be strictly positive, got: " + minLimit);
+    }
+    if (maxLimit < minLimit) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expecting maximum limit to be greater than or equal to %d, got: %d",
+              minLimit, maxLimit));
+    }
+    if (increment <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting increment to be strictly positive, got: " + increment);
+    }
+    if (latencyTolerance <= 1) {
+      throw new IllegalArgumentException(
+          "Expecting latency tolerance to be greater than 1, got: " + latencyTolerance);
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException(
+          "Expecting backoff ratio to be strictly between 0 and 1, got: " + backoffRatio);
+    }
+    if (updateInterval.isNegative() || updateInterval.isZero()) {
+      throw new IllegalArgumentException(
+          "Expecting update interval to be strictly positive, got: " + updateInterval);
+    }
+    this.listener = listener;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.increment = increment;
+    this.latencyTolerance = latencyTolerance;
+    this.backoffRatio = backoffRatio;
+    this.updateInterval = updateInterval;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    this.permits = new ResizableSemaphore(limit);
+    listener.getRegistry().gauge(LIMIT_METRIC_NAME, () -> (Gauge<Integer>) this::getLimit);
+  }
+
+  /** @return the permits controlled by this limiter. */
+  @NonNull
+  public ResizableSemaphore getPermits() {
+    return permits;
+  }
+
+  /** @return the current limit, i.e., the current maximum number of in-flight requests. */
+  public int getLimit() {
+    return limit;
+  }
+
+  /** Starts adjusting the limit periodically. Calling this method more than once has no effect. */
+  public synchronized void start() {
+    if (scheduler == null) {
+      scheduler =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("concurrency-limiter-%d")
+                  .build());
+      long intervalNanos = updateInterval.toNanos();
+      updates =
+          scheduler.scheduleAtFixedRate(
+              this::update, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Computes the mean latency observed since the last update, then adjusts the limit accordingly.
+   * Does nothing if no request completed since the last update.
+   */
+  void update() {
+    try {
+      // The sum and the count are not read atomically; a latency included in the sum but not yet
+      // in the count is simply accounted for in the next interval.
+      long count = listener.getTotalReadsWritesLatencyCount();
+      long sum = listener.getTotalReadsWritesLatencySum();
+      long samples = count - lastCount;
+      if (samples > 0) {
+        double latency = (double) (sum - lastSum) / samples;
+        lastCount = count;
+        lastSum = sum;
+        if (latency > 0) {
+          adjust(latency);
+        }
+      }
+    } catch (RuntimeException e) {
+      // don't let the scheduled task die
+      LOGGER.debug("Could not update concurrency limit", e);
+    }
+  }
+
+  private void adjust(double latency) {
+    if (Double.isNaN(baseline) || latency < baseline) {
+      baseline = latency;
+    } else {
+      baseline += (latency - baseline) * BASELINE_DRIFT;
+    }
+    int newLimit;
+    if (latency > baseline * latencyTolerance) {
+      newLimit = Math.max(minLimit, (int) (limit * backoffRatio));
+    } else {
+      newLimit = Math.min(maxLimit, limit + increment);
+    }
+    if (newLimit != limit) {
+      LOGGER.trace(
+          "Adjusting concurrency limit from {} to {} (latency: {} ns, baseline: {} ns)",
+          limit,
+          newLimit,
+          latency,
+          baseline);
+      permits.setMaxPermits(newLimit);
+      limit = newLimit;
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      updates.cancel(false);
+      scheduler.shutdownNow();
+      scheduler = null;
+      updates = null;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.limiter;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regulates throughput and in-flight requests by data size rather than by number of requests.
+ *
+ * <p>Data sizes are computed with {@link DataSizes}: for writes, this is the size of all the bound
+ * values contained in the statement; for reads, this is the size of all the values contained in the
+ * rows received.
+ *
+ * <p>Note that this limiter may block the calling thread.
+ */
+public class BytesLimiter {
+
+  /**
+   * The row size assumed when estimating the size of a page before any page was received: 1 KiB, a
+   * deliberately generous guess, so that the first requests do not overshoot the in-flight limit.
+   */
+  static final long DEFAULT_ROW_SIZE = 1024;
+
+  private final ProtocolVersion protocolVersion;
+  private final CodecRegistry codecRegistry;
+  private final @Nullable RateLimiter rateLimiter;
+  private final @Nullable Semaphore maxConcurrentBytes;
+  private final int maxBytesInFlight;
+  private final int defaultPageSize;
+  private final AtomicLong receivedRows = new AtomicLong();
+  private final AtomicLong receivedBytes = new AtomicLong();
+
+  /**
+   * Creates a new limiter.
+   *
+   * @param session The {@link CqlSession} whose protocol version and codec registry will be used to
+   *     compute data sizes.
+   * @param maxBytesPerSecond The maximum number of bytes per second; zero or negative to disable.
+   * @param maxBytesInFlight The maximum number of in-flight bytes; zero or negative to disable.
+   *     Must not exceed {@link Integer#MAX_VALUE}.
+   */
+  public BytesLimiter(@NonNull CqlSession session, long maxBytesPerSecond, long maxBytesInFlight) {
+    if (maxBytesInFlight > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expecting maximum in-flight bytes to be lesser than or equal to %d, got: %d",
+              Integer.MAX_VALUE, maxBytesInFlight));
+    }
+    this.protocolVersion = session.getContext().getProtocolVersion();
+    this.codecRegistry = session.getContext().getCodecRegistry();
+    this.rateLimiter = maxBytesPerSecond <= 0 ? null : RateLimiter.create(maxBytesPerSecond);
+    this.maxConcurrentBytes = maxBytesInFlight <= 0 ? null : new Semaphore((int) maxBytesInFlight);
+    this.maxBytesInFlight = (int) maxBytesInFlight;
+    this.defaultPageSize =
+        maxBytesInFlight <= 0
+            ? 0
+            : session
+                .getContext()
+                .getConfig()
+                .getDefaultProfile()
+                .getInt(DefaultDriverOption.REQUEST_PAGE_SIZE);
+  }
+
+  /**
+   * @param statement The statement to inspect.
+   * @return the data size of the statement, in bytes.
+   */
+  public long getDataSize(@NonNull Statement<?> statement) {
+    return DataSizes.getDataSize(statement, protocolVersion, codecRegistry);
+  }
+
+  /**
+   * @param row The row to inspect.
+   * @return the data size of the row, in bytes.
+   */
+  public long getDataSize(@NonNull Row row) {
+    return DataSizes.getDataSize(row);
+  }
+
+  /**
+   * Records the size of a page received, in order to refine the average row size used by {@link
+   * #estimateDataSize(Statement)}.
+   *
+   * @param rows The number of rows in the page.
+   * @param bytes The size of the page, in bytes.
+   */
+  public void recordPage(int rows, long bytes) {
+    if (rows > 0 && bytes > 0) {
+      receivedRows.addAndGet(rows);
+      receivedBytes.addAndGet(bytes);
+    }
+  }
+
+  /**
+   * Estimates the size of the first page of the given read statement, that is, its page size
+   * multiplied by the average row size of all the pages received so far, or by {@link
+   * #DEFAULT_ROW_SIZE} if no page was received yet.
+   *
+   * @param statement The read statement to inspect.
+   * @return the estimated size of the statement's first page, in bytes.
+   */
+  public long estimateDataSize(@NonNull Statement<?> statement) {
+    int pageSize = statement.getPageSize() > 0 ? statement.getPageSize() : defaultPageSize;
+    long rows = receivedRows.get();
+    long rowSize = rows == 0 ? DEFAULT_ROW_SIZE : Math.max(1, receivedBytes.get() / rows);
+    return pageSize * rowSize;
+  }
+
+  /** @return whether in-flight bytes are limited. */
+  public boolean isInFlightLimited() {
+    return maxConcurrentBytes != null;
+  }
+
+  /**
+   * Acquires the given number of bytes from the rate limiter, blocking if necessary. Does nothing
+   * if the number of bytes per second is not limited.
+   *
+   * @param bytes The number of bytes to acquire.
+   */
+  public void acquireRate(long bytes) {
+    if (rateLimiter != null && bytes > 0) {
+      rateLimiter.acquire((int) Math.min(bytes, Integer.MAX_VALUE));
+    }
+  }
+
+  /**
+   * Acquires the given number of in-flight bytes, blocking if necessary. Does nothing if the number
+   * of in-flight bytes is not limited.
+   *
+   * <p>In order to never block indefinitely, requests larger than the maximum number of in-flight
+   * bytes only acquire that maximum.
+   *
+   * @param bytes The number of bytes to acquire.
+   * @return The number of bytes actually acquired; must be passed to {@link #releaseInFlight(int)}
+   *     once the request completes.
+   */
+  public int acquireInFlight(long bytes) {
+    if (maxConcurrentBytes != null && bytes > 0) {
+      int permits = (int) Math.min(bytes, maxBytesInFlight);
+      maxConcurrentBytes.acquireUninterruptibly(permits);
+      return permits;
+    }
+    return 0;
+  }
+
+  /**
+   * Releases the given number of in-flight bytes.
+   *
+   * @param bytes The number of bytes to release, as returned by {@link #acquireInFlight(long)}.
+   */
+  public void releaseInFlight(int bytes) {
+    if (maxConcurrentBytes != null && bytes > 0) {
+      maxConcurrentBytes.release(bytes);
+    }
+  }
+
+  /** @return the number of in-flight bytes currently available. */
+  public int availableInFlight() {
+    return maxConcurrentBytes == null ? Integer.MAX_VALUE : maxConcurrentBytes.availablePermits();
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.limiter;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.dsbulk.executor.api.routing.ReplicaLocator;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of in-flight requests per node, so that a slow or degraded node only throttles
+ * requests that are routed to it, instead of exhausting a global pool of permits shared by all
+ * nodes.
+ *
+ * <p>Each node gets its own pool of permits. A request acquires one permit from the pool of its
+ * primary replica, as located by a {@link ReplicaLocator}. Requests whose replicas cannot be
+ * determined are not limited. Acquiring a single permit per request ensures that the calling thread
+ * only waits for the node that the request is charged to, and never holds permits of one node while
+ * waiting for another one. Callers should acquire this permit before any other global resource, so
+ * that a request waiting for a slow node does not hold capacity that requests to other nodes need.
+ *
+ * <p>The limit is approximate: the permit is charged to the primary replica before the request is
+ * sent, but the driver's load balancing policy remains free to route the request to another
+ * replica, or to another node altogether, e.g. when the primary replica is down or when the policy
+ * is not token-aware.
+ *
+ * <p>Acquiring permits may block the calling thread.
+ */
+public class PerNodeInFlightLimiter {
+
+  private final ReplicaLocator locator;
+  private final int maxInFlightPerNode;
+  private final ConcurrentMap<Node, Semaphore> permits = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new limiter.
+   *
+   * @param session The {@link CqlSession} whose token map will be used to locate replicas.
+   * @param maxInFlightPerNode The maximum number of in-flight requests per node; must be strictly
+   *     positive.
+   */
+  public PerNodeInFlightLimiter(@NonNull CqlSession session, int maxInFlightPerNode) {
+    if (maxInFlightPerNode <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting maximum in-flight requests per node to be strictly positive, got: "
+              + maxInFlightPerNode);
+    }
+    this.locator = new ReplicaLocator(session);
+    this.maxInFlightPerNode = maxInFlightPerNode;
+  }
+
+  /**
+   * Acquires one permit for the primary replica of the given statement, blocking if necessary.
+   *
+   * @param statement The statement about to be executed.
+   * @return The acquired permits; they must be {@linkplain Permits#release() released} once the
+   *     request completes.
+   * @throws InterruptedException if the calling thread is interrupted while waiting; no permit is
+   *     acquired in this case.
+   */
+  @NonNull
+  public Permits acquire(@NonNull Statement<?> statement) throws InterruptedException {
+    Node replica = locator.getPrimaryReplica(statement);
+    if (replica == null) {
+      return Permits.NONE;
+    }
+    Semaphore semaphore = getNodePermits(replica);
+    semaphore.acquire();
+    return semaphore::release;
+  }
+
+  /**
+   * Returns the number of available permits for the given node.
+   *
+   * @param node The node to inspect.
+   * @return The number of available permits for the node.
+   */
+  public int availablePermits(@NonNull Node node) {
+    return getNodePermits(node).availablePermits();
+  }
+
+  @NonNull
+  private Semaphore getNodePermits(@NonNull Node node) {
+    return permits.computeIfAbsent(node, n -> new Semaphore(maxInFlightPerNode));
+  }
+
+  /** Permits acquired for a single request. */
+  @FunctionalInterface
+  public interface Permits {
+
+    /** An instance that holds no permits. */
+    Permits NONE = () -> {};
+
+    /** Releases all the permits held by this instance. */
+    void release();
+  }
+}
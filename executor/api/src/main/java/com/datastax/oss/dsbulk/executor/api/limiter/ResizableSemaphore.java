@@ -0,0 +1,59 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.limiter;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A {@link Semaphore} whose total number of permits can be changed after creation.
+ *
+ * <p>When the number of permits is reduced while some permits are in use, the number of available
+ * permits may temporarily become negative; in this case, new acquisitions will block until enough
+ * permits have been released.
+ */
+public class ResizableSemaphore extends Semaphore {
+
+  private int maxPermits;
+
+  public ResizableSemaphore(int maxPermits) {
+    super(maxPermits);
+    this.maxPermits = maxPermits;
+  }
+
+  /** @return the total number of permits, including those currently in use. */
+  public synchronized int getMaxPermits() {
+    return maxPermits;
+  }
+
+  /**
+   * Changes the total number of permits.
+   *
+   * @param newMaxPermits the new total number of permits; must be strictly positive.
+   */
+  public synchronized void setMaxPermits(int newMaxPermits) {
+    if (newMaxPermits <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting a strictly positive number of permits, got: " + newMaxPermits);
+    }
+    int delta = newMaxPermits - maxPermits;
+    if (delta > 0) {
+      release(delta);
+    } else if (delta < 0) {
+      reducePermits(-delta);
+    }
+    maxPermits = newMaxPermits;
+  }
+}
@@ -84,6 +84,11 @@ public class CompositeExecutionListener implements ExecutionListener {
     listeners.forEach(l -> l.onReadRequestFailed(statement, error, context));
   }
 
+  @Override
+  public void onPageWaitFinished(Statement<?> statement, ExecutionContext context) {
+    listeners.forEach(l -> l.onPageWaitFinished(statement, context));
+  }
+
   @Override
   public void onRowReceived(Row row, ExecutionContext context) {
     listeners.forEach(l -> l.onRowReceived(row, context));
@@ -98,6 +98,19 @@ public interface ExecutionListener {
   default void onReadRequestFailed(
       Statement<?> statement, Throwable error, ExecutionContext context) {}
 
+  /**
+   * Called when the consumer of a read request's results, after having consumed a page and having
+   * waited for the next one to arrive, is about to receive its first row. Applicable only for reads
+   * spanning several pages.
+   *
+   * <p>The time spent waiting for the first page is not reported here, since it is already included
+   * in the read latency.
+   *
+   * @param statement the executed statement.
+   * @param context the page wait context; its elapsed time is the time spent waiting for the page.
+   */
+  default void onPageWaitFinished(Statement<?> statement, ExecutionContext context) {}
+
   /**
    * Called when a statement has been successfully executed.
    *
@@ -32,6 +32,7 @@ import com.datastax.oss.dsbulk.executor.api.histogram.HdrHistogramReservoir;
 import com.datastax.oss.dsbulk.sampler.DataSizes;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 /** A {@link ExecutionListener} that records useful metrics about the ongoing bulk operations. */
 public class MetricsCollectingExecutionListener implements ExecutionListener {
@@ -45,6 +46,7 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
   private final Timer totalReadsTimer;
   private final Counter successfulReadsCounter;
   private final Counter failedReadsCounter;
+  private final Timer pageWaitTimer;
 
   private final Timer totalWritesTimer;
   private final Counter successfulWritesCounter;
@@ -53,6 +55,8 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
   private final Timer totalReadsWritesTimer;
   private final Counter successfulReadsWritesCounter;
   private final Counter failedReadsWritesCounter;
+  private final LongAdder readsWritesLatencySum = new LongAdder();
+  private final LongAdder readsWritesLatencyCount = new LongAdder();
 
   private final Counter inFlightRequestsCounter;
 
@@ -93,6 +97,8 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
         registry.timer("executor/reads/total", () -> new Timer(new HdrHistogramReservoir()));
     successfulReadsCounter = registry.counter("executor/reads/successful");
     failedReadsCounter = registry.counter("executor/reads/failed");
+    pageWaitTimer =
+        registry.timer("executor/reads/page-wait", () -> new Timer(new HdrHistogramReservoir()));
 
     totalWritesTimer =
         registry.timer("executor/writes/total", () -> new Timer(new HdrHistogramReservoir()));
@@ -189,6 +195,16 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
     return failedReadsCounter;
   }
 
+  /**
+   * Returns a {@link Timer} that evaluates the time spent by consumers of reads waiting for the
+   * next page of results to arrive, after having consumed the previous one.
+   *
+   * @return a {@link Timer} that evaluates the time spent waiting for the next page of results.
+   */
+  public Timer getPageWaitTimer() {
+    return pageWaitTimer;
+  }
+
   /**
    * Returns a {@link Timer} that evaluates the duration of execution of writes, both successful and
    * failed.
@@ -238,6 +254,29 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
     return totalReadsWritesTimer;
   }
 
+  /**
+   * Returns the exact sum, in nanoseconds, of the durations recorded so far by {@link
+   * #getTotalReadsWritesTimer()}.
+   *
+   * <p>Unlike the timer's snapshot, which is computed from a sampling reservoir, this sum can be
+   * used together with {@link #getTotalReadsWritesLatencyCount()} to compute the exact mean latency
+   * over an arbitrary interval.
+   *
+   * @return the sum of the durations of all operations, in nanoseconds.
+   */
+  public long getTotalReadsWritesLatencySum() {
+    return readsWritesLatencySum.sum();
+  }
+
+  /**
+   * Returns the number of durations included in {@link #getTotalReadsWritesLatencySum()}.
+   *
+   * @return the number of durations recorded so far.
+   */
+  public long getTotalReadsWritesLatencyCount() {
+    return readsWritesLatencyCount.sum();
+  }
+
   /**
    * Returns a {@link Counter} that evaluates the duration of execution of all successful
    * operations, including reads and writes.
@@ -311,7 +350,7 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
   public void onWriteRequestSuccessful(Statement<?> statement, ExecutionContext context) {
     int delta = delta(statement);
     stop(context, totalWritesTimer, delta);
-    stop(context, totalReadsWritesTimer, delta);
+    stopReadsWrites(context, delta);
     successfulWritesCounter.inc(delta);
     successfulReadsWritesCounter.inc(delta);
     inFlightRequestsCounter.dec();
@@ -322,7 +361,7 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
       Statement<?> statement, Throwable error, ExecutionContext context) {
     int delta = delta(statement);
     stop(context, totalWritesTimer, delta);
-    stop(context, totalReadsWritesTimer, delta);
+    stopReadsWrites(context, delta);
     failedWritesCounter.inc(delta);
     failedReadsWritesCounter.inc(delta);
     inFlightRequestsCounter.dec();
@@ -336,7 +375,7 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
   @Override
   public void onRowReceived(Row row, ExecutionContext context) {
     stop(context, totalReadsTimer, 1);
-    stop(context, totalReadsWritesTimer, 1);
+    stopReadsWrites(context, 1);
     successfulReadsCounter.inc(1);
     successfulReadsWritesCounter.inc(1);
     if (bytesReceivedMeter != null) {
@@ -349,12 +388,17 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
   public void onReadRequestFailed(
       Statement<?> statement, Throwable error, ExecutionContext context) {
     stop(context, totalReadsTimer, 1);
-    stop(context, totalReadsWritesTimer, 1);
+    stopReadsWrites(context, 1);
     failedReadsCounter.inc();
     failedReadsWritesCounter.inc();
     inFlightRequestsCounter.dec();
   }
 
+  @Override
+  public void onPageWaitFinished(Statement<?> statement, ExecutionContext context) {
+    stop(context, pageWaitTimer, 1);
+  }
+
   @Override
   public void onExecutionSuccessful(Statement<?> statement, ExecutionContext context) {
     stop(context, totalStatementsTimer, 1);
@@ -374,6 +418,15 @@ public class MetricsCollectingExecutionListener implements ExecutionListener {
     }
   }
 
+  private void stopReadsWrites(ExecutionContext context, int delta) {
+    long elapsed = context.elapsedTimeNanos();
+    for (int i = 0; i < delta; i++) {
+      totalReadsWritesTimer.update(elapsed, NANOSECONDS);
+    }
+    readsWritesLatencySum.add(elapsed * delta);
+    readsWritesLatencyCount.add(delta);
+  }
+
   private static int delta(Statement<?> statement) {
     if (statement instanceof BatchStatement) {
       return ((BatchStatement) statement).size();
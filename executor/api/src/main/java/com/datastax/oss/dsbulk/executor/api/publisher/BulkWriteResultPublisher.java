@@ -0,0 +1,152 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.publisher;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
+import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.api.subscription.BulkWriteResultSubscription;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+/**
+ * A {@link Publisher} for {@link WriteResult}s that executes all the statements emitted by an
+ * upstream publisher.
+ *
+ * <p>This publisher is equivalent to flat-mapping each statement to a {@link WriteResultPublisher},
+ * with the given concurrency, but is considerably cheaper, since it uses only one subscription for
+ * all the statements.
+ *
+ * @see AbstractBulkExecutor#writeReactive(Publisher)
+ */
+@SuppressWarnings("ReactiveStreamsPublisherImplementation")
+public class BulkWriteResultPublisher implements Publisher<WriteResult> {
+
+  private final Publisher<? extends Statement<?>> statements;
+  private final CqlSession session;
+  private final int concurrency;
+  private final @Nullable ExecutionListener listener;
+  private final @Nullable Semaphore maxConcurrentRequests;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  private final @Nullable BytesLimiter bytesLimiter;
+  private final @Nullable RateLimiter rateLimiter;
+  private final boolean failFast;
+
+  /**
+   * Creates a new {@link BulkWriteResultPublisher} without {@link ExecutionListener} and without
+   * throughput regulation.
+   *
+   * @param statements The {@link Statement}s to execute.
+   * @param session The {@link CqlSession} to use.
+   * @param concurrency The maximum number of statements being executed or waiting to be emitted at
+   *     any given time.
+   * @param failFast whether to fail-fast in case of error.
+   */
+  public BulkWriteResultPublisher(
+      @NonNull Publisher<? extends Statement<?>> statements,
+      @NonNull CqlSession session,
+      int concurrency,
+      boolean failFast) {
+    this(statements, session, concurrency, failFast, null, null, null, null, null);
+  }
+
+  /**
+   * Creates a new {@link BulkWriteResultPublisher}.
+   *
+   * @param statements The {@link Statement}s to execute.
+   * @param session The {@link CqlSession} to use.
+   * @param concurrency The maximum number of statements being executed or waiting to be emitted at
+   *     any given time.
+   * @param failFast whether to fail-fast in case of error.
+   * @param listener The {@link ExecutionListener} to use.
+   * @param maxConcurrentRequests The {@link Semaphore} to use to regulate the amount of in-flight
+   *     requests.
+   * @param maxConcurrentRequestsPerNode The {@link PerNodeInFlightLimiter} to use to regulate the
+   *     amount of in-flight requests per node.
+   * @param bytesLimiter The {@link BytesLimiter} to use to regulate throughput and in-flight
+   *     requests by data size.
+   * @param rateLimiter The {@link RateLimiter} to use to regulate throughput.
+   */
+  public BulkWriteResultPublisher(
+      @NonNull Publisher<? extends Statement<?>> statements,
+      @NonNull CqlSession session,
+      int concurrency,
+      boolean failFast,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
+      @Nullable RateLimiter rateLimiter) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting concurrency to be strictly positive, got: " + concurrency);
+    }
+    this.statements = statements;
+    this.session = session;
+    this.concurrency = concurrency;
+    this.listener = listener;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+    this.bytesLimiter = bytesLimiter;
+    this.rateLimiter = rateLimiter;
+    this.failFast = failFast;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super WriteResult> subscriber) {
+    // As per rule 1.9, we need to throw an NPE if subscriber is null
+    Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+    // As per rule 1.11, this publisher supports multiple subscribers in a unicast configuration,
+    // i.e., each subscriber triggers an independent subscription to the upstream publisher and
+    // gets its own copy of the results.
+    BulkWriteResultSubscription subscription =
+        new BulkWriteResultSubscription(
+            subscriber,
+            session,
+            concurrency,
+            listener,
+            maxConcurrentRequests,
+            maxConcurrentRequestsPerNode,
+            bytesLimiter,
+            rateLimiter,
+            failFast);
+    try {
+      subscriber.onSubscribe(subscription);
+      // must be called after onSubscribe
+      statements.subscribe(subscription);
+    } catch (Throwable t) {
+      // As per rule 2.13: In the case that this rule is violated,
+      // any associated Subscription to the Subscriber MUST be considered as
+      // cancelled, and the caller MUST raise this error condition in a fashion
+      // that is adequate for the runtime environment.
+      subscription.onError(
+          new IllegalStateException(
+              subscriber
+                  + " violated the Reactive Streams rule 2.13 by throwing an exception from onSubscribe.",
+              t));
+    }
+    // As per 2.13, this method must return normally (i.e. not throw)
+  }
+}
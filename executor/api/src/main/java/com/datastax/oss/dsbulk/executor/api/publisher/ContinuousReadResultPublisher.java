@@ -19,9 +19,12 @@ import com.datastax.dse.driver.api.core.cql.continuous.ContinuousSession;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.subscription.ContinuousReadResultSubscription;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Objects;
@@ -41,7 +44,10 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
   private final @NonNull ContinuousSession session;
   private final @Nullable ExecutionListener listener;
   private final @Nullable Semaphore maxConcurrentRequests;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  private final @Nullable BytesLimiter bytesLimiter;
   private final @Nullable RateLimiter rateLimiter;
+  private final @NonNull PagingOptions pagingOptions;
   private final boolean failFast;
 
   /**
@@ -75,11 +81,52 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
       @Nullable RateLimiter rateLimiter) {
+    this(
+        statement,
+        session,
+        failFast,
+        listener,
+        maxConcurrentRequests,
+        null,
+        null,
+        rateLimiter,
+        PagingOptions.DEFAULT);
+  }
+
+  /**
+   * Creates a new {@link ContinuousReadResultPublisher}.
+   *
+   * @param statement The {@link Statement} to execute.
+   * @param session The {@link ContinuousSession} to use.
+   * @param failFast whether to fail-fast in case of error.
+   * @param listener The {@link ExecutionListener} to use.
+   * @param maxConcurrentRequests The {@link Semaphore} to use to regulate the amount of in-flight
+   *     requests.
+   * @param maxConcurrentRequestsPerNode The {@link PerNodeInFlightLimiter} to use to regulate the
+   *     amount of in-flight requests per node.
+   * @param bytesLimiter The {@link BytesLimiter} to use to regulate throughput and in-flight
+   *     requests by data size.
+   * @param rateLimiter The {@link RateLimiter} to use to regulate throughput.
+   * @param pagingOptions The {@link PagingOptions} to use to control read-ahead.
+   */
+  public ContinuousReadResultPublisher(
+      @NonNull Statement<?> statement,
+      @NonNull ContinuousSession session,
+      boolean failFast,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
+      @Nullable RateLimiter rateLimiter,
+      @NonNull PagingOptions pagingOptions) {
     this.statement = statement;
     this.session = session;
     this.listener = listener;
     this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+    this.bytesLimiter = bytesLimiter;
     this.rateLimiter = rateLimiter;
+    this.pagingOptions = pagingOptions;
     this.failFast = failFast;
   }
 
@@ -92,7 +139,15 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
     // of the results.
     ContinuousReadResultSubscription subscription =
         new ContinuousReadResultSubscription(
-            subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+            subscriber,
+            statement,
+            listener,
+            maxConcurrentRequests,
+            maxConcurrentRequestsPerNode,
+            bytesLimiter,
+            rateLimiter,
+            pagingOptions,
+            failFast);
     try {
       subscriber.onSubscribe(subscription);
       // must be called after onSubscribe
@@ -19,8 +19,12 @@ import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.executor.api.straggler.StragglerMitigator;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
 import com.datastax.oss.dsbulk.executor.api.subscription.ReadResultSubscription;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -41,7 +45,11 @@ public class ReadResultPublisher implements Publisher<ReadResult> {
   private final CqlSession session;
   private final @Nullable ExecutionListener listener;
   private final @Nullable Semaphore maxConcurrentRequests;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  private final @Nullable BytesLimiter bytesLimiter;
   private final @Nullable RateLimiter rateLimiter;
+  private final @NonNull PagingOptions pagingOptions;
+  private final @Nullable StragglerMitigator stragglerMitigator;
   private final boolean failFast;
 
   /**
@@ -75,11 +83,57 @@ public class ReadResultPublisher implements Publisher<ReadResult> {
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
       @Nullable RateLimiter rateLimiter) {
+    this(
+        statement,
+        session,
+        failFast,
+        listener,
+        maxConcurrentRequests,
+        null,
+        null,
+        rateLimiter,
+        PagingOptions.DEFAULT,
+        null);
+  }
+
+  /**
+   * Creates a new {@link ReadResultPublisher}.
+   *
+   * @param statement The {@link Statement} to execute.
+   * @param session The {@link CqlSession} to use.
+   * @param failFast whether to fail-fast in case of error.
+   * @param listener The {@link ExecutionListener} to use.
+   * @param maxConcurrentRequests The {@link Semaphore} to use to regulate the amount of in-flight
+   *     requests.
+   * @param maxConcurrentRequestsPerNode The {@link PerNodeInFlightLimiter} to use to regulate the
+   *     amount of in-flight requests per node.
+   * @param bytesLimiter The {@link BytesLimiter} to use to regulate throughput and in-flight
+   *     requests by data size.
+   * @param rateLimiter The {@link RateLimiter} to use to regulate throughput.
+   * @param pagingOptions The {@link PagingOptions} to use to control read-ahead.
+   * @param stragglerMitigator The {@link StragglerMitigator} to use to re-execute slow page
+   *     requests.
+   */
+  public ReadResultPublisher(
+      @NonNull Statement<?> statement,
+      @NonNull CqlSession session,
+      boolean failFast,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
+      @Nullable RateLimiter rateLimiter,
+      @NonNull PagingOptions pagingOptions,
+      @Nullable StragglerMitigator stragglerMitigator) {
     this.statement = statement;
     this.session = session;
     this.listener = listener;
     this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+    this.bytesLimiter = bytesLimiter;
     this.rateLimiter = rateLimiter;
+    this.pagingOptions = pagingOptions;
+    this.stragglerMitigator = stragglerMitigator;
     this.failFast = failFast;
   }
 
@@ -92,11 +146,24 @@ public class ReadResultPublisher implements Publisher<ReadResult> {
     // of the results.
     ReadResultSubscription subscription =
         new ReadResultSubscription(
-            subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+            subscriber,
+            statement,
+            listener,
+            maxConcurrentRequests,
+            maxConcurrentRequestsPerNode,
+            bytesLimiter,
+            rateLimiter,
+            pagingOptions,
+            stragglerMitigator,
+            failFast);
     try {
       subscriber.onSubscribe(subscription);
       // must be called after onSubscribe
-      subscription.start(() -> session.executeAsync(statement));
+      if (stragglerMitigator == null) {
+        subscription.start(() -> session.executeAsync(statement));
+      } else {
+        subscription.start(() -> stragglerMitigator.executeAsync(statement));
+      }
     } catch (Throwable t) {
       // As per rule 2.13: In the case that this rule is violated,
       // any associated Subscription to the Subscriber MUST be considered as
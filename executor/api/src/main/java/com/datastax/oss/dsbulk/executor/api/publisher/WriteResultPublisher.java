@@ -19,6 +19,8 @@ import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
 import com.datastax.oss.dsbulk.executor.api.subscription.WriteResultSubscription;
@@ -41,6 +43,8 @@ public class WriteResultPublisher implements Publisher<WriteResult> {
   private final CqlSession session;
   private final @Nullable ExecutionListener listener;
   private final @Nullable Semaphore maxConcurrentRequests;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  private final @Nullable BytesLimiter bytesLimiter;
   private final @Nullable RateLimiter rateLimiter;
   private final boolean failFast;
 
@@ -75,10 +79,39 @@ public class WriteResultPublisher implements Publisher<WriteResult> {
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
       @Nullable RateLimiter rateLimiter) {
+    this(statement, session, failFast, listener, maxConcurrentRequests, null, null, rateLimiter);
+  }
+
+  /**
+   * Creates a new {@link WriteResultPublisher}.
+   *
+   * @param statement The {@link Statement} to execute.
+   * @param session The {@link CqlSession} to use.
+   * @param failFast whether to fail-fast in case of error.
+   * @param listener The {@link ExecutionListener} to use.
+   * @param maxConcurrentRequests The {@link Semaphore} to use to regulate the amount of in-flight
+   *     requests.
+   * @param maxConcurrentRequestsPerNode The {@link PerNodeInFlightLimiter} to use to regulate the
+   *     amount of in-flight requests per node.
+   * @param bytesLimiter The {@link BytesLimiter} to use to regulate throughput and in-flight
+   *     requests by data size.
+   * @param rateLimiter The {@link RateLimiter} to use to regulate throughput.
+   */
+  public WriteResultPublisher(
+      @NonNull Statement<?> statement,
+      @NonNull CqlSession session,
+      boolean failFast,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
+      @Nullable RateLimiter rateLimiter) {
     this.statement = statement;
     this.session = session;
     this.listener = listener;
     this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+    this.bytesLimiter = bytesLimiter;
     this.rateLimiter = rateLimiter;
     this.failFast = failFast;
   }
@@ -92,7 +125,14 @@ public class WriteResultPublisher implements Publisher<WriteResult> {
     // of the results.
     WriteResultSubscription subscription =
         new WriteResultSubscription(
-            subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+            subscriber,
+            statement,
+            listener,
+            maxConcurrentRequests,
+            maxConcurrentRequestsPerNode,
+            bytesLimiter,
+            rateLimiter,
+            failFast);
     try {
       subscriber.onSubscribe(subscription);
       // must be called after onSubscribe
@@ -0,0 +1,99 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.routing;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Locates the replicas of statements, using the session's {@link TokenMap} and the statements'
+ * routing information: keyspace, and routing token or routing key.
+ *
+ * <p>The keyspace of a statement is its own keyspace if set, then its routing keyspace, then the
+ * session keyspace.
+ */
+public class ReplicaLocator {
+
+  private final CqlSession session;
+
+  /**
+   * Creates a new locator.
+   *
+   * @param session The {@link CqlSession} whose token map will be used to locate replicas.
+   */
+  public ReplicaLocator(@NonNull CqlSession session) {
+    this.session = session;
+  }
+
+  /**
+   * Returns the replicas of the given statement.
+   *
+   * @param statement The statement to locate.
+   * @return The replicas of the statement, in ring order, starting with the primary replica; or an
+   *     empty set if they cannot be determined.
+   */
+  @NonNull
+  public Set<Node> getReplicas(@NonNull Statement<?> statement) {
+    CqlIdentifier keyspace = getKeyspace(statement);
+    if (keyspace != null) {
+      TokenMap tokenMap = session.getMetadata().getTokenMap().orElse(null);
+      if (tokenMap != null) {
+        Token routingToken = statement.getRoutingToken();
+        if (routingToken != null) {
+          return tokenMap.getReplicas(keyspace, routingToken);
+        }
+        ByteBuffer routingKey = statement.getRoutingKey();
+        if (routingKey != null) {
+          return tokenMap.getReplicas(keyspace, routingKey);
+        }
+      }
+    }
+    return Collections.emptySet();
+  }
+
+  /**
+   * Returns the primary replica of the given statement.
+   *
+   * @param statement The statement to locate.
+   * @return The primary replica of the statement, or null if it cannot be determined.
+   */
+  @Nullable
+  public Node getPrimaryReplica(@NonNull Statement<?> statement) {
+    Iterator<Node> replicas = getReplicas(statement).iterator();
+    return replicas.hasNext() ? replicas.next() : null;
+  }
+
+  @Nullable
+  private CqlIdentifier getKeyspace(@NonNull Statement<?> statement) {
+    if (statement.getKeyspace() != null) {
+      return statement.getKeyspace();
+    }
+    if (statement.getRoutingKeyspace() != null) {
+      return statement.getRoutingKeyspace();
+    }
+    return session.getKeyspace().orElse(null);
+  }
+}
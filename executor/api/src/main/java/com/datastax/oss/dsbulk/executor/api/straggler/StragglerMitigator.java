@@ -0,0 +1,381 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.straggler;
+
+import com.codahale.metrics.Counter;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.routing.ReplicaLocator;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mitigates straggler reads by speculatively re-executing slow page requests on a different
+ * replica.
+ *
+ * <p>The latencies of all page requests are recorded; when a page request takes longer than a given
+ * percentile of the latencies observed so far, the read is resumed on another replica of the
+ * statement, from the paging state of the last page received, and whichever response arrives first
+ * is kept, while the other request is cancelled. The first page of a read is re-executed from the
+ * start.
+ *
+ * <p>Original requests are routed by the driver's load balancing policy, as usual. Speculative
+ * executions target a replica that is up and that the load balancing policy considers {@linkplain
+ * NodeDistance#LOCAL local}, so they never go to a remote or ignored node. The coordinator of the
+ * straggler request is excluded when it is known, that is, for all pages but the first one, unless
+ * the statement targets a specific node; a speculative execution of a first page may therefore
+ * occasionally be sent to the straggler's own coordinator. When a speculative execution wins, the
+ * next page is requested without targeting its replica, so that it is routed by the load balancing
+ * policy again.
+ *
+ * <p>Replicas are determined by a {@link ReplicaLocator}. Speculative executions are not attempted
+ * for statements whose replicas cannot be determined, nor when no other local replica is up, nor
+ * when the previous page did not return a paging state. They are not subject to in-flight request
+ * limits.
+ *
+ * <p>The number of speculative executions, and the number of speculative executions that completed
+ * before the original request, are exposed as counters named {@value #STARTED_METRIC_NAME} and
+ * {@value #SUCCESSFUL_METRIC_NAME} in the listener's registry.
+ */
+public class StragglerMitigator implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StragglerMitigator.class);
+
+  /** The name of the counter reporting the number of speculative executions. */
+  public static final String STARTED_METRIC_NAME = "executor/reads/speculative/started";
+
+  /**
+   * The name of the counter reporting the number of speculative executions that completed before
+   * the original request.
+   */
+  public static final String SUCCESSFUL_METRIC_NAME = "executor/reads/speculative/successful";
+
+  /** How often the threshold is recomputed from the latencies observed so far. */
+  private static final Duration UPDATE_INTERVAL = Duration.ofSeconds(1);
+
+  private final CqlSession session;
+  private final ReplicaLocator locator;
+  private final double percentile;
+  private final long minDelayNanos;
+  private final long minSamples;
+  private final Counter startedCounter;
+  private final Counter successfulCounter;
+
+  private final Recorder recorder = new Recorder(3);
+
+  /** The threshold above which a request is re-executed, or -1 if not enough samples yet. */
+  private volatile long thresholdNanos = -1;
+
+  private ScheduledExecutorService scheduler;
+  private ScheduledFuture<?> updates;
+
+  // the following fields are only accessed by the scheduler thread
+
+  private final Histogram latencies = new Histogram(3);
+  private Histogram interval;
+
+  /**
+   * Creates a new mitigator.
+   *
+   * @param session The {@link CqlSession} to execute speculative requests with, and whose token map
+   *     will be used to locate replicas.
+   * @param listener The {@link MetricsCollectingExecutionListener} to register metrics in.
+   * @param percentile The percentile of observed latencies above which a request is speculatively
+   *     re-executed; must be strictly between 0 and 100.
+   * @param minDelay The minimum delay before a request is speculatively re-executed; must not be
+   *     negative.
+   * @param minSamples The minimum number of latencies to observe before the first speculative
+   *     execution; must be strictly positive.
+   */
+  public StragglerMitigator(
+      @NonNull CqlSession session,
+      @NonNull MetricsCollectingExecutionListener listener,
+      double percentile,
+      @NonNull Duration minDelay,
+      long minSamples) {
+    if (percentile <= 0 || percentile >= 100) {
+      throw new IllegalArgumentException(
+          "Expecting percentile to be strictly between 0 and 100, got: " + percentile);
+    }
+    if (minDelay.isNegative()) {
+      throw new IllegalArgumentException(
+          "Expecting minimum delay to be positive, got: " + minDelay);
+    }
+    if (minSamples <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting minimum samples to be strictly positive, got: " + minSamples);
+    }
+    this.session = session;
+    this.locator = new ReplicaLocator(session);
+    this.percentile = percentile;
+    this.minDelayNanos = minDelay.toNanos();
+    this.minSamples = minSamples;
+    this.startedCounter = listener.getRegistry().counter(STARTED_METRIC_NAME);
+    this.successfulCounter = listener.getRegistry().counter(SUCCESSFUL_METRIC_NAME);
+  }
+
+  /**
+   * Starts recomputing the threshold periodically. Calling this method more than once has no
+   * effect.
+   */
+  public synchronized void start() {
+    if (scheduler == null) {
+      scheduler =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("straggler-mitigator-%d")
+                  .build());
+      long intervalNanos = UPDATE_INTERVAL.toNanos();
+      updates =
+          scheduler.scheduleAtFixedRate(
+              this::update, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** @return the current threshold in nanoseconds, or -1 if not enough samples were observed. */
+  public long getThresholdNanos() {
+    return thresholdNanos;
+  }
+
+  /**
+   * Executes the first page request of the given statement.
+   *
+   * @param statement The statement to execute.
+   * @return a future that completes with the first page.
+   */
+  @NonNull
+  public CompletionStage<AsyncResultSet> executeAsync(@NonNull Statement<?> statement) {
+    return execute(
+        statement,
+        statement.getNode(),
+        () -> session.executeAsync(statement),
+        node -> statement.setNode(node));
+  }
+
+  /**
+   * Fetches the page that follows the given page.
+   *
+   * @param statement The statement being executed, as passed to {@link #executeAsync(Statement)}.
+   * @param current The current page.
+   * @return a future that completes with the next page.
+   */
+  @NonNull
+  public CompletionStage<AsyncResultSet> fetchNextPage(
+      @NonNull Statement<?> statement, @NonNull AsyncResultSet current) {
+    ExecutionInfo info = current.getExecutionInfo();
+    ByteBuffer pagingState = info.getPagingState();
+    Supplier<CompletionStage<AsyncResultSet>> request = current::fetchNextPage;
+    Request executed = info.getRequest();
+    if (pagingState != null
+        && executed instanceof Statement
+        && !Objects.equals(((Statement<?>) executed).getNode(), statement.getNode())) {
+      // the current page was returned by a speculative execution: don't stick to its replica
+      request = () -> session.executeAsync(statement.copy(pagingState));
+    }
+    return execute(
+        statement,
+        info.getCoordinator(),
+        request,
+        pagingState == null ? null : node -> statement.copy(pagingState).setNode(node));
+  }
+
+  @NonNull
+  private CompletionStage<AsyncResultSet> execute(
+      @NonNull Statement<?> statement,
+      @Nullable Node coordinator,
+      @NonNull Supplier<CompletionStage<AsyncResultSet>> request,
+      @Nullable Function<Node, Statement<?>> retry) {
+    long start = System.nanoTime();
+    CompletionStage<AsyncResultSet> primary = request.get();
+    long threshold = thresholdNanos;
+    ScheduledExecutorService scheduler = this.scheduler;
+    if (threshold < 0 || scheduler == null || retry == null) {
+      return primary.whenComplete((rs, t) -> recordLatency(start, t));
+    }
+    Execution execution = new Execution(primary);
+    ScheduledFuture<?> timeout;
+    try {
+      timeout =
+          scheduler.schedule(
+              () -> speculate(execution, statement, coordinator, retry),
+              threshold,
+              TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // the mitigator was closed in the meantime
+      return primary.whenComplete((rs, t) -> recordLatency(start, t));
+    }
+    primary.whenComplete(
+        (rs, t) -> {
+          timeout.cancel(false);
+          recordLatency(start, t);
+          if (t == null) {
+            execution.onSuccess(rs, false);
+          } else {
+            execution.onFailure(t);
+          }
+        });
+    return execution.result;
+  }
+
+  private void speculate(
+      @NonNull Execution execution,
+      @NonNull Statement<?> statement,
+      @Nullable Node coordinator,
+      @NonNull Function<Node, Statement<?>> retry) {
+    try {
+      Node node = pickReplica(statement, coordinator);
+      if (node != null && execution.startSpeculative()) {
+        startedCounter.inc();
+        LOGGER.trace("Speculatively re-executing straggler request on {}", node);
+        CompletionStage<AsyncResultSet> speculative = session.executeAsync(retry.apply(node));
+        execution.speculative = speculative;
+        if (execution.result.isDone()) {
+          // the original request completed in the meantime
+          speculative.toCompletableFuture().cancel(true);
+        }
+        speculative.whenComplete(
+            (rs, t) -> {
+              if (t == null) {
+                execution.onSuccess(rs, true);
+              } else {
+                execution.onFailure(t);
+              }
+            });
+      }
+    } catch (RuntimeException e) {
+      // don't let the scheduled task fail silently
+      LOGGER.debug("Could not start speculative execution", e);
+    }
+  }
+
+  private void recordLatency(long start, @Nullable Throwable error) {
+    if (error == null) {
+      recorder.recordValue(System.nanoTime() - start);
+    }
+  }
+
+  /** Recomputes the threshold from the latencies observed so far. */
+  void update() {
+    try {
+      interval = recorder.getIntervalHistogram(interval);
+      latencies.add(interval);
+      if (latencies.getTotalCount() >= minSamples) {
+        thresholdNanos = Math.max(minDelayNanos, latencies.getValueAtPercentile(percentile));
+      }
+    } catch (RuntimeException e) {
+      // don't let the scheduled task die
+      LOGGER.debug("Could not update straggler threshold", e);
+    }
+  }
+
+  @Nullable
+  private Node pickReplica(@NonNull Statement<?> statement, @Nullable Node exclude) {
+    List<Node> candidates =
+        locator.getReplicas(statement).stream()
+            .filter(
+                node ->
+                    !node.equals(exclude)
+                        && node.getState() == NodeState.UP
+                        && node.getDistance() == NodeDistance.LOCAL)
+            .collect(Collectors.toList());
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+  }
+
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      updates.cancel(false);
+      scheduler.shutdownNow();
+      scheduler = null;
+      updates = null;
+    }
+  }
+
+  /** The state of a request that may be speculatively re-executed. */
+  private class Execution {
+
+    private final CompletableFuture<AsyncResultSet> result = new CompletableFuture<>();
+    private final CompletionStage<AsyncResultSet> primary;
+    private volatile CompletionStage<AsyncResultSet> speculative;
+
+    private int pending = 1;
+    private Throwable error;
+
+    private Execution(CompletionStage<AsyncResultSet> primary) {
+      this.primary = primary;
+    }
+
+    private synchronized boolean startSpeculative() {
+      if (result.isDone() || pending == 0) {
+        return false;
+      }
+      pending++;
+      return true;
+    }
+
+    private void onSuccess(AsyncResultSet rs, boolean fromSpeculative) {
+      if (result.complete(rs)) {
+        // discard the other stream
+        if (fromSpeculative) {
+          successfulCounter.inc();
+          primary.toCompletableFuture().cancel(true);
+        } else if (speculative != null) {
+          speculative.toCompletableFuture().cancel(true);
+        }
+      }
+    }
+
+    private synchronized void onFailure(Throwable t) {
+      if (error == null) {
+        error = t;
+      }
+      if (--pending == 0) {
+        result.completeExceptionally(error);
+      }
+    }
+  }
+}
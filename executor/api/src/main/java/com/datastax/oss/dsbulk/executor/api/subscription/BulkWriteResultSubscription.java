@@ -0,0 +1,467 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.subscription;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
+import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter.Permits;
+import com.datastax.oss.dsbulk.executor.api.listener.DefaultExecutionContext;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.result.DefaultWriteResult;
+import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jctools.queues.MpscArrayQueue;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single-subscriber subscription that executes all the statements emitted by an upstream
+ * publisher, and emits one {@link WriteResult} per statement to its {@link Subscriber}.
+ *
+ * <p>This subscription is meant as a lightweight alternative to flat-mapping each statement to a
+ * {@link WriteResultSubscription}: it acts both as the upstream subscriber and as the downstream
+ * subscription, and only allocates a small number of objects per statement. It honors the same
+ * listener callbacks, permits and error semantics as {@link WriteResultSubscription}.
+ *
+ * <p>At most {@code concurrency} statements are requested from upstream and not yet emitted
+ * downstream at any given time. Results are emitted in completion order.
+ */
+public class BulkWriteResultSubscription implements Subscription, Subscriber<Statement<?>> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkWriteResultSubscription.class);
+
+  private volatile Subscriber<? super WriteResult> subscriber;
+  private final CqlSession session;
+  private final int concurrency;
+
+  /*
+  The following are supplied by the BulkExecutor and
+  are shared with other query executions.
+   */
+
+  private final @Nullable ExecutionListener listener;
+  private final @Nullable Semaphore maxConcurrentRequests;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  private final @Nullable BytesLimiter bytesLimiter;
+  private final @Nullable RateLimiter rateLimiter;
+  private final boolean failFast;
+
+  /** The upstream subscription; set when the upstream publisher calls onSubscribe. */
+  private volatile Subscription upstream;
+
+  /** Tracks the number of items requested by the subscriber. */
+  private final AtomicLong requested = new AtomicLong(0);
+
+  /**
+   * The results received so far and not yet emitted. Since there can be no more than {@code
+   * concurrency} statements in flight or waiting to be emitted, a bounded queue is enough. Results
+   * are enqueued by driver threads, and dequeued by the draining thread.
+   */
+  private final Queue<WriteResult> results;
+
+  /** The number of statements received from upstream whose results haven't been enqueued yet. */
+  private final AtomicInteger inFlight = new AtomicInteger(0);
+
+  /**
+   * Used to signal that a thread is currently draining, i.e., emitting items to the subscriber.
+   *
+   * @see #drain()
+   */
+  private final AtomicInteger draining = new AtomicInteger(0);
+
+  /** Set to true when the upstream publisher completes. */
+  private volatile boolean done = false;
+
+  /** Set when the upstream publisher fails, or, in fail-fast mode, when a statement fails. */
+  private volatile Throwable error = null;
+
+  /** Set to true when the subscription is cancelled, or when a terminal signal is emitted. */
+  private volatile boolean cancelled = false;
+
+  public BulkWriteResultSubscription(
+      @NonNull Subscriber<? super WriteResult> subscriber,
+      @NonNull CqlSession session,
+      int concurrency,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
+      @Nullable RateLimiter rateLimiter,
+      boolean failFast) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting concurrency to be strictly positive, got: " + concurrency);
+    }
+    this.subscriber = subscriber;
+    this.session = session;
+    this.concurrency = concurrency;
+    this.listener = listener;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+    this.bytesLimiter = bytesLimiter;
+    this.rateLimiter = rateLimiter;
+    this.failFast = failFast;
+    results = new MpscArrayQueue<>(concurrency);
+  }
+
+  // Subscriber methods, invoked by the upstream publisher
+
+  @Override
+  public void onSubscribe(Subscription s) {
+    if (upstream != null || cancelled) {
+      // As per rule 2.5, cancel any subsequent subscription
+      s.cancel();
+    } else {
+      upstream = s;
+      s.request(concurrency);
+    }
+  }
+
+  @Override
+  public void onNext(Statement<?> statement) {
+    if (cancelled || error != null) {
+      return;
+    }
+    inFlight.incrementAndGet();
+    DefaultExecutionContext global = null;
+    if (listener != null) {
+      global = new DefaultExecutionContext();
+      global.start();
+      try {
+        listener.onExecutionStarted(statement, global);
+      } catch (Throwable t) {
+        inFlight.decrementAndGet();
+        onError(t);
+        return;
+      }
+    }
+    execute(statement, global);
+  }
+
+  @Override
+  public void onError(Throwable t) {
+    if (error == null) {
+      error = t;
+    }
+    cancelUpstream();
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    done = true;
+    drain();
+  }
+
+  // Subscription methods, invoked by the downstream subscriber
+
+  @Override
+  public void request(long n) {
+    // As per 3.6: after the Subscription is cancelled, additional
+    // calls to request() MUST be NOPs.
+    if (!cancelled) {
+      if (n < 1) {
+        // Validate request as per rule 3.9
+        onError(
+            new IllegalArgumentException(
+                subscriber
+                    + " violated the Reactive Streams rule 3.9 by requesting a non-positive number of elements."));
+      } else {
+        // As per rule 3.17, when demand overflows Long.MAX_VALUE
+        // it can be treated as "effectively unbounded"
+        Operators.addCap(requested, n);
+        drain();
+      }
+    }
+  }
+
+  @Override
+  public void cancel() {
+    // As per 3.5: Subscription.cancel() MUST respect the responsiveness of
+    // its caller by returning in a timely manner, MUST be idempotent and
+    // MUST be thread-safe.
+    if (!cancelled) {
+      cancelled = true;
+      cancelUpstream();
+      if (draining.getAndIncrement() == 0) {
+        // If nobody is draining, clear now;
+        // otherwise, the draining thread will notice
+        // that the cancelled flag was set
+        // and will clear for us.
+        clear();
+      }
+    }
+  }
+
+  /**
+   * Runs on the upstream publisher thread. Acquires the required permits, then executes the
+   * statement; the result is enqueued and drained once the response arrives.
+   */
+  private void execute(Statement<?> statement, @Nullable DefaultExecutionContext global) {
+    // Acquire the node permit first, so that waiting for a slow node does not hold any of the
+    // global permits below.
+    Permits nodePermits;
+    try {
+      nodePermits =
+          maxConcurrentRequestsPerNode == null
+              ? Permits.NONE
+              : maxConcurrentRequestsPerNode.acquire(statement);
+    } catch (InterruptedException e) {
+      // Don't send the request unthrottled: fail it instead.
+      Thread.currentThread().interrupt();
+      onResponseReceived(statement, null, e, global, null);
+      return;
+    }
+    long dataSize = bytesLimiter == null ? 0 : bytesLimiter.getDataSize(statement);
+    if (rateLimiter != null) {
+      rateLimiter.acquire(
+          statement instanceof BatchStatement ? ((BatchStatement) statement).size() : 1);
+    }
+    if (bytesLimiter != null) {
+      bytesLimiter.acquireRate(dataSize);
+    }
+    if (maxConcurrentRequests != null) {
+      maxConcurrentRequests.acquireUninterruptibly();
+    }
+    int bytesInFlight = bytesLimiter == null ? 0 : bytesLimiter.acquireInFlight(dataSize);
+    DefaultExecutionContext local = null;
+    CompletionStage<AsyncResultSet> future;
+    try {
+      if (listener != null) {
+        local = new DefaultExecutionContext();
+        local.start();
+        listener.onWriteRequestStarted(statement, local);
+      }
+      future = session.executeAsync(statement);
+    } catch (Throwable t) {
+      // This is a synchronous failure in the driver or in the listener.
+      // We treat it as a failed future.
+      CompletableFuture<AsyncResultSet> failed = new CompletableFuture<>();
+      failed.completeExceptionally(t);
+      future = failed;
+    }
+    DefaultExecutionContext finalLocal = local;
+    future.whenComplete(
+        (rs, t) -> {
+          if (maxConcurrentRequests != null) {
+            maxConcurrentRequests.release();
+          }
+          if (bytesLimiter != null) {
+            bytesLimiter.releaseInFlight(bytesInFlight);
+          }
+          nodePermits.release();
+          onResponseReceived(statement, rs, t, global, finalLocal);
+        });
+  }
+
+  /** Runs on a driver IO thread, or on the upstream thread in case of synchronous failure. */
+  private void onResponseReceived(
+      Statement<?> statement,
+      @Nullable AsyncResultSet rs,
+      @Nullable Throwable t,
+      @Nullable DefaultExecutionContext global,
+      @Nullable DefaultExecutionContext local) {
+    WriteResult result;
+    try {
+      if (t == null) {
+        if (listener != null) {
+          local.stop();
+          listener.onWriteRequestSuccessful(statement, local);
+          global.stop();
+          listener.onExecutionSuccessful(statement, global);
+        }
+        result = new DefaultWriteResult(statement, rs);
+      } else {
+        // Unwrap CompletionExceptions created by combined futures
+        if (t instanceof CompletionException) {
+          t = t.getCause();
+        }
+        BulkExecutionException error = new BulkExecutionException(t, statement);
+        if (listener != null) {
+          if (local != null) {
+            local.stop();
+            listener.onWriteRequestFailed(statement, t, local);
+          }
+          global.stop();
+          listener.onExecutionFailed(error, global);
+        }
+        result = new DefaultWriteResult(error);
+      }
+    } catch (Throwable listenerError) {
+      result = new DefaultWriteResult(new BulkExecutionException(listenerError, statement));
+    }
+    if (!result.isSuccess() && failFast) {
+      inFlight.decrementAndGet();
+      result.getError().ifPresent(this::onError);
+    } else {
+      if (!results.offer(result)) {
+        throw new AssertionError("Queue is full, this should not happen");
+      }
+      // decrement only after the result is enqueued, see drain()
+      inFlight.decrementAndGet();
+      drain();
+    }
+  }
+
+  /**
+   * May run on a driver IO thread, on the upstream publisher thread, or on a subscriber thread.
+   *
+   * <p>The {@link #draining} field guarantees serialized access to it, without locking.
+   */
+  private void drain() {
+    if (draining.getAndIncrement() != 0) {
+      // Someone else is already draining, so do nothing,
+      // the other thread will notice that we attempted to drain.
+      return;
+    }
+    int missed = 1;
+    // Note: when termination is detected inside this loop,
+    // we MUST call clear() manually.
+    do {
+      // The requested number of items at this point
+      long r = requested.get();
+      // The number of items emitted thus far
+      long emitted = 0L;
+      while (emitted != r) {
+        if (isTerminated()) {
+          return;
+        }
+        // read the completion state before polling, see onResponseReceived()
+        boolean exhausted = done && inFlight.get() == 0;
+        WriteResult result = results.poll();
+        if (result == null) {
+          if (exhausted) {
+            doOnComplete();
+            clear();
+            return;
+          }
+          break;
+        }
+        doOnNext(result);
+        emitted++;
+      }
+      if (isTerminated()) {
+        return;
+      }
+      if (done && inFlight.get() == 0 && results.isEmpty()) {
+        doOnComplete();
+        clear();
+        return;
+      }
+      if (emitted != 0) {
+        // if any item was emitted, adjust the requested field,
+        // and request as many statements from upstream
+        Operators.subCap(requested, emitted);
+        upstream.request(emitted);
+      }
+      // if another thread tried to call drain() while we were busy,
+      // then we should do another drain round.
+      missed = draining.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  /**
+   * Checks whether the subscription was cancelled or failed; in the latter case, emits the error
+   * downstream. Clears the subscription in both cases.
+   *
+   * <p>Cannot run concurrently due to the {@link #draining} field.
+   */
+  private boolean isTerminated() {
+    if (cancelled) {
+      clear();
+      return true;
+    }
+    Throwable t = error;
+    if (t != null) {
+      doOnError(t);
+      clear();
+      return true;
+    }
+    return false;
+  }
+
+  private void cancelUpstream() {
+    Subscription s = upstream;
+    if (s != null) {
+      s.cancel();
+    }
+  }
+
+  private void doOnNext(WriteResult result) {
+    try {
+      subscriber.onNext(result);
+    } catch (Throwable t) {
+      LOG.error(
+          subscriber
+              + " violated the Reactive Streams rule 2.13 by throwing an exception from onNext.",
+          t);
+      cancel();
+    }
+  }
+
+  private void doOnComplete() {
+    cancelled = true;
+    try {
+      // Then we signal onComplete as per rules 1.2 and 1.5
+      subscriber.onComplete();
+    } catch (Throwable t) {
+      LOG.error(
+          subscriber
+              + " violated the Reactive Streams rule 2.13 by throwing an exception from onComplete.",
+          t);
+    }
+  }
+
+  private void doOnError(Throwable error) {
+    cancelled = true;
+    cancelUpstream();
+    try {
+      // Then we signal the error downstream, as per rules 1.2 and 1.4.
+      subscriber.onError(error);
+    } catch (Throwable t) {
+      t.addSuppressed(error);
+      LOG.error(
+          subscriber
+              + " violated the Reactive Streams rule 2.13 by throwing an exception from onError.",
+          t);
+    }
+  }
+
+  private void clear() {
+    // We don't need these results anymore and should not hold references
+    // to them.
+    results.clear();
+    // As per 3.13, Subscription.cancel() MUST request the Publisher to
+    // eventually drop any references to the corresponding subscriber.
+    subscriber = null;
+  }
+}
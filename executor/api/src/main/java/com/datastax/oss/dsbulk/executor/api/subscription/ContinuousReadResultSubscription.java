@@ -21,6 +21,8 @@ import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.collect.AbstractIterator;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
@@ -39,9 +41,21 @@ public class ContinuousReadResultSubscription
       @NonNull Statement<?> statement,
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
       @Nullable RateLimiter rateLimiter,
+      @NonNull PagingOptions pagingOptions,
       boolean failFast) {
-    super(subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+    super(
+        subscriber,
+        statement,
+        listener,
+        maxConcurrentRequests,
+        maxConcurrentRequestsPerNode,
+        bytesLimiter,
+        rateLimiter,
+        pagingOptions,
+        failFast);
   }
 
   @Override
@@ -65,6 +79,11 @@ public class ContinuousReadResultSubscription
     return new ContinuousPage(rs, results);
   }
 
+  @Override
+  long getDataSize(ReadResult result) {
+    return result.getRow().map(bytesLimiter::getDataSize).orElse(0L);
+  }
+
   @Override
   public void cancel() {
     Page current = pages.peek();
@@ -96,13 +115,6 @@ public class ContinuousReadResultSubscription
     }
   }
 
-  @Override
-  void onBeforeResultEmitted(ReadResult result) {
-    if (rateLimiter != null) {
-      rateLimiter.acquire();
-    }
-  }
-
   @Override
   protected ReadResult toErrorResult(BulkExecutionException error) {
     return new DefaultReadResult(error);
@@ -113,7 +125,11 @@ public class ContinuousReadResultSubscription
     final ContinuousAsyncResultSet rs;
 
     private ContinuousPage(ContinuousAsyncResultSet rs, Iterator<ReadResult> rows) {
-      super(rows, rs.hasMorePages() ? rs::fetchNextPage : null);
+      super(
+          rows,
+          rs.hasMorePages() ? rs::fetchNextPage : null,
+          rs.getExecutionInfo().getResponseSizeInBytes(),
+          rs.remaining());
       this.rs = rs;
     }
   }
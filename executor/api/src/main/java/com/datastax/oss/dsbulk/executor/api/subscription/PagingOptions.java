@@ -0,0 +1,134 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.subscription;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.concurrent.Executor;
+
+/**
+ * Options controlling how pages of results are fetched ahead of their consumption by a read
+ * subscription.
+ *
+ * <p>Received pages are held in a queue until the subscriber consumes them. The queue is considered
+ * full when it contains {@link #getMaxEnqueuedPages() maxEnqueuedPages} pages, or, if {@link
+ * #getMaxEnqueuedBytes() maxEnqueuedBytes} is strictly positive, when the total size of the
+ * enqueued pages reaches that threshold; a page that arrives when the queue is full is held until
+ * room is made. Page sizes are the sizes of the responses as reported by the driver.
+ *
+ * <p>When {@link #isPrefetch() prefetch} is enabled, the request for page N+1 is sent as soon as
+ * page N arrives; otherwise, it is only sent once page N has been fully consumed, from the {@link
+ * #getFetchExecutor() fetch executor}: acquiring the permits to send it may block, and should not
+ * happen on the thread that consumed the page, which is a subscriber thread or a driver I/O thread.
+ * Options without a fetch executor are completed by {@link
+ * com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor AbstractBulkExecutor} with a bounded
+ * executor that it owns; subscriptions created with such options outside of a bulk executor fetch
+ * the next page from the thread that consumed the current one.
+ */
+public final class PagingOptions {
+
+  /** The default number of maximum enqueued pages. */
+  public static final int DEFAULT_MAX_ENQUEUED_PAGES = 4;
+
+  /** The default options: 4 pages, no limit in bytes, prefetch enabled. */
+  public static final PagingOptions DEFAULT =
+      new PagingOptions(DEFAULT_MAX_ENQUEUED_PAGES, -1, true);
+
+  private final int maxEnqueuedPages;
+  private final long maxEnqueuedBytes;
+  private final boolean prefetch;
+  private final @Nullable Executor fetchExecutor;
+
+  /**
+   * Creates new paging options without a {@linkplain #getFetchExecutor() fetch executor}.
+   *
+   * @param maxEnqueuedPages The maximum number of pages to hold in the queue; must be strictly
+   *     positive.
+   * @param maxEnqueuedBytes The maximum total size of the pages to hold in the queue; zero or
+   *     negative values disable this limit.
+   * @param prefetch Whether to send the request for the next page as soon as the current page
+   *     arrives.
+   */
+  public PagingOptions(int maxEnqueuedPages, long maxEnqueuedBytes, boolean prefetch) {
+    this(maxEnqueuedPages, maxEnqueuedBytes, prefetch, null);
+  }
+
+  /**
+   * Creates new paging options.
+   *
+   * @param maxEnqueuedPages The maximum number of pages to hold in the queue; must be strictly
+   *     positive.
+   * @param maxEnqueuedBytes The maximum total size of the pages to hold in the queue; zero or
+   *     negative values disable this limit.
+   * @param prefetch Whether to send the request for the next page as soon as the current page
+   *     arrives.
+   * @param fetchExecutor The executor to send requests for subsequent pages from, when prefetch is
+   *     disabled; the caller remains responsible for shutting it down.
+   */
+  public PagingOptions(
+      int maxEnqueuedPages,
+      long maxEnqueuedBytes,
+      boolean prefetch,
+      @Nullable Executor fetchExecutor) {
+    if (maxEnqueuedPages <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting maximum enqueued pages to be strictly positive, got: " + maxEnqueuedPages);
+    }
+    this.maxEnqueuedPages = maxEnqueuedPages;
+    this.maxEnqueuedBytes = maxEnqueuedBytes;
+    this.prefetch = prefetch;
+    this.fetchExecutor = fetchExecutor;
+  }
+
+  /** @return the maximum number of pages to hold in the queue. */
+  public int getMaxEnqueuedPages() {
+    return maxEnqueuedPages;
+  }
+
+  /**
+   * @return the maximum total size of the pages to hold in the queue; zero or negative values mean
+   *     no limit.
+   */
+  public long getMaxEnqueuedBytes() {
+    return maxEnqueuedBytes;
+  }
+
+  /** @return whether the next page is requested as soon as the current page arrives. */
+  public boolean isPrefetch() {
+    return prefetch;
+  }
+
+  /**
+   * @return the executor to send requests for subsequent pages from, when prefetch is disabled; or
+   *     {@code null} if none was set.
+   */
+  @Nullable
+  public Executor getFetchExecutor() {
+    return fetchExecutor;
+  }
+
+  /**
+   * Returns a copy of these options with the given fetch executor.
+   *
+   * @param fetchExecutor The executor to send requests for subsequent pages from, when prefetch is
+   *     disabled.
+   * @return a copy of these options with the given fetch executor.
+   */
+  @NonNull
+  public PagingOptions withFetchExecutor(@NonNull Executor fetchExecutor) {
+    return new PagingOptions(maxEnqueuedPages, maxEnqueuedBytes, prefetch, fetchExecutor);
+  }
+}
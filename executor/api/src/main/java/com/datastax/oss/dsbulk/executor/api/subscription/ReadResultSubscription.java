@@ -21,26 +21,47 @@ import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.collect.AbstractIterator;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.executor.api.straggler.StragglerMitigator;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Semaphore;
 import org.reactivestreams.Subscriber;
 
 public class ReadResultSubscription extends ResultSubscription<ReadResult, AsyncResultSet> {
 
+  private final @Nullable StragglerMitigator stragglerMitigator;
+
   public ReadResultSubscription(
       @NonNull Subscriber<? super ReadResult> subscriber,
       @NonNull Statement<?> statement,
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
       @Nullable RateLimiter rateLimiter,
+      @NonNull PagingOptions pagingOptions,
+      @Nullable StragglerMitigator stragglerMitigator,
       boolean failFast) {
-    super(subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+    super(
+        subscriber,
+        statement,
+        listener,
+        maxConcurrentRequests,
+        maxConcurrentRequestsPerNode,
+        bytesLimiter,
+        rateLimiter,
+        pagingOptions,
+        failFast);
+    this.stragglerMitigator = stragglerMitigator;
   }
 
   @Override
@@ -61,7 +82,23 @@ public class ReadResultSubscription extends ResultSubscription<ReadResult, Async
             return endOfData();
           }
         };
-    return new Page(results, rs.hasMorePages() ? rs::fetchNextPage : null);
+    return new Page(
+        results,
+        rs.hasMorePages() ? nextPage(rs) : null,
+        rs.getExecutionInfo().getResponseSizeInBytes(),
+        rs.remaining());
+  }
+
+  @Override
+  long getDataSize(ReadResult result) {
+    return result.getRow().map(bytesLimiter::getDataSize).orElse(0L);
+  }
+
+  private Callable<CompletionStage<? extends AsyncResultSet>> nextPage(AsyncResultSet rs) {
+    if (stragglerMitigator == null) {
+      return rs::fetchNextPage;
+    }
+    return () -> stragglerMitigator.fetchNextPage(statement, rs);
   }
 
   @Override
@@ -89,11 +126,4 @@ public class ReadResultSubscription extends ResultSubscription<ReadResult, Async
       listener.onReadRequestFailed(statement, t, local);
     }
   }
-
-  @Override
-  void onBeforeResultEmitted(ReadResult result) {
-    if (rateLimiter != null) {
-      rateLimiter.acquire();
-    }
-  }
 }
@@ -22,6 +22,9 @@ import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter.Permits;
 import com.datastax.oss.dsbulk.executor.api.listener.DefaultExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
@@ -37,6 +40,8 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -61,8 +66,6 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
 
   private static final Logger LOG = LoggerFactory.getLogger(ResultSubscription.class);
 
-  private static final int MAX_ENQUEUED_PAGES = 4;
-
   /*
   The following are specific to the present query execution.
    */
@@ -77,17 +80,34 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
 
   final @Nullable ExecutionListener listener;
   private final @Nullable Semaphore maxConcurrentRequests;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  final @Nullable BytesLimiter bytesLimiter;
   final @Nullable RateLimiter rateLimiter;
   private final boolean failFast;
 
+  /*
+  The following control the page queue and read-ahead.
+   */
+
+  private final int maxEnqueuedPages;
+  private final long maxEnqueuedBytes;
+  private final boolean prefetch;
+  private final @Nullable Executor fetchExecutor;
+
   /** The number of writes in the batch. 1 for other types of statement. */
   final int batchSize;
 
+  /**
+   * The data size of the last page consumed, used as an estimate of the size of the next one; -1
+   * until the first page is consumed. Only computed if bytes are limited.
+   */
+  private volatile long lastPageDataSize = -1;
+
   /** Tracks the number of items requested by the subscriber. */
   private final AtomicLong requested = new AtomicLong(0);
 
-  /** The pages received so far, with a maximum of MAX_ENQUEUED_PAGES elements. */
-  final Queue<Page> pages = new SpscArrayQueue<>(MAX_ENQUEUED_PAGES);
+  /** The pages received so far, with a maximum of maxEnqueuedPages elements. */
+  final Queue<Page> pages;
 
   /**
    * The last page in the queue (i.e., the queue's tail element). We keep a reference to it to avoid
@@ -101,6 +121,17 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
    */
   private final AtomicInteger pagesSize = new AtomicInteger(0);
 
+  /** The total size in bytes of the enqueued pages; only maintained if maxEnqueuedBytes > 0. */
+  private final AtomicLong pagesBytes = new AtomicLong(0);
+
+  /**
+   * The local execution context used to record the time spent waiting for the next page, or null if
+   * the subscriber is not waiting for a page.
+   *
+   * <p>Only accessed from {@link #drain()}, so it does not need to be volatile.
+   */
+  private DefaultExecutionContext pageWait = null;
+
   /**
    * Used to signal that a thread is currently draining, i.e., emitting items to the subscriber.
    * When it is zero, that means there is no ongoing emission. This mechanism effectively serializes
@@ -146,14 +177,24 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
       @NonNull Statement<?> statement,
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
       @Nullable RateLimiter rateLimiter,
+      @NonNull PagingOptions pagingOptions,
       boolean failFast) {
     this.statement = statement;
     this.subscriber = subscriber;
     this.listener = listener;
     this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+    this.bytesLimiter = bytesLimiter;
     this.rateLimiter = rateLimiter;
     this.failFast = failFast;
+    this.maxEnqueuedPages = pagingOptions.getMaxEnqueuedPages();
+    this.maxEnqueuedBytes = pagingOptions.getMaxEnqueuedBytes();
+    this.prefetch = pagingOptions.isPrefetch();
+    this.fetchExecutor = pagingOptions.getFetchExecutor();
+    pages = new SpscArrayQueue<>(maxEnqueuedPages);
     if (statement instanceof BatchStatement) {
       batchSize = ((BatchStatement) statement).size();
     } else {
@@ -255,6 +296,9 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
         if (result == null) {
           break;
         }
+        if (pageWait != null) {
+          onPageWaitFinished();
+        }
         if (result.isSuccess() || !failFast) {
           doOnNext(result);
         }
@@ -293,18 +337,27 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
     Page current = pages.peek();
     if (current != null) {
       if (current.hasMoreRows()) {
-        return current.nextRow();
+        return nextRow(current);
       } else if (current.hasMorePages()) {
         // Discard current page as it is consumed.
         // Don't discard the last page though as we need it
         // to test isExhausted(). It will be GC'ed when a terminal signal
         // is issued anyway, so that's no big deal.
+        Page consumed = current;
         current = dequeue();
+        if (!prefetch && !cancelled) {
+          fetchNextPageAsync(consumed);
+        }
         // if the next page is readily available,
         // serve its first row now, no need to wait
         // for the next drain.
         if (current != null && current.hasMoreRows()) {
-          return current.nextRow();
+          return nextRow(current);
+        }
+        if (current == null && pageWait == null) {
+          // the subscriber is now waiting for the next page to arrive
+          pageWait = new DefaultExecutionContext();
+          pageWait.start();
         }
       }
     }
@@ -312,6 +365,34 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
     return null;
   }
 
+  /**
+   * Returns the next row of the given page, and charges the rate limiters for it: the requests rate
+   * limiter is charged once for all the page's rows, before its first row is emitted; the bytes
+   * limiter is charged once the page is consumed, with the data size of all its rows.
+   *
+   * <p>Like {@link #tryNext()}, this runs on the draining thread and not in the stage that
+   * completes the response, so that a throttled query does not hold up the driver's IO thread while
+   * it creates the page. Cannot run concurrently due to the {@link #draining} field.
+   */
+  private R nextRow(Page page) {
+    if (!page.charged) {
+      page.charged = true;
+      if (rateLimiter != null && page.rowCount > 0) {
+        rateLimiter.acquire(page.rowCount);
+      }
+    }
+    R result = page.nextRow();
+    if (bytesLimiter != null && page.rowCount > 0) {
+      page.dataSize += getDataSize(result);
+      if (!page.hasMoreRows()) {
+        lastPageDataSize = page.dataSize;
+        bytesLimiter.recordPage(page.rowCount, page.dataSize);
+        bytesLimiter.acquireRate(page.dataSize);
+      }
+    }
+    return result;
+  }
+
   /**
    * Returns {@code true} when the entire stream has been consumed and no more items can be emitted.
    * When that is the case, a terminal signal is sent.
@@ -332,25 +413,50 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
 
   /**
    * Runs on a subscriber thread initially, see {@link #start(Callable)}. Subsequent executions run
-   * on the thread that completes the pair of futures [nextPage, fullyConsumed] and enqueues. This
-   * can be a driver IO thread or a subscriber thread; in both cases, cannot run concurrently due to
-   * the fact that one can only fetch the next page when the current one is arrived and enqueued.
+   * on the thread that completes the pair of futures [nextPage, fullyConsumed] and enqueues, when
+   * prefetching, or on the fetch executor otherwise, see {@link #fetchNextPageAsync(Page)}. In all
+   * cases, cannot run concurrently due to the fact that one can only fetch the next page when the
+   * current one is arrived and enqueued.
    */
   private void fetchNextPage(Page current) {
     // A local execution context to record metrics for this specific request-response cycle.
     DefaultExecutionContext local = new DefaultExecutionContext();
+    // Acquire the node permit first, so that waiting for a slow node does not hold any of the
+    // global permits below.
+    Permits nodePermits;
+    try {
+      nodePermits =
+          maxConcurrentRequestsPerNode == null
+              ? Permits.NONE
+              : maxConcurrentRequestsPerNode.acquire(statement);
+    } catch (InterruptedException e) {
+      // Don't send the request unthrottled: end the stream with an error instead.
+      Thread.currentThread().interrupt();
+      current.fullyConsumed.thenAccept(
+          v -> {
+            enqueue(toErrorPage(e));
+            drain();
+          });
+      return;
+    }
     onBeforeRequestStarted();
+    int bytesInFlight =
+        bytesLimiter == null ? 0 : bytesLimiter.acquireInFlight(getRequestDataSize());
     local.start();
     onRequestStarted(local);
     current
         .nextPage()
         // as soon as the response arrives, notify our listener and
-        // update maxConcurrentRequests.
+        // release the in-flight permits acquired above.
         .whenComplete(
             (rs, t) -> {
               if (maxConcurrentRequests != null) {
                 maxConcurrentRequests.release();
               }
+              if (bytesLimiter != null) {
+                bytesLimiter.releaseInFlight(bytesInFlight);
+              }
+              nodePermits.release();
               local.stop();
               if (t == null) {
                 onRequestSuccessful(rs, local);
@@ -380,20 +486,61 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
         .thenAccept(
             page -> {
               enqueue(page);
-              if (page.hasMorePages() && !cancelled) {
-                // preemptively fetch the next page, if available
+              if (prefetch && page.hasMorePages() && !cancelled) {
+                // preemptively fetch the next page, if available;
+                // without prefetch, it will be fetched by tryNext()
+                // when this page is fully consumed.
                 fetchNextPage(page);
               }
               drain();
             });
   }
 
+  /**
+   * Fetches the next page from the {@linkplain PagingOptions#getFetchExecutor() fetch executor}, if
+   * any, since acquiring the permits to send the request may block, and this is invoked from {@link
+   * #tryNext()}, on a subscriber thread or on a driver IO thread.
+   */
+  private void fetchNextPageAsync(Page current) {
+    if (fetchExecutor == null) {
+      fetchNextPage(current);
+      return;
+    }
+    try {
+      fetchExecutor.execute(() -> fetchNextPage(current));
+    } catch (RejectedExecutionException e) {
+      // the executor was shut down: fetch the page in place rather than stall the stream
+      fetchNextPage(current);
+    }
+  }
+
   void onBeforeRequestStarted() {
     if (maxConcurrentRequests != null) {
       maxConcurrentRequests.acquireUninterruptibly();
     }
   }
 
+  /**
+   * Returns the number of bytes to acquire from the in-flight bytes limit before sending the next
+   * request. By default, this is the data size of the last page consumed, since the size of the
+   * next page cannot be known in advance; before the first page, it is estimated from the
+   * statement's page size and the average row size observed so far.
+   */
+  long getRequestDataSize() {
+    if (lastPageDataSize < 0 && bytesLimiter != null) {
+      return bytesLimiter.estimateDataSize(statement);
+    }
+    return Math.max(0, lastPageDataSize);
+  }
+
+  /**
+   * Returns the data size of the given result, to be charged to the bytes limiter. Only invoked for
+   * rows of pages created with a positive row count, and only if bytes are limited.
+   */
+  long getDataSize(R result) {
+    return 0;
+  }
+
   /*
   The 3 methods below should trigger notifications to our listener,
   using the "local" execution context that records metrics for a single
@@ -427,7 +574,11 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
     last = page;
     // if there is room for another page, complete the future now,
     // this will allow the enqueueing of the next one.
-    if (pagesSize.incrementAndGet() < MAX_ENQUEUED_PAGES) {
+    boolean room = pagesSize.incrementAndGet() < maxEnqueuedPages;
+    if (maxEnqueuedBytes > 0) {
+      room &= pagesBytes.addAndGet(page.sizeInBytes) < maxEnqueuedBytes;
+    }
+    if (room) {
       page.fullyConsumed.complete(null);
     }
   }
@@ -438,12 +589,29 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
       throw new AssertionError("Queue is empty, this should not happen");
     }
     pagesSize.decrementAndGet();
+    if (maxEnqueuedBytes > 0) {
+      pagesBytes.addAndGet(-current.sizeInBytes);
+    }
     // complete the future as the last action, as its
     // completion might trigger a call to enqueue() with the next page
     last.fullyConsumed.complete(null);
     return pages.peek();
   }
 
+  /**
+   * Called when the subscriber, after having waited for the next page to arrive, receives its first
+   * item.
+   *
+   * <p>Cannot run concurrently due to the {@link #draining} field.
+   */
+  private void onPageWaitFinished() {
+    pageWait.stop();
+    if (listener != null) {
+      listener.onPageWaitFinished(statement, pageWait);
+    }
+    pageWait = null;
+  }
+
   private void doOnNext(R result) {
     try {
       onBeforeResultEmitted(result);
@@ -547,26 +715,46 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
    * Abstracts away the concrete page type, allowing this base class to handle different ones
    * (typically continuous and non-continuous result sets).
    *
-   * <p>It contains simply an iterator over the page's results, and a future pointing to the next
-   * page, or {@code null} if it's the last page.
+   * <p>It contains simply an iterator over the page's results, a future pointing to the next page,
+   * or {@code null} if it's the last page, the page's size in bytes, if known, and the number of
+   * rows it contains, if it contains rows read from the database.
    */
   class Page {
 
     final Iterator<R> rows;
     final Callable<CompletionStage<? extends P>> nextPage;
     final CompletableFuture<Void> fullyConsumed;
+    final long sizeInBytes;
+    final int rowCount;
+
+    // only accessed by the draining thread, see nextRow(Page)
+    boolean charged;
+    long dataSize;
 
     /** called only from start() */
     private Page(Callable<CompletionStage<? extends P>> nextPage) {
       this.nextPage = nextPage;
       this.rows = Collections.emptyIterator();
       fullyConsumed = initial;
+      sizeInBytes = 0;
+      rowCount = 0;
     }
 
     Page(Iterator<R> rows, Callable<CompletionStage<? extends P>> nextPage) {
+      this(rows, nextPage, 0, 0);
+    }
+
+    Page(
+        Iterator<R> rows,
+        Callable<CompletionStage<? extends P>> nextPage,
+        long sizeInBytes,
+        int rowCount) {
       this.nextPage = nextPage;
       this.rows = rows;
       fullyConsumed = new CompletableFuture<>();
+      // the driver reports -1 when the size is unknown
+      this.sizeInBytes = Math.max(0, sizeInBytes);
+      this.rowCount = rowCount;
     }
 
     boolean hasMorePages() {
@@ -19,6 +19,8 @@ import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultWriteResult;
@@ -32,14 +34,29 @@ import org.reactivestreams.Subscriber;
 
 public class WriteResultSubscription extends ResultSubscription<WriteResult, AsyncResultSet> {
 
+  /** The data size of the statement; only computed if bytes are limited. */
+  private final long dataSize;
+
   public WriteResultSubscription(
       @NonNull Subscriber<? super WriteResult> subscriber,
       @NonNull Statement<?> statement,
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable BytesLimiter bytesLimiter,
       @Nullable RateLimiter rateLimiter,
       boolean failFast) {
-    super(subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+    super(
+        subscriber,
+        statement,
+        listener,
+        maxConcurrentRequests,
+        maxConcurrentRequestsPerNode,
+        bytesLimiter,
+        rateLimiter,
+        PagingOptions.DEFAULT,
+        failFast);
+    dataSize = bytesLimiter == null ? 0 : bytesLimiter.getDataSize(statement);
   }
 
   @Override
@@ -59,9 +76,17 @@ public class WriteResultSubscription extends ResultSubscription<WriteResult, Asy
     if (rateLimiter != null) {
       rateLimiter.acquire(batchSize);
     }
+    if (bytesLimiter != null) {
+      bytesLimiter.acquireRate(dataSize);
+    }
     super.onBeforeRequestStarted();
   }
 
+  @Override
+  long getRequestDataSize() {
+    return dataSize;
+  }
+
   @Override
   void onRequestStarted(ExecutionContext local) {
     if (listener != null) {
@@ -80,4 +80,19 @@ public interface ReactiveBulkWriter extends AutoCloseable {
    */
   Publisher<WriteResult> writeReactive(Publisher<? extends Statement<?>> statements)
       throws BulkExecutionException;
+
+  /**
+   * Executes the given publisher of write statements reactively, with the given concurrency.
+   *
+   * <p>At most {@code concurrency} statements are requested from the given publisher and not yet
+   * emitted as results at any given time. Results are emitted in completion order.
+   *
+   * @param statements The statements to execute.
+   * @param concurrency The maximum number of statements being executed or waiting to be emitted at
+   *     any given time.
+   * @return A {@link Publisher publisher} of write results.
+   * @throws BulkExecutionException if the operation cannot complete normally.
+   */
+  Publisher<WriteResult> writeReactive(
+      Publisher<? extends Statement<?>> statements, int concurrency) throws BulkExecutionException;
 }
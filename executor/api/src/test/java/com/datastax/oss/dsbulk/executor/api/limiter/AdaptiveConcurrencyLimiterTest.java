@@ -0,0 +1,180 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.limiter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.Gauge;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
+import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private final MetricsCollectingExecutionListener listener =
+      new MetricsCollectingExecutionListener();
+
+  @Test
+  void should_clamp_initial_limit() {
+    assertThat(newLimiter(1000, 10, 100).getLimit()).isEqualTo(100);
+    assertThat(newLimiter(1, 10, 100).getLimit()).isEqualTo(10);
+    assertThat(newLimiter(50, 10, 100).getPermits().getMaxPermits()).isEqualTo(50);
+  }
+
+  @Test
+  void should_expose_limit_as_metric() {
+    newLimiter(50, 10, 100);
+    @SuppressWarnings("unchecked")
+    Gauge<Integer> gauge =
+        (Gauge<Integer>)
+            listener.getRegistry().getGauges().get(AdaptiveConcurrencyLimiter.LIMIT_METRIC_NAME);
+    assertThat(gauge).isNotNull();
+    assertThat(gauge.getValue()).isEqualTo(50);
+  }
+
+  @Test
+  void should_not_change_limit_when_no_requests_completed() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(50, 10, 100);
+    limiter.update();
+    assertThat(limiter.getLimit()).isEqualTo(50);
+  }
+
+  @Test
+  void should_increase_limit_when_latencies_are_stable() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(10, 10, 100);
+    record(10, 100);
+    limiter.update();
+    assertThat(limiter.getLimit()).isEqualTo(14);
+    record(10, 100);
+    limiter.update();
+    assertThat(limiter.getLimit()).isEqualTo(18);
+    assertThat(limiter.getPermits().getMaxPermits()).isEqualTo(18);
+    for (int i = 0; i < 100; i++) {
+      record(10, 100);
+      limiter.update();
+    }
+    assertThat(limiter.getLimit()).isEqualTo(100);
+  }
+
+  @Test
+  void should_decrease_limit_when_latencies_increase() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(100, 10, 100);
+    record(10, 100);
+    limiter.update();
+    assertThat(limiter.getLimit()).isEqualTo(100);
+    // interval latency is 5 times the baseline
+    record(50, 100);
+    limiter.update();
+    assertThat(limiter.getLimit()).isEqualTo(50);
+    assertThat(limiter.getPermits().getMaxPermits()).isEqualTo(50);
+    for (int i = 0; i < 10; i++) {
+      record(50, 100);
+      limiter.update();
+    }
+    assertThat(limiter.getLimit()).isEqualTo(10);
+    // back to normal
+    record(10, 100);
+    limiter.update();
+    assertThat(limiter.getLimit()).isEqualTo(14);
+  }
+
+  @Test
+  void should_resize_semaphore_while_permits_in_use() throws InterruptedException {
+    ResizableSemaphore semaphore = new ResizableSemaphore(10);
+    semaphore.acquire(8);
+    semaphore.setMaxPermits(4);
+    assertThat(semaphore.availablePermits()).isEqualTo(-4);
+    assertThat(semaphore.tryAcquire()).isFalse();
+    semaphore.release(8);
+    assertThat(semaphore.availablePermits()).isEqualTo(4);
+    semaphore.setMaxPermits(12);
+    assertThat(semaphore.availablePermits()).isEqualTo(12);
+    assertThatThrownBy(() -> semaphore.setMaxPermits(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void should_reject_invalid_arguments() {
+    assertThatThrownBy(
+            () ->
+                new AdaptiveConcurrencyLimiter(
+                    listener, 10, 0, 100, 4, 2, 0.5, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () ->
+                new AdaptiveConcurrencyLimiter(
+                    listener, 10, 10, 5, 4, 2, 0.5, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () ->
+                new AdaptiveConcurrencyLimiter(
+                    listener, 10, 1, 100, 0, 2, 0.5, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () ->
+                new AdaptiveConcurrencyLimiter(
+                    listener, 10, 1, 100, 4, 1, 0.5, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () ->
+                new AdaptiveConcurrencyLimiter(
+                    listener, 10, 1, 100, 4, 2, 1, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () -> new AdaptiveConcurrencyLimiter(listener, 10, 1, 100, 4, 2, 0.5, Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private AdaptiveConcurrencyLimiter newLimiter(int initial, int min, int max) {
+    return new AdaptiveConcurrencyLimiter(
+        listener, initial, min, max, 4, 2, 0.5, Duration.ofSeconds(1));
+  }
+
+  private void record(long latencyMillis, int count) {
+    SimpleStatement statement = SimpleStatement.newInstance("irrelevant");
+    ExecutionContext context = new FixedLatencyContext(MILLISECONDS.toNanos(latencyMillis));
+    for (int i = 0; i < count; i++) {
+      listener.onWriteRequestSuccessful(statement, context);
+    }
+  }
+
+  private static class FixedLatencyContext implements ExecutionContext {
+
+    private final long elapsedTimeNanos;
+
+    private FixedLatencyContext(long elapsedTimeNanos) {
+      this.elapsedTimeNanos = elapsedTimeNanos;
+    }
+
+    @Override
+    public void setAttribute(Object key, Object value) {}
+
+    @Override
+    public Optional<Object> getAttribute(Object key) {
+      return Optional.empty();
+    }
+
+    @Override
+    public long elapsedTimeNanos() {
+      return elapsedTimeNanos;
+    }
+  }
+}
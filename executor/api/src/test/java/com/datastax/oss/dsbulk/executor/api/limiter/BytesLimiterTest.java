@@ -0,0 +1,120 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.dsbulk.tests.driver.DriverUtils;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BytesLimiterTest {
+
+  private final CqlSession session = DriverUtils.mockSession();
+
+  @Test
+  void should_compute_statement_data_size() {
+    BytesLimiter limiter = new BytesLimiter(session, 100, -1);
+    SimpleStatement stmt1 = SimpleStatement.newInstance("irrelevant", "abc", 42);
+    SimpleStatement stmt2 = SimpleStatement.newInstance("irrelevant", "abcdef");
+    assertThat(limiter.getDataSize(stmt1)).isEqualTo(3 + 4);
+    assertThat(
+            limiter.getDataSize(
+                BatchStatement.newInstance(DefaultBatchType.UNLOGGED, stmt1, stmt2)))
+        .isEqualTo(3 + 4 + 6);
+  }
+
+  @Test
+  void should_compute_row_data_size() {
+    BytesLimiter limiter = new BytesLimiter(session, 100, -1);
+    ColumnDefinitions definitions = mock(ColumnDefinitions.class);
+    when(definitions.size()).thenReturn(2);
+    Row row = mock(Row.class);
+    when(row.getColumnDefinitions()).thenReturn(definitions);
+    when(row.getBytesUnsafe(0)).thenReturn(ByteBuffer.wrap(new byte[] {0, 0, 0, 42}));
+    when(row.getBytesUnsafe(1)).thenReturn(null);
+    assertThat(limiter.getDataSize(row)).isEqualTo(4);
+  }
+
+  @Test
+  void should_acquire_and_release_in_flight_bytes() {
+    BytesLimiter limiter = new BytesLimiter(session, -1, 100);
+    assertThat(limiter.isInFlightLimited()).isTrue();
+    int acquired1 = limiter.acquireInFlight(30);
+    assertThat(acquired1).isEqualTo(30);
+    assertThat(limiter.availableInFlight()).isEqualTo(70);
+    int acquired2 = limiter.acquireInFlight(0);
+    assertThat(acquired2).isZero();
+    assertThat(limiter.availableInFlight()).isEqualTo(70);
+    limiter.releaseInFlight(acquired1);
+    limiter.releaseInFlight(acquired2);
+    assertThat(limiter.availableInFlight()).isEqualTo(100);
+  }
+
+  @Test
+  void should_cap_in_flight_bytes_for_large_requests() throws Exception {
+    BytesLimiter limiter = new BytesLimiter(session, -1, 100);
+    int acquired = limiter.acquireInFlight(1000);
+    assertThat(acquired).isEqualTo(100);
+    assertThat(limiter.availableInFlight()).isZero();
+    CompletableFuture<Integer> blocked =
+        CompletableFuture.supplyAsync(() -> limiter.acquireInFlight(1));
+    Thread.sleep(100);
+    assertThat(blocked).isNotDone();
+    limiter.releaseInFlight(acquired);
+    assertThat(blocked.get(1, TimeUnit.SECONDS)).isEqualTo(1);
+  }
+
+  @Test
+  void should_estimate_first_page_size() {
+    BytesLimiter limiter = new BytesLimiter(session, -1, 100_000);
+    SimpleStatement stmt = SimpleStatement.newInstance("irrelevant").setPageSize(10);
+    assertThat(limiter.estimateDataSize(stmt)).isEqualTo(10 * BytesLimiter.DEFAULT_ROW_SIZE);
+    limiter.recordPage(100, 5000);
+    limiter.recordPage(100, 3000);
+    assertThat(limiter.estimateDataSize(stmt)).isEqualTo(10 * 40);
+    // empty pages or pages of unknown size are ignored
+    limiter.recordPage(0, 100);
+    limiter.recordPage(100, -1);
+    assertThat(limiter.estimateDataSize(stmt)).isEqualTo(10 * 40);
+  }
+
+  @Test
+  void should_not_limit_when_disabled() {
+    BytesLimiter limiter = new BytesLimiter(session, -1, -1);
+    assertThat(limiter.isInFlightLimited()).isFalse();
+    assertThat(limiter.acquireInFlight(Long.MAX_VALUE)).isZero();
+    limiter.acquireRate(Long.MAX_VALUE);
+    assertThat(limiter.availableInFlight()).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  @Test
+  void should_reject_invalid_arguments() {
+    assertThatThrownBy(() -> new BytesLimiter(session, -1, Integer.MAX_VALUE + 1L))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
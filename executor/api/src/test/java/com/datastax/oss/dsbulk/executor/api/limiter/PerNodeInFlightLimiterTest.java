@@ -0,0 +1,148 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter.Permits;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PerNodeInFlightLimiterTest {
+
+  private static final CqlIdentifier KS = CqlIdentifier.fromInternal("ks");
+
+  private final ByteBuffer key1 = ByteBuffer.wrap(new byte[] {1});
+  private final ByteBuffer key2 = ByteBuffer.wrap(new byte[] {2});
+  private final ByteBuffer key3 = ByteBuffer.wrap(new byte[] {3});
+
+  private final Node node1 = mock(Node.class);
+  private final Node node2 = mock(Node.class);
+  private final Node node3 = mock(Node.class);
+
+  private CqlSession session;
+
+  @BeforeEach
+  void setUp() {
+    session = mock(CqlSession.class);
+    Metadata metadata = mock(Metadata.class);
+    TokenMap tokenMap = mock(TokenMap.class);
+    when(session.getMetadata()).thenReturn(metadata);
+    when(session.getKeyspace()).thenReturn(Optional.of(KS));
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    when(tokenMap.getReplicas(KS, key1)).thenReturn(ImmutableSet.of(node1, node2));
+    when(tokenMap.getReplicas(KS, key2)).thenReturn(ImmutableSet.of(node2, node3));
+    when(tokenMap.getReplicas(KS, key3)).thenReturn(ImmutableSet.of(node3, node1));
+  }
+
+  @Test
+  void should_acquire_and_release_permits_for_primary_replica() throws InterruptedException {
+    PerNodeInFlightLimiter limiter = new PerNodeInFlightLimiter(session, 2);
+    Permits permits1 = limiter.acquire(statement(key1));
+    assertThat(limiter.availablePermits(node1)).isEqualTo(1);
+    assertThat(limiter.availablePermits(node2)).isEqualTo(2);
+    assertThat(limiter.availablePermits(node3)).isEqualTo(2);
+    Permits permits2 = limiter.acquire(statement(key2));
+    assertThat(limiter.availablePermits(node1)).isEqualTo(1);
+    assertThat(limiter.availablePermits(node2)).isEqualTo(1);
+    assertThat(limiter.availablePermits(node3)).isEqualTo(2);
+    permits1.release();
+    permits2.release();
+    assertThat(limiter.availablePermits(node1)).isEqualTo(2);
+    assertThat(limiter.availablePermits(node2)).isEqualTo(2);
+    assertThat(limiter.availablePermits(node3)).isEqualTo(2);
+  }
+
+  @Test
+  void should_block_only_requests_targeting_saturated_node() throws Exception {
+    PerNodeInFlightLimiter limiter = new PerNodeInFlightLimiter(session, 1);
+    Permits permits1 = limiter.acquire(statement(key1));
+    // node1 is saturated: requests for key1 must wait
+    CompletableFuture<Permits> blocked =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return limiter.acquire(statement(key1));
+              } catch (InterruptedException e) {
+                throw new CompletionException(e);
+              }
+            });
+    Thread.sleep(100);
+    assertThat(blocked).isNotDone();
+    // requests for other primary replicas are not blocked, even if node1 is one of their replicas
+    limiter.acquire(statement(key3)).release();
+    // requests with unknown replicas are not limited
+    limiter.acquire(SimpleStatement.newInstance("irrelevant")).release();
+    permits1.release();
+    Permits permits2 = blocked.get(1, TimeUnit.SECONDS);
+    assertThat(limiter.availablePermits(node1)).isEqualTo(0);
+    permits2.release();
+    assertThat(limiter.availablePermits(node1)).isEqualTo(1);
+  }
+
+  @Test
+  void should_throw_when_interrupted() throws Exception {
+    PerNodeInFlightLimiter limiter = new PerNodeInFlightLimiter(session, 1);
+    Permits permits1 = limiter.acquire(statement(key1));
+    AtomicBoolean interrupted = new AtomicBoolean();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                limiter.acquire(statement(key1)).release();
+              } catch (InterruptedException e) {
+                interrupted.set(true);
+              }
+            });
+    thread.start();
+    Thread.sleep(100);
+    assertThat(thread.isAlive()).isTrue();
+    thread.interrupt();
+    thread.join(1000);
+    assertThat(thread.isAlive()).isFalse();
+    assertThat(interrupted).isTrue();
+    // no permit was acquired nor released by the interrupted thread
+    assertThat(limiter.availablePermits(node1)).isEqualTo(0);
+    permits1.release();
+    assertThat(limiter.availablePermits(node1)).isEqualTo(1);
+  }
+
+  @Test
+  void should_reject_invalid_arguments() {
+    assertThatThrownBy(() -> new PerNodeInFlightLimiter(session, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static SimpleStatement statement(ByteBuffer routingKey) {
+    return SimpleStatement.newInstance("irrelevant").setRoutingKey(routingKey);
+  }
+}
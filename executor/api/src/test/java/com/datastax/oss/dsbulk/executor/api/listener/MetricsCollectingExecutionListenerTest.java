@@ -123,6 +123,8 @@ class MetricsCollectingExecutionListenerTest {
     assertThat(listener.getSuccessfulStatementsCounter().getCount()).isEqualTo(2);
 
     assertThat(listener.getTotalReadsWritesTimer().getCount()).isEqualTo(8);
+    assertThat(listener.getTotalReadsWritesLatencyCount()).isEqualTo(8);
+    assertThat(listener.getTotalReadsWritesLatencySum()).isEqualTo(8 * 42);
     assertThat(listener.getFailedReadsWritesCounter().getCount()).isEqualTo(3);
     assertThat(listener.getSuccessfulReadsWritesCounter().getCount()).isEqualTo(5);
 
@@ -0,0 +1,216 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.publisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.dse.driver.api.core.DseProtocolVersion;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
+import com.datastax.oss.dsbulk.tests.driver.MockRow;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+class ReadResultPublisherPagingTest {
+
+  private static final int PAGE_SIZE = 5;
+
+  private static final int PAGE_SIZE_IN_BYTES = 100;
+
+  private final Statement<?> statement = SimpleStatement.newInstance("irrelevant");
+
+  private final AtomicInteger fetches = new AtomicInteger();
+
+  @Test
+  void should_prefetch_pages_until_queue_is_full() {
+    List<CompletableFuture<AsyncResultSet>> pages = mockPages(10, true);
+    ManualSubscriber subscriber = subscribe(pages, new PagingOptions(4, -1, true));
+    subscriber.request(1);
+    // pages 2 to 4 are enqueued, page 5 is in-flight
+    assertThat(fetches).hasValue(4);
+    assertThat(subscriber.received).hasSize(1);
+    subscriber.request(PAGE_SIZE);
+    // page 1 was consumed: page 5 is enqueued, page 6 is in-flight
+    assertThat(fetches).hasValue(5);
+    subscriber.request(Long.MAX_VALUE);
+    assertThat(subscriber.received).hasSize(10 * PAGE_SIZE);
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test
+  void should_not_prefetch_pages_when_prefetch_disabled() {
+    List<CompletableFuture<AsyncResultSet>> pages = mockPages(10, true);
+    Queue<Runnable> fetchTasks = new ArrayDeque<>();
+    ManualSubscriber subscriber =
+        subscribe(pages, new PagingOptions(4, -1, false, fetchTasks::add));
+    subscriber.request(PAGE_SIZE);
+    assertThat(fetches).hasValue(0);
+    assertThat(subscriber.received).hasSize(PAGE_SIZE);
+    subscriber.request(1);
+    // page 1 was consumed: page 2 is fetched from the fetch executor, not by the subscriber
+    assertThat(fetches).hasValue(0);
+    assertThat(fetchTasks).hasSize(1);
+    fetchTasks.poll().run();
+    assertThat(fetches).hasValue(1);
+    assertThat(subscriber.received).hasSize(PAGE_SIZE + 1);
+    subscriber.request(Long.MAX_VALUE);
+    while (!fetchTasks.isEmpty()) {
+      fetchTasks.poll().run();
+    }
+    assertThat(fetches).hasValue(9);
+    assertThat(subscriber.received).hasSize(10 * PAGE_SIZE);
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test
+  void should_limit_enqueued_pages_by_size_in_bytes() {
+    List<CompletableFuture<AsyncResultSet>> pages = mockPages(10, true);
+    ManualSubscriber subscriber =
+        subscribe(pages, new PagingOptions(4, PAGE_SIZE_IN_BYTES * 3 / 2, true));
+    subscriber.request(1);
+    // page 2 is enqueued and fills the queue, page 3 is in-flight
+    assertThat(fetches).hasValue(2);
+    subscriber.request(Long.MAX_VALUE);
+    assertThat(subscriber.received).hasSize(10 * PAGE_SIZE);
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test
+  void should_record_page_wait() {
+    List<CompletableFuture<AsyncResultSet>> pages = mockPages(3, false);
+    MetricsCollectingExecutionListener listener =
+        new MetricsCollectingExecutionListener(
+            new MetricRegistry(), DseProtocolVersion.DEFAULT, CodecRegistry.DEFAULT, false);
+    ManualSubscriber subscriber = subscribe(pages, PagingOptions.DEFAULT, listener);
+    subscriber.request(Long.MAX_VALUE);
+    pages.get(0).complete(newPage(pages, 0));
+    assertThat(subscriber.received).hasSize(PAGE_SIZE);
+    // the wait for the first page is not a page wait
+    assertThat(listener.getPageWaitTimer().getCount()).isZero();
+    pages.get(1).complete(newPage(pages, 1));
+    assertThat(subscriber.received).hasSize(2 * PAGE_SIZE);
+    assertThat(listener.getPageWaitTimer().getCount()).isOne();
+    pages.get(2).complete(newPage(pages, 2));
+    assertThat(subscriber.received).hasSize(3 * PAGE_SIZE);
+    assertThat(listener.getPageWaitTimer().getCount()).isEqualTo(2);
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  private ManualSubscriber subscribe(
+      List<CompletableFuture<AsyncResultSet>> pages, PagingOptions pagingOptions) {
+    return subscribe(pages, pagingOptions, null);
+  }
+
+  private ManualSubscriber subscribe(
+      List<CompletableFuture<AsyncResultSet>> pages,
+      PagingOptions pagingOptions,
+      MetricsCollectingExecutionListener listener) {
+    CqlSession session = mock(CqlSession.class);
+    when(session.executeAsync(any(SimpleStatement.class))).thenReturn(pages.get(0));
+    ReadResultPublisher publisher =
+        new ReadResultPublisher(
+            statement, session, true, listener, null, null, null, null, pagingOptions, null);
+    ManualSubscriber subscriber = new ManualSubscriber();
+    publisher.subscribe(subscriber);
+    return subscriber;
+  }
+
+  private List<CompletableFuture<AsyncResultSet>> mockPages(int count, boolean complete) {
+    List<CompletableFuture<AsyncResultSet>> pages = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      pages.add(new CompletableFuture<>());
+    }
+    if (complete) {
+      for (int i = 0; i < count; i++) {
+        pages.get(i).complete(newPage(pages, i));
+      }
+    }
+    return pages;
+  }
+
+  private AsyncResultSet newPage(List<CompletableFuture<AsyncResultSet>> pages, int index) {
+    List<Row> rows =
+        IntStream.range(0, PAGE_SIZE).mapToObj(MockRow::new).collect(Collectors.toList());
+    ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+    when(executionInfo.getResponseSizeInBytes()).thenReturn(PAGE_SIZE_IN_BYTES);
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    boolean last = index == pages.size() - 1;
+    when(rs.currentPage()).thenReturn(rows);
+    when(rs.hasMorePages()).thenReturn(!last);
+    when(rs.getExecutionInfo()).thenReturn(executionInfo);
+    if (!last) {
+      when(rs.fetchNextPage())
+          .then(
+              invocation -> {
+                fetches.incrementAndGet();
+                return pages.get(index + 1);
+              });
+    }
+    return rs;
+  }
+
+  private static class ManualSubscriber implements Subscriber<ReadResult> {
+
+    private final List<ReadResult> received = new ArrayList<>();
+    private Subscription subscription;
+    private volatile boolean completed;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(ReadResult result) {
+      received.add(result);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      throw new AssertionError(t);
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+
+    void request(long n) {
+      subscription.request(n);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicaLocatorTest {
+
+  private static final CqlIdentifier KS1 = CqlIdentifier.fromInternal("ks1");
+  private static final CqlIdentifier KS2 = CqlIdentifier.fromInternal("ks2");
+
+  private final ByteBuffer key = ByteBuffer.wrap(new byte[] {1});
+  private final Token token = mock(Token.class);
+
+  private final Node node1 = mock(Node.class);
+  private final Node node2 = mock(Node.class);
+  private final Node node3 = mock(Node.class);
+
+  private CqlSession session;
+
+  @BeforeEach
+  void setUp() {
+    session = mock(CqlSession.class);
+    Metadata metadata = mock(Metadata.class);
+    TokenMap tokenMap = mock(TokenMap.class);
+    when(session.getMetadata()).thenReturn(metadata);
+    when(session.getKeyspace()).thenReturn(Optional.of(KS1));
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    when(tokenMap.getReplicas(KS1, key)).thenReturn(ImmutableSet.of(node1, node2));
+    when(tokenMap.getReplicas(KS2, key)).thenReturn(ImmutableSet.of(node2, node3));
+    when(tokenMap.getReplicas(KS1, token)).thenReturn(ImmutableSet.of(node3, node1));
+  }
+
+  @Test
+  void should_locate_replicas_with_routing_key_or_token() {
+    ReplicaLocator locator = new ReplicaLocator(session);
+    assertThat(locator.getReplicas(statement().setRoutingKey(key))).containsExactly(node1, node2);
+    assertThat(locator.getPrimaryReplica(statement().setRoutingKey(key))).isEqualTo(node1);
+    assertThat(locator.getReplicas(statement().setRoutingToken(token)))
+        .containsExactly(node3, node1);
+  }
+
+  @Test
+  void should_prefer_statement_keyspace_over_session_keyspace() {
+    ReplicaLocator locator = new ReplicaLocator(session);
+    assertThat(locator.getReplicas(statement().setRoutingKey(key).setRoutingKeyspace(KS2)))
+        .containsExactly(node2, node3);
+  }
+
+  @Test
+  void should_not_locate_replicas_without_routing_information() {
+    ReplicaLocator locator = new ReplicaLocator(session);
+    assertThat(locator.getReplicas(statement())).isEmpty();
+    assertThat(locator.getPrimaryReplica(statement())).isNull();
+    when(session.getKeyspace()).thenReturn(Optional.empty());
+    assertThat(locator.getReplicas(statement().setRoutingKey(key))).isEmpty();
+  }
+
+  private static SimpleStatement statement() {
+    return SimpleStatement.newInstance("irrelevant");
+  }
+}
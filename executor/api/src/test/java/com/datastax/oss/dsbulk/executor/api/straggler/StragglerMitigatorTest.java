@@ -0,0 +1,286 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.straggler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StragglerMitigatorTest {
+
+  private static final CqlIdentifier KS = CqlIdentifier.fromInternal("ks");
+
+  private final ByteBuffer key = ByteBuffer.wrap(new byte[] {1});
+
+  private final Node node1 = mock(Node.class);
+  private final Node node2 = mock(Node.class);
+
+  private final Statement<?> statement =
+      SimpleStatement.newInstance("irrelevant").setRoutingKey(key);
+
+  /** The requests sent through the session, in order; the first one is the original request. */
+  private final List<Statement<?>> requests = new ArrayList<>();
+
+  private final List<CompletableFuture<AsyncResultSet>> responses = new ArrayList<>();
+
+  private CqlSession session;
+  private MetricsCollectingExecutionListener listener;
+  private StragglerMitigator mitigator;
+
+  @BeforeEach
+  void setUp() {
+    session = mock(CqlSession.class);
+    Metadata metadata = mock(Metadata.class);
+    TokenMap tokenMap = mock(TokenMap.class);
+    when(session.getMetadata()).thenReturn(metadata);
+    when(session.getKeyspace()).thenReturn(Optional.of(KS));
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    when(tokenMap.getReplicas(KS, key)).thenReturn(ImmutableSet.of(node1, node2));
+    when(node1.getState()).thenReturn(NodeState.UP);
+    when(node2.getState()).thenReturn(NodeState.UP);
+    when(node1.getDistance()).thenReturn(NodeDistance.LOCAL);
+    when(node2.getDistance()).thenReturn(NodeDistance.LOCAL);
+    when(session.executeAsync(any(Statement.class)))
+        .then(
+            invocation -> {
+              requests.add(invocation.getArgument(0));
+              CompletableFuture<AsyncResultSet> response = new CompletableFuture<>();
+              responses.add(response);
+              return response;
+            });
+    listener = new MetricsCollectingExecutionListener();
+    mitigator = new StragglerMitigator(session, listener, 90, Duration.ofMillis(50), 10);
+    mitigator.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    mitigator.close();
+  }
+
+  @Test
+  void should_not_speculate_before_enough_samples() {
+    warmUp(5);
+    assertThat(mitigator.getThresholdNanos()).isEqualTo(-1);
+    mitigator.executeAsync(statement);
+    sleep(150);
+    assertThat(requests).hasSize(6);
+    assertThat(startedCount()).isZero();
+  }
+
+  @Test
+  void should_use_min_delay_as_threshold() {
+    warmUp(10);
+    assertThat(mitigator.getThresholdNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  void should_not_speculate_when_request_is_fast() {
+    warmUp(10);
+    CompletionStage<AsyncResultSet> result = mitigator.executeAsync(statement);
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    responses.get(10).complete(rs);
+    sleep(150);
+    assertThat(result.toCompletableFuture()).isCompletedWithValue(rs);
+    assertThat(requests).hasSize(11);
+    assertThat(startedCount()).isZero();
+  }
+
+  @Test
+  void should_speculate_on_other_replica_and_keep_fastest_response() {
+    warmUp(10);
+    CompletionStage<AsyncResultSet> result = mitigator.executeAsync(statement);
+    sleep(150);
+    assertThat(requests).hasSize(12);
+    // the original request is left to the load balancing policy, the speculative one targets a
+    // replica
+    assertThat(requests.get(10)).isSameAs(statement);
+    assertThat(requests.get(11).getNode()).isIn(node1, node2);
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    responses.get(11).complete(rs);
+    assertThat(result.toCompletableFuture()).isCompletedWithValue(rs);
+    // the straggler request was cancelled
+    assertThat(responses.get(10)).isCancelled();
+    assertThat(startedCount()).isOne();
+    assertThat(successfulCount()).isOne();
+  }
+
+  @Test
+  void should_speculate_on_other_replica_when_statement_targets_node() {
+    warmUp(10);
+    mitigator.executeAsync(statement.setNode(node1));
+    sleep(150);
+    assertThat(requests).hasSize(12);
+    assertThat(requests.get(10).getNode()).isSameAs(node1);
+    assertThat(requests.get(11).getNode()).isSameAs(node2);
+    assertThat(startedCount()).isOne();
+  }
+
+  @Test
+  void should_not_speculate_on_remote_or_down_replica() {
+    warmUp(10);
+    when(node2.getDistance()).thenReturn(NodeDistance.REMOTE);
+    mitigator.executeAsync(statement.setNode(node1));
+    when(node2.getDistance()).thenReturn(NodeDistance.LOCAL);
+    when(node2.getState()).thenReturn(NodeState.DOWN);
+    mitigator.executeAsync(statement.setNode(node1));
+    sleep(150);
+    assertThat(requests).hasSize(12);
+    assertThat(startedCount()).isZero();
+  }
+
+  @Test
+  void should_resume_next_page_from_paging_state_on_other_replica() {
+    warmUp(10);
+    ByteBuffer pagingState = ByteBuffer.wrap(new byte[] {42});
+    ExecutionInfo info = mock(ExecutionInfo.class);
+    when(info.getPagingState()).thenReturn(pagingState);
+    when(info.getCoordinator()).thenReturn(node1);
+    when(info.getRequest()).then(invocation -> statement);
+    AsyncResultSet current = mock(AsyncResultSet.class);
+    when(current.getExecutionInfo()).thenReturn(info);
+    CompletableFuture<AsyncResultSet> straggler = new CompletableFuture<>();
+    when(current.fetchNextPage()).then(invocation -> straggler);
+    CompletionStage<AsyncResultSet> result = mitigator.fetchNextPage(statement, current);
+    sleep(150);
+    assertThat(requests).hasSize(11);
+    assertThat(requests.get(10).getNode()).isSameAs(node2);
+    assertThat(requests.get(10).getPagingState()).isEqualTo(pagingState);
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    straggler.complete(rs);
+    assertThat(result.toCompletableFuture()).isCompletedWithValue(rs);
+    // the speculative request was cancelled
+    assertThat(responses.get(10)).isCancelled();
+    assertThat(startedCount()).isOne();
+    assertThat(successfulCount()).isZero();
+  }
+
+  @Test
+  void should_not_stick_to_replica_of_speculative_execution() {
+    warmUp(10);
+    ByteBuffer pagingState = ByteBuffer.wrap(new byte[] {42});
+    ExecutionInfo info = mock(ExecutionInfo.class);
+    when(info.getPagingState()).thenReturn(pagingState);
+    when(info.getCoordinator()).thenReturn(node2);
+    // the current page was returned by a speculative execution on node2
+    when(info.getRequest()).then(invocation -> statement.setNode(node2));
+    AsyncResultSet current = mock(AsyncResultSet.class);
+    when(current.getExecutionInfo()).thenReturn(info);
+    mitigator.fetchNextPage(statement, current);
+    assertThat(requests).hasSize(11);
+    assertThat(requests.get(10).getNode()).isNull();
+    assertThat(requests.get(10).getPagingState()).isEqualTo(pagingState);
+    verify(current, never()).fetchNextPage();
+  }
+
+  @Test
+  void should_not_speculate_when_no_paging_state() {
+    warmUp(10);
+    ExecutionInfo info = mock(ExecutionInfo.class);
+    when(info.getCoordinator()).thenReturn(node1);
+    when(info.getRequest()).then(invocation -> statement);
+    AsyncResultSet current = mock(AsyncResultSet.class);
+    when(current.getExecutionInfo()).thenReturn(info);
+    when(current.fetchNextPage()).thenReturn(new CompletableFuture<>());
+    mitigator.fetchNextPage(statement, current);
+    sleep(150);
+    assertThat(requests).hasSize(10);
+    assertThat(startedCount()).isZero();
+  }
+
+  @Test
+  void should_fail_when_both_requests_fail() {
+    warmUp(10);
+    CompletionStage<AsyncResultSet> result = mitigator.executeAsync(statement);
+    sleep(150);
+    assertThat(requests).hasSize(12);
+    RuntimeException error1 = new RuntimeException("error1");
+    responses.get(10).completeExceptionally(error1);
+    assertThat(result.toCompletableFuture()).isNotDone();
+    responses.get(11).completeExceptionally(new RuntimeException("error2"));
+    assertThat(result.toCompletableFuture()).isCompletedExceptionally();
+    assertThatThrownBy(() -> result.toCompletableFuture().get()).hasCause(error1);
+  }
+
+  @Test
+  void should_reject_invalid_arguments() {
+    assertThatThrownBy(
+            () -> new StragglerMitigator(session, listener, 100, Duration.ofMillis(50), 10))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Expecting percentile to be strictly between 0 and 100, got: 100.0");
+    assertThatThrownBy(
+            () -> new StragglerMitigator(session, listener, 99, Duration.ofMillis(-1), 10))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Expecting minimum delay to be positive, got: PT-0.001S");
+    assertThatThrownBy(() -> new StragglerMitigator(session, listener, 99, Duration.ZERO, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Expecting minimum samples to be strictly positive, got: 0");
+  }
+
+  /** Executes the given number of fast requests, then updates the threshold. */
+  private void warmUp(int samples) {
+    for (int i = 0; i < samples; i++) {
+      mitigator.executeAsync(statement);
+      responses.get(i).complete(mock(AsyncResultSet.class));
+    }
+    mitigator.update();
+  }
+
+  private long startedCount() {
+    return listener.getRegistry().counter(StragglerMitigator.STARTED_METRIC_NAME).getCount();
+  }
+
+  private long successfulCount() {
+    return listener.getRegistry().counter(StragglerMitigator.SUCCESSFUL_METRIC_NAME).getCount();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -22,6 +22,7 @@ import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor;
 import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutorBuilder;
 import com.datastax.oss.dsbulk.executor.api.BulkExecutor;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
+import com.datastax.oss.dsbulk.executor.api.publisher.BulkWriteResultPublisher;
 import com.datastax.oss.dsbulk.executor.api.publisher.ReadResultPublisher;
 import com.datastax.oss.dsbulk.executor.api.publisher.WriteResultPublisher;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
@@ -33,6 +34,7 @@ import java.util.stream.Stream;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
 
 /**
  * An implementation of {@link BulkExecutor} using <a href="https://projectreactor.io">Reactor</a>.
@@ -109,8 +111,7 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
   public CompletableFuture<Void> writeAsync(
       Publisher<? extends Statement<?>> statements, Consumer<? super WriteResult> consumer) {
     CompletableFuture<Void> future = new CompletableFuture<>();
-    Flux.from(statements)
-        .flatMap(this::writeReactive)
+    writeReactive(statements)
         .doOnNext(consumer)
         .doOnComplete(() -> future.complete(null))
         .doOnError(future::completeExceptionally)
@@ -123,7 +124,14 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
     Objects.requireNonNull(statement);
     return Mono.from(
         new WriteResultPublisher(
-            statement, session, failFast, listener, maxConcurrentRequests, rateLimiter));
+            statement,
+            session,
+            failFast,
+            listener,
+            maxConcurrentRequests,
+            maxConcurrentRequestsPerNode,
+            bytesLimiter,
+            rateLimiter));
   }
 
   @Override
@@ -141,7 +149,24 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
   @Override
   public Flux<WriteResult> writeReactive(Publisher<? extends Statement<?>> statements)
       throws BulkExecutionException {
-    return Flux.from(statements).flatMap(this::writeReactive);
+    return writeReactive(statements, Queues.SMALL_BUFFER_SIZE);
+  }
+
+  @Override
+  public Flux<WriteResult> writeReactive(
+      Publisher<? extends Statement<?>> statements, int concurrency) throws BulkExecutionException {
+    Objects.requireNonNull(statements);
+    return Flux.from(
+        new BulkWriteResultPublisher(
+            statements,
+            session,
+            concurrency,
+            failFast,
+            listener,
+            maxConcurrentRequests,
+            maxConcurrentRequestsPerNode,
+            bytesLimiter,
+            rateLimiter));
   }
 
   @Override
@@ -201,7 +226,16 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
     Objects.requireNonNull(statement);
     return Flux.from(
         new ReadResultPublisher(
-            statement, session, failFast, listener, maxConcurrentRequests, rateLimiter));
+            statement,
+            session,
+            failFast,
+            listener,
+            maxConcurrentRequests,
+            maxConcurrentRequestsPerNode,
+            bytesLimiter,
+            rateLimiter,
+            pagingOptions,
+            stragglerMitigator));
   }
 
   @Override
@@ -89,4 +89,17 @@ public interface ReactorBulkWriter extends ReactiveBulkWriter {
   @Override
   Flux<WriteResult> writeReactive(Publisher<? extends Statement<?>> statements)
       throws BulkExecutionException;
+
+  /**
+   * Executes the given Flux of write statements reactively, with the given concurrency.
+   *
+   * @param statements The statements to execute.
+   * @param concurrency The maximum number of statements being executed or waiting to be emitted at
+   *     any given time.
+   * @return A {@link Flux Flux} of write results.
+   * @throws BulkExecutionException if the operation cannot complete normally.
+   */
+  @Override
+  Flux<WriteResult> writeReactive(Publisher<? extends Statement<?>> statements, int concurrency)
+      throws BulkExecutionException;
 }
@@ -91,9 +91,26 @@ public final class CompressedIOUtils {
 
   public static BufferedReader newBufferedReader(
       final URL url, final Charset charset, final String compression) throws IOException {
+    return newBufferedReader(url, charset, compression, false);
+  }
+
+  /**
+   * Returns a reader for the given URL, decompressing it if needed.
+   *
+   * @param url The URL to read.
+   * @param charset The charset to use.
+   * @param compression The compression, or null or "none" if the URL is not compressed.
+   * @param memoryMapped Whether to read uncompressed local files through memory-mapped windows, see
+   *     {@link IOUtils#newBufferedReader(URL, Charset, boolean)}.
+   * @return A new reader.
+   * @throws IOException If the URL cannot be opened, or if the compression is not supported.
+   */
+  public static BufferedReader newBufferedReader(
+      final URL url, final Charset charset, final String compression, boolean memoryMapped)
+      throws IOException {
     final BufferedReader reader;
     if (compression == null || isNoneCompression(compression)) {
-      reader = IOUtils.newBufferedReader(url, charset);
+      reader = IOUtils.newBufferedReader(url, charset, memoryMapped);
     } else {
       String compressor = INPUT_COMPRESSORS.get(compression.toLowerCase());
       if (compressor == null) {
@@ -17,6 +17,7 @@ package com.datastax.oss.dsbulk.io;
 
 import static java.nio.file.StandardOpenOption.CREATE_NEW;
 
+import com.datastax.oss.driver.shaded.guava.common.io.ByteStreams;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -30,11 +31,14 @@ import java.io.OutputStreamWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.stream.Stream;
 
 public final class IOUtils {
@@ -82,10 +86,87 @@ public final class IOUtils {
   }
 
   public static BufferedReader newBufferedReader(URL url, Charset charset) throws IOException {
+    return newBufferedReader(url, charset, false);
+  }
+
+  /**
+   * Returns a reader for the given URL.
+   *
+   * <p>If {@code memoryMapped} is true, regular local files are read through memory-mapped windows,
+   * see {@link MappedFileReader}; other URLs are always read through {@link URL#openStream()}.
+   *
+   * @param url The URL to read.
+   * @param charset The charset to use.
+   * @param memoryMapped Whether to read regular local files through memory-mapped windows.
+   * @return A new reader.
+   * @throws IOException If the URL cannot be opened.
+   */
+  public static BufferedReader newBufferedReader(URL url, Charset charset, boolean memoryMapped)
+      throws IOException {
+    Path file = memoryMapped ? getRegularFile(url) : null;
+    if (file != null) {
+      // reads of at least BUFFER_SIZE chars bypass the BufferedReader buffer
+      return new BufferedReader(
+          new MappedFileReader(
+              file, 0, Files.size(file), charset, MappedFileInputStream.DEFAULT_WINDOW_SIZE),
+          BUFFER_SIZE);
+    }
     return new BufferedReader(
         new InputStreamReader(newBufferedInputStream(url), charset), BUFFER_SIZE);
   }
 
+  /**
+   * Returns a reader for a range of bytes of a local file.
+   *
+   * @param file The file to read.
+   * @param start The offset of the first byte to read, inclusive; must be at a character boundary.
+   * @param end The offset of the last byte to read, exclusive; must be at a character boundary.
+   * @param charset The file charset.
+   * @param memoryMapped Whether to read the file through memory-mapped windows, see {@link
+   *     MappedFileReader}.
+   * @return A new reader.
+   * @throws IOException If the file cannot be opened.
+   */
+  public static BufferedReader newBufferedReader(
+      @NonNull Path file, long start, long end, @NonNull Charset charset, boolean memoryMapped)
+      throws IOException {
+    if (memoryMapped) {
+      return new BufferedReader(
+          new MappedFileReader(
+              file, start, end, charset, MappedFileInputStream.DEFAULT_WINDOW_SIZE),
+          BUFFER_SIZE);
+    }
+    return new BufferedReader(
+        new InputStreamReader(newInputStream(file, start, end, false), charset), BUFFER_SIZE);
+  }
+
+  /**
+   * Returns an input stream for a range of bytes of a local file. The stream is not buffered, and
+   * is meant to be read in large chunks.
+   *
+   * @param file The file to read.
+   * @param start The offset of the first byte to read, inclusive.
+   * @param end The offset of the last byte to read, exclusive.
+   * @param memoryMapped Whether to read the file through memory-mapped windows, see {@link
+   *     MappedFileInputStream}.
+   * @return A new input stream.
+   * @throws IOException If the file cannot be opened.
+   */
+  public static InputStream newInputStream(
+      @NonNull Path file, long start, long end, boolean memoryMapped) throws IOException {
+    if (memoryMapped) {
+      return new MappedFileInputStream(file, start, end, MappedFileInputStream.DEFAULT_WINDOW_SIZE);
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      channel.position(start);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return ByteStreams.limit(Channels.newInputStream(channel), end - start);
+  }
+
   public static BufferedWriter newBufferedWriter(URL url, Charset charset) throws IOException {
     return new BufferedWriter(
         new OutputStreamWriter(newBufferedOutputStream(url), charset), BUFFER_SIZE);
@@ -131,4 +212,21 @@ public final class IOUtils {
   public static boolean isStandardStream(@NonNull URL url) {
     return url.getProtocol().equalsIgnoreCase(STANDARD_STREAM_PROTOCOL);
   }
+
+  /**
+   * Returns the path of the regular local file designated by the given URL, or null if the URL does
+   * not designate a regular local file, e.g. if it uses another protocol, or designates a named
+   * pipe or a device.
+   */
+  private static Path getRegularFile(@NonNull URL url) {
+    if (!url.getProtocol().equals("file")) {
+      return null;
+    }
+    try {
+      Path file = Paths.get(url.toURI());
+      return Files.isRegularFile(file) ? file : null;
+    } catch (URISyntaxException | RuntimeException e) {
+      return null;
+    }
+  }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * An {@link InputStream} that reads a range of bytes of a local file through memory-mapped windows.
+ *
+ * <p>Windows are mapped one at a time and lazily, so that arbitrarily large ranges can be read
+ * without reserving more than {@code windowSize} bytes of address space at a time; see {@link
+ * MappedFileWindow}. If the file is truncated while it is being read, an {@link IOException} is
+ * thrown.
+ */
+public class MappedFileInputStream extends InputStream {
+
+  /** The default window size: 64 megabytes. */
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private final MappedFileWindow mapped;
+  private final long end;
+  private final int windowSize;
+
+  private long position;
+  private ByteBuffer window;
+
+  /**
+   * Creates a new stream reading the given range.
+   *
+   * @param file The file to read.
+   * @param start The offset of the first byte to read, inclusive.
+   * @param end The offset of the last byte to read, exclusive; must not be greater than the file
+   *     size.
+   * @param windowSize The maximum size of each mapped window.
+   * @throws IOException If the file cannot be opened.
+   */
+  public MappedFileInputStream(@NonNull Path file, long start, long end, int windowSize)
+      throws IOException {
+    if (start < 0 || end < start || windowSize <= 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid range or window size: start=%d, end=%d, windowSize=%d",
+              start, end, windowSize));
+    }
+    this.mapped = new MappedFileWindow(file);
+    this.position = start;
+    this.end = end;
+    this.windowSize = windowSize;
+    window = mapped.buffer();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureWindow()) {
+      return -1;
+    }
+    try {
+      return window.get() & 0xFF;
+    } catch (InternalError e) {
+      throw mapped.truncated(e);
+    }
+  }
+
+  @Override
+  public int read(@NonNull byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureWindow()) {
+      return -1;
+    }
+    int n = Math.min(len, window.remaining());
+    mapped.checkNotTruncated();
+    try {
+      window.get(b, off, n);
+    } catch (InternalError e) {
+      throw mapped.truncated(e);
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+    while (skipped < n && ensureWindow()) {
+      int step = (int) Math.min(n - skipped, window.remaining());
+      window.position(window.position() + step);
+      skipped += step;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return window == null ? 0 : window.remaining();
+  }
+
+  @Override
+  public void close() throws IOException {
+    window = null;
+    mapped.close();
+  }
+
+  private boolean ensureWindow() throws IOException {
+    if (window == null) {
+      throw new IOException("Stream closed");
+    }
+    if (window.hasRemaining()) {
+      return true;
+    }
+    if (position >= end) {
+      return false;
+    }
+    long size = Math.min(windowSize, end - position);
+    window = mapped.map(position, size);
+    position += size;
+    return true;
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+
+/**
+ * A {@link Reader} that decodes a range of bytes of a local file through memory-mapped windows.
+ *
+ * <p>Bytes are decoded straight from the mapped windows, which are direct buffers, with a single
+ * {@link CharsetDecoder} that is reused for the whole range. Whenever possible, characters are
+ * decoded directly into the array passed to {@link #read(char[], int, int)}, so that parsers that
+ * read large chunks of characters at a time do not incur any intermediary copy. Like {@link
+ * java.io.InputStreamReader}, malformed input and unmappable characters are replaced.
+ *
+ * <p>Windows are mapped one at a time and lazily, see {@link MappedFileWindow}. Each window starts
+ * where decoding of the previous one stopped, so that characters spanning two windows are never
+ * split. If the file is truncated while it is being read, an {@link IOException} is thrown.
+ */
+public class MappedFileReader extends Reader {
+
+  /**
+   * The number of bytes left in a window below which the next window is mapped; larger than the
+   * longest byte sequence of a single character in any supported charset.
+   */
+  private static final int MIN_REMAINING = 16;
+
+  private final MappedFileWindow mapped;
+  private final long end;
+  private final int windowSize;
+  private final CharsetDecoder decoder;
+
+  // holds characters decoded for reads of a single char, e.g. the low surrogate of a pair
+  private final CharBuffer pending = (CharBuffer) CharBuffer.allocate(2).flip();
+
+  private long windowEnd;
+  private ByteBuffer window;
+  private boolean flushed;
+
+  /**
+   * Creates a new reader for the given range.
+   *
+   * @param file The file to read.
+   * @param start The offset of the first byte to read, inclusive; must be at a character boundary.
+   * @param end The offset of the last byte to read, exclusive; must be at a character boundary, and
+   *     not greater than the file size.
+   * @param charset The file charset.
+   * @param windowSize The maximum size of each mapped window.
+   * @throws IOException If the file cannot be opened.
+   */
+  public MappedFileReader(
+      @NonNull Path file, long start, long end, @NonNull Charset charset, int windowSize)
+      throws IOException {
+    if (start < 0 || end < start || windowSize <= MIN_REMAINING) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid range or window size: start=%d, end=%d, windowSize=%d",
+              start, end, windowSize));
+    }
+    this.mapped = new MappedFileWindow(file);
+    this.end = end;
+    this.windowSize = windowSize;
+    this.decoder =
+        charset
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    windowEnd = start;
+    window = mapped.buffer();
+  }
+
+  @Override
+  public int read(@NonNull char[] cbuf, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || len > cbuf.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    ensureOpen();
+    if (pending.hasRemaining()) {
+      int n = Math.min(len, pending.remaining());
+      pending.get(cbuf, off, n);
+      return n;
+    }
+    if (len == 1) {
+      // a single char may not be enough room to decode a surrogate pair
+      pending.clear();
+      int n = decode(pending);
+      pending.flip();
+      if (n == -1) {
+        return -1;
+      }
+      cbuf[off] = pending.get();
+      return 1;
+    }
+    return decode(CharBuffer.wrap(cbuf, off, len));
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    ensureOpen();
+    return pending.hasRemaining() || window.hasRemaining() || windowEnd < end;
+  }
+
+  @Override
+  public void close() throws IOException {
+    window = null;
+    mapped.close();
+  }
+
+  /**
+   * Decodes as many characters as possible into the given buffer, which must have room for at least
+   * 2 characters.
+   *
+   * @return The number of decoded characters, or -1 if the end of the range has been reached.
+   */
+  private int decode(CharBuffer out) throws IOException {
+    if (flushed) {
+      return -1;
+    }
+    int start = out.position();
+    while (true) {
+      if (window.remaining() < MIN_REMAINING && windowEnd < end) {
+        nextWindow();
+      }
+      boolean endOfInput = windowEnd == end;
+      CoderResult result;
+      try {
+        result = decoder.decode(window, out, endOfInput);
+      } catch (InternalError e) {
+        throw mapped.truncated(e);
+      }
+      if (result.isError()) {
+        // should not happen since errors are replaced
+        result.throwException();
+      }
+      if (!result.isOverflow() && endOfInput && !flushed) {
+        decoder.flush(out);
+        flushed = true;
+      }
+      int decoded = out.position() - start;
+      if (decoded > 0) {
+        return decoded;
+      }
+      if (endOfInput) {
+        return -1;
+      }
+    }
+  }
+
+  private void nextWindow() throws IOException {
+    long position = windowEnd - window.remaining();
+    long size = Math.min(windowSize, end - position);
+    window = mapped.map(position, size);
+    windowEnd = position + size;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (window == null) {
+      throw new IOException("Reader closed");
+    }
+  }
+}
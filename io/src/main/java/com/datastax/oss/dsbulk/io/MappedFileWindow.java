@@ -0,0 +1,186 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * A window of bounded size over a local file, mapped in memory, that can be moved along the file.
+ *
+ * <p>Only one window is mapped at a time: the current window is unmapped as soon as the next one is
+ * mapped, and when this object is closed, rather than when the garbage collector reclaims it. The
+ * current window must thus not be accessed anymore once it has been moved or closed.
+ *
+ * <p>If the file is truncated while it is being read, accessing a mapped window beyond the new end
+ * of the file faults; the JVM reports such faults with an {@link InternalError}, that readers
+ * should turn into an {@link IOException} with {@link #truncated(Throwable)}. Windows are also
+ * checked against the file size when they are mapped, see {@link #map(long, long)}, and readers
+ * that copy large ranges at once should first call {@link #checkNotTruncated()}, as not all JVMs
+ * recover from faults in bulk copies.
+ */
+public final class MappedFileWindow implements Closeable {
+
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+
+  private final Path file;
+  private final FileChannel channel;
+
+  private ByteBuffer buffer = EMPTY;
+  private long end;
+
+  /**
+   * Opens the given file; no window is mapped until {@link #map(long, long)} is called.
+   *
+   * @param file The file to read.
+   * @throws IOException If the file cannot be opened.
+   */
+  public MappedFileWindow(@NonNull Path file) throws IOException {
+    this.file = file;
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+  }
+
+  /**
+   * @return The current size of the file.
+   * @throws IOException If the size cannot be read.
+   */
+  public long size() throws IOException {
+    return channel.size();
+  }
+
+  /** @return The current window, or an empty buffer if no window is mapped. */
+  @NonNull
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  /**
+   * Unmaps the current window, and maps the given range of the file instead.
+   *
+   * @param position The offset of the first byte of the window.
+   * @param size The size of the window.
+   * @return The new window.
+   * @throws IOException If the file is smaller than the end of the window, or if it cannot be
+   *     mapped.
+   */
+  @NonNull
+  public ByteBuffer map(long position, long size) throws IOException {
+    unmap();
+    end = position + size;
+    checkNotTruncated();
+    buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    return buffer;
+  }
+
+  /**
+   * Checks that the file is still at least as large as the end of the current window.
+   *
+   * @throws IOException If the file was truncated.
+   */
+  public void checkNotTruncated() throws IOException {
+    if (channel.size() < end) {
+      throw truncated(null);
+    }
+  }
+
+  /**
+   * Returns an exception reporting that the file was truncated while being read.
+   *
+   * @param cause The fault raised when accessing the current window, if any.
+   */
+  @NonNull
+  public IOException truncated(@Nullable Throwable cause) {
+    return new IOException("File was truncated while being read: " + file, cause);
+  }
+
+  /** Unmaps the current window, and closes the file. */
+  @Override
+  public void close() throws IOException {
+    unmap();
+    channel.close();
+  }
+
+  private void unmap() {
+    ByteBuffer buffer = this.buffer;
+    this.buffer = EMPTY;
+    unmap(buffer);
+  }
+
+  /**
+   * Unmaps the given buffer immediately, if it is a mapped buffer and this JVM allows it;
+   * otherwise, it will be unmapped when garbage collected. The buffer must not be accessed anymore.
+   *
+   * @param buffer The buffer to unmap.
+   */
+  public static void unmap(@NonNull ByteBuffer buffer) {
+    if (buffer instanceof MappedByteBuffer) {
+      UNMAPPER.accept(buffer);
+    }
+  }
+
+  /**
+   * Returns a function that releases mapped buffers immediately, or a function that does nothing if
+   * this is not possible in this JVM.
+   */
+  private static Consumer<ByteBuffer> unmapper() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner;
+      try {
+        // Java 9+
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      } catch (NoSuchMethodException e) {
+        // Java 8
+        Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+        return buffer -> {
+          try {
+            Object c = cleaner.invoke(buffer);
+            if (c != null) {
+              clean.invoke(c);
+            }
+          } catch (Exception ignored) {
+            // the buffer will be unmapped when collected
+          }
+        };
+      }
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+      return buffer -> {
+        try {
+          invokeCleaner.invoke(unsafe, buffer);
+        } catch (Exception ignored) {
+          // the buffer will be unmapped when collected
+        }
+      };
+    } catch (Exception e) {
+      return buffer -> {};
+    }
+  }
+}
@@ -18,9 +18,16 @@ package com.datastax.oss.dsbulk.io;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.datastax.oss.dsbulk.url.BulkLoaderURLStreamHandlerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class IOUtilsTest {
 
@@ -33,4 +40,37 @@ class IOUtilsTest {
     assertThat(IOUtils.isStandardStream(new URL("http://acme.com"))).isFalse();
     assertThat(IOUtils.isStandardStream(new URL("std:/"))).isTrue();
   }
+
+  @ParameterizedTest(name = "[{index}] memory-mapped {0}")
+  @ValueSource(booleans = {false, true})
+  void should_read_local_file(boolean memoryMapped) throws IOException {
+    Path file = Files.createTempFile("local", ".txt");
+    try {
+      Files.write(file, "line1\n\u00e9t\u00e9\n".getBytes(StandardCharsets.UTF_8));
+      try (BufferedReader reader =
+          IOUtils.newBufferedReader(file.toUri().toURL(), StandardCharsets.UTF_8, memoryMapped)) {
+        assertThat(reader.readLine()).isEqualTo("line1");
+        assertThat(reader.readLine()).isEqualTo("\u00e9t\u00e9");
+        assertThat(reader.readLine()).isNull();
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @ParameterizedTest(name = "[{index}] memory-mapped {0}")
+  @ValueSource(booleans = {false, true})
+  void should_read_local_file_range(boolean memoryMapped) throws IOException {
+    Path file = Files.createTempFile("local", ".txt");
+    try {
+      Files.write(file, "skipped\n\u00e9t\u00e9\nalso skipped".getBytes(StandardCharsets.UTF_8));
+      try (BufferedReader reader =
+          IOUtils.newBufferedReader(file, 8, 14, StandardCharsets.UTF_8, memoryMapped)) {
+        assertThat(reader.readLine()).isEqualTo("\u00e9t\u00e9");
+        assertThat(reader.readLine()).isNull();
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappedFileInputStreamTest {
+
+  private final byte[] contents = new byte[1000];
+
+  private Path file;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    for (int i = 0; i < contents.length; i++) {
+      contents[i] = (byte) i;
+    }
+    file = Files.createTempFile("mapped", ".bin");
+    Files.write(file, contents);
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  void should_read_range_across_windows() throws IOException {
+    try (InputStream in = new MappedFileInputStream(file, 10, 990, 64)) {
+      assertThat(readFully(in)).containsExactly(copyOfRange(10, 990));
+      assertThat(in.read()).isEqualTo(-1);
+      assertThat(in.available()).isZero();
+    }
+  }
+
+  @Test
+  void should_read_single_bytes_and_skip() throws IOException {
+    try (InputStream in = new MappedFileInputStream(file, 0, 100, 16)) {
+      assertThat(in.read()).isEqualTo(0);
+      assertThat(in.skip(50)).isEqualTo(50);
+      assertThat(in.read()).isEqualTo(51);
+      assertThat(in.skip(1000)).isEqualTo(48);
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void should_read_empty_range() throws IOException {
+    try (InputStream in = new MappedFileInputStream(file, 500, 500, 16)) {
+      assertThat(in.read(new byte[10], 0, 10)).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void should_throw_when_file_truncated() throws IOException {
+    try (InputStream in = new MappedFileInputStream(file, 0, 1000, 64)) {
+      assertThat(in.read(new byte[64], 0, 64)).isEqualTo(64);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(100);
+      }
+      assertThatThrownBy(() -> readFully(in))
+          .isInstanceOf(IOException.class)
+          .hasMessageContaining("truncated");
+    }
+  }
+
+  private byte[] copyOfRange(int from, int to) {
+    byte[] range = new byte[to - from];
+    System.arraycopy(contents, from, range, 0, range.length);
+    return range;
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[37];
+    int n;
+    while ((n = in.read(buffer, 0, buffer.length)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappedFileReaderTest {
+
+  private Path file;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    file = Files.createTempFile("mapped", ".txt");
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  void should_decode_multi_byte_characters_across_windows() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      sb.append("aé€😀");
+    }
+    String contents = sb.toString();
+    Files.write(file, contents.getBytes(UTF_8));
+    long size = Files.size(file);
+    try (Reader reader = new MappedFileReader(file, 0, size, UTF_8, 17)) {
+      assertThat(readFully(reader, 64)).isEqualTo(contents);
+    }
+    try (Reader reader = new MappedFileReader(file, 0, size, UTF_8, 17)) {
+      assertThat(readFully(reader, 1)).isEqualTo(contents);
+    }
+  }
+
+  @Test
+  void should_decode_range() throws IOException {
+    Files.write(file, "skipped\nété\nalso skipped".getBytes(UTF_8));
+    try (Reader reader = new MappedFileReader(file, 8, 14, UTF_8, 1024)) {
+      assertThat(readFully(reader, 8)).isEqualTo("été\n");
+    }
+  }
+
+  @Test
+  void should_decode_empty_range() throws IOException {
+    try (Reader reader = new MappedFileReader(file, 0, 0, UTF_8, 1024)) {
+      assertThat(reader.ready()).isFalse();
+      assertThat(reader.read()).isEqualTo(-1);
+      assertThat(reader.read(new char[10], 0, 10)).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void should_replace_malformed_input_like_input_stream_reader() throws IOException {
+    byte[] bytes = {'a', (byte) 0xC3, 'b', (byte) 0xE2, (byte) 0x82};
+    Files.write(file, bytes);
+    assertThat(read(UTF_8, 2)).isEqualTo(readWithInputStreamReader(bytes, UTF_8));
+    assertThat(read(ISO_8859_1, 2)).isEqualTo(readWithInputStreamReader(bytes, ISO_8859_1));
+  }
+
+  @Test
+  void should_throw_when_file_truncated() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      sb.append("line ").append(i).append('\n');
+    }
+    Files.write(file, sb.toString().getBytes(UTF_8));
+    try (Reader reader = new MappedFileReader(file, 0, Files.size(file), UTF_8, 64)) {
+      assertThat(reader.read(new char[32], 0, 32)).isEqualTo(32);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(100);
+      }
+      assertThatThrownBy(() -> readFully(reader, 32))
+          .isInstanceOf(IOException.class)
+          .hasMessageContaining("truncated");
+    }
+  }
+
+  private String read(Charset charset, int chunkSize) throws IOException {
+    try (Reader reader = new MappedFileReader(file, 0, Files.size(file), charset, 1024)) {
+      return readFully(reader, chunkSize);
+    }
+  }
+
+  private static String readWithInputStreamReader(byte[] bytes, Charset charset)
+      throws IOException {
+    try (Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes), charset)) {
+      return readFully(reader, 16);
+    }
+  }
+
+  private static String readFully(Reader reader, int chunkSize) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    char[] buffer = new char[chunkSize];
+    int n;
+    while ((n = reader.read(buffer, 0, chunkSize)) != -1) {
+      sb.append(buffer, 0, n);
+    }
+    return sb.toString();
+  }
+}
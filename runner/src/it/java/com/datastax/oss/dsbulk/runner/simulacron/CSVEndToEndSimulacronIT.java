@@ -171,6 +171,55 @@ class CSVEndToEndSimulacronIT extends EndToEndSimulacronITBase {
     validateQueryCount(simulacron, 24, "INSERT INTO ip_by_country", LOCAL_ONE);
   }
 
+  @Test
+  void full_load_sorted_stream() throws IOException {
+
+    primeIpByCountryTable(simulacron);
+    RequestPrime insert = createSimpleParameterizedQuery(INSERT_INTO_IP_BY_COUNTRY);
+    simulacron.prime(new Prime(insert));
+
+    // 2 partitions of 6 rows each: with chunks of 8 records, the second partition straddles
+    // two chunks, but should still be written in one single batch.
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      String country = i < 6 ? "\"SE\",\"Sweden\"" : "\"CH\",\"Switzerland\"";
+      lines.add(String.format("\"10.0.0.%d\",\"10.0.0.%d\",\"%d\",\"%d\",%s", i, i, i, i, country));
+    }
+    Path file = Files.createTempFile("sorted-stream", ".csv");
+    try {
+      Files.write(file, lines);
+      String[] args = {
+        "load",
+        "--log.verbosity",
+        "2",
+        "-header",
+        "false",
+        "--connector.csv.url",
+        StringUtils.quoteJson(file),
+        "--schema.keyspace",
+        "ks1",
+        "--schema.query",
+        INSERT_INTO_IP_BY_COUNTRY,
+        "--schema.mapping",
+        IP_BY_COUNTRY_MAPPING_INDEXED,
+        "--batch.mode",
+        "SORTED_STREAM",
+        "--batch.maxBatchStatements",
+        "8",
+        "--batch.bufferSize",
+        "8"
+      };
+      ExitStatus status = new DataStaxBulkLoader(addCommonSettings(args)).run();
+      assertStatus(status, STATUS_OK);
+      assertThat(logs.getAllMessagesAsString())
+          .contains("Records: total: 12, successful: 12, failed: 0")
+          .contains("Batches: total: 2, size: 6.00 mean, 6 min, 6 max")
+          .contains("Writes: total: 12, successful: 12, failed: 0");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
   @Test
   void full_load_with_all_nodes_failed_exception() throws Exception {
     // simulate AllNodesFailedException
@@ -0,0 +1,46 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.sampler;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A statement that caches its own data size.
+ *
+ * <p>Computing the data size of a statement requires inspecting all of its bound values; when the
+ * same statement is inspected several times, e.g. by a statement batcher, then by a bytes limiter
+ * and by metrics listeners, statements implementing this interface compute their data size only
+ * once. {@link DataSizes#getDataSize(Statement, ProtocolVersion, CodecRegistry)} always uses the
+ * cached value when available.
+ */
+public interface DataSizeAware {
+
+  /**
+   * Returns the data size of this statement, computing it first if necessary.
+   *
+   * <p>Implementors must return the same value as {@link DataSizes#getDataSize(Statement,
+   * ProtocolVersion, CodecRegistry)} would, and must invalidate the cached value if the statement's
+   * bound values are modified.
+   *
+   * @param version The protocol version to use; cannot be {@code null}.
+   * @param registry The codec registry to use; cannot be {@code null}.
+   * @return The approximate size of inserted data contained in this statement.
+   */
+  long getDataSize(@NonNull ProtocolVersion version, @NonNull CodecRegistry registry);
+}
@@ -51,6 +51,8 @@ public class DataSizes {
    * the mutation size server-side, whereas the latter attempts to guess the size of the encoded
    * statement, protocol-wise. These can be very different, especially for batch statements.
    *
+   * <p>If the statement implements {@link DataSizeAware}, its cached data size is returned.
+   *
    * @param stmt The statement to inspect; cannot be {@code null}.
    * @param version The protocol version to use; cannot be {@code null}.
    * @param registry The codec registry to use; cannot be {@code null}.
@@ -60,6 +62,9 @@ public class DataSizes {
       @NonNull Statement<?> stmt,
       @NonNull ProtocolVersion version,
       @NonNull CodecRegistry registry) {
+    if (stmt instanceof DataSizeAware) {
+      return ((DataSizeAware) stmt).getDataSize(version, registry);
+    }
     long dataSize = 0;
     if (stmt instanceof BoundStatement) {
       BoundStatement bs = (BoundStatement) stmt;
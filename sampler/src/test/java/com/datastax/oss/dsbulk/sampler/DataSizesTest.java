@@ -54,6 +54,21 @@ class DataSizesTest {
   private static final ImmutableMap<String, ByteBuffer> MOCK_PAYLOAD =
       ImmutableMap.of("key1", Bytes.fromHexString("0xabcd"), "key2", Bytes.fromHexString("0xef"));
 
+  @Test
+  void should_use_cached_size_of_data_size_aware_statement() {
+    BoundStatement statement =
+        Mockito.mock(
+            BoundStatement.class, Mockito.withSettings().extraInterfaces(DataSizeAware.class));
+    when(((DataSizeAware) statement)
+            .getDataSize(DseProtocolVersion.DSE_V2, DefaultCodecRegistry.DEFAULT))
+        .thenReturn(42L);
+    assertThat(
+            DataSizes.getDataSize(
+                statement, DseProtocolVersion.DSE_V2, DefaultCodecRegistry.DEFAULT))
+        .isEqualTo(42L);
+    verify(statement, never()).getPreparedStatement();
+  }
+
   @Test
   void should_measure_size_of_simple_statement() {
     String queryString = "SELECT release_version FROM system.local WHERE key = ?";
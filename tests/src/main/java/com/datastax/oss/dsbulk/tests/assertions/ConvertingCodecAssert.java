@@ -18,7 +18,11 @@ package com.datastax.oss.dsbulk.tests.assertions;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.data.ByteUtils;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import java.nio.ByteBuffer;
 import org.assertj.core.api.AbstractObjectAssert;
 
 public class ConvertingCodecAssert<EXTERNAL, INTERNAL>
@@ -81,6 +85,36 @@ public class ConvertingCodecAssert<EXTERNAL, INTERNAL>
     return this;
   }
 
+  @SuppressWarnings("unchecked")
+  public ConvertingCodecAssert<EXTERNAL, INTERNAL> encodesDirectly(EXTERNAL external) {
+    assertThat(actual).isInstanceOf(DirectEncoder.class);
+    ByteBuffer expected = actual.encode(external, ProtocolVersion.DEFAULT);
+    ByteBuffer bytes =
+        ((DirectEncoder<EXTERNAL>) actual).encodeDirectly(external, ProtocolVersion.DEFAULT);
+    assertThat(bytes)
+        .overridingErrorMessage(
+            "Expecting codec to encode external %s directly to %s but it encoded it to %s",
+            external,
+            ByteUtils.toHexString(expected),
+            bytes == null ? null : ByteUtils.toHexString(bytes))
+        .isEqualTo(expected);
+    return this;
+  }
+
+  @SuppressWarnings("unchecked")
+  public ConvertingCodecAssert<EXTERNAL, INTERNAL> doesNotEncodeDirectly(EXTERNAL external) {
+    if (actual instanceof DirectEncoder) {
+      ByteBuffer bytes =
+          ((DirectEncoder<EXTERNAL>) actual).encodeDirectly(external, ProtocolVersion.DEFAULT);
+      assertThat(bytes)
+          .overridingErrorMessage(
+              "Expecting codec to not encode external %s directly but it encoded it to %s",
+              external, bytes == null ? null : ByteUtils.toHexString(bytes))
+          .isNull();
+    }
+    return this;
+  }
+
   @SuppressWarnings("ClassCanBeStatic")
   public class ConvertsToInternalAssert extends ConvertingCodecAssert<EXTERNAL, INTERNAL> {
 
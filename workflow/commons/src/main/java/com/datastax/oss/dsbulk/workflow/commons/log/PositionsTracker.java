@@ -20,7 +20,6 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 
 public class PositionsTracker {
@@ -53,32 +52,35 @@ public class PositionsTracker {
 
   @NonNull
   private static List<Range> addPosition(@NonNull List<Range> positions, long position) {
-    ListIterator<Range> iterator = positions.listIterator();
-    while (iterator.hasNext()) {
-      Range range = iterator.next();
-      if (range.contains(position)) {
-        return positions;
-      } else if (range.getUpper() + 1L == position) {
-        range.setUpper(position);
-        if (iterator.hasNext()) {
-          Range next = iterator.next();
-          if (range.getUpper() == next.getLower() - 1L) {
-            iterator.remove();
-            range = iterator.previous();
-            range.setUpper(next.getUpper());
-          }
-        }
-        return positions;
-      } else if (range.getLower() - 1L == position) {
-        range.setLower(position);
-        return positions;
-      } else if (position < range.getLower()) {
-        iterator.previous();
-        iterator.add(new Range(position));
-        return positions;
+    // Ranges are sorted and disjoint: locate the first range starting after the position with a
+    // binary search, since positions may arrive in any order, e.g. when statements are sorted.
+    int low = 0;
+    int high = positions.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (positions.get(mid).getLower() <= position) {
+        low = mid + 1;
+      } else {
+        high = mid;
       }
     }
-    iterator.add(new Range(position));
+    Range previous = low > 0 ? positions.get(low - 1) : null;
+    Range next = low < positions.size() ? positions.get(low) : null;
+    if (previous != null && previous.contains(position)) {
+      return positions;
+    }
+    boolean extendsPrevious = previous != null && previous.getUpper() + 1L == position;
+    boolean extendsNext = next != null && next.getLower() - 1L == position;
+    if (extendsPrevious && extendsNext) {
+      previous.setUpper(next.getUpper());
+      positions.remove(low);
+    } else if (extendsPrevious) {
+      previous.setUpper(position);
+    } else if (extendsNext) {
+      next.setLower(position);
+    } else {
+      positions.add(low, new Range(position));
+    }
     return positions;
   }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks the total number of bytes allocated on the heap by all threads of the JVM, including
+ * threads that have terminated since they were last seen.
+ *
+ * <p>This relies on the HotSpot-specific extension of {@link ThreadMXBean}; use {@link #create()}
+ * to check whether it is available.
+ */
+class AllocationTracker {
+
+  private final com.sun.management.ThreadMXBean threads;
+
+  /** The last known allocated bytes of each live thread. */
+  private final Map<Long, Long> lastAllocated = new HashMap<>();
+
+  /** The total allocated bytes of threads that have terminated. */
+  private long terminatedAllocated;
+
+  private AllocationTracker(com.sun.management.ThreadMXBean threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * @return a new tracker, or null if the JVM cannot measure the memory allocated by each thread.
+   */
+  @Nullable
+  static AllocationTracker create() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+      if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+        return new AllocationTracker(hotspot);
+      }
+    }
+    return null;
+  }
+
+  /** @return the total number of bytes allocated so far by all threads. */
+  synchronized long getTotalAllocatedBytes() {
+    long[] ids = threads.getAllThreadIds();
+    long[] allocated = threads.getThreadAllocatedBytes(ids);
+    Map<Long, Long> previous = new HashMap<>(lastAllocated);
+    lastAllocated.clear();
+    long total = 0;
+    for (int i = 0; i < ids.length; i++) {
+      // -1 means that the thread has terminated in the meantime
+      if (allocated[i] >= 0) {
+        previous.remove(ids[i]);
+        lastAllocated.put(ids[i], allocated[i]);
+        total += allocated[i];
+      }
+    }
+    for (long bytes : previous.values()) {
+      terminatedAllocated += bytes;
+    }
+    return total + terminatedAllocated;
+  }
+}
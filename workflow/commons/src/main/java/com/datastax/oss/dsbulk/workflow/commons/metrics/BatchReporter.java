@@ -35,6 +35,8 @@ public class BatchReporter extends ScheduledReporter {
 
   private static final String MSG = "Batches: total: %,d, size: %,.2f mean, %d min, %d max";
 
+  private static final String FILL_MSG = ", fill: %.2f%% mean";
+
   private final LogSink sink;
 
   BatchReporter(MetricRegistry registry, LogSink sink, ScheduledExecutorService scheduler) {
@@ -43,7 +45,7 @@ public class BatchReporter extends ScheduledReporter {
   }
 
   private static MetricFilter createFilter() {
-    return (name, metric) -> name.equals("batches/size");
+    return (name, metric) -> name.equals("batches/size") || name.equals("batches/fill");
   }
 
   @Override
@@ -58,8 +60,13 @@ public class BatchReporter extends ScheduledReporter {
     }
     Histogram size = histograms.get("batches/size");
     Snapshot snapshot = size.getSnapshot();
-    sink.accept(
+    String msg =
         String.format(
-            MSG, size.getCount(), snapshot.getMean(), snapshot.getMin(), snapshot.getMax()));
+            MSG, size.getCount(), snapshot.getMean(), snapshot.getMin(), snapshot.getMax());
+    Histogram fill = histograms.get("batches/fill");
+    if (fill != null && fill.getCount() > 0) {
+      msg += String.format(FILL_MSG, fill.getSnapshot().getMean());
+    }
+    sink.accept(msg);
   }
 }
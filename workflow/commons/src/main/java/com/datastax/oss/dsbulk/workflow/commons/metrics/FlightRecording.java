@@ -0,0 +1,179 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A Java Flight Recorder (JFR) recording, used to profile an operation without any external agent.
+ *
+ * <p>The recording uses the JDK's built-in "profile" settings, which include CPU sampling,
+ * allocation profiling and lock contention events. JFR is available on Java 11 and higher, and on
+ * Java 8 update 262 and higher; since this project targets Java 8, the JFR API is accessed
+ * reflectively.
+ */
+final class FlightRecording {
+
+  private static final String CONFIGURATION = "profile";
+  private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+
+  private final Object recording;
+  private final Path destination;
+  private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+  private FlightRecording(Object recording, Path destination) {
+    this.recording = recording;
+    this.destination = destination;
+  }
+
+  /** Whether JFR is available in this JVM. */
+  static boolean isAvailable() {
+    try {
+      Class.forName("jdk.jfr.Recording");
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Starts a new recording.
+   *
+   * @param destination The file where the recording will be written when it is stopped.
+   * @return The started recording.
+   * @throws Exception If JFR is not available, or if the recording could not be started.
+   */
+  @NonNull
+  static FlightRecording start(@NonNull Path destination) throws Exception {
+    Class<?> configurationClass = Class.forName("jdk.jfr.Configuration");
+    Object configuration =
+        invoke(configurationClass.getMethod("getConfiguration", String.class), null, CONFIGURATION);
+    Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+    Object recording;
+    try {
+      recording = recordingClass.getConstructor(configurationClass).newInstance(configuration);
+    } catch (InvocationTargetException e) {
+      throw unwrap(e);
+    }
+    invoke(recordingClass.getMethod("setName", String.class), recording, "dsbulk");
+    invoke(recordingClass.getMethod("setDestination", Path.class), recording, destination);
+    invoke(recordingClass.getMethod("start"), recording);
+    return new FlightRecording(recording, destination);
+  }
+
+  @NonNull
+  Path getDestination() {
+    return destination;
+  }
+
+  /**
+   * Stops the recording and writes it to its destination file. Subsequent invocations have no
+   * effect.
+   */
+  void stop() throws Exception {
+    if (stopped.compareAndSet(false, true)) {
+      Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+      try {
+        invoke(recordingClass.getMethod("stop"), recording);
+      } finally {
+        invoke(recordingClass.getMethod("close"), recording);
+      }
+    }
+  }
+
+  /**
+   * Reads the recording file and counts, for each method, the number of execution samples in which
+   * the method was at the top of the stack.
+   *
+   * <p>This method must only be called after the recording was {@linkplain #stop() stopped}.
+   *
+   * @return The number of samples per method, keyed by fully-qualified method name.
+   */
+  @NonNull
+  Map<String, Long> countExecutionSamples() throws Exception {
+    Class<?> fileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+    Method hasMoreEvents = fileClass.getMethod("hasMoreEvents");
+    Method readEvent = fileClass.getMethod("readEvent");
+    Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+    Method getEventType = eventClass.getMethod("getEventType");
+    Method getStackTrace = eventClass.getMethod("getStackTrace");
+    Method getEventTypeName = Class.forName("jdk.jfr.EventType").getMethod("getName");
+    Method getFrames = Class.forName("jdk.jfr.consumer.RecordedStackTrace").getMethod("getFrames");
+    Method getMethod = Class.forName("jdk.jfr.consumer.RecordedFrame").getMethod("getMethod");
+    Class<?> methodClass = Class.forName("jdk.jfr.consumer.RecordedMethod");
+    Method getMethodType = methodClass.getMethod("getType");
+    Method getMethodName = methodClass.getMethod("getName");
+    Method getClassName = Class.forName("jdk.jfr.consumer.RecordedClass").getMethod("getName");
+    Map<String, Long> samples = new HashMap<>();
+    Object file;
+    try {
+      file = fileClass.getConstructor(Path.class).newInstance(destination);
+    } catch (InvocationTargetException e) {
+      throw unwrap(e);
+    }
+    try {
+      while ((Boolean) invoke(hasMoreEvents, file)) {
+        Object event = invoke(readEvent, file);
+        if (!EXECUTION_SAMPLE.equals(invoke(getEventTypeName, invoke(getEventType, event)))) {
+          continue;
+        }
+        Object stackTrace = invoke(getStackTrace, event);
+        if (stackTrace == null) {
+          continue;
+        }
+        List<?> frames = (List<?>) invoke(getFrames, stackTrace);
+        if (frames.isEmpty()) {
+          continue;
+        }
+        Object method = invoke(getMethod, frames.get(0));
+        String name =
+            invoke(getClassName, invoke(getMethodType, method))
+                + "."
+                + invoke(getMethodName, method);
+        samples.merge(name, 1L, Long::sum);
+      }
+    } finally {
+      invoke(fileClass.getMethod("close"), file);
+    }
+    return samples;
+  }
+
+  private static Object invoke(Method method, Object target, Object... args) throws Exception {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw unwrap(e);
+    }
+  }
+
+  private static Exception unwrap(InvocationTargetException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof Exception) {
+      return (Exception) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return e;
+  }
+}
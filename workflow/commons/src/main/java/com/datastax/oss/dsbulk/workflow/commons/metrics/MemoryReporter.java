@@ -36,8 +36,14 @@ public class MemoryReporter extends ScheduledReporter {
       "Memory usage: used: %,d MB, free: %,d MB, allocated: %,d MB, available: %,d MB, "
           + "total gc count: %,d, total gc time: %,d ms";
 
+  private static final String ALLOCATION_MSG = ", allocation rate: %,d MB/s";
+
   private final LogSink sink;
 
+  // used to compute the allocation rate since the previous report
+  private long lastAllocationTotal;
+  private long lastReportNanos = System.nanoTime();
+
   MemoryReporter(MetricRegistry registry, LogSink sink, ScheduledExecutorService scheduler) {
     super(registry, "memory-reporter", createFilter(), SECONDS, MILLISECONDS, scheduler);
     this.sink = sink;
@@ -50,7 +56,8 @@ public class MemoryReporter extends ScheduledReporter {
             || name.equals("memory/allocated")
             || name.equals("memory/available")
             || name.equals("memory/gc_count")
-            || name.equals("memory/gc_time");
+            || name.equals("memory/gc_time")
+            || name.equals("memory/allocation_total");
   }
 
   @Override
@@ -75,8 +82,19 @@ public class MemoryReporter extends ScheduledReporter {
     long availableMemory = (Long) availableMemoryGauge.getValue();
     long gcCount = (Long) gcCountGauge.getValue();
     long gcTime = (Long) gcTimeGauge.getValue();
-    sink.accept(
+    String msg =
         String.format(
-            MSG, usedMemory, freeMemory, allocatedMemory, availableMemory, gcCount, gcTime));
+            MSG, usedMemory, freeMemory, allocatedMemory, availableMemory, gcCount, gcTime);
+    Gauge<?> allocationTotalGauge = gauges.get("memory/allocation_total");
+    if (allocationTotalGauge != null) {
+      long allocationTotal = (Long) allocationTotalGauge.getValue();
+      long now = System.nanoTime();
+      double elapsedSeconds = Math.max(1, now - lastReportNanos) / 1e9d;
+      long allocationRate = Math.round((allocationTotal - lastAllocationTotal) / elapsedSeconds);
+      lastAllocationTotal = allocationTotal;
+      lastReportNanos = now;
+      msg += String.format(ALLOCATION_MSG, allocationRate);
+    }
+    sink.accept(msg);
   }
 }
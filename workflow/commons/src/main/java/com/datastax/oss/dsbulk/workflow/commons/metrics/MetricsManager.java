@@ -37,6 +37,8 @@ import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionL
 import com.datastax.oss.dsbulk.executor.api.listener.ReadsReportingExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.listener.WritesReportingExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.Result;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
+import com.datastax.oss.dsbulk.workflow.commons.runtime.WorkflowRuntime;
 import com.datastax.oss.dsbulk.workflow.commons.settings.LogSettings.Verbosity;
 import com.datastax.oss.dsbulk.workflow.commons.settings.RowType;
 import com.datastax.oss.dsbulk.workflow.commons.statement.UnmappableStatement;
@@ -45,7 +47,12 @@ import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -63,6 +70,8 @@ public class MetricsManager implements AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(MetricsManager.class);
   private static final Marker METRICS_MARKER = new BasicMarkerFactory().getMarker("METRICS");
   private static final String DSBULK_JMX_DOMAIN = "com.datastax.oss.dsbulk";
+  private static final String PROFILE_FILE_NAME = "profile.jfr";
+  private static final int HOT_METHODS = 10;
 
   private final MetricRegistry registry;
   private final MetricsCollectingExecutionListener listener;
@@ -82,19 +91,28 @@ public class MetricsManager implements AutoCloseable {
   private final boolean batchingEnabled;
   private final Verbosity verbosity;
   private final RowType rowType;
+  private final ProtocolVersion protocolVersion;
+  private final CodecRegistry codecRegistry;
+  private final boolean trackStages;
+  private final ConcurrentMap<String, StageMonitor> stages = new ConcurrentHashMap<>();
+  private final List<StageMonitor> orderedStages = new CopyOnWriteArrayList<>();
+  private final boolean profile;
 
   private Counter totalItems;
   private Counter failedItems;
   private Histogram batchSize;
+  private Histogram batchFill;
   private RecordReporter recordReporter;
   private BatchReporter batchesReporter;
   private MemoryReporter memoryReporter;
+  private StageReporter stagesReporter;
   private WritesReportingExecutionListener writesReporter;
   private ReadsReportingExecutionListener readsReporter;
   private JmxReporter jmxReporter;
   private CsvReporter csvReporter;
   private ConsoleReporter consoleReporter;
   private LogSink logSink;
+  private FlightRecording recording;
 
   private final AtomicBoolean running = new AtomicBoolean(false);
 
@@ -117,7 +135,9 @@ public class MetricsManager implements AutoCloseable {
       boolean batchingEnabled,
       ProtocolVersion protocolVersion,
       CodecRegistry codecRegistry,
-      RowType rowType) {
+      RowType rowType,
+      boolean trackStages,
+      boolean profile) {
     this.registry = new MetricRegistry();
     driverRegistry
         .getMetrics()
@@ -140,12 +160,17 @@ public class MetricsManager implements AutoCloseable {
     this.reportInterval = reportInterval;
     this.batchingEnabled = batchingEnabled;
     this.rowType = rowType;
+    this.protocolVersion = protocolVersion;
+    this.codecRegistry = codecRegistry;
+    this.trackStages = trackStages;
+    this.profile = profile;
   }
 
   public void init() {
     totalItems = registry.counter("records/total");
     failedItems = registry.counter("records/failed");
     batchSize = registry.histogram("batches/size", () -> new Histogram(new UniformReservoir()));
+    batchFill = registry.histogram("batches/fill", () -> new Histogram(new UniformReservoir()));
     createMemoryGauges();
     logSink =
         new LogSink() {
@@ -168,6 +193,9 @@ public class MetricsManager implements AutoCloseable {
 
   public void start() {
     running.set(true);
+    if (profile) {
+      startRecording();
+    }
     if (jmx) {
       startJMXReporter();
     }
@@ -179,6 +207,9 @@ public class MetricsManager implements AutoCloseable {
         startConsoleReporter();
       }
       startMemoryReporter();
+      if (trackStages) {
+        startStagesReporter();
+      }
       startRecordReporter();
       if (monitorWrites) {
         if (batchingEnabled) {
@@ -191,6 +222,60 @@ public class MetricsManager implements AutoCloseable {
     }
   }
 
+  private void startRecording() {
+    if (!FlightRecording.isAvailable()) {
+      LOGGER.warn(
+          "Profiling requires Java Flight Recorder, which is not available in this JVM "
+              + "(Java 8u262 or higher is required); profiling will be disabled.");
+      return;
+    }
+    Path destination = operationDirectory.resolve(PROFILE_FILE_NAME);
+    try {
+      recording = FlightRecording.start(destination);
+      LOGGER.debug("Profiling enabled, recording to {}.", destination);
+    } catch (Exception e) {
+      LOGGER.warn("Could not start profiling, profiling will be disabled.", e);
+    }
+  }
+
+  private void stopRecording() {
+    try {
+      recording.stop();
+    } catch (Exception e) {
+      LOGGER.warn("Could not write profiling recording to " + recording.getDestination(), e);
+      recording = null;
+    }
+  }
+
+  private void reportHotMethods() {
+    Map<String, Long> samples;
+    try {
+      samples = recording.countExecutionSamples();
+    } catch (Exception e) {
+      LOGGER.warn("Could not read profiling recording from " + recording.getDestination(), e);
+      return;
+    }
+    long total = samples.values().stream().mapToLong(Long::longValue).sum();
+    LOGGER.info(
+        METRICS_MARKER,
+        String.format(
+            "Profile: %,d execution samples, recording written to %s",
+            total, recording.getDestination()));
+    if (total > 0) {
+      LOGGER.info(METRICS_MARKER, "Hot methods:");
+      samples.entrySet().stream()
+          .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+          .limit(HOT_METHODS)
+          .forEach(
+              entry ->
+                  LOGGER.info(
+                      METRICS_MARKER,
+                      String.format(
+                          "%5.1f%% (%,d samples) %s",
+                          entry.getValue() * 100d / total, entry.getValue(), entry.getKey())));
+    }
+  }
+
   private void createMemoryGauges() {
     long bytesPerMeg = 1024 * 1024;
     registry.gauge(
@@ -225,6 +310,13 @@ public class MetricsManager implements AutoCloseable {
               return runtime.maxMemory() / bytesPerMeg;
             });
 
+    AllocationTracker allocationTracker = AllocationTracker.create();
+    if (allocationTracker != null) {
+      registry.gauge(
+          "memory/allocation_total",
+          () -> () -> allocationTracker.getTotalAllocatedBytes() / bytesPerMeg);
+    }
+
     registry.gauge(
         "memory/gc_count",
         () ->
@@ -258,6 +350,23 @@ public class MetricsManager implements AutoCloseable {
             });
   }
 
+  /**
+   * Registers gauges for the size, queue depth and utilization of the executors of the given
+   * runtime.
+   */
+  public void registerRuntimeGauges(WorkflowRuntime runtime) {
+    runtime
+        .getExecutors()
+        .forEach(
+            (role, executor) -> {
+              String prefix = "runtime/" + role + "/";
+              registry.gauge(prefix + "threads", () -> executor::getPoolSize);
+              registry.gauge(prefix + "active_threads", () -> executor::getActiveCount);
+              registry.gauge(prefix + "queue_depth", () -> executor::getQueueDepth);
+              registry.gauge(prefix + "utilization", () -> executor::getUtilization);
+            });
+  }
+
   private void startJMXReporter() {
     jmxReporter =
         JmxReporter.forRegistry(registry)
@@ -328,6 +437,12 @@ public class MetricsManager implements AutoCloseable {
     }
   }
 
+  private void startStagesReporter() {
+    stagesReporter = new StageReporter(registry, logSink, scheduler, orderedStages);
+    // stages are only tracked on demand, so always report them periodically
+    stagesReporter.start(reportInterval.getSeconds(), SECONDS);
+  }
+
   private void startWritesReporter() {
     AbstractMetricsReportingExecutionListenerBuilder<WritesReportingExecutionListener> builder =
         WritesReportingExecutionListener.builder()
@@ -408,6 +523,9 @@ public class MetricsManager implements AutoCloseable {
       consoleReporter.report();
       consoleReporter = null;
     }
+    if (recording != null) {
+      stopRecording();
+    }
     running.set(false);
   }
 
@@ -432,6 +550,9 @@ public class MetricsManager implements AutoCloseable {
     if (memoryReporter != null) {
       memoryReporter.close();
     }
+    if (stagesReporter != null) {
+      stagesReporter.close();
+    }
     if (writesReporter != null) {
       writesReporter.close();
     }
@@ -445,6 +566,7 @@ public class MetricsManager implements AutoCloseable {
     if (recordReporter != null
         || batchesReporter != null
         || memoryReporter != null
+        || stagesReporter != null
         || writesReporter != null
         || readsReporter != null) {
       LOGGER.info(METRICS_MARKER, "Final stats:");
@@ -457,6 +579,9 @@ public class MetricsManager implements AutoCloseable {
       if (memoryReporter != null) {
         memoryReporter.report();
       }
+      if (stagesReporter != null) {
+        stagesReporter.report();
+      }
       if (writesReporter != null) {
         writesReporter.report();
       }
@@ -464,6 +589,52 @@ public class MetricsManager implements AutoCloseable {
         readsReporter.report();
       }
     }
+    if (recording != null) {
+      reportHotMethods();
+    }
+  }
+
+  /**
+   * Monitors a stage of the workflow pipeline that may filter, split or group items, if stage
+   * tracking is enabled; otherwise returns the stage unchanged. Equivalent to {@link
+   * #newStageMonitor(String, Function, boolean) newStageMonitor(name, stage, false)}.
+   *
+   * @param name The stage name.
+   * @param stage The stage to monitor.
+   * @return The monitored stage.
+   */
+  public <T, R> Function<Flux<T>, Flux<R>> newStageMonitor(
+      String name, Function<Flux<T>, Flux<R>> stage) {
+    return newStageMonitor(name, stage, false);
+  }
+
+  /**
+   * Monitors a stage of the workflow pipeline, if stage tracking is enabled; otherwise returns the
+   * stage unchanged. The stage metrics, registered under {@code stages/<name>/}, count the items
+   * entering and leaving the stage, the items requested by downstream stages, and the time during
+   * which the stage was blocked waiting for downstream demand; for one-to-one stages, the number of
+   * items in flight in the stage is also reported. All stages monitored under the same name share
+   * the same metrics.
+   *
+   * @param name The stage name.
+   * @param stage The stage to monitor.
+   * @param oneToOne Whether the stage emits exactly one item per incoming item.
+   * @return The monitored stage.
+   */
+  public <T, R> Function<Flux<T>, Flux<R>> newStageMonitor(
+      String name, Function<Flux<T>, Flux<R>> stage, boolean oneToOne) {
+    if (!trackStages) {
+      return stage;
+    }
+    StageMonitor monitor =
+        stages.computeIfAbsent(
+            name,
+            n -> {
+              StageMonitor m = new StageMonitor(registry, n, oneToOne);
+              orderedStages.add(m);
+              return m;
+            });
+    return monitor.monitor(stage);
   }
 
   public <T> Function<Flux<T>, Flux<T>> newTotalItemsMonitor() {
@@ -482,15 +653,34 @@ public class MetricsManager implements AutoCloseable {
             });
   }
 
-  public Function<Flux<Statement<?>>, Flux<Statement<?>>> newBatcherMonitor() {
+  /**
+   * Creates a monitor for batched statements. The monitor records the size of each batch in the
+   * {@code batches/size} histogram, and its fill ratio in the {@code batches/fill} histogram.
+   *
+   * <p>The fill ratio is expressed as a percentage of the batch limits: it is the highest of the
+   * number of children divided by {@code maxBatchStatements}, and of the batch data size divided by
+   * {@code maxSizeInBytes}. Limits that are negative or zero are ignored.
+   *
+   * @param maxBatchStatements The maximum number of statements in a batch.
+   * @param maxSizeInBytes The maximum data size of a batch.
+   * @return A function that monitors a flux of batched statements.
+   */
+  public Function<Flux<Statement<?>>, Flux<Statement<?>>> newBatcherMonitor(
+      int maxBatchStatements, long maxSizeInBytes) {
     return upstream ->
         upstream.doOnNext(
             stmt -> {
-              if (stmt instanceof BatchStatement) {
-                batchSize.update(((BatchStatement) stmt).size());
-              } else {
-                batchSize.update(1);
+              int size = stmt instanceof BatchStatement ? ((BatchStatement) stmt).size() : 1;
+              batchSize.update(size);
+              double fill = 0;
+              if (maxBatchStatements > 0) {
+                fill = (double) size / maxBatchStatements;
+              }
+              if (maxSizeInBytes > 0) {
+                long bytes = DataSizes.getDataSize(stmt, protocolVersion, codecRegistry);
+                fill = Math.max(fill, (double) bytes / maxSizeInBytes);
               }
+              batchFill.update(Math.round(Math.min(fill, 1d) * 100));
             });
   }
 
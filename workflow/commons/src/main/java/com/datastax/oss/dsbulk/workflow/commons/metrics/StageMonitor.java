@@ -0,0 +1,157 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+
+/**
+ * Monitors one stage of a workflow pipeline, that is, a transformation applied to a flow of items.
+ *
+ * <p>The following metrics are registered under {@code stages/<name>/}:
+ *
+ * <ul>
+ *   <li>{@code in}: the number of items that entered the stage;
+ *   <li>{@code out}: the number of items that the stage emitted;
+ *   <li>{@code in_flight}: the difference between the two above, i.e. the number of items that are
+ *       queued or being processed by the stage; only registered for {@linkplain #isOneToOne()
+ *       one-to-one} stages, since the difference grows without bound for stages that filter, split
+ *       or group items;
+ *   <li>{@code requested}: the number of items that downstream stages requested from the stage;
+ *       unbounded requests are not counted;
+ *   <li>{@code blocked}: the total time, in milliseconds, during which the stage could not emit
+ *       items because downstream stages had not requested any. A stage that is often blocked is
+ *       faster than the stages after it; the bottleneck is usually the first stage downstream of
+ *       the blocked ones that is not blocked itself.
+ * </ul>
+ *
+ * When a stage is applied to many flows, e.g. one flow per file, the metrics of all flows are
+ * aggregated.
+ */
+class StageMonitor {
+
+  private final String name;
+  private final boolean oneToOne;
+  private final Counter in;
+  private final Counter out;
+  private final Counter requested;
+  private final LongAdder blockedNanos = new LongAdder();
+
+  StageMonitor(@NonNull MetricRegistry registry, @NonNull String name, boolean oneToOne) {
+    this.name = name;
+    this.oneToOne = oneToOne;
+    String prefix = "stages/" + name + "/";
+    in = registry.counter(prefix + "in");
+    out = registry.counter(prefix + "out");
+    requested = registry.counter(prefix + "requested");
+    if (oneToOne) {
+      registry.gauge(prefix + "in_flight", () -> () -> getInFlight());
+    }
+    registry.gauge(prefix + "blocked", () -> () -> getBlockedMillis());
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /** @return whether the stage emits exactly one item per incoming item. */
+  boolean isOneToOne() {
+    return oneToOne;
+  }
+
+  long getIn() {
+    return in.getCount();
+  }
+
+  long getOut() {
+    return out.getCount();
+  }
+
+  long getInFlight() {
+    return in.getCount() - out.getCount();
+  }
+
+  long getRequested() {
+    return requested.getCount();
+  }
+
+  long getBlockedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum());
+  }
+
+  @NonNull
+  <T, R> Function<Flux<T>, Flux<R>> monitor(@NonNull Function<Flux<T>, Flux<R>> stage) {
+    return upstream ->
+        Flux.defer(
+            () -> {
+              Demand demand = new Demand();
+              return upstream
+                  .doOnNext(item -> in.inc())
+                  .transform(stage)
+                  .doOnNext(item -> demand.onNext())
+                  .doOnRequest(demand::onRequest)
+                  .doFinally(signal -> demand.onTerminate());
+            });
+  }
+
+  /** Tracks the outstanding demand of a single subscriber. */
+  private class Demand {
+
+    private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicLong blockedSince = new AtomicLong();
+
+    private void onRequest(long n) {
+      if (n == Long.MAX_VALUE) {
+        outstanding.set(Long.MAX_VALUE);
+      } else {
+        requested.inc(n);
+        outstanding.accumulateAndGet(n, Operators::addCap);
+      }
+      unblock();
+    }
+
+    private void onNext() {
+      out.inc();
+      if (outstanding.get() != Long.MAX_VALUE && outstanding.decrementAndGet() == 0) {
+        long now = System.nanoTime();
+        blockedSince.set(now);
+        // a request may have arrived in the meantime
+        if (outstanding.get() > 0) {
+          blockedSince.compareAndSet(now, 0);
+        }
+      }
+    }
+
+    private void onTerminate() {
+      // do not count the time between the last item and the end of the flow
+      blockedSince.set(0);
+    }
+
+    private void unblock() {
+      long since = blockedSince.getAndSet(0);
+      if (since != 0) {
+        blockedNanos.add(System.nanoTime() - since);
+      }
+    }
+  }
+}
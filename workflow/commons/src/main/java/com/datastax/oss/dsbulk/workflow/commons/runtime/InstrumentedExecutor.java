@@ -0,0 +1,182 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.runtime;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size thread pool that keeps track of the time its threads spend running tasks, so that
+ * its utilization can be monitored along with its queue depth.
+ *
+ * <p>All threads share the same task queue, which means that a busy thread never holds back tasks
+ * that another, idle thread could run.
+ */
+public class InstrumentedExecutor extends ThreadPoolExecutor {
+
+  private static final long MIN_SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final String name;
+  private final WorkerThreadFactory threadFactory;
+  private final long startNanos = System.nanoTime();
+  private final LongAdder busyNanos = new LongAdder();
+
+  private long lastBusyNanos;
+  private long lastSampleNanos = startNanos;
+  private double lastUtilization;
+
+  InstrumentedExecutor(@NonNull String name, int threads, boolean daemon, int priority) {
+    this(name, threads, new WorkerThreadFactory(name, daemon, priority));
+  }
+
+  private InstrumentedExecutor(
+      @NonNull String name, int threads, @NonNull WorkerThreadFactory threadFactory) {
+    super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    this.name = name;
+    this.threadFactory = threadFactory;
+  }
+
+  /** @return The name of this executor, which is also the prefix of its thread names. */
+  @NonNull
+  public String getName() {
+    return name;
+  }
+
+  /** @return The number of tasks waiting to be executed. */
+  public int getQueueDepth() {
+    return getQueue().size();
+  }
+
+  /**
+   * Returns the fraction of the pool's capacity that was spent running tasks between the last two
+   * samples. A new sample is taken when this method is called, unless the previous one was taken
+   * less than one second ago, so that several metric reporters can call this method concurrently.
+   *
+   * @return The utilization, between 0 and 1.
+   */
+  public synchronized double getUtilization() {
+    long now = System.nanoTime();
+    if (now - lastSampleNanos >= MIN_SAMPLE_INTERVAL_NANOS) {
+      long busy = busyNanos.sum() + getRunningNanos(now);
+      lastUtilization = computeUtilization(busy - lastBusyNanos, now - lastSampleNanos);
+      lastBusyNanos = busy;
+      lastSampleNanos = now;
+    }
+    return lastUtilization;
+  }
+
+  /** @return The fraction of the pool's capacity that was spent running tasks since creation. */
+  public double getMeanUtilization() {
+    long now = System.nanoTime();
+    return computeUtilization(busyNanos.sum() + getRunningNanos(now), now - startNanos);
+  }
+
+  @Override
+  protected void beforeExecute(Thread t, Runnable r) {
+    if (t instanceof WorkerThread) {
+      ((WorkerThread) t).taskStartNanos = System.nanoTime();
+    }
+  }
+
+  @Override
+  protected void afterExecute(Runnable r, Throwable t) {
+    Thread current = Thread.currentThread();
+    if (current instanceof WorkerThread) {
+      WorkerThread worker = (WorkerThread) current;
+      busyNanos.add(System.nanoTime() - worker.taskStartNanos);
+      worker.taskStartNanos = 0;
+    }
+  }
+
+  /**
+   * Returns the time spent so far by tasks that are still running; this makes long-running tasks,
+   * such as a whole file being read by a single task, count towards utilization before they
+   * complete.
+   */
+  private long getRunningNanos(long now) {
+    long running = 0;
+    for (WorkerThread worker : threadFactory.workers) {
+      long start = worker.taskStartNanos;
+      if (start != 0) {
+        running += now - start;
+      }
+    }
+    return running;
+  }
+
+  private double computeUtilization(long busy, long elapsed) {
+    int threads = getCorePoolSize();
+    if (elapsed <= 0 || threads <= 0) {
+      return 0;
+    }
+    return Math.min(1d, Math.max(0d, (double) busy / ((double) elapsed * threads)));
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s (threads: %d, active: %d, queued: %d, completed tasks: %d, utilization: %.0f%%)",
+        name,
+        getCorePoolSize(),
+        getActiveCount(),
+        getQueueDepth(),
+        getCompletedTaskCount(),
+        getMeanUtilization() * 100);
+  }
+
+  private static class WorkerThread extends FastThreadLocalThread {
+
+    private volatile long taskStartNanos;
+
+    private WorkerThread(ThreadGroup group, Runnable r, String name) {
+      super(group, r, name);
+    }
+  }
+
+  private static class WorkerThreadFactory extends DefaultThreadFactory {
+
+    private final Set<WorkerThread> workers = ConcurrentHashMap.newKeySet();
+
+    private WorkerThreadFactory(String poolName, boolean daemon, int priority) {
+      super(poolName, daemon, priority);
+    }
+
+    @Override
+    protected Thread newThread(Runnable r, String name) {
+      WorkerThread[] worker = new WorkerThread[1];
+      worker[0] =
+          new WorkerThread(
+              threadGroup,
+              () -> {
+                try {
+                  r.run();
+                } finally {
+                  workers.remove(worker[0]);
+                }
+              },
+              name);
+      workers.add(worker[0]);
+      return worker[0];
+    }
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.runtime;
+
+import com.datastax.oss.driver.shaded.guava.common.base.CharMatcher;
+import com.datastax.oss.driver.shaded.guava.common.base.Splitter;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The thread pools shared by all the stages of a workflow.
+ *
+ * <p>The runtime owns three executors:
+ *
+ * <ol>
+ *   <li>a CPU-bound executor, for parsing, mapping and batching, sized after the number of cores
+ *       available to DSBulk, minus the cores reserved for the driver's I/O threads;
+ *   <li>an I/O-bound executor, for tasks that may block while reading from or writing to a
+ *       connector;
+ *   <li>a reporting executor, with a single low-priority thread, for periodic metrics and log
+ *       reports.
+ * </ol>
+ *
+ * <p>The CPU-bound and I/O-bound executors are {@linkplain InstrumentedExecutor instrumented}
+ * thread pools with a plain task queue; only the reporting executor supports delayed and periodic
+ * tasks.
+ *
+ * <p>The number of available cores is determined from the number of processors reported by the JVM,
+ * further limited by the CPU quota of the control group (cgroup) DSBulk runs in, if any.
+ */
+public class WorkflowRuntime implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowRuntime.class);
+
+  private static final Path CGROUP_ROOT = Paths.get("/sys/fs/cgroup");
+
+  private static final Path PROC_SELF_CGROUP = Paths.get("/proc/self/cgroup");
+
+  private final int cores;
+  private final InstrumentedExecutor cpuExecutor;
+  private final InstrumentedExecutor ioExecutor;
+  private final ScheduledThreadPoolExecutor reportingExecutor;
+  private final Scheduler cpuScheduler;
+  private final Scheduler ioScheduler;
+  private final Map<String, InstrumentedExecutor> executors;
+
+  /**
+   * Creates a new runtime.
+   *
+   * @param cores The number of cores available to DSBulk; used by workflows to size their
+   *     concurrency.
+   * @param cpuThreads The number of threads for CPU-bound tasks.
+   * @param ioThreads The maximum number of threads for tasks that may block on I/O; idle threads
+   *     are released after one minute.
+   */
+  public WorkflowRuntime(int cores, int cpuThreads, int ioThreads) {
+    if (cores <= 0 || cpuThreads <= 0 || ioThreads <= 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expecting strictly positive numbers of cores and threads, got: %d, %d, %d",
+              cores, cpuThreads, ioThreads));
+    }
+    this.cores = cores;
+    cpuExecutor = new InstrumentedExecutor("workflow-cpu", cpuThreads, false, Thread.NORM_PRIORITY);
+    ioExecutor = new InstrumentedExecutor("workflow-io", ioThreads, false, Thread.NORM_PRIORITY);
+    ioExecutor.setKeepAliveTime(1, TimeUnit.MINUTES);
+    ioExecutor.allowCoreThreadTimeOut(true);
+    reportingExecutor =
+        new ScheduledThreadPoolExecutor(
+            1, new DefaultThreadFactory("reporter", true, Thread.MIN_PRIORITY));
+    reportingExecutor.setRemoveOnCancelPolicy(true);
+    Map<String, InstrumentedExecutor> executors = new LinkedHashMap<>();
+    executors.put("cpu", cpuExecutor);
+    executors.put("io", ioExecutor);
+    this.executors = Collections.unmodifiableMap(executors);
+    cpuScheduler = Schedulers.fromExecutorService(cpuExecutor, cpuExecutor.getName());
+    ioScheduler = Schedulers.fromExecutorService(ioExecutor, ioExecutor.getName());
+    LOGGER.debug(
+        "Using {} cores, {} CPU-bound threads and up to {} I/O-bound threads.",
+        cores,
+        cpuThreads,
+        ioThreads);
+  }
+
+  /** @return The number of cores available to DSBulk. */
+  public int getCores() {
+    return cores;
+  }
+
+  /** @return The number of threads available for CPU-bound tasks. */
+  public int getCpuThreads() {
+    return cpuExecutor.getCorePoolSize();
+  }
+
+  /** @return The scheduler for CPU-bound tasks; tasks scheduled on it should never block. */
+  @NonNull
+  public Scheduler getCpuScheduler() {
+    return cpuScheduler;
+  }
+
+  /** @return The scheduler for tasks that may block while reading or writing data. */
+  @NonNull
+  public Scheduler getIoScheduler() {
+    return ioScheduler;
+  }
+
+  /** @return The executor for periodic reports. */
+  @NonNull
+  public ScheduledExecutorService getReportingExecutor() {
+    return reportingExecutor;
+  }
+
+  /** @return The instrumented executors owned by this runtime, keyed by their role: cpu, io. */
+  @NonNull
+  public Map<String, InstrumentedExecutor> getExecutors() {
+    return executors;
+  }
+
+  @Override
+  public void close() {
+    if (LOGGER.isDebugEnabled()) {
+      for (InstrumentedExecutor executor : executors.values()) {
+        LOGGER.debug("Closing executor {}.", executor);
+      }
+      LOGGER.debug("Closing reporting executor {}.", reportingExecutor);
+    }
+    cpuScheduler.dispose();
+    ioScheduler.dispose();
+    reportingExecutor.shutdownNow();
+  }
+
+  /**
+   * Returns the number of cores available to this process: the number of processors reported by the
+   * JVM, further limited by the CPU quota of the process's cgroup, if any.
+   */
+  public static int detectAvailableCores() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    OptionalDouble quota = readCgroupCpuQuota(CGROUP_ROOT, readCgroups(PROC_SELF_CGROUP));
+    if (quota.isPresent()) {
+      int limit = (int) Math.max(1, Math.ceil(quota.getAsDouble()));
+      if (limit < processors) {
+        LOGGER.debug("Limiting available cores to {} because of cgroup CPU quota.", limit);
+        return limit;
+      }
+    }
+    return processors;
+  }
+
+  private static List<String> readCgroups(@NonNull Path procSelfCgroup) {
+    try {
+      if (Files.isReadable(procSelfCgroup)) {
+        return Files.readAllLines(procSelfCgroup, StandardCharsets.US_ASCII);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Could not read " + procSelfCgroup, e);
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Reads the CPU quota, in number of cores, of the cgroups this process belongs to, as listed in
+   * {@code /proc/self/cgroup}, under the given cgroup mount point. Both cgroup v2 ({@code cpu.max})
+   * and cgroup v1 ({@code cpu.cfs_quota_us} and {@code cpu.cfs_period_us}) are supported.
+   *
+   * <p>Quotas of ancestor cgroups apply too, so the lowest quota between the process's cgroup and
+   * the root of the hierarchy is returned. If the process's cgroup cannot be found under the mount
+   * point, which is the case in containers that mount their own cgroup as the root of the
+   * hierarchy, the root is used.
+   *
+   * @param cgroupRoot The cgroup mount point, usually {@code /sys/fs/cgroup}.
+   * @param cgroups The lines of {@code /proc/self/cgroup}.
+   * @return The CPU quota, or empty if there is no quota or if it could not be read.
+   */
+  static OptionalDouble readCgroupCpuQuota(
+      @NonNull Path cgroupRoot, @NonNull List<String> cgroups) {
+    OptionalDouble quota = OptionalDouble.empty();
+    try {
+      for (String line : cgroups) {
+        // hierarchy-ID:controller-list:cgroup-path
+        int first = line.indexOf(':');
+        int second = line.indexOf(':', first + 1);
+        if (first < 0 || second < 0) {
+          continue;
+        }
+        String controllers = line.substring(first + 1, second);
+        String path = line.substring(second + 1);
+        if (controllers.isEmpty()) {
+          // cgroup v2: a single, unified hierarchy
+          quota = min(quota, readQuota(cgroupRoot, path, WorkflowRuntime::readCgroupV2Quota));
+        } else if (Splitter.on(',').splitToList(controllers).contains("cpu")) {
+          quota =
+              min(
+                  quota,
+                  readQuota(
+                      cgroupRoot.resolve(controllers), path, WorkflowRuntime::readCgroupV1Quota));
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Could not read cgroup CPU quota", e);
+      return OptionalDouble.empty();
+    }
+    return quota;
+  }
+
+  /** Reads the lowest quota between the given cgroup and the root of its hierarchy. */
+  private static OptionalDouble readQuota(
+      @NonNull Path hierarchyRoot, @NonNull String cgroupPath, @NonNull QuotaReader reader)
+      throws IOException {
+    Path root = hierarchyRoot.normalize();
+    Path dir = root.resolve(cgroupPath.startsWith("/") ? cgroupPath.substring(1) : cgroupPath);
+    dir = dir.normalize();
+    if (!dir.startsWith(root) || !Files.isDirectory(dir)) {
+      dir = root;
+    }
+    OptionalDouble quota = OptionalDouble.empty();
+    while (dir != null && dir.startsWith(root)) {
+      quota = min(quota, reader.read(dir));
+      dir = dir.getParent();
+    }
+    return quota;
+  }
+
+  private static OptionalDouble readCgroupV2Quota(@NonNull Path dir) throws IOException {
+    Path cpuMax = dir.resolve("cpu.max");
+    if (Files.isReadable(cpuMax)) {
+      List<String> tokens =
+          Splitter.on(CharMatcher.whitespace())
+              .omitEmptyStrings()
+              .splitToList(readFirstLine(cpuMax));
+      if (tokens.size() == 2 && !tokens.get(0).equals("max")) {
+        return quota(Long.parseLong(tokens.get(0)), Long.parseLong(tokens.get(1)));
+      }
+    }
+    return OptionalDouble.empty();
+  }
+
+  private static OptionalDouble readCgroupV1Quota(@NonNull Path dir) throws IOException {
+    Path quota = dir.resolve("cpu.cfs_quota_us");
+    Path period = dir.resolve("cpu.cfs_period_us");
+    if (Files.isReadable(quota) && Files.isReadable(period)) {
+      return quota(
+          Long.parseLong(readFirstLine(quota).trim()),
+          Long.parseLong(readFirstLine(period).trim()));
+    }
+    return OptionalDouble.empty();
+  }
+
+  private static OptionalDouble quota(long quota, long period) {
+    return quota > 0 && period > 0
+        ? OptionalDouble.of((double) quota / period)
+        : OptionalDouble.empty();
+  }
+
+  private static OptionalDouble min(OptionalDouble q1, OptionalDouble q2) {
+    if (!q1.isPresent()) {
+      return q2;
+    }
+    if (!q2.isPresent()) {
+      return q1;
+    }
+    return OptionalDouble.of(Math.min(q1.getAsDouble(), q2.getAsDouble()));
+  }
+
+  private static String readFirstLine(Path file) throws IOException {
+    List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+    return lines.isEmpty() ? "" : lines.get(0);
+  }
+
+  @FunctionalInterface
+  private interface QuotaReader {
+
+    OptionalDouble read(@NonNull Path dir) throws IOException;
+  }
+}
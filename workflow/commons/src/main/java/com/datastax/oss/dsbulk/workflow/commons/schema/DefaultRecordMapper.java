@@ -19,7 +19,6 @@ import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.ASCI
 import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BLOB;
 import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.VARCHAR;
 
-import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
 import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.cql.BatchableStatement;
@@ -33,9 +32,14 @@ import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.driver.shaded.guava.common.collect.Iterables;
+import com.datastax.oss.driver.shaded.guava.common.primitives.Ints;
+import com.datastax.oss.dsbulk.codecs.api.DirectEncoder;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.mapping.CQLWord;
 import com.datastax.oss.dsbulk.mapping.InvalidMappingException;
 import com.datastax.oss.dsbulk.mapping.Mapping;
@@ -46,10 +50,12 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
 public class DefaultRecordMapper implements RecordMapper {
@@ -64,7 +70,11 @@ public class DefaultRecordMapper implements RecordMapper {
   private final boolean allowExtraFields;
   private final boolean allowMissingFields;
   private final Function<PreparedStatement, BoundStatementBuilder> boundStatementBuilderFactory;
-  private final ImmutableMap<CQLWord, List<Integer>> variablesToIndices;
+  private final ImmutableMap<CQLWord, int[]> variablesToIndices;
+  private final CQLWord[] primaryKeyVariables;
+  private final int[] primaryKeyIndices;
+  private final ConcurrentMap<RecordSchema, MappingPlan> plans = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Field, ColumnBinding[]> fieldBindings = new ConcurrentHashMap<>();
 
   public DefaultRecordMapper(
       PreparedStatement insertStatement,
@@ -112,30 +122,38 @@ public class DefaultRecordMapper implements RecordMapper {
     this.allowMissingFields = allowMissingFields;
     this.boundStatementBuilderFactory = boundStatementBuilderFactory;
     this.variablesToIndices = buildVariablesToIndices();
+    List<CQLWord> primaryKeyVariables = new ArrayList<>();
+    List<Integer> primaryKeyIndices = new ArrayList<>();
+    for (CQLWord variable :
+        Iterables.concat(this.partitionKeyVariables, this.clusteringColumnVariables)) {
+      // a primary key variable that is not bound by the statement can never be set (-1)
+      for (int index : variablesToIndices.getOrDefault(variable, new int[] {-1})) {
+        primaryKeyVariables.add(variable);
+        primaryKeyIndices.add(index);
+      }
+    }
+    this.primaryKeyVariables = primaryKeyVariables.toArray(new CQLWord[0]);
+    this.primaryKeyIndices = Ints.toArray(primaryKeyIndices);
   }
 
   @NonNull
   @Override
   public BatchableStatement<?> map(@NonNull Record record) {
     try {
-      if (!allowMissingFields) {
-        ensureAllFieldsPresent(record.fields());
-      }
-      BoundStatementBuilder builder = boundStatementBuilderFactory.apply(insertStatement);
-      ColumnDefinitions variableDefinitions = insertStatement.getVariableDefinitions();
-      for (Field field : record.fields()) {
-        Set<CQLWord> variables = mapping.fieldToVariables(field);
-        if (!variables.isEmpty()) {
-          for (CQLWord variable : variables) {
-            CqlIdentifier name = variable.asIdentifier();
-            DataType cqlType = variableDefinitions.get(name).getType();
-            GenericType<?> fieldType = recordMetadata.getFieldType(field, cqlType);
-            Object raw = record.getFieldValue(field);
-            builder = bindColumn(builder, variable, raw, cqlType, fieldType);
-          }
-        } else if (!allowExtraFields) {
-          // the field wasn't mapped to any known variable
-          throw InvalidMappingException.extraneousField(field);
+      BoundStatementBuilder builder;
+      MappingPlan plan =
+          record instanceof ArrayBackedRecord
+              ? getPlan(((ArrayBackedRecord) record).getSchema())
+              : null;
+      if (plan != null) {
+        builder = bindAll((ArrayBackedRecord) record, plan);
+      } else {
+        if (!allowMissingFields) {
+          ensureAllFieldsPresent(record.fields());
+        }
+        builder = boundStatementBuilderFactory.apply(insertStatement);
+        for (Field field : record.fields()) {
+          builder = bindField(builder, field, record.getFieldValue(field));
         }
       }
       ensurePrimaryKeySet(builder);
@@ -150,36 +168,147 @@ public class DefaultRecordMapper implements RecordMapper {
     }
   }
 
-  private <T> BoundStatementBuilder bindColumn(
-      BoundStatementBuilder builder,
-      CQLWord variable,
-      @Nullable T raw,
-      DataType cqlType,
-      GenericType<? extends T> javaType) {
-    TypeCodec<T> codec = mapping.codec(variable, cqlType, javaType);
-    ByteBuffer bb = codec.encode(raw, builder.protocolVersion());
-    boolean isNull = isNull(bb, cqlType);
+  private BoundStatementBuilder bindAll(ArrayBackedRecord record, MappingPlan plan) {
+    if (plan.missingFields && !allowMissingFields) {
+      // throws a detailed exception
+      ensureAllFieldsPresent(record.fields());
+    }
+    BoundStatementBuilder builder = boundStatementBuilderFactory.apply(insertStatement);
+    for (int i = 0; i < plan.fields.length; i++) {
+      ColumnBinding[] columns = plan.fields[i];
+      if (columns.length == 0) {
+        if (!allowExtraFields) {
+          throw InvalidMappingException.extraneousField(record.getSchema().getField(i));
+        }
+      } else {
+        Object raw = record.getFieldValue(i);
+        for (ColumnBinding column : columns) {
+          builder = bindColumn(builder, column, raw);
+        }
+      }
+    }
+    return builder;
+  }
+
+  private BoundStatementBuilder bindField(BoundStatementBuilder builder, Field field, Object raw) {
+    ColumnBinding[] columns = getColumnBindings(field);
+    if (columns.length > 0) {
+      for (ColumnBinding column : columns) {
+        builder = bindColumn(builder, column, raw);
+      }
+    } else if (!allowExtraFields) {
+      // the field wasn't mapped to any known variable
+      throw InvalidMappingException.extraneousField(field);
+    }
+    return builder;
+  }
+
+  /**
+   * Returns the binding plan for records of the given schema, compiling it if necessary; or null if
+   * the plan cannot be compiled, in which case records are mapped field by field, and fail exactly
+   * like they would without a plan.
+   */
+  @Nullable
+  private MappingPlan getPlan(RecordSchema schema) {
+    MappingPlan plan = plans.get(schema);
+    if (plan == null) {
+      try {
+        plan = plans.computeIfAbsent(schema, this::compilePlan);
+      } catch (RuntimeException e) {
+        return null;
+      }
+    }
+    return plan;
+  }
+
+  private MappingPlan compilePlan(RecordSchema schema) {
+    ColumnBinding[][] fields = new ColumnBinding[schema.size()][];
+    for (int i = 0; i < schema.size(); i++) {
+      fields[i] = getColumnBindings(schema.getField(i));
+    }
+    boolean missingFields = false;
+    try {
+      ensureAllFieldsPresent(schema.fields());
+    } catch (InvalidMappingException e) {
+      missingFields = true;
+    }
+    return new MappingPlan(fields, missingFields);
+  }
+
+  /**
+   * Returns the bindings of the columns the given field is mapped to. Bindings of mapped fields are
+   * cached; unmapped fields, which can be arbitrarily many, are not.
+   */
+  private ColumnBinding[] getColumnBindings(Field field) {
+    ColumnBinding[] columns = fieldBindings.get(field);
+    if (columns == null) {
+      Set<CQLWord> variables = mapping.fieldToVariables(field);
+      columns = new ColumnBinding[variables.size()];
+      int i = 0;
+      for (CQLWord variable : variables) {
+        columns[i++] = newColumnBinding(field, variable);
+      }
+      if (columns.length > 0) {
+        fieldBindings.putIfAbsent(field, columns);
+      }
+    }
+    return columns;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ColumnBinding newColumnBinding(Field field, CQLWord variable) {
+    DataType cqlType =
+        insertStatement.getVariableDefinitions().get(variable.asIdentifier()).getType();
+    GenericType<?> fieldType = recordMetadata.getFieldType(field, cqlType);
+    TypeCodec<Object> codec = (TypeCodec<Object>) mapping.codec(variable, cqlType, fieldType);
+    return new ColumnBinding(
+        variable,
+        cqlType,
+        codec,
+        variablesToIndices.get(variable),
+        partitionKeyVariables.contains(variable),
+        clusteringColumnVariables.contains(variable));
+  }
+
+  private BoundStatementBuilder bindColumn(
+      BoundStatementBuilder builder, ColumnBinding column, @Nullable Object raw) {
+    ByteBuffer bb = encode(column.codec, raw, builder.protocolVersion());
+    boolean isNull = isNull(bb, column.cqlType);
     if (isNull || isEmpty(bb)) {
-      if (partitionKeyVariables.contains(variable)) {
+      if (column.partitionKey) {
         throw isNull
-            ? InvalidMappingException.nullPrimaryKey(variable)
-            : InvalidMappingException.emptyPrimaryKey(variable);
+            ? InvalidMappingException.nullPrimaryKey(column.variable)
+            : InvalidMappingException.emptyPrimaryKey(column.variable);
       }
     }
     if (isNull) {
-      if (clusteringColumnVariables.contains(variable)) {
-        throw InvalidMappingException.nullPrimaryKey(variable);
+      if (column.clusteringColumn) {
+        throw InvalidMappingException.nullPrimaryKey(column.variable);
       }
       if (nullToUnset) {
         return builder;
       }
     }
-    for (int index : variablesToIndices.get(variable)) {
+    for (int index : column.indices) {
       builder = builder.setBytesUnsafe(index, bb);
     }
     return builder;
   }
 
+  @SuppressWarnings("unchecked")
+  private static <T> ByteBuffer encode(
+      TypeCodec<T> codec, @Nullable T raw, ProtocolVersion protocolVersion) {
+    // Try the direct path first: it skips the intermediary Java value, and falls back to the
+    // regular conversion (returning null) whenever it cannot guarantee identical bytes.
+    if (codec instanceof DirectEncoder) {
+      ByteBuffer bb = ((DirectEncoder<T>) codec).encodeDirectly(raw, protocolVersion);
+      if (bb != null) {
+        return bb;
+      }
+    }
+    return codec.encode(raw, protocolVersion);
+  }
+
   private boolean isNull(ByteBuffer bb, DataType cqlType) {
     if (bb == null) {
       return true;
@@ -215,18 +344,10 @@ public class DefaultRecordMapper implements RecordMapper {
   }
 
   private void ensurePrimaryKeySet(BoundStatementBuilder bs) {
-    for (CQLWord variable : partitionKeyVariables) {
-      for (int index : variablesToIndices.get(variable)) {
-        if (!bs.isSet(index)) {
-          throw InvalidMappingException.unsetPrimaryKey(variable);
-        }
-      }
-    }
-    for (CQLWord variable : clusteringColumnVariables) {
-      for (int index : variablesToIndices.get(variable)) {
-        if (!bs.isSet(index)) {
-          throw InvalidMappingException.unsetPrimaryKey(variable);
-        }
+    for (int i = 0; i < primaryKeyIndices.length; i++) {
+      int index = primaryKeyIndices[i];
+      if (index == -1 || !bs.isSet(index)) {
+        throw InvalidMappingException.unsetPrimaryKey(primaryKeyVariables[i]);
       }
     }
   }
@@ -240,14 +361,59 @@ public class DefaultRecordMapper implements RecordMapper {
     }
   }
 
-  private ImmutableMap<CQLWord, List<Integer>> buildVariablesToIndices() {
-    Map<CQLWord, List<Integer>> variablesToIndices = new HashMap<>();
+  private ImmutableMap<CQLWord, int[]> buildVariablesToIndices() {
+    Map<CQLWord, List<Integer>> variablesToIndices = new LinkedHashMap<>();
     ColumnDefinitions variables = insertStatement.getVariableDefinitions();
     for (int i = 0; i < variables.size(); i++) {
       CQLWord name = CQLWord.fromCqlIdentifier(variables.get(i).getName());
       List<Integer> indices = variablesToIndices.computeIfAbsent(name, k -> new ArrayList<>());
       indices.add(i);
     }
-    return ImmutableMap.copyOf(variablesToIndices);
+    ImmutableMap.Builder<CQLWord, int[]> builder = ImmutableMap.builder();
+    variablesToIndices.forEach((name, indices) -> builder.put(name, Ints.toArray(indices)));
+    return builder.build();
+  }
+
+  /**
+   * A binding plan for records of a given {@link RecordSchema}, compiled once and then applied to
+   * all records of that schema.
+   */
+  private static class MappingPlan {
+
+    /** The columns to bind for each field of the schema, in schema order; empty if unmapped. */
+    private final ColumnBinding[][] fields;
+
+    /** Whether some mapped fields are missing from the schema. */
+    private final boolean missingFields;
+
+    private MappingPlan(ColumnBinding[][] fields, boolean missingFields) {
+      this.fields = fields;
+      this.missingFields = missingFields;
+    }
+  }
+
+  private static class ColumnBinding {
+
+    private final CQLWord variable;
+    private final DataType cqlType;
+    private final TypeCodec<Object> codec;
+    private final int[] indices;
+    private final boolean partitionKey;
+    private final boolean clusteringColumn;
+
+    private ColumnBinding(
+        CQLWord variable,
+        DataType cqlType,
+        TypeCodec<Object> codec,
+        int[] indices,
+        boolean partitionKey,
+        boolean clusteringColumn) {
+      this.variable = variable;
+      this.cqlType = cqlType;
+      this.codec = codec;
+      this.indices = indices;
+      this.partitionKey = partitionKey;
+      this.clusteringColumn = clusteringColumn;
+    }
   }
 }
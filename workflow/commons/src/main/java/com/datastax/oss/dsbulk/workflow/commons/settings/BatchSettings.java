@@ -23,6 +23,7 @@ import com.datastax.oss.dsbulk.batcher.api.ReactiveStatementBatcherFactory;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
+import java.time.Duration;
 import java.util.ServiceLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +50,12 @@ public class BatchSettings {
       BatchMode asStatementBatcherMode() {
         return BatchMode.REPLICA_SET;
       }
+    },
+    SORTED_STREAM {
+      @Override
+      BatchMode asStatementBatcherMode() {
+        return BatchMode.PARTITION_KEY;
+      }
     };
 
     abstract BatchMode asStatementBatcherMode();
@@ -59,6 +66,8 @@ public class BatchSettings {
   private static final String MAX_SIZE_IN_BYTES = "maxSizeInBytes";
   private static final String MAX_BATCH_STATEMENTS = "maxBatchStatements";
   private static final String BUFFER_SIZE = "bufferSize";
+  private static final String CONTINUOUS = "continuous";
+  private static final String MAX_LINGER = "maxLinger";
 
   private final Config config;
 
@@ -66,6 +75,8 @@ public class BatchSettings {
   private long maxSizeInBytes;
   private int maxBatchStatements;
   private int bufferSize;
+  private boolean continuous;
+  private Duration maxLinger;
 
   public BatchSettings(Config config) {
     this.config = config;
@@ -121,6 +132,23 @@ public class BatchSettings {
                     + "See settings.md for more information.",
                 bufferSize, maxBatchStatements));
       }
+
+      continuous = config.getBoolean(CONTINUOUS);
+
+      if (continuous && mode == WorkloadBatchMode.SORTED_STREAM) {
+        throw new IllegalArgumentException(
+            "Setting batch.continuous cannot be true when batch.mode is SORTED_STREAM. "
+                + "See settings.md for more information.");
+      }
+      maxLinger = config.getDuration(MAX_LINGER);
+
+      if (maxLinger.isNegative()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for batch.maxLinger (%s) must be positive or zero. "
+                    + "See settings.md for more information.",
+                config.getString(MAX_LINGER)));
+      }
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.batch");
     }
@@ -134,6 +162,26 @@ public class BatchSettings {
     return bufferSize;
   }
 
+  public int getMaxBatchStatements() {
+    return maxBatchStatements;
+  }
+
+  public long getMaxSizeInBytes() {
+    return maxSizeInBytes;
+  }
+
+  public boolean isSortedStream() {
+    return mode == WorkloadBatchMode.SORTED_STREAM;
+  }
+
+  public boolean isContinuous() {
+    return continuous;
+  }
+
+  public Duration getMaxLinger() {
+    return maxLinger;
+  }
+
   public ReactiveStatementBatcher newStatementBatcher(CqlSession session) {
     ServiceLoader<ReactiveStatementBatcherFactory> loader =
         ServiceLoader.load(ReactiveStatementBatcherFactory.class);
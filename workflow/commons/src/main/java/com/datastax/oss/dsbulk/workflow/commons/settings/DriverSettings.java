@@ -61,6 +61,7 @@ import com.datastax.oss.driver.api.core.time.TimestampGenerator;
 import com.datastax.oss.driver.internal.core.auth.PlainTextAuthProvider;
 import com.datastax.oss.driver.internal.core.config.typesafe.DefaultDriverConfigLoader;
 import com.datastax.oss.driver.internal.core.context.DefaultDriverContext;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.ssl.JdkSslHandlerFactory;
 import com.datastax.oss.driver.internal.core.ssl.SslHandlerFactory;
 import com.datastax.oss.driver.internal.core.time.AtomicTimestampGenerator;
@@ -531,6 +532,19 @@ public class DriverSettings {
     return mergedDriverConfig;
   }
 
+  /**
+   * Creates the session of an operation: a {@linkplain EngineSettings#newStubSession stub session}
+   * if stub mode is {@linkplain EngineSettings#isStubEnabled() enabled}, or a regular session
+   * connected to the cluster otherwise.
+   */
+  public CqlSession newSession(String executionId, EngineSettings engineSettings) {
+    if (engineSettings.isStubEnabled()) {
+      LOGGER.info("Stub mode enabled: no queries will be sent to the cluster.");
+      return engineSettings.newStubSession(newDriverContext(executionId));
+    }
+    return newSession(executionId);
+  }
+
   public CqlSession newSession(String executionId) {
     CqlSessionBuilder sessionBuilder =
         new BulkLoaderSessionBuilder()
@@ -542,6 +556,22 @@ public class DriverSettings {
     return sessionBuilder.build();
   }
 
+  /**
+   * Creates a new driver context that uses the driver configuration, but that is not attached to
+   * any session; this is useful for sessions that do not connect to a real cluster, such as {@link
+   * com.datastax.oss.dsbulk.workflow.commons.stub.StubSession}.
+   */
+  public InternalDriverContext newDriverContext(String executionId) {
+    return new DefaultDriverContext(
+        new DefaultDriverConfigLoader(this::getDriverConfig, false),
+        ProgrammaticArguments.builder()
+            .withStartupApplicationVersion(getBulkLoaderVersion())
+            .withStartupApplicationName(BULK_LOADER_APPLICATION_NAME + " " + executionId)
+            .withStartupClientId(WorkflowUtils.clientId(executionId))
+            .withAuthProvider(authProvider)
+            .build());
+  }
+
   private static Config addConfigValue(Config config, DriverOption option, Object value) {
     return config.withValue(
         option.getPath(), ConfigValueFactory.fromAnyRef(value, "DSBulk converted driver settings"));
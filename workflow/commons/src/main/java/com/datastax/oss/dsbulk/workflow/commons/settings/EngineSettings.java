@@ -15,11 +15,20 @@
  */
 package com.datastax.oss.dsbulk.workflow.commons.settings;
 
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.workflow.commons.runtime.WorkflowRuntime;
+import com.datastax.oss.dsbulk.workflow.commons.statement.StatementSorter;
+import com.datastax.oss.dsbulk.workflow.commons.stub.StubSession;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.OptionalInt;
+import reactor.core.scheduler.Scheduler;
 
 public class EngineSettings {
 
@@ -27,6 +36,9 @@ public class EngineSettings {
   private static final String EXECUTION_ID = "executionId";
   private static final String MAX_CONCURRENT_QUERIES = "maxConcurrentQueries";
   private static final String DATA_SIZE_SAMPLING_ENABLED = "dataSizeSamplingEnabled";
+  private static final String STUB = "stub";
+  private static final String SORT = "sort";
+  private static final String RUNTIME = "runtime";
 
   private final Config config;
 
@@ -34,6 +46,18 @@ public class EngineSettings {
   private String executionId;
   private int maxConcurrentQueries;
   private boolean dataSizeSamplingEnabled;
+  private boolean stubEnabled;
+  private String stubSchema;
+  private int stubNodes;
+  private Duration stubLatency;
+  private long stubRowsPerRead;
+  private boolean sortEnabled;
+  private long sortMemoryBudget;
+  private Path sortDirectory;
+  private int cores;
+  private int reservedCores;
+  private int cpuThreads;
+  private int ioThreads;
 
   EngineSettings(Config config) {
     this.config = config;
@@ -51,6 +75,84 @@ public class EngineSettings {
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.engine");
     }
+    Config stubConfig = config.getConfig(STUB);
+    try {
+      stubEnabled = stubConfig.getBoolean("enabled");
+      stubSchema = stubConfig.hasPath("schema") ? stubConfig.getString("schema") : null;
+      stubNodes = stubConfig.getInt("nodes");
+      stubLatency = stubConfig.getDuration("latency");
+      stubRowsPerRead = stubConfig.getLong("rowsPerRead");
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.engine.stub");
+    }
+    if (stubEnabled) {
+      if (stubSchema == null || stubSchema.trim().isEmpty()) {
+        throw new IllegalArgumentException(
+            "Setting engine.stub.schema is mandatory when engine.stub.enabled is true. "
+                + "See settings.md for more information.");
+      }
+      if (stubNodes <= 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for engine.stub.nodes must be strictly positive, got: %d. "
+                    + "See settings.md for more information.",
+                stubNodes));
+      }
+      if (stubLatency.isNegative()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for engine.stub.latency must be positive, got: %s. "
+                    + "See settings.md for more information.",
+                stubConfig.getString("latency")));
+      }
+      if (stubRowsPerRead < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for engine.stub.rowsPerRead must be positive, got: %d. "
+                    + "See settings.md for more information.",
+                stubRowsPerRead));
+      }
+    }
+    Config sortConfig = config.getConfig(SORT);
+    try {
+      sortEnabled = sortConfig.getBoolean("enabled");
+      sortMemoryBudget = sortConfig.getBytes("memoryBudget");
+      sortDirectory =
+          sortConfig.hasPath("directory")
+              ? ConfigUtils.getPath(sortConfig, "directory")
+              : Paths.get(System.getProperty("java.io.tmpdir"));
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.engine.sort");
+    }
+    if (sortEnabled && sortMemoryBudget <= 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Value for engine.sort.memoryBudget must be strictly positive, got: %s. "
+                  + "See settings.md for more information.",
+              sortConfig.getString("memoryBudget")));
+    }
+    Config runtimeConfig = config.getConfig(RUNTIME);
+    try {
+      cores = getThreadsOrAuto(runtimeConfig, "cores");
+      reservedCores = runtimeConfig.getInt("reservedCores");
+      cpuThreads = getThreadsOrAuto(runtimeConfig, "cpuThreads");
+      ioThreads = getThreadsOrAuto(runtimeConfig, "ioThreads");
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.engine.runtime");
+    }
+    if (reservedCores < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Value for engine.runtime.reservedCores must be positive, got: %d. "
+                  + "See settings.md for more information.",
+              reservedCores));
+    }
+  }
+
+  private static int getThreadsOrAuto(Config config, String path) {
+    return config.getString(path).equalsIgnoreCase("AUTO")
+        ? -1
+        : ConfigUtils.getThreads(config, path);
   }
 
   public boolean isDryRun() {
@@ -68,4 +170,51 @@ public class EngineSettings {
   public boolean isDataSizeSamplingEnabled() {
     return dataSizeSamplingEnabled;
   }
+
+  public boolean isStubEnabled() {
+    return stubEnabled;
+  }
+
+  public boolean isSortEnabled() {
+    return sortEnabled;
+  }
+
+  /**
+   * Creates a new {@link StatementSorter}, that will sort statements by token before they are
+   * written. Only meaningful if sorting is {@linkplain #isSortEnabled() enabled}.
+   *
+   * @param session The session whose token map will be used to compute tokens.
+   * @param ioScheduler The scheduler on which to write and merge sorted runs.
+   */
+  public StatementSorter newStatementSorter(CqlSession session, Scheduler ioScheduler) {
+    return new StatementSorter(session, sortMemoryBudget, sortDirectory, ioScheduler);
+  }
+
+  /**
+   * Creates a new {@link WorkflowRuntime}, sized according to the number of available cores and the
+   * number of cores reserved for the driver.
+   */
+  public WorkflowRuntime newWorkflowRuntime() {
+    int cores = this.cores == -1 ? WorkflowRuntime.detectAvailableCores() : this.cores;
+    int cpuThreads = this.cpuThreads == -1 ? Math.max(1, cores - reservedCores) : this.cpuThreads;
+    int ioThreads = this.ioThreads == -1 ? Math.max(4, cores * 2) : this.ioThreads;
+    return new WorkflowRuntime(cores, cpuThreads, ioThreads);
+  }
+
+  /**
+   * Creates a new {@link StubSession}, that will answer all requests from memory instead of
+   * contacting a real cluster. Only meaningful if stub mode is {@linkplain #isStubEnabled()
+   * enabled}.
+   */
+  public CqlSession newStubSession(InternalDriverContext context) {
+    try {
+      return new StubSession(context, stubSchema, stubNodes, stubLatency, stubRowsPerRead);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for engine.stub.schema: %s. See settings.md for more information.",
+              e.getMessage()),
+          e);
+    }
+  }
 }
@@ -26,13 +26,17 @@ import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.datastax.oss.dsbulk.executor.api.BulkExecutor;
 import com.datastax.oss.dsbulk.executor.api.BulkExecutorBuilder;
 import com.datastax.oss.dsbulk.executor.api.BulkExecutorBuilderFactory;
+import com.datastax.oss.dsbulk.executor.api.limiter.AdaptiveConcurrencyLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.reader.BulkReader;
+import com.datastax.oss.dsbulk.executor.api.straggler.StragglerMitigator;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
 import com.datastax.oss.dsbulk.executor.api.writer.BulkWriter;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
 import java.util.ServiceLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,7 +49,23 @@ public class ExecutorSettings {
 
   private int maxPerSecond;
   private int maxInFlight;
+  private int maxInFlightPerNode;
+  private long maxBytesPerSecond;
+  private long maxBytesInFlight;
+  private PagingOptions pagingOptions;
   private boolean continuousPagingEnabled;
+  private boolean adaptiveConcurrencyEnabled;
+  private int adaptiveMinInFlight;
+  private int adaptiveMaxInFlight;
+  private int adaptiveInitialInFlight;
+  private int adaptiveIncrement;
+  private double adaptiveLatencyTolerance;
+  private double adaptiveBackoffRatio;
+  private Duration adaptiveUpdateInterval;
+  private boolean stragglerMitigationEnabled;
+  private double stragglerPercentile;
+  private Duration stragglerMinDelay;
+  private long stragglerMinSamples;
 
   ExecutorSettings(Config config) {
     this.config = config;
@@ -55,9 +75,38 @@ public class ExecutorSettings {
     try {
       maxPerSecond = config.getInt("maxPerSecond");
       maxInFlight = config.getInt("maxInFlight");
+      maxInFlightPerNode = config.getInt("maxInFlightPerNode");
+      maxBytesPerSecond = config.getLong("maxBytesPerSecond");
+      maxBytesInFlight = config.getLong("maxBytesInFlight");
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.executor");
     }
+    if (maxBytesInFlight > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Value for executor.maxBytesInFlight (%d) must be lesser than or equal to %d. "
+                  + "See settings.md for more information.",
+              maxBytesInFlight, Integer.MAX_VALUE));
+    }
+    Config readAheadConfig = config.getConfig("readAhead");
+    int readAheadMaxPages;
+    long readAheadMaxBytes;
+    boolean readAheadPrefetch;
+    try {
+      readAheadMaxPages = readAheadConfig.getInt("maxPages");
+      readAheadMaxBytes = readAheadConfig.getLong("maxBytes");
+      readAheadPrefetch = readAheadConfig.getBoolean("prefetch");
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.executor.readAhead");
+    }
+    if (readAheadMaxPages <= 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Value for executor.readAhead.maxPages (%d) must be strictly positive. "
+                  + "See settings.md for more information.",
+              readAheadMaxPages));
+    }
+    pagingOptions = new PagingOptions(readAheadMaxPages, readAheadMaxBytes, readAheadPrefetch);
     Config continuousPagingConfig = config.getConfig("continuousPaging");
     try {
       continuousPagingEnabled = continuousPagingConfig.getBoolean("enabled");
@@ -74,6 +123,112 @@ public class ExecutorSettings {
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.executor.continuousPaging");
     }
+    Config adaptiveConcurrencyConfig = config.getConfig("adaptiveConcurrency");
+    try {
+      adaptiveConcurrencyEnabled = adaptiveConcurrencyConfig.getBoolean("enabled");
+      adaptiveMinInFlight = adaptiveConcurrencyConfig.getInt("minInFlight");
+      adaptiveMaxInFlight = adaptiveConcurrencyConfig.getInt("maxInFlight");
+      adaptiveInitialInFlight = adaptiveConcurrencyConfig.getInt("initialInFlight");
+      adaptiveIncrement = adaptiveConcurrencyConfig.getInt("increment");
+      adaptiveLatencyTolerance = adaptiveConcurrencyConfig.getDouble("latencyTolerance");
+      adaptiveBackoffRatio = adaptiveConcurrencyConfig.getDouble("backoffRatio");
+      adaptiveUpdateInterval = adaptiveConcurrencyConfig.getDuration("updateInterval");
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.executor.adaptiveConcurrency");
+    }
+    if (adaptiveConcurrencyEnabled) {
+      if (adaptiveMinInFlight <= 0 || adaptiveMaxInFlight < adaptiveMinInFlight) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Values for executor.adaptiveConcurrency.minInFlight (%d) and "
+                    + "executor.adaptiveConcurrency.maxInFlight (%d) must be positive, "
+                    + "and maxInFlight must be greater than or equal to minInFlight. "
+                    + "See settings.md for more information.",
+                adaptiveMinInFlight, adaptiveMaxInFlight));
+      }
+      if (adaptiveInitialInFlight < adaptiveMinInFlight
+          || adaptiveInitialInFlight > adaptiveMaxInFlight) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.adaptiveConcurrency.initialInFlight (%d) must be between "
+                    + "minInFlight (%d) and maxInFlight (%d). "
+                    + "See settings.md for more information.",
+                adaptiveInitialInFlight, adaptiveMinInFlight, adaptiveMaxInFlight));
+      }
+      if (adaptiveIncrement <= 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.adaptiveConcurrency.increment (%d) must be positive. "
+                    + "See settings.md for more information.",
+                adaptiveIncrement));
+      }
+      if (adaptiveLatencyTolerance <= 1) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.adaptiveConcurrency.latencyTolerance (%s) must be greater than 1. "
+                    + "See settings.md for more information.",
+                adaptiveLatencyTolerance));
+      }
+      if (adaptiveBackoffRatio <= 0 || adaptiveBackoffRatio >= 1) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.adaptiveConcurrency.backoffRatio (%s) must be strictly between 0 and 1. "
+                    + "See settings.md for more information.",
+                adaptiveBackoffRatio));
+      }
+      if (adaptiveUpdateInterval.isNegative() || adaptiveUpdateInterval.isZero()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.adaptiveConcurrency.updateInterval (%s) must be positive. "
+                    + "See settings.md for more information.",
+                adaptiveConcurrencyConfig.getString("updateInterval")));
+      }
+    }
+    Config stragglerMitigationConfig = config.getConfig("stragglerMitigation");
+    try {
+      stragglerMitigationEnabled = stragglerMitigationConfig.getBoolean("enabled");
+      stragglerPercentile = stragglerMitigationConfig.getDouble("percentile");
+      stragglerMinDelay = stragglerMitigationConfig.getDuration("minDelay");
+      stragglerMinSamples = stragglerMitigationConfig.getLong("minSamples");
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.executor.stragglerMitigation");
+    }
+    if (stragglerMitigationEnabled) {
+      if (stragglerPercentile <= 0 || stragglerPercentile >= 100) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.stragglerMitigation.percentile (%s) must be strictly between 0 and 100. "
+                    + "See settings.md for more information.",
+                stragglerPercentile));
+      }
+      if (stragglerMinDelay.isNegative()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.stragglerMitigation.minDelay (%s) must be positive. "
+                    + "See settings.md for more information.",
+                stragglerMitigationConfig.getString("minDelay")));
+      }
+      if (stragglerMinSamples <= 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for executor.stragglerMitigation.minSamples (%d) must be strictly positive. "
+                    + "See settings.md for more information.",
+                stragglerMinSamples));
+      }
+    }
+  }
+
+  /** @return whether adaptive concurrency is enabled. */
+  public boolean isAdaptiveConcurrencyEnabled() {
+    return adaptiveConcurrencyEnabled;
+  }
+
+  /**
+   * @return the maximum number of in-flight requests that the adaptive concurrency limiter can set;
+   *     only meaningful if adaptive concurrency is enabled.
+   */
+  public int getAdaptiveMaxInFlight() {
+    return adaptiveMaxInFlight;
   }
 
   @NonNull
@@ -104,8 +259,46 @@ public class ExecutorSettings {
     builder
         .withExecutionListener(executionListener)
         .withMaxInFlightRequests(maxInFlight)
+        .withMaxInFlightRequestsPerNode(maxInFlightPerNode)
         .withMaxRequestsPerSecond(maxPerSecond)
+        .withMaxBytesPerSecond(maxBytesPerSecond)
+        .withMaxBytesInFlight(maxBytesInFlight)
+        .withPagingOptions(pagingOptions)
         .failSafe();
+    if (adaptiveConcurrencyEnabled) {
+      if (executionListener instanceof MetricsCollectingExecutionListener) {
+        builder.withAdaptiveConcurrencyLimiter(
+            new AdaptiveConcurrencyLimiter(
+                (MetricsCollectingExecutionListener) executionListener,
+                adaptiveInitialInFlight,
+                adaptiveMinInFlight,
+                adaptiveMaxInFlight,
+                adaptiveIncrement,
+                adaptiveLatencyTolerance,
+                adaptiveBackoffRatio,
+                adaptiveUpdateInterval));
+      } else {
+        LOGGER.warn(
+            "Adaptive concurrency is enabled but latencies are not being collected; disabling.");
+      }
+    }
+    if (stragglerMitigationEnabled && read) {
+      if (useContinuousPagingForReads) {
+        LOGGER.warn(
+            "Straggler mitigation is enabled but is not compatible with continuous paging; disabling.");
+      } else if (executionListener instanceof MetricsCollectingExecutionListener) {
+        builder.withStragglerMitigator(
+            new StragglerMitigator(
+                session,
+                (MetricsCollectingExecutionListener) executionListener,
+                stragglerPercentile,
+                stragglerMinDelay,
+                stragglerMinSamples));
+      } else {
+        LOGGER.warn(
+            "Straggler mitigation is enabled but latencies are not being collected; disabling.");
+      }
+    }
     return builder.build();
   }
 
@@ -18,7 +18,6 @@ package com.datastax.oss.dsbulk.workflow.commons.settings;
 import com.codahale.metrics.MetricRegistry;
 import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
-import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
 import com.datastax.oss.dsbulk.workflow.commons.settings.LogSettings.Verbosity;
@@ -26,8 +25,7 @@ import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import java.nio.file.Path;
 import java.time.Duration;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +43,8 @@ public class MonitoringSettings {
   private static final String JMX = "jmx";
   private static final String CSV = "csv";
   private static final String CONSOLE = "console";
+  private static final String TRACK_STAGES = "trackStages";
+  private static final String PROFILE = "profile";
 
   private final Config config;
   private final String executionId;
@@ -58,6 +58,8 @@ public class MonitoringSettings {
   private boolean jmx;
   private boolean csv;
   private boolean console;
+  private boolean trackStages;
+  private boolean profile;
 
   public MonitoringSettings(Config config, String executionId) {
     this.config = config;
@@ -82,6 +84,8 @@ public class MonitoringSettings {
       jmx = config.getBoolean(JMX);
       csv = config.getBoolean(CSV);
       console = config.getBoolean(CONSOLE);
+      trackStages = config.getBoolean(TRACK_STAGES);
+      profile = config.getBoolean(PROFILE);
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.monitoring");
     }
@@ -95,14 +99,8 @@ public class MonitoringSettings {
       MetricRegistry registry,
       ProtocolVersion protocolVersion,
       CodecRegistry codecRegistry,
-      RowType rowType) {
-    ThreadFactory threadFactory =
-        new ThreadFactoryBuilder()
-            .setDaemon(true)
-            .setNameFormat("reporter-%d")
-            .setPriority(Thread.MIN_PRIORITY)
-            .build();
-    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+      RowType rowType,
+      ScheduledExecutorService scheduler) {
     return new MetricsManager(
         registry,
         monitorWrites,
@@ -122,6 +120,8 @@ public class MonitoringSettings {
         batchingEnabled,
         protocolVersion,
         codecRegistry,
-        rowType);
+        rowType,
+        trackStages,
+        profile);
   }
 }
@@ -27,6 +27,8 @@ import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.type.DataType;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.sampler.DataSizeAware;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
@@ -34,10 +36,11 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
-public class MappedBoundStatement implements BoundStatement, MappedStatement {
+public class MappedBoundStatement implements BoundStatement, MappedStatement, DataSizeAware {
 
   private final Record source;
   private BoundStatement delegate;
+  private volatile long dataSize = -1;
 
   public MappedBoundStatement(Record source, BoundStatement delegate) {
     this.source = source;
@@ -49,6 +52,17 @@ public class MappedBoundStatement implements BoundStatement, MappedStatement {
     return source;
   }
 
+  @Override
+  public long getDataSize(@NonNull ProtocolVersion version, @NonNull CodecRegistry registry) {
+    long dataSize = this.dataSize;
+    if (dataSize < 0) {
+      // benign race: concurrent callers would compute the same value
+      dataSize = DataSizes.getDataSize(delegate, version, registry);
+      this.dataSize = dataSize;
+    }
+    return dataSize;
+  }
+
   @NonNull
   @Override
   public PreparedStatement getPreparedStatement() {
@@ -254,6 +268,7 @@ public class MappedBoundStatement implements BoundStatement, MappedStatement {
   @Override
   public BoundStatement setBytesUnsafe(int i, ByteBuffer v) {
     delegate = delegate.setBytesUnsafe(i, v);
+    dataSize = -1;
     return this;
   }
 
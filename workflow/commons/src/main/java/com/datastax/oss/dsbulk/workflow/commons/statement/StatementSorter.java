@@ -0,0 +1,832 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.statement;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.io.MappedFileWindow;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Sorts a stream of mapped statements by token, using an external merge sort bounded by a memory
+ * budget.
+ *
+ * <p>Statements are held in memory until their approximate size exceeds half the budget; they are
+ * then sorted and spilled to a temporary file, forming a sorted run. Runs are written on the I/O
+ * scheduler, while the next half of the budget is being filled, so that statements are never
+ * written to disk by the threads that map them. When the upstream publisher completes, all runs are
+ * merged in token order, together with the statements still held in memory. If there are more runs
+ * than the maximum merge fan-in, consecutive runs are first merged into larger ones, on the I/O
+ * scheduler, until few enough remain; this bounds the number of files that are open and mapped at
+ * the same time.
+ *
+ * <p>Run files are read through memory-mapped windows of bounded size, so that runs of any size can
+ * be merged; each window is unmapped as soon as the next one is mapped, and the values of the
+ * statements read back are copied out of it, so that no mapping outlives its run file.
+ *
+ * <p>Statements read back from disk are rebuilt from a template statement that has the same
+ * prepared statement and the same attributes (execution profile, consistency levels, timeout,
+ * etc.); their query timestamp, idempotence and routing token are stored with each statement, and
+ * their routing key is computed again from their values. Their records only retain the resource,
+ * the position and the source (as a string) of the original record, which is all that is needed
+ * once records are mapped.
+ *
+ * <p>Statements that are not {@link MappedBoundStatement}s, and statements whose token cannot be
+ * computed, are not sorted: they are emitted as soon as they arrive, that is, before all sorted
+ * statements.
+ */
+public class StatementSorter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StatementSorter.class);
+
+  private static final int NULL = -1;
+  private static final int UNSET = -2;
+
+  private static final byte IDEMPOTENCE_NULL = 0;
+  private static final byte IDEMPOTENCE_FALSE = 1;
+  private static final byte IDEMPOTENCE_TRUE = 2;
+
+  /** The default maximum size of each mapped window of a run file, when runs are merged. */
+  private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  /** The default maximum number of runs merged at once. */
+  private static final int DEFAULT_MAX_FAN_IN = 64;
+
+  // Approximate heap overhead of a statement held in memory, and of each one of its values.
+  private static final int STATEMENT_OVERHEAD = 256;
+  private static final int VALUE_OVERHEAD = 32;
+
+  private final CqlSession session;
+  private final long memoryBudget;
+  private final Path directory;
+  private final Scheduler ioScheduler;
+  private final int windowSize;
+  private final int maxFanIn;
+
+  /**
+   * Creates a new sorter.
+   *
+   * @param session The {@link CqlSession} whose token map will be used to compute tokens.
+   * @param memoryBudget The approximate maximum number of bytes of statements to hold in memory;
+   *     must be strictly positive.
+   * @param directory The directory where to create temporary files.
+   * @param ioScheduler The scheduler on which to write and merge temporary files.
+   */
+  public StatementSorter(
+      @NonNull CqlSession session,
+      long memoryBudget,
+      @NonNull Path directory,
+      @NonNull Scheduler ioScheduler) {
+    this(session, memoryBudget, directory, ioScheduler, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_FAN_IN);
+  }
+
+  StatementSorter(
+      @NonNull CqlSession session,
+      long memoryBudget,
+      @NonNull Path directory,
+      @NonNull Scheduler ioScheduler,
+      int windowSize,
+      int maxFanIn) {
+    if (memoryBudget <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting memory budget to be strictly positive, got: " + memoryBudget);
+    }
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException(
+          "Expecting window size to be strictly positive, got: " + windowSize);
+    }
+    if (maxFanIn < 2) {
+      throw new IllegalArgumentException(
+          "Expecting maximum merge fan-in to be at least 2, got: " + maxFanIn);
+    }
+    this.session = session;
+    this.memoryBudget = memoryBudget;
+    this.directory = directory;
+    this.ioScheduler = ioScheduler;
+    this.windowSize = windowSize;
+    this.maxFanIn = maxFanIn;
+  }
+
+  /**
+   * Sorts the given statements by token. Sorted statements are only emitted once the given
+   * publisher completes.
+   *
+   * @param statements The statements to sort.
+   * @return A {@link Flux} of unsortable statements, followed by all the other statements, sorted
+   *     by token.
+   */
+  @NonNull
+  public Flux<BatchableStatement<?>> sort(@NonNull Publisher<BatchableStatement<?>> statements) {
+    return Flux.defer(
+        () -> {
+          TokenMap tokenMap = session.getMetadata().getTokenMap().orElse(null);
+          if (tokenMap == null) {
+            LOGGER.warn("Token metadata is not available, statements will not be sorted.");
+            return Flux.from(statements);
+          }
+          Runs runs = new Runs(tokenMap);
+          return Flux.from(statements)
+              .handle(
+                  (statement, sink) -> {
+                    if (!runs.add(statement)) {
+                      sink.next(statement);
+                    } else if (runs.isFull()) {
+                      sink.next(runs.takeBuffer());
+                    }
+                  })
+              // full buffers are spilled one at a time; the next one is filled in the meantime
+              .concatMap(
+                  item ->
+                      item instanceof Run
+                          ? spill(runs, (Run) item)
+                          : Mono.just((BatchableStatement<?>) item),
+                  1)
+              .concatWith(
+                  Mono.fromRunnable(() -> runs.reduce())
+                      .subscribeOn(ioScheduler)
+                      .thenMany(Flux.defer(() -> Flux.fromIterable(runs.merge()))))
+              // runs are deleted before the terminal signal is propagated, which may happen on
+              // the I/O scheduler
+              .doOnTerminate(runs::close)
+              .doOnCancel(runs::close);
+        });
+  }
+
+  private Mono<BatchableStatement<?>> spill(Runs runs, Run run) {
+    return Mono.<BatchableStatement<?>>fromRunnable(() -> runs.spill(run)).subscribeOn(ioScheduler);
+  }
+
+  /** Statements sorted in memory, to be spilled to a new run file. */
+  private static class Run {
+
+    private final List<Entry> entries;
+
+    private Run(List<Entry> entries) {
+      this.entries = entries;
+    }
+  }
+
+  /**
+   * The sorted runs of a single subscription.
+   *
+   * <p>Statements are added by one thread at a time, while runs are written and merged by another
+   * thread, one at a time too; the two only share the runs handed over to {@link #spill(Run)}, and
+   * the temporary files, which are guarded by this object's monitor, as they may be deleted
+   * concurrently when the subscription is cancelled.
+   */
+  private class Runs {
+
+    private final TokenMap tokenMap;
+    private List<Entry> buffer = new ArrayList<>();
+    private long bufferedBytes;
+
+    // accessed by the thread writing and merging runs, then by the thread merging them all
+    private final List<Path> files = new ArrayList<>();
+    private final List<BoundStatement> templates = new ArrayList<>();
+    private final Map<Attributes, Integer> templateIds = new HashMap<>();
+    private final List<URI> resources = new ArrayList<>();
+    private final Map<URI, Integer> resourceIds = new HashMap<>();
+
+    // guarded by this
+    private final List<Path> tempFiles = new ArrayList<>();
+    private final List<FileCursor> fileCursors = new ArrayList<>();
+
+    private volatile boolean closed;
+
+    private Runs(TokenMap tokenMap) {
+      this.tokenMap = tokenMap;
+    }
+
+    /** Adds the given statement, or returns false if it cannot be sorted. */
+    private boolean add(BatchableStatement<?> statement) {
+      if (!(statement instanceof MappedBoundStatement)) {
+        return false;
+      }
+      MappedBoundStatement bs = (MappedBoundStatement) statement;
+      Token token = token(bs);
+      if (token == null) {
+        return false;
+      }
+      buffer.add(new Entry(token, bs));
+      bufferedBytes += STATEMENT_OVERHEAD;
+      for (int i = 0; i < bs.size(); i++) {
+        ByteBuffer value = bs.getBytesUnsafe(i);
+        bufferedBytes += VALUE_OVERHEAD + (value == null ? 0 : value.remaining());
+      }
+      Object source = bs.getRecord().getSource();
+      if (source instanceof String) {
+        bufferedBytes += 2L * ((String) source).length();
+      }
+      return true;
+    }
+
+    /**
+     * Whether the statements held in memory should be spilled; half of the budget is kept for the
+     * statements added while they are being written.
+     */
+    private boolean isFull() {
+      return bufferedBytes >= memoryBudget / 2;
+    }
+
+    /** Sorts the statements held in memory, and hands them over to be spilled. */
+    private Run takeBuffer() {
+      buffer.sort(Comparator.comparing(entry -> entry.token));
+      Run run = new Run(buffer);
+      buffer = new ArrayList<>();
+      bufferedBytes = 0;
+      return run;
+    }
+
+    @Nullable
+    private Token token(MappedBoundStatement statement) {
+      Token token = statement.getRoutingToken();
+      if (token == null) {
+        ByteBuffer routingKey = statement.getRoutingKey();
+        if (routingKey != null) {
+          token = tokenMap.newToken(routingKey);
+        }
+      }
+      return token;
+    }
+
+    private synchronized void spill(Run run) {
+      if (closed) {
+        return;
+      }
+      Iterator<Entry> entries = run.entries.iterator();
+      Path file =
+          writeRun(
+              new Iterator<MappedBoundStatement>() {
+                @Override
+                public boolean hasNext() {
+                  return entries.hasNext();
+                }
+
+                @Override
+                public MappedBoundStatement next() {
+                  return entries.next().statement;
+                }
+              });
+      if (file != null) {
+        files.add(file);
+        LOGGER.debug("Spilled {} statements to {}", run.entries.size(), file);
+      }
+    }
+
+    /**
+     * Merges consecutive runs, {@code maxFanIn} at a time, until at most {@code maxFanIn} runs
+     * remain, including the statements still held in memory. Merging consecutive runs keeps the
+     * sort stable.
+     */
+    private synchronized void reduce() {
+      int maxFiles = buffer.isEmpty() ? maxFanIn : maxFanIn - 1;
+      while (files.size() > maxFiles && !closed) {
+        LOGGER.debug("Merging {} sorted runs by groups of {}", files.size(), maxFanIn);
+        List<Path> merged = new ArrayList<>();
+        for (int i = 0; i < files.size(); i += maxFanIn) {
+          List<Path> group = files.subList(i, Math.min(i + maxFanIn, files.size()));
+          Path file = group.size() == 1 ? group.get(0) : mergeFiles(group);
+          if (file == null) {
+            // closed
+            return;
+          }
+          merged.add(file);
+        }
+        files.clear();
+        files.addAll(merged);
+      }
+    }
+
+    /** Merges the given runs into a new run, and deletes them; returns null if closed. */
+    @Nullable
+    private Path mergeFiles(List<Path> group) {
+      List<FileCursor> cursors = new ArrayList<>(group.size());
+      try {
+        PriorityQueue<Cursor> queue = newCursorQueue();
+        for (Path file : group) {
+          FileCursor cursor = new FileCursor(cursors.size(), file);
+          cursors.add(cursor);
+          addIfNotEmpty(queue, cursor);
+        }
+        Path file = writeRun(merging(queue));
+        if (file != null) {
+          // exhausted runs were deleted already
+          tempFiles.removeAll(group);
+        }
+        return file;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        for (FileCursor cursor : cursors) {
+          cursor.close();
+        }
+      }
+    }
+
+    /** Writes the given sorted statements to a new run file; returns null if closed. */
+    @Nullable
+    private Path writeRun(Iterator<MappedBoundStatement> statements) {
+      try {
+        Path file = Files.createTempFile(directory, "dsbulk-sort-", ".run");
+        // the file is deleted when closed, whether it could be written or not
+        tempFiles.add(file);
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 65536))) {
+          ByteArrayDataOutput record = new ByteArrayDataOutput();
+          while (statements.hasNext()) {
+            if (closed) {
+              return null;
+            }
+            record.reset();
+            write(statements.next(), record.data);
+            // each statement is prefixed with its length, so that it can be read back from a
+            // single mapped window
+            out.writeInt(record.size());
+            record.writeTo(out);
+          }
+        }
+        return file;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void write(MappedBoundStatement statement, DataOutputStream out) throws IOException {
+      Record record = statement.getRecord();
+      out.writeInt(
+          templateIds.computeIfAbsent(
+              new Attributes(statement),
+              attributes -> {
+                // copy the statement to avoid retaining its record
+                templates.add(new BoundStatementBuilder(statement).build());
+                return templates.size() - 1;
+              }));
+      out.writeLong(statement.getQueryTimestamp());
+      Boolean idempotent = statement.isIdempotent();
+      out.writeByte(
+          idempotent == null
+              ? IDEMPOTENCE_NULL
+              : idempotent ? IDEMPOTENCE_TRUE : IDEMPOTENCE_FALSE);
+      Token routingToken = statement.getRoutingToken();
+      writeString(routingToken == null ? null : tokenMap.format(routingToken), out);
+      out.writeInt(
+          resourceIds.computeIfAbsent(
+              record.getResource(),
+              resource -> {
+                resources.add(resource);
+                return resources.size() - 1;
+              }));
+      out.writeLong(record.getPosition());
+      Object source = record.getSource();
+      writeString(source == null ? null : source.toString(), out);
+      out.writeInt(statement.size());
+      for (int i = 0; i < statement.size(); i++) {
+        if (!statement.isSet(i)) {
+          out.writeInt(UNSET);
+        } else {
+          ByteBuffer value = statement.getBytesUnsafe(i);
+          if (value == null) {
+            out.writeInt(NULL);
+          } else {
+            out.writeInt(value.remaining());
+            if (value.hasArray()) {
+              out.write(value.array(), value.arrayOffset() + value.position(), value.remaining());
+            } else {
+              byte[] bytes = new byte[value.remaining()];
+              value.duplicate().get(bytes);
+              out.write(bytes);
+            }
+          }
+        }
+      }
+    }
+
+    private void writeString(@Nullable String value, DataOutputStream out) throws IOException {
+      if (value == null) {
+        out.writeInt(NULL);
+      } else {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+
+    /** Merges all the runs, including the statements still held in memory. */
+    private Iterable<MappedBoundStatement> merge() {
+      buffer.sort(Comparator.comparing(entry -> entry.token));
+      if (files.isEmpty()) {
+        // everything fit in memory, no need to rebuild statements
+        List<MappedBoundStatement> sorted = new ArrayList<>(buffer.size());
+        for (Entry entry : buffer) {
+          sorted.add(entry.statement);
+        }
+        buffer.clear();
+        return sorted;
+      }
+      LOGGER.debug("Merging {} sorted runs", files.size() + (buffer.isEmpty() ? 0 : 1));
+      PriorityQueue<Cursor> cursors = newCursorQueue();
+      try {
+        for (int i = 0; i < files.size(); i++) {
+          FileCursor cursor = new FileCursor(i, files.get(i));
+          synchronized (this) {
+            fileCursors.add(cursor);
+          }
+          addIfNotEmpty(cursors, cursor);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      addIfNotEmpty(cursors, new MemoryCursor(files.size(), buffer));
+      buffer = new ArrayList<>();
+      return () -> merging(cursors);
+    }
+
+    private PriorityQueue<Cursor> newCursorQueue() {
+      // on ties, cursors are compared by creation order, to keep the sort stable
+      return new PriorityQueue<>(
+          Comparator.<Cursor, Token>comparing(cursor -> cursor.token)
+              .thenComparingInt(cursor -> cursor.id));
+    }
+
+    /** Returns the statements of the given cursors, in order; cursors are consumed. */
+    private Iterator<MappedBoundStatement> merging(PriorityQueue<Cursor> cursors) {
+      return new Iterator<MappedBoundStatement>() {
+        @Override
+        public boolean hasNext() {
+          return !cursors.isEmpty();
+        }
+
+        @Override
+        public MappedBoundStatement next() {
+          Cursor cursor = cursors.poll();
+          if (cursor == null) {
+            throw new NoSuchElementException();
+          }
+          MappedBoundStatement statement = cursor.statement;
+          addIfNotEmpty(cursors, cursor);
+          return statement;
+        }
+      };
+    }
+
+    private void addIfNotEmpty(PriorityQueue<Cursor> cursors, Cursor cursor) {
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+
+    /**
+     * Releases all the runs; files are only deleted once their cursor has been closed. Waits for
+     * the run being written or merged, if any, to stop.
+     */
+    private void close() {
+      closed = true;
+      synchronized (this) {
+        buffer.clear();
+        try {
+          for (FileCursor cursor : fileCursors) {
+            cursor.close();
+          }
+        } finally {
+          for (Path file : tempFiles) {
+            delete(file);
+          }
+          fileCursors.clear();
+          tempFiles.clear();
+          files.clear();
+          templates.clear();
+          templateIds.clear();
+        }
+      }
+    }
+
+    private void delete(Path file) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOGGER.warn("Could not delete temporary file " + file, e);
+      }
+    }
+
+    /** A cursor over a sorted run; advancing a cursor moves it to its next statement. */
+    private abstract class Cursor {
+
+      private final int id;
+      Token token;
+      MappedBoundStatement statement;
+
+      private Cursor(int id) {
+        this.id = id;
+      }
+
+      /** Advances this cursor, or returns false if it is exhausted. */
+      abstract boolean advance();
+    }
+
+    private class MemoryCursor extends Cursor {
+
+      private final Iterator<Entry> entries;
+
+      private MemoryCursor(int id, List<Entry> entries) {
+        super(id);
+        this.entries = entries.iterator();
+      }
+
+      @Override
+      boolean advance() {
+        if (entries.hasNext()) {
+          Entry entry = entries.next();
+          token = entry.token;
+          statement = entry.statement;
+          return true;
+        }
+        return false;
+      }
+    }
+
+    private class FileCursor extends Cursor {
+
+      private final Path file;
+      private final MappedFileWindow mapped;
+      private final long size;
+
+      /** The offset in the file of the current window. */
+      private long windowStart;
+
+      private ByteBuffer window;
+
+      private FileCursor(int id, Path file) throws IOException {
+        super(id);
+        this.file = file;
+        mapped = new MappedFileWindow(file);
+        size = mapped.size();
+        window = mapped.buffer();
+      }
+
+      @Override
+      boolean advance() {
+        MappedBoundStatement bs;
+        try {
+          if (!ensureRemaining(4)) {
+            // runs are deleted as soon as they are exhausted, rather than when the merge ends
+            close();
+            delete(file);
+            return false;
+          }
+          ensureRemaining(window.getInt());
+          bs = read();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } catch (InternalError e) {
+          throw new UncheckedIOException(mapped.truncated(e));
+        }
+        token = token(bs);
+        statement = bs;
+        return true;
+      }
+
+      private MappedBoundStatement read() {
+        BoundStatementBuilder builder = new BoundStatementBuilder(templates.get(window.getInt()));
+        long timestamp = window.getLong();
+        byte idempotent = window.get();
+        String routingToken = readString();
+        URI resource = resources.get(window.getInt());
+        long position = window.getLong();
+        String source = readString();
+        int size = window.getInt();
+        for (int i = 0; i < size; i++) {
+          int length = window.getInt(window.position());
+          if (length == UNSET) {
+            window.getInt();
+            builder = builder.unset(i);
+          } else {
+            byte[] bytes = readBytes();
+            builder = builder.setBytesUnsafe(i, bytes == null ? null : ByteBuffer.wrap(bytes));
+          }
+        }
+        builder =
+            builder
+                .setQueryTimestamp(timestamp)
+                .setIdempotence(
+                    idempotent == IDEMPOTENCE_NULL ? null : idempotent == IDEMPOTENCE_TRUE)
+                // the template's routing key was computed from its own values
+                .setRoutingKey((ByteBuffer) null)
+                .setRoutingToken(routingToken == null ? null : tokenMap.parse(routingToken));
+        return new MappedBoundStatement(
+            DefaultRecord.indexed(source, resource, position), builder.build());
+      }
+
+      /**
+       * Maps the next window if fewer than the given number of bytes remain in the current one.
+       *
+       * @return false if the end of the file has been reached.
+       */
+      private boolean ensureRemaining(int length) throws IOException {
+        if (window.remaining() >= length) {
+          return true;
+        }
+        long position = windowStart + window.position();
+        if (position == size) {
+          return false;
+        }
+        long windowSize =
+            Math.min(Math.max(StatementSorter.this.windowSize, length), size - position);
+        window = mapped.map(position, windowSize);
+        windowStart = position;
+        return true;
+      }
+
+      /** Reads a length-prefixed value, and copies it out of the current window. */
+      @Nullable
+      private byte[] readBytes() {
+        int length = window.getInt();
+        if (length == NULL) {
+          return null;
+        }
+        byte[] bytes = new byte[length];
+        window.get(bytes);
+        return bytes;
+      }
+
+      @Nullable
+      private String readString() {
+        byte[] bytes = readBytes();
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      private void close() {
+        window = ByteBuffer.allocate(0);
+        windowStart = size;
+        try {
+          mapped.close();
+        } catch (IOException e) {
+          LOGGER.warn("Could not close temporary file", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * The attributes of a statement that are shared with all the statements rebuilt from the same
+   * template; statements that differ in any of them are rebuilt from different templates.
+   */
+  private static class Attributes {
+
+    private final PreparedStatement preparedStatement;
+    private final String executionProfileName;
+    private final DriverExecutionProfile executionProfile;
+    private final CqlIdentifier routingKeyspace;
+    private final Map<String, ByteBuffer> customPayload;
+    private final boolean tracing;
+    private final ByteBuffer pagingState;
+    private final int pageSize;
+    private final ConsistencyLevel consistencyLevel;
+    private final ConsistencyLevel serialConsistencyLevel;
+    private final Duration timeout;
+    private final Node node;
+
+    private Attributes(BoundStatement statement) {
+      preparedStatement = statement.getPreparedStatement();
+      executionProfileName = statement.getExecutionProfileName();
+      executionProfile = statement.getExecutionProfile();
+      routingKeyspace = statement.getRoutingKeyspace();
+      customPayload = statement.getCustomPayload();
+      tracing = statement.isTracing();
+      pagingState = statement.getPagingState();
+      pageSize = statement.getPageSize();
+      consistencyLevel = statement.getConsistencyLevel();
+      serialConsistencyLevel = statement.getSerialConsistencyLevel();
+      timeout = statement.getTimeout();
+      node = statement.getNode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Attributes)) {
+        return false;
+      }
+      Attributes that = (Attributes) o;
+      return preparedStatement == that.preparedStatement
+          && executionProfile == that.executionProfile
+          && tracing == that.tracing
+          && pageSize == that.pageSize
+          && Objects.equals(executionProfileName, that.executionProfileName)
+          && Objects.equals(routingKeyspace, that.routingKeyspace)
+          && Objects.equals(customPayload, that.customPayload)
+          && Objects.equals(pagingState, that.pagingState)
+          && Objects.equals(consistencyLevel, that.consistencyLevel)
+          && Objects.equals(serialConsistencyLevel, that.serialConsistencyLevel)
+          && Objects.equals(timeout, that.timeout)
+          && Objects.equals(node, that.node);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          System.identityHashCode(preparedStatement),
+          executionProfileName,
+          routingKeyspace,
+          customPayload,
+          tracing,
+          pagingState,
+          pageSize,
+          consistencyLevel,
+          serialConsistencyLevel,
+          timeout,
+          node);
+    }
+  }
+
+  /**
+   * A reusable in-memory output, used to compute the length of each statement before writing it.
+   */
+  private static class ByteArrayDataOutput {
+
+    private final ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream();
+    private final DataOutputStream data = new DataOutputStream(bytes);
+
+    private void reset() {
+      bytes.reset();
+    }
+
+    private int size() {
+      return bytes.size();
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      out.write(bytes.buffer(), 0, bytes.size());
+    }
+  }
+
+  private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private byte[] buffer() {
+      return buf;
+    }
+  }
+
+  private static class Entry {
+
+    private final Token token;
+    private final MappedBoundStatement statement;
+
+    private Entry(Token token, MappedBoundStatement statement) {
+      this.token = token;
+      this.statement = statement;
+    }
+  }
+}
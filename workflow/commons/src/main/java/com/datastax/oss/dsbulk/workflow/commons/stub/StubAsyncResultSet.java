@@ -0,0 +1,44 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/** A result set returned by {@link StubSession#executeAsync(Statement)}. */
+class StubAsyncResultSet extends StubPagingIterable<AsyncResultSet> implements AsyncResultSet {
+
+  StubAsyncResultSet(
+      @NonNull StubSession session,
+      @NonNull Statement<?> statement,
+      @NonNull ColumnDefinitions definitions,
+      @NonNull Node coordinator,
+      long totalRows,
+      int pageSize,
+      int pageNumber) {
+    super(session, statement, definitions, coordinator, totalRows, pageSize, pageNumber);
+  }
+
+  @NonNull
+  @Override
+  AsyncResultSet nextPage() {
+    return new StubAsyncResultSet(
+        session, statement, definitions, coordinator, totalRows, pageSize, pageNumber + 1);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.DataType;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/** A column definition for variables and result sets of statements prepared by a stub session. */
+class StubColumnDefinition implements ColumnDefinition {
+
+  private final CqlIdentifier keyspace;
+  private final CqlIdentifier table;
+  private final CqlIdentifier name;
+  private final DataType type;
+
+  StubColumnDefinition(
+      @NonNull CqlIdentifier keyspace,
+      @NonNull CqlIdentifier table,
+      @NonNull CqlIdentifier name,
+      @NonNull DataType type) {
+    this.keyspace = keyspace;
+    this.table = table;
+    this.name = name;
+    this.type = type;
+  }
+
+  @NonNull
+  @Override
+  public CqlIdentifier getKeyspace() {
+    return keyspace;
+  }
+
+  @NonNull
+  @Override
+  public CqlIdentifier getTable() {
+    return table;
+  }
+
+  @NonNull
+  @Override
+  public CqlIdentifier getName() {
+    return name;
+  }
+
+  @NonNull
+  @Override
+  public DataType getType() {
+    return type;
+  }
+
+  @Override
+  public boolean isDetached() {
+    return false;
+  }
+
+  @Override
+  public void attach(@NonNull AttachmentPoint attachmentPoint) {}
+
+  @Override
+  public String toString() {
+    return name.asCql(true) + " " + type.asCql(true, true);
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.dse.driver.api.core.cql.continuous.ContinuousAsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/** A result set returned by {@link StubSession#executeContinuouslyAsync(Statement)}. */
+class StubContinuousAsyncResultSet extends StubPagingIterable<ContinuousAsyncResultSet>
+    implements ContinuousAsyncResultSet {
+
+  private volatile boolean cancelled;
+
+  StubContinuousAsyncResultSet(
+      @NonNull StubSession session,
+      @NonNull Statement<?> statement,
+      @NonNull ColumnDefinitions definitions,
+      @NonNull Node coordinator,
+      long totalRows,
+      int pageSize,
+      int pageNumber) {
+    super(session, statement, definitions, coordinator, totalRows, pageSize, pageNumber);
+  }
+
+  @NonNull
+  @Override
+  ContinuousAsyncResultSet nextPage() {
+    return new StubContinuousAsyncResultSet(
+        session, statement, definitions, coordinator, totalRows, pageSize, pageNumber + 1);
+  }
+
+  @Override
+  public boolean hasMorePages() {
+    return !cancelled && super.hasMorePages();
+  }
+
+  @Override
+  public int pageNumber() {
+    return pageNumber;
+  }
+
+  @Override
+  public void cancel() {
+    cancelled = true;
+  }
+}
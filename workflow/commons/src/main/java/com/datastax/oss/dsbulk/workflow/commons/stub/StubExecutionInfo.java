@@ -0,0 +1,117 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.QueryTrace;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+/** The execution info of a response sent by a {@link StubSession}. */
+class StubExecutionInfo implements ExecutionInfo {
+
+  private final Statement<?> statement;
+  private final Node coordinator;
+
+  StubExecutionInfo(@NonNull Statement<?> statement, @NonNull Node coordinator) {
+    this.statement = statement;
+    this.coordinator = coordinator;
+  }
+
+  @NonNull
+  @Override
+  @Deprecated
+  public Statement<?> getStatement() {
+    return statement;
+  }
+
+  @NonNull
+  @Override
+  public Node getCoordinator() {
+    return coordinator;
+  }
+
+  @Override
+  public int getSpeculativeExecutionCount() {
+    return 0;
+  }
+
+  @Override
+  public int getSuccessfulExecutionIndex() {
+    return 0;
+  }
+
+  @NonNull
+  @Override
+  public List<Map.Entry<Node, Throwable>> getErrors() {
+    return Collections.emptyList();
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer getPagingState() {
+    return null;
+  }
+
+  @NonNull
+  @Override
+  public List<String> getWarnings() {
+    return Collections.emptyList();
+  }
+
+  @NonNull
+  @Override
+  public Map<String, ByteBuffer> getIncomingPayload() {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public boolean isSchemaInAgreement() {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public UUID getTracingId() {
+    return null;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<QueryTrace> getQueryTraceAsync() {
+    return CompletableFutures.failedFuture(
+        new IllegalStateException("Tracing is not available with a stub session"));
+  }
+
+  @Override
+  public int getResponseSizeInBytes() {
+    return -1;
+  }
+
+  @Override
+  public int getCompressedResponseSizeInBytes() {
+    return -1;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultKeyspaceMetadata;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultReplicationStrategyFactory;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3TokenFactory;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The metadata of a {@link StubSession}: a single-datacenter cluster of evenly-spaced nodes using
+ * the Murmur3 partitioner, and a single keyspace with a replication factor of 1, containing the
+ * stub table.
+ */
+class StubMetadata implements Metadata {
+
+  static final String CLUSTER_NAME = "stub";
+
+  private static final int PORT = 9042;
+
+  private final Map<UUID, Node> nodes;
+  private final Map<CqlIdentifier, KeyspaceMetadata> keyspaces;
+  private final TokenMap tokenMap;
+
+  StubMetadata(
+      @NonNull InternalDriverContext context, @NonNull TableMetadata table, int numberOfNodes) {
+    Map<UUID, Node> nodes = new LinkedHashMap<>();
+    BigInteger range = BigInteger.valueOf(2).pow(64).divide(BigInteger.valueOf(numberOfNodes));
+    for (int i = 0; i < numberOfNodes; i++) {
+      UUID hostId = new UUID(0, i + 1);
+      long token =
+          BigInteger.valueOf(Long.MIN_VALUE).add(range.multiply(BigInteger.valueOf(i))).longValue();
+      // 127.0.0.1, 127.0.0.2, etc.
+      InetSocketAddress address =
+          new InetSocketAddress(
+              String.format(
+                  "127.%d.%d.%d", (i + 1) >> 16 & 0xff, (i + 1) >> 8 & 0xff, (i + 1) & 0xff),
+              PORT);
+      nodes.put(
+          hostId,
+          new StubNode(new DefaultEndPoint(address), context, hostId, Long.toString(token)));
+    }
+    this.nodes = Collections.unmodifiableMap(nodes);
+    KeyspaceMetadata keyspace =
+        new DefaultKeyspaceMetadata(
+            table.getKeyspace(),
+            false,
+            false,
+            ImmutableMap.of(
+                "class", "org.apache.cassandra.locator.SimpleStrategy", "replication_factor", "1"),
+            Collections.emptyMap(),
+            ImmutableMap.of(table.getName(), table),
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            Collections.emptyMap());
+    this.keyspaces = ImmutableMap.of(keyspace.getName(), keyspace);
+    this.tokenMap =
+        DefaultTokenMap.build(
+            nodes.values(),
+            keyspaces.values(),
+            new Murmur3TokenFactory(),
+            new DefaultReplicationStrategyFactory(context),
+            context.getSessionName());
+  }
+
+  @NonNull
+  @Override
+  public Map<UUID, Node> getNodes() {
+    return nodes;
+  }
+
+  @NonNull
+  @Override
+  public Map<CqlIdentifier, KeyspaceMetadata> getKeyspaces() {
+    return keyspaces;
+  }
+
+  @NonNull
+  @Override
+  public Optional<TokenMap> getTokenMap() {
+    return Optional.of(tokenMap);
+  }
+
+  @NonNull
+  @Override
+  public Optional<String> getClusterName() {
+    return Optional.of(CLUSTER_NAME);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.dse.driver.api.core.metadata.DseNodeProperties;
+import com.datastax.oss.driver.api.core.Version;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A node of a {@link StubSession}. Stub nodes are always up, and pretend to be DSE nodes, so that
+ * continuous paging can be exercised as well.
+ */
+class StubNode extends DefaultNode {
+
+  static final String DATACENTER = "dc1";
+  static final String RACK = "rack1";
+
+  private static final Version CASSANDRA_VERSION = Version.parse("4.0.0");
+  private static final Version DSE_VERSION = Version.parse("6.8.0");
+  private static final UUID SCHEMA_VERSION = new UUID(0, 0);
+
+  private final UUID hostId;
+  private final Set<String> rawTokens;
+  private final Map<String, Object> extras;
+
+  StubNode(EndPoint endPoint, InternalDriverContext context, UUID hostId, String rawToken) {
+    super(endPoint, context);
+    this.hostId = hostId;
+    this.rawTokens = ImmutableSet.of(rawToken);
+    this.extras = ImmutableMap.of(DseNodeProperties.DSE_VERSION, DSE_VERSION);
+  }
+
+  @Override
+  public Optional<InetSocketAddress> getBroadcastRpcAddress() {
+    return Optional.of((InetSocketAddress) getEndPoint().resolve());
+  }
+
+  @Override
+  public String getDatacenter() {
+    return DATACENTER;
+  }
+
+  @Override
+  public String getRack() {
+    return RACK;
+  }
+
+  @Override
+  public Version getCassandraVersion() {
+    return CASSANDRA_VERSION;
+  }
+
+  @Override
+  public UUID getHostId() {
+    return hostId;
+  }
+
+  @Override
+  public UUID getSchemaVersion() {
+    return SCHEMA_VERSION;
+  }
+
+  @Override
+  public Map<String, Object> getExtras() {
+    return extras;
+  }
+
+  @Override
+  public NodeState getState() {
+    return NodeState.UP;
+  }
+
+  @Override
+  public int getOpenConnections() {
+    return 1;
+  }
+
+  @Override
+  public NodeDistance getDistance() {
+    return NodeDistance.LOCAL;
+  }
+
+  @Override
+  public Set<String> getRawTokens() {
+    return rawTokens;
+  }
+}
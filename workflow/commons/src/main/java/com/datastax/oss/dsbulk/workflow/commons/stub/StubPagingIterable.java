@@ -0,0 +1,138 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.AsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Base class for result sets returned by a {@link StubSession}.
+ *
+ * <p>A result set covers a fixed number of synthetic rows, split in pages of equal size; each call
+ * to {@link #fetchNextPage()} completes after the session's configured latency.
+ */
+abstract class StubPagingIterable<SelfT extends AsyncPagingIterable<Row, SelfT>>
+    implements AsyncPagingIterable<Row, SelfT> {
+
+  final StubSession session;
+  final Statement<?> statement;
+  final ColumnDefinitions definitions;
+  final Node coordinator;
+  final long totalRows;
+  final int pageSize;
+  final int pageNumber;
+
+  private final List<Row> rows;
+  private final Iterator<Row> iterator;
+  private int remaining;
+
+  StubPagingIterable(
+      @NonNull StubSession session,
+      @NonNull Statement<?> statement,
+      @NonNull ColumnDefinitions definitions,
+      @NonNull Node coordinator,
+      long totalRows,
+      int pageSize,
+      int pageNumber) {
+    this.session = session;
+    this.statement = statement;
+    this.definitions = definitions;
+    this.coordinator = coordinator;
+    this.totalRows = totalRows;
+    this.pageSize = pageSize;
+    this.pageNumber = pageNumber;
+    long offset = (long) (pageNumber - 1) * pageSize;
+    this.rows =
+        session.generateRows(definitions, offset, (int) Math.min(pageSize, totalRows - offset));
+    this.remaining = rows.size();
+    this.iterator = new PageIterator();
+  }
+
+  /** Creates the result set for the page following this one. */
+  @NonNull
+  abstract SelfT nextPage();
+
+  @NonNull
+  @Override
+  public ColumnDefinitions getColumnDefinitions() {
+    return definitions;
+  }
+
+  @NonNull
+  @Override
+  public ExecutionInfo getExecutionInfo() {
+    return new StubExecutionInfo(statement, coordinator);
+  }
+
+  @Override
+  public int remaining() {
+    return remaining;
+  }
+
+  @NonNull
+  @Override
+  public Iterable<Row> currentPage() {
+    return () -> iterator;
+  }
+
+  @Override
+  public boolean hasMorePages() {
+    return (long) pageNumber * pageSize < totalRows;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<SelfT> fetchNextPage() throws IllegalStateException {
+    if (!hasMorePages()) {
+      throw new IllegalStateException(
+          "No next page. Use #hasMorePages before calling this method to avoid this error.");
+    }
+    return session.respond(this::nextPage);
+  }
+
+  @Override
+  public boolean wasApplied() {
+    return true;
+  }
+
+  private class PageIterator implements Iterator<Row> {
+
+    private int index = 0;
+
+    @Override
+    public boolean hasNext() {
+      return index < rows.size();
+    }
+
+    @Override
+    public Row next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      remaining--;
+      return rows.get(index++);
+    }
+  }
+}
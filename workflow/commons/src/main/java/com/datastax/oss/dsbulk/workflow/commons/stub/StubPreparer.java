@@ -0,0 +1,277 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PrepareRequest;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.DefaultPreparedStatement;
+import com.datastax.oss.dsbulk.mapping.CQLFragment;
+import com.datastax.oss.dsbulk.mapping.CQLRenderMode;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.mapping.FunctionCall;
+import com.datastax.oss.dsbulk.workflow.commons.schema.QueryInspector;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Prepares statements on behalf of a {@link StubSession}, by inferring the variables and the result
+ * set of each query from the stub schema, as a real cluster would do.
+ *
+ * <p>Only named bind markers are supported, since positional bind markers cannot be reliably
+ * associated with a column without fully parsing the query; all the queries generated by DSBulk use
+ * named bind markers.
+ */
+class StubPreparer {
+
+  private static final CQLWord WRITETIME = CQLWord.fromInternal("writetime");
+  private static final CQLWord TTL = CQLWord.fromInternal("ttl");
+  private static final CQLWord TOKEN = CQLWord.fromInternal("token");
+
+  private final InternalDriverContext context;
+  private final Metadata metadata;
+
+  StubPreparer(@NonNull InternalDriverContext context, @NonNull Metadata metadata) {
+    this.context = context;
+    this.metadata = metadata;
+  }
+
+  @NonNull
+  PreparedStatement prepare(@NonNull PrepareRequest request, @Nullable CqlIdentifier keyspace) {
+    String query = request.getQuery();
+    QueryInspector inspector = new QueryInspector(query);
+    CqlIdentifier keyspaceName =
+        inspector.getKeyspaceName().map(CQLWord::asIdentifier).orElse(keyspace);
+    if (keyspaceName == null) {
+      throw new IllegalArgumentException("No keyspace has been specified for query: " + query);
+    }
+    CqlIdentifier tableName = inspector.getTableName().asIdentifier();
+    TableMetadata table =
+        metadata
+            .getKeyspace(keyspaceName)
+            .flatMap(ks -> ks.getTable(tableName))
+            .orElseThrow(
+                () ->
+                    new IllegalArgumentException(
+                        String.format(
+                            "Table %s.%s does not exist in the stub schema",
+                            keyspaceName.asCql(true), tableName.asCql(true))));
+    List<ColumnDefinition> variables = new ArrayList<>();
+    List<CqlIdentifier> variableColumns = new ArrayList<>();
+    for (CQLWord variable : parseBindMarkers(query)) {
+      CqlIdentifier column = resolveColumn(variable, inspector, table);
+      DataType type =
+          column == null
+              ? resolveType(variable, inspector, query)
+              : table
+                  .getColumn(column)
+                  .map(ColumnMetadata::getType)
+                  .orElseThrow(AssertionError::new);
+      variables.add(
+          new StubColumnDefinition(keyspaceName, tableName, variable.asIdentifier(), type));
+      variableColumns.add(column);
+    }
+    List<Integer> partitionKeyIndices = new ArrayList<>();
+    for (ColumnMetadata pk : table.getPartitionKey()) {
+      int index = variableColumns.indexOf(pk.getName());
+      if (index == -1) {
+        partitionKeyIndices.clear();
+        break;
+      }
+      partitionKeyIndices.add(index);
+    }
+    return new DefaultPreparedStatement(
+        ByteBuffer.wrap(
+            UUID.nameUUIDFromBytes(query.getBytes(StandardCharsets.UTF_8))
+                .toString()
+                .getBytes(StandardCharsets.UTF_8)),
+        query,
+        DefaultColumnDefinitions.valueOf(variables),
+        partitionKeyIndices,
+        null,
+        inferResultSetDefinitions(inspector, table, query),
+        keyspaceName,
+        Collections.emptyMap(),
+        request.getExecutionProfileNameForBoundStatements(),
+        request.getExecutionProfileForBoundStatements(),
+        request.getRoutingKeyspaceForBoundStatements(),
+        request.getRoutingKeyForBoundStatements(),
+        request.getRoutingTokenForBoundStatements(),
+        request.getCustomPayloadForBoundStatements(),
+        request.areBoundStatementsIdempotent(),
+        request.getTimeoutForBoundStatements(),
+        request.getPagingStateForBoundStatements(),
+        request.getPageSizeForBoundStatements(),
+        request.getConsistencyLevelForBoundStatements(),
+        request.getSerialConsistencyLevelForBoundStatements(),
+        request.areBoundStatementsTracing(),
+        context.getCodecRegistry(),
+        context.getProtocolVersion());
+  }
+
+  /**
+   * Returns the column that the given variable is assigned to or compared with, or null if the
+   * variable does not correspond to any column.
+   */
+  @Nullable
+  private static CqlIdentifier resolveColumn(
+      CQLWord variable, QueryInspector inspector, TableMetadata table) {
+    if (variable.equals(inspector.getTokenRangeRestrictionStartVariable().orElse(null))
+        || variable.equals(inspector.getTokenRangeRestrictionEndVariable().orElse(null))
+        || variable.equals(inspector.getUsingTTLVariable().orElse(null))
+        || variable.equals(inspector.getUsingTimestampVariable().orElse(null))) {
+      return null;
+    }
+    for (Map.Entry<CQLWord, CQLFragment> entry : inspector.getAssignments().entrySet()) {
+      if (entry.getValue().equals(variable)
+          && table.getColumn(entry.getKey().asIdentifier()).isPresent()) {
+        return entry.getKey().asIdentifier();
+      }
+    }
+    return table.getColumn(variable.asIdentifier()).isPresent() ? variable.asIdentifier() : null;
+  }
+
+  @NonNull
+  private static DataType resolveType(CQLWord variable, QueryInspector inspector, String query) {
+    if (variable.equals(inspector.getUsingTTLVariable().orElse(null))) {
+      return DataTypes.INT;
+    }
+    if (variable.equals(inspector.getUsingTimestampVariable().orElse(null))
+        || variable.equals(inspector.getTokenRangeRestrictionStartVariable().orElse(null))
+        || variable.equals(inspector.getTokenRangeRestrictionEndVariable().orElse(null))) {
+      // Murmur3 tokens are bigints
+      return DataTypes.BIGINT;
+    }
+    throw new IllegalArgumentException(
+        String.format(
+            "Cannot infer the type of variable %s in query: %s",
+            variable.render(CQLRenderMode.VARIABLE), query));
+  }
+
+  @NonNull
+  private static ColumnDefinitions inferResultSetDefinitions(
+      QueryInspector inspector, TableMetadata table, String query) {
+    List<ColumnDefinition> definitions = new ArrayList<>();
+    if (inspector.isSelectStar()) {
+      for (ColumnMetadata column : table.getColumns().values()) {
+        definitions.add(
+            new StubColumnDefinition(
+                table.getKeyspace(), table.getName(), column.getName(), column.getType()));
+      }
+    } else {
+      if (inspector.hasUnsupportedSelectors()) {
+        throw new IllegalArgumentException("Unsupported selectors in query: " + query);
+      }
+      for (Map.Entry<CQLFragment, CQLFragment> entry :
+          inspector.getResultSetVariables().entrySet()) {
+        CQLFragment selector = entry.getKey();
+        DataType type = null;
+        if (selector instanceof CQLWord) {
+          type =
+              table
+                  .getColumn(((CQLWord) selector).asIdentifier())
+                  .map(ColumnMetadata::getType)
+                  .orElse(null);
+        } else if (selector instanceof FunctionCall) {
+          CQLWord function = ((FunctionCall) selector).getFunctionName();
+          if (function.equals(WRITETIME) || function.equals(TOKEN)) {
+            type = DataTypes.BIGINT;
+          } else if (function.equals(TTL)) {
+            type = DataTypes.INT;
+          }
+        }
+        if (type == null) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "Cannot infer the type of selector %s in query: %s",
+                  selector.render(CQLRenderMode.UNALIASED_SELECTOR), query));
+        }
+        CqlIdentifier name =
+            CqlIdentifier.fromInternal(entry.getValue().render(CQLRenderMode.INTERNAL));
+        definitions.add(new StubColumnDefinition(table.getKeyspace(), table.getName(), name, type));
+      }
+    }
+    return DefaultColumnDefinitions.valueOf(definitions);
+  }
+
+  /** Returns the named bind markers of the given query, in order of appearance. */
+  @NonNull
+  static List<CQLWord> parseBindMarkers(@NonNull String query) {
+    List<CQLWord> markers = new ArrayList<>();
+    int i = 0;
+    while (i < query.length()) {
+      char c = query.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(query, i);
+      } else if (c == '?') {
+        throw new IllegalArgumentException(
+            "Positional bind markers are not supported with a stub session: " + query);
+      } else if (c == ':' && i + 1 < query.length()) {
+        int start = i + 1;
+        char next = query.charAt(start);
+        if (next == '"') {
+          i = skipQuoted(query, start);
+          markers.add(CQLWord.fromCql(query.substring(start, i)));
+        } else if (Character.isLetter(next)) {
+          i = start;
+          while (i < query.length()
+              && (Character.isLetterOrDigit(query.charAt(i)) || query.charAt(i) == '_')) {
+            i++;
+          }
+          markers.add(CQLWord.fromCql(query.substring(start, i)));
+        } else {
+          i++;
+        }
+      } else {
+        i++;
+      }
+    }
+    return markers;
+  }
+
+  /** Returns the index right after the quoted string or identifier starting at the given index. */
+  private static int skipQuoted(String query, int start) {
+    char quote = query.charAt(start);
+    int i = start + 1;
+    while (i < query.length()) {
+      if (query.charAt(i) == quote) {
+        if (i + 1 < query.length() && query.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return i;
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultColumnMetadata;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultTableMetadata;
+import com.datastax.oss.driver.internal.core.metadata.schema.parsing.DataTypeCqlNameParser;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A minimal parser for CREATE TABLE statements, used to describe the table exposed by a {@link
+ * StubSession}.
+ *
+ * <p>Only the table name, the column definitions and the primary key are parsed; the clustering
+ * order is also honored if present. All other table options are ignored. The table name must be
+ * qualified with a keyspace name. User-defined types are not supported.
+ */
+class StubSchemaParser {
+
+  private static final Pattern CREATE_TABLE =
+      Pattern.compile(
+          "^\\s*CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?", Pattern.CASE_INSENSITIVE);
+
+  private static final Pattern PRIMARY_KEY =
+      Pattern.compile("^PRIMARY\\s+KEY\\s*\\((.*)\\)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private static final Pattern CLUSTERING_ORDER =
+      Pattern.compile(
+          "CLUSTERING\\s+ORDER\\s+BY\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private static final Pattern COLUMN_PRIMARY_KEY =
+      Pattern.compile("\\s+PRIMARY\\s+KEY$", Pattern.CASE_INSENSITIVE);
+
+  private static final Pattern COLUMN_STATIC =
+      Pattern.compile("\\s+STATIC$", Pattern.CASE_INSENSITIVE);
+
+  private static final DataTypeCqlNameParser TYPE_PARSER = new DataTypeCqlNameParser();
+
+  @NonNull
+  static TableMetadata parseTable(@NonNull String ddl, @NonNull InternalDriverContext context) {
+    String statement = ddl.trim();
+    if (statement.endsWith(";")) {
+      statement = statement.substring(0, statement.length() - 1);
+    }
+    Matcher matcher = CREATE_TABLE.matcher(statement);
+    if (!matcher.find()) {
+      throw new IllegalArgumentException("Expecting a CREATE TABLE statement, got: " + ddl);
+    }
+    int open = statement.indexOf('(', matcher.end());
+    if (open == -1) {
+      throw new IllegalArgumentException("Missing column definitions in: " + ddl);
+    }
+    int close = findClosingParenthesis(statement, open);
+    List<String> name = split(statement.substring(matcher.end(), open).trim(), '.');
+    if (name.size() != 2) {
+      throw new IllegalArgumentException(
+          "Expecting table name to be qualified with a keyspace name, got: "
+              + statement.substring(matcher.end(), open).trim());
+    }
+    CqlIdentifier keyspace = CqlIdentifier.fromCql(name.get(0).trim());
+    CqlIdentifier table = CqlIdentifier.fromCql(name.get(1).trim());
+    Map<CqlIdentifier, DataType> types = new LinkedHashMap<>();
+    List<CqlIdentifier> staticColumns = new ArrayList<>();
+    List<CqlIdentifier> partitionKey = new ArrayList<>();
+    List<CqlIdentifier> clusteringColumns = new ArrayList<>();
+    for (String definition : split(statement.substring(open + 1, close), ',')) {
+      definition = definition.trim();
+      Matcher primaryKey = PRIMARY_KEY.matcher(definition);
+      if (primaryKey.matches()) {
+        if (!partitionKey.isEmpty()) {
+          throw new IllegalArgumentException("Multiple primary keys defined in: " + ddl);
+        }
+        parsePrimaryKey(primaryKey.group(1), partitionKey, clusteringColumns);
+      } else {
+        int space = identifierEnd(definition);
+        CqlIdentifier column = CqlIdentifier.fromCql(definition.substring(0, space));
+        String type = definition.substring(space);
+        Matcher columnPrimaryKey = COLUMN_PRIMARY_KEY.matcher(type);
+        if (columnPrimaryKey.find()) {
+          if (!partitionKey.isEmpty()) {
+            throw new IllegalArgumentException("Multiple primary keys defined in: " + ddl);
+          }
+          partitionKey.add(column);
+          type = type.substring(0, columnPrimaryKey.start());
+        }
+        Matcher columnStatic = COLUMN_STATIC.matcher(type);
+        if (columnStatic.find()) {
+          staticColumns.add(column);
+          type = type.substring(0, columnStatic.start());
+        }
+        types.put(
+            column,
+            TYPE_PARSER.parse(
+                keyspace, type.trim().toLowerCase(Locale.ROOT), Collections.emptyMap(), context));
+      }
+    }
+    if (partitionKey.isEmpty()) {
+      throw new IllegalArgumentException("No primary key defined in: " + ddl);
+    }
+    Map<CqlIdentifier, ClusteringOrder> orders =
+        parseClusteringOrder(statement.substring(close + 1));
+    Map<CqlIdentifier, ColumnMetadata> columns = new LinkedHashMap<>();
+    List<ColumnMetadata> partitionKeyColumns = new ArrayList<>();
+    Map<ColumnMetadata, ClusteringOrder> clusteringColumnsOrder = new LinkedHashMap<>();
+    for (CqlIdentifier column : partitionKey) {
+      ColumnMetadata metadata = newColumn(keyspace, table, column, types, false);
+      partitionKeyColumns.add(metadata);
+      columns.put(column, metadata);
+    }
+    for (CqlIdentifier column : clusteringColumns) {
+      ColumnMetadata metadata = newColumn(keyspace, table, column, types, false);
+      clusteringColumnsOrder.put(metadata, orders.getOrDefault(column, ClusteringOrder.ASC));
+      columns.put(column, metadata);
+    }
+    // regular columns are returned in alphabetical order, like Cassandra does
+    types.keySet().stream()
+        .filter(column -> !columns.containsKey(column))
+        .sorted(Comparator.comparing(CqlIdentifier::asInternal))
+        .forEach(
+            column ->
+                columns.put(
+                    column,
+                    newColumn(keyspace, table, column, types, staticColumns.contains(column))));
+    return new DefaultTableMetadata(
+        keyspace,
+        table,
+        UUID.nameUUIDFromBytes(table.asInternal().getBytes(StandardCharsets.UTF_8)),
+        false,
+        false,
+        partitionKeyColumns,
+        clusteringColumnsOrder,
+        columns,
+        Collections.emptyMap(),
+        Collections.emptyMap());
+  }
+
+  private static void parsePrimaryKey(
+      String definition, List<CqlIdentifier> partitionKey, List<CqlIdentifier> clusteringColumns) {
+    List<String> elements = split(definition, ',');
+    String first = elements.get(0).trim();
+    if (first.startsWith("(")) {
+      for (String column : split(first.substring(1, findClosingParenthesis(first, 0)), ',')) {
+        partitionKey.add(CqlIdentifier.fromCql(column.trim()));
+      }
+    } else {
+      partitionKey.add(CqlIdentifier.fromCql(first));
+    }
+    for (String column : elements.subList(1, elements.size())) {
+      clusteringColumns.add(CqlIdentifier.fromCql(column.trim()));
+    }
+  }
+
+  private static Map<CqlIdentifier, ClusteringOrder> parseClusteringOrder(String options) {
+    Map<CqlIdentifier, ClusteringOrder> orders = new LinkedHashMap<>();
+    Matcher matcher = CLUSTERING_ORDER.matcher(options);
+    if (matcher.find()) {
+      for (String element : split(matcher.group(1), ',')) {
+        element = element.trim();
+        int space = identifierEnd(element);
+        String order = element.substring(space).trim();
+        orders.put(
+            CqlIdentifier.fromCql(element.substring(0, space)),
+            order.equalsIgnoreCase("DESC") ? ClusteringOrder.DESC : ClusteringOrder.ASC);
+      }
+    }
+    return orders;
+  }
+
+  private static ColumnMetadata newColumn(
+      CqlIdentifier keyspace,
+      CqlIdentifier table,
+      CqlIdentifier column,
+      Map<CqlIdentifier, DataType> types,
+      boolean isStatic) {
+    DataType type = types.get(column);
+    if (type == null) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Primary key column %s is not defined in table %s.",
+              column.asCql(true), table.asCql(true)));
+    }
+    return new DefaultColumnMetadata(keyspace, table, column, type, isStatic);
+  }
+
+  /**
+   * Splits the given string at each occurrence of the separator that is not enclosed in
+   * parentheses, angle brackets or double quotes.
+   */
+  private static List<String> split(String s, char separator) {
+    List<String> elements = new ArrayList<>();
+    int depth = 0;
+    boolean quoted = false;
+    int start = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (!quoted) {
+        if (c == '(' || c == '<') {
+          depth++;
+        } else if (c == ')' || c == '>') {
+          depth--;
+        } else if (c == separator && depth == 0) {
+          elements.add(s.substring(start, i));
+          start = i + 1;
+        }
+      }
+    }
+    elements.add(s.substring(start));
+    return elements;
+  }
+
+  private static int findClosingParenthesis(String s, int open) {
+    int depth = 0;
+    boolean quoted = false;
+    for (int i = open; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (!quoted) {
+        if (c == '(') {
+          depth++;
+        } else if (c == ')' && --depth == 0) {
+          return i;
+        }
+      }
+    }
+    throw new IllegalArgumentException("Unbalanced parentheses in: " + s);
+  }
+
+  /** Returns the index right after the (possibly quoted) identifier at the start of s. */
+  private static int identifierEnd(String s) {
+    if (s.startsWith("\"")) {
+      int i = 1;
+      while (i < s.length()) {
+        if (s.charAt(i) == '"') {
+          if (i + 1 < s.length() && s.charAt(i + 1) == '"') {
+            i += 2;
+            continue;
+          }
+          return i + 1;
+        }
+        i++;
+      }
+      throw new IllegalArgumentException("Unterminated quoted identifier: " + s);
+    }
+    int i = 0;
+    while (i < s.length() && !Character.isWhitespace(s.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.dse.driver.api.core.config.DseDriverOption;
+import com.datastax.dse.driver.internal.core.cql.continuous.ContinuousCqlRequestAsyncProcessor;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PrepareRequest;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.Metrics;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.cql.DefaultRow;
+import com.datastax.oss.driver.internal.core.cql.EmptyColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.ResultSets;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.util.concurrent.Future;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link CqlSession} that does not connect to any cluster, and answers all requests from memory
+ * instead. Its main purpose is to measure the maximum throughput that DSBulk can achieve on the
+ * client side, and to profile DSBulk without a cluster.
+ *
+ * <p>The session exposes a single table, described by a CREATE TABLE statement. Statements are
+ * prepared against that table, as a real cluster would do. Write requests complete with an empty
+ * result; read requests, including continuous paging requests, return a fixed number of synthetic
+ * rows, split in pages according to the configured page size. All responses, including subsequent
+ * pages, are delivered on a dedicated pool of threads, after the configured latency.
+ */
+public class StubSession implements CqlSession {
+
+  private static final Pattern USE_KEYSPACE =
+      Pattern.compile("^\\s*USE\\s+(\\S+?)\\s*;?\\s*$", Pattern.CASE_INSENSITIVE);
+
+  /** The number of distinct synthetic rows generated for each result set definition. */
+  private static final int ROW_POOL_SIZE = 1024;
+
+  private final InternalDriverContext context;
+  private final StubMetadata metadata;
+  private final StubPreparer preparer;
+  private final long latencyNanos;
+  private final long rowsPerRead;
+  private final List<Node> nodes;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicInteger coordinatorIndex = new AtomicInteger();
+  private final ConcurrentMap<ColumnDefinitions, List<List<ByteBuffer>>> rowValues =
+      new ConcurrentHashMap<>();
+  private final CompletableFuture<Void> closeFuture = new CompletableFuture<>();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private volatile CqlIdentifier keyspace;
+
+  /**
+   * Creates a new stub session.
+   *
+   * @param context The driver context to use; it will be used to access the driver configuration,
+   *     the codec registry and the protocol version, but will not be used to open connections.
+   * @param schema A CREATE TABLE statement describing the table exposed by this session.
+   * @param numberOfNodes The number of nodes in the stub cluster; must be strictly positive.
+   * @param latency The latency of each request, including requests for subsequent pages.
+   * @param rowsPerRead The number of rows returned by each read request.
+   * @throws IllegalArgumentException if the schema cannot be parsed.
+   */
+  public StubSession(
+      @NonNull InternalDriverContext context,
+      @NonNull String schema,
+      int numberOfNodes,
+      @NonNull Duration latency,
+      long rowsPerRead) {
+    this.context = context;
+    if (!context.getConfig().getDefaultProfile().isDefined(DefaultDriverOption.PROTOCOL_VERSION)) {
+      // there is no protocol negotiation: use the highest version supported by the driver
+      context
+          .getChannelFactory()
+          .setProtocolVersion(context.getProtocolVersionRegistry().highestNonBeta());
+    }
+    this.metadata =
+        new StubMetadata(context, StubSchemaParser.parseTable(schema, context), numberOfNodes);
+    this.preparer = new StubPreparer(context, metadata);
+    this.latencyNanos = latency.toNanos();
+    this.rowsPerRead = rowsPerRead;
+    this.nodes = new ArrayList<>(metadata.getNodes().values());
+    this.scheduler =
+        Executors.newScheduledThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("stub-session-%d").build());
+  }
+
+  @NonNull
+  @Override
+  public String getName() {
+    return context.getSessionName();
+  }
+
+  @NonNull
+  @Override
+  public Metadata getMetadata() {
+    return metadata;
+  }
+
+  @Override
+  public boolean isSchemaMetadataEnabled() {
+    return true;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Metadata> setSchemaMetadataEnabled(@Nullable Boolean newValue) {
+    return CompletableFuture.completedFuture(metadata);
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Metadata> refreshSchemaAsync() {
+    return CompletableFuture.completedFuture(metadata);
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Boolean> checkSchemaAgreementAsync() {
+    return CompletableFuture.completedFuture(true);
+  }
+
+  @NonNull
+  @Override
+  public DriverContext getContext() {
+    return context;
+  }
+
+  @NonNull
+  @Override
+  public Optional<CqlIdentifier> getKeyspace() {
+    return Optional.ofNullable(keyspace);
+  }
+
+  @NonNull
+  @Override
+  public Optional<Metrics> getMetrics() {
+    return Optional.empty();
+  }
+
+  @Nullable
+  @Override
+  @SuppressWarnings("unchecked")
+  public <RequestT extends Request, ResultT> ResultT execute(
+      @NonNull RequestT request, @NonNull GenericType<ResultT> resultType) {
+    if (resultType.equals(Statement.ASYNC)) {
+      return (ResultT) executeStatement((Statement<?>) request, false);
+    } else if (resultType.equals(Statement.SYNC)) {
+      return (ResultT)
+          ResultSets.newInstance(
+              (AsyncResultSet)
+                  CompletableFutures.getUninterruptibly(
+                      executeStatement((Statement<?>) request, false)));
+    } else if (resultType.equals(ContinuousCqlRequestAsyncProcessor.CONTINUOUS_RESULT_ASYNC)) {
+      return (ResultT) executeStatement((Statement<?>) request, true);
+    } else if (resultType.equals(PrepareRequest.ASYNC)) {
+      try {
+        return (ResultT)
+            CompletableFuture.completedFuture(preparer.prepare((PrepareRequest) request, keyspace));
+      } catch (RuntimeException e) {
+        return (ResultT) CompletableFutures.failedFuture(e);
+      }
+    } else if (resultType.equals(PrepareRequest.SYNC)) {
+      return (ResultT) preparer.prepare((PrepareRequest) request, keyspace);
+    }
+    throw new IllegalArgumentException(
+        String.format(
+            "Unsupported request type with a stub session: %s (%s)",
+            request.getClass().getName(), resultType));
+  }
+
+  @NonNull
+  private CompletionStage<?> executeStatement(@NonNull Statement<?> statement, boolean continuous) {
+    if (statement instanceof SimpleStatement) {
+      Matcher matcher = USE_KEYSPACE.matcher(((SimpleStatement) statement).getQuery());
+      if (matcher.matches()) {
+        keyspace = CqlIdentifier.fromCql(matcher.group(1));
+      }
+    }
+    ColumnDefinitions definitions = EmptyColumnDefinitions.INSTANCE;
+    if (statement instanceof BoundStatement) {
+      definitions = ((BoundStatement) statement).getPreparedStatement().getResultSetDefinitions();
+    }
+    // requests that return no columns are considered writes, and return no rows
+    long totalRows = definitions.size() == 0 ? 0 : rowsPerRead;
+    int pageSize = getPageSize(statement, continuous);
+    Node coordinator = nodes.get(Math.floorMod(coordinatorIndex.getAndIncrement(), nodes.size()));
+    ColumnDefinitions columns = definitions;
+    if (continuous) {
+      return respond(
+          () ->
+              new StubContinuousAsyncResultSet(
+                  this, statement, columns, coordinator, totalRows, pageSize, 1));
+    }
+    return respond(
+        () ->
+            new StubAsyncResultSet(this, statement, columns, coordinator, totalRows, pageSize, 1));
+  }
+
+  private int getPageSize(@NonNull Statement<?> statement, boolean continuous) {
+    if (statement.getPageSize() > 0) {
+      return statement.getPageSize();
+    }
+    DriverExecutionProfile profile = statement.getExecutionProfile();
+    if (profile == null) {
+      String profileName = statement.getExecutionProfileName();
+      profile =
+          profileName == null || profileName.isEmpty()
+              ? context.getConfig().getDefaultProfile()
+              : context.getConfig().getProfile(profileName);
+    }
+    if (continuous && !profile.getBoolean(DseDriverOption.CONTINUOUS_PAGING_PAGE_SIZE_BYTES)) {
+      return profile.getInt(DseDriverOption.CONTINUOUS_PAGING_PAGE_SIZE);
+    }
+    return profile.getInt(DefaultDriverOption.REQUEST_PAGE_SIZE);
+  }
+
+  /**
+   * Completes the returned future with the given response on one of the session's threads, after
+   * the configured latency.
+   */
+  @NonNull
+  @SuppressWarnings("FutureReturnValueIgnored") // the task completes the response future itself
+  <T> CompletionStage<T> respond(@NonNull Supplier<T> response) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    Runnable task =
+        () -> {
+          try {
+            future.complete(response.get());
+          } catch (Throwable t) {
+            future.completeExceptionally(t);
+          }
+        };
+    try {
+      if (latencyNanos > 0) {
+        scheduler.schedule(task, latencyNanos, TimeUnit.NANOSECONDS);
+      } else {
+        scheduler.execute(task);
+      }
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(new IllegalStateException("Session is closed", e));
+    }
+    return future;
+  }
+
+  /** Returns the given number of synthetic rows, starting at the given offset. */
+  @NonNull
+  List<Row> generateRows(@NonNull ColumnDefinitions definitions, long offset, int count) {
+    List<Row> rows = new ArrayList<>(Math.max(count, 0));
+    if (count <= 0) {
+      return rows;
+    }
+    List<List<ByteBuffer>> values = rowValues.computeIfAbsent(definitions, this::generateValues);
+    for (int i = 0; i < count; i++) {
+      rows.add(
+          new DefaultRow(definitions, values.get((int) ((offset + i) % ROW_POOL_SIZE)), context));
+    }
+    return rows;
+  }
+
+  @NonNull
+  private List<List<ByteBuffer>> generateValues(@NonNull ColumnDefinitions definitions) {
+    List<TypeCodec<Object>> codecs = new ArrayList<>(definitions.size());
+    for (int i = 0; i < definitions.size(); i++) {
+      codecs.add(context.getCodecRegistry().codecFor(definitions.get(i).getType()));
+    }
+    List<List<ByteBuffer>> values = new ArrayList<>(ROW_POOL_SIZE);
+    for (int index = 0; index < ROW_POOL_SIZE; index++) {
+      List<ByteBuffer> row = new ArrayList<>(definitions.size());
+      for (int i = 0; i < definitions.size(); i++) {
+        DataType type = definitions.get(i).getType();
+        row.add(
+            codecs.get(i).encode(StubValues.newValue(type, index), context.getProtocolVersion()));
+      }
+      values.add(Collections.unmodifiableList(row));
+    }
+    return values;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> closeFuture() {
+    return closeFuture;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> closeAsync() {
+    if (closed.compareAndSet(false, true)) {
+      scheduler.shutdown();
+      closeContext(false);
+    }
+    return closeFuture;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> forceCloseAsync() {
+    scheduler.shutdownNow();
+    if (closed.compareAndSet(false, true)) {
+      closeContext(true);
+    }
+    return closeFuture;
+  }
+
+  /**
+   * Releases the resources held by the driver context. No connections are ever opened, so only the
+   * configuration loader and the Netty event loops and timer, which callers may have used through
+   * {@link #getContext()}, need to be closed, just like a regular session would do.
+   */
+  @SuppressWarnings("FutureReturnValueIgnored") // addListener returns nettyClosed itself
+  private void closeContext(boolean force) {
+    try {
+      context.getConfigLoader().close();
+      Future<Void> nettyClosed = context.getNettyOptions().onClose();
+      if (force) {
+        closeFuture.complete(null);
+      } else {
+        nettyClosed.addListener(
+            future -> {
+              if (future.isSuccess()) {
+                closeFuture.complete(null);
+              } else {
+                closeFuture.completeExceptionally(future.cause());
+              }
+            });
+      }
+    } catch (Throwable t) {
+      closeFuture.completeExceptionally(t);
+    }
+  }
+}
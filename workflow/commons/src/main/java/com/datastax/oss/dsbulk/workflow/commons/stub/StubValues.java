@@ -0,0 +1,112 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import com.datastax.oss.driver.api.core.data.CqlDuration;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.MapType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.driver.api.core.type.TupleType;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/** Generates synthetic values for the rows returned by a {@link StubSession}. */
+class StubValues {
+
+  /**
+   * Returns a synthetic value for the given CQL type; distinct indices produce distinct values, at
+   * least for the most common types.
+   *
+   * @param type The CQL type of the value to generate.
+   * @param index The index of the value to generate.
+   * @return A synthetic value.
+   * @throws IllegalArgumentException if the CQL type is not supported.
+   */
+  @NonNull
+  static Object newValue(@NonNull DataType type, int index) {
+    switch (type.getProtocolCode()) {
+      case ProtocolConstants.DataType.ASCII:
+      case ProtocolConstants.DataType.VARCHAR:
+        return "value" + index;
+      case ProtocolConstants.DataType.BIGINT:
+      case ProtocolConstants.DataType.COUNTER:
+        return (long) index;
+      case ProtocolConstants.DataType.INT:
+        return index;
+      case ProtocolConstants.DataType.SMALLINT:
+        return (short) index;
+      case ProtocolConstants.DataType.TINYINT:
+        return (byte) index;
+      case ProtocolConstants.DataType.BOOLEAN:
+        return index % 2 == 0;
+      case ProtocolConstants.DataType.DOUBLE:
+        return index / 10d;
+      case ProtocolConstants.DataType.FLOAT:
+        return index / 10f;
+      case ProtocolConstants.DataType.DECIMAL:
+        return BigDecimal.valueOf(index, 2);
+      case ProtocolConstants.DataType.VARINT:
+        return BigInteger.valueOf(index);
+      case ProtocolConstants.DataType.BLOB:
+        return ByteBuffer.allocate(4).putInt(0, index);
+      case ProtocolConstants.DataType.TIMESTAMP:
+        return Instant.ofEpochSecond(index);
+      case ProtocolConstants.DataType.DATE:
+        return LocalDate.ofEpochDay(index);
+      case ProtocolConstants.DataType.TIME:
+        return LocalTime.ofSecondOfDay(index % 86400);
+      case ProtocolConstants.DataType.UUID:
+        return new UUID(0, index);
+      case ProtocolConstants.DataType.TIMEUUID:
+        return Uuids.startOf(index);
+      case ProtocolConstants.DataType.INET:
+        return InetAddress.getLoopbackAddress();
+      case ProtocolConstants.DataType.DURATION:
+        return CqlDuration.newInstance(0, index, 0);
+      case ProtocolConstants.DataType.LIST:
+        return Collections.singletonList(newValue(((ListType) type).getElementType(), index));
+      case ProtocolConstants.DataType.SET:
+        return Collections.singleton(newValue(((SetType) type).getElementType(), index));
+      case ProtocolConstants.DataType.MAP:
+        MapType mapType = (MapType) type;
+        return Collections.singletonMap(
+            newValue(mapType.getKeyType(), index), newValue(mapType.getValueType(), index));
+      case ProtocolConstants.DataType.TUPLE:
+        TupleType tupleType = (TupleType) type;
+        List<DataType> componentTypes = tupleType.getComponentTypes();
+        Object[] values = new Object[componentTypes.size()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = newValue(componentTypes.get(i), index);
+        }
+        return tupleType.newValue(values);
+      default:
+        throw new IllegalArgumentException(
+            "Data type not supported with a stub session: " + type.asCql(true, true));
+    }
+  }
+}
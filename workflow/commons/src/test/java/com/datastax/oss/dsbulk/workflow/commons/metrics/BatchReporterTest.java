@@ -53,4 +53,21 @@ class BatchReporterTest {
     reporter.report();
     assertThat(interceptor).hasMessageMatching("Batches: total: 4, size: 1.25 mean, 1 min, 2 max");
   }
+
+  @Test
+  void should_report_batches_with_fill_ratio(
+      @LogCapture(value = BatchReporter.class, level = DEBUG) LogInterceptor interceptor) {
+    Histogram size = registry.histogram("batches/size");
+    Histogram fill = registry.histogram("batches/fill");
+    LogSink sink = LogSink.buildFrom(LOGGER::isDebugEnabled, LOGGER::debug);
+    BatchReporter reporter =
+        new BatchReporter(registry, sink, Executors.newSingleThreadScheduledExecutor());
+    size.update(2);
+    size.update(1);
+    fill.update(100);
+    fill.update(50);
+    reporter.report();
+    assertThat(interceptor)
+        .hasMessageMatching("Batches: total: 2, size: 1.50 mean, 1 min, 2 max, fill: 75.00% mean");
+  }
 }
@@ -20,6 +20,7 @@ import static com.datastax.oss.dsbulk.tests.logging.StreamType.STDERR;
 import static com.datastax.oss.dsbulk.tests.utils.FileUtils.readFile;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.slf4j.event.Level.DEBUG;
 import static org.slf4j.event.Level.INFO;
 import static org.slf4j.event.Level.WARN;
@@ -53,6 +54,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.Executors;
+import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -117,7 +119,9 @@ class MetricsManagerTest {
             false,
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR)) {
+            RowType.REGULAR,
+            false,
+            false)) {
       manager.init();
       manager.start();
       Flux<Record> records = Flux.just(record1, record2, record3);
@@ -160,17 +164,21 @@ class MetricsManagerTest {
             true,
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR)) {
+            RowType.REGULAR,
+            false,
+            false)) {
       manager.init();
       manager.start();
       Flux<Statement<?>> statements = Flux.just(batch, stmt3);
-      statements.transform(manager.newBatcherMonitor()).blockLast();
+      statements.transform(manager.newBatcherMonitor(2, -1)).blockLast();
       manager.stop();
       MetricRegistry registry =
           (MetricRegistry) ReflectionUtils.getInternalState(manager, "registry");
       assertThat(registry.histogram("batches/size").getCount()).isEqualTo(2);
       assertThat(registry.histogram("batches/size").getSnapshot().getMean())
           .isEqualTo((2f + 1f) / 2f);
+      assertThat(registry.histogram("batches/fill").getSnapshot().getMean())
+          .isEqualTo((100f + 50f) / 2f);
       assertThat(logs.getLoggedEvents()).isEmpty();
       assertThat(stderr.getStreamLinesPlain())
           .anySatisfy(line -> assertThat(line).startsWith("    0 |      0 |"));
@@ -205,7 +213,9 @@ class MetricsManagerTest {
             true,
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR);
+            RowType.REGULAR,
+            false,
+            false);
     try {
       manager.init();
       manager.start();
@@ -261,7 +271,9 @@ class MetricsManagerTest {
             true,
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR);
+            RowType.REGULAR,
+            false,
+            false);
     try {
       manager.init();
       manager.start();
@@ -306,7 +318,9 @@ class MetricsManagerTest {
             true,
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR);
+            RowType.REGULAR,
+            false,
+            false);
     try {
       manager.init();
       manager.start();
@@ -350,7 +364,9 @@ class MetricsManagerTest {
             true,
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR);
+            RowType.REGULAR,
+            false,
+            false);
     try {
       manager.init();
       manager.start();
@@ -379,4 +395,149 @@ class MetricsManagerTest {
     assertThat(stderr.getStreamAsString())
         .contains("total | failed | rows/s | mb/s | kb/row | p50ms | p99ms | p999ms | batches");
   }
+
+  @Test
+  void should_track_stages(
+      @LogCapture(value = MetricsManager.class, level = INFO) LogInterceptor logs,
+      @StreamCapture(STDERR) StreamInterceptor stderr)
+      throws Exception {
+    MetricsManager manager =
+        new MetricsManager(
+            new MetricRegistry(),
+            false,
+            "test",
+            Executors.newSingleThreadScheduledExecutor(),
+            SECONDS,
+            MILLISECONDS,
+            -1,
+            -1,
+            true,
+            false,
+            false,
+            true,
+            null,
+            LogSettings.Verbosity.normal,
+            Duration.ofSeconds(5),
+            false,
+            protocolVersion,
+            codecRegistry,
+            RowType.REGULAR,
+            true,
+            false);
+    try {
+      manager.init();
+      manager.start();
+      MetricRegistry registry =
+          (MetricRegistry) ReflectionUtils.getInternalState(manager, "registry");
+      Function<Flux<Integer>, Flux<Integer>> first =
+          manager.newStageMonitor("first", upstream -> upstream.map(i -> i * 2), true);
+      Function<Flux<Integer>, Flux<Integer>> second =
+          manager.newStageMonitor("second", upstream -> upstream.filter(i -> i % 4 == 0));
+      Flux.range(0, 100)
+          .transform(first)
+          .transform(second)
+          .limitRate(10)
+          .delayElements(Duration.ofMillis(1))
+          .blockLast();
+      assertThat(registry.counter("stages/first/in").getCount()).isEqualTo(100);
+      assertThat(registry.counter("stages/first/out").getCount()).isEqualTo(100);
+      assertThat(registry.counter("stages/second/in").getCount()).isEqualTo(100);
+      assertThat(registry.counter("stages/second/out").getCount()).isEqualTo(50);
+      assertThat(registry.counter("stages/second/requested").getCount()).isGreaterThanOrEqualTo(50);
+      assertThat(registry.getGauges().get("stages/first/in_flight").getValue()).isEqualTo(0L);
+      // the in-flight count is meaningless for stages that filter items
+      assertThat(registry.getGauges()).doesNotContainKey("stages/second/in_flight");
+      assertThat((Long) registry.getGauges().get("stages/second/blocked").getValue())
+          .isGreaterThan(0L);
+    } finally {
+      manager.stop();
+      manager.close();
+    }
+    manager.reportFinalMetrics();
+    assertThat(logs)
+        .hasMessageContaining("Stage first: in: 100, out: 100, in flight: 0")
+        .hasMessageContaining("Stage second: in: 100, out: 50, requested: ")
+        .doesNotHaveMessageContaining("in flight: 50");
+  }
+
+  @Test
+  void should_not_track_stages_when_disabled() {
+    try (MetricsManager manager =
+        new MetricsManager(
+            new MetricRegistry(),
+            false,
+            "test",
+            Executors.newSingleThreadScheduledExecutor(),
+            SECONDS,
+            MILLISECONDS,
+            -1,
+            -1,
+            true,
+            false,
+            false,
+            true,
+            null,
+            LogSettings.Verbosity.normal,
+            Duration.ofSeconds(5),
+            false,
+            protocolVersion,
+            codecRegistry,
+            RowType.REGULAR,
+            false,
+            false)) {
+      Function<Flux<Integer>, Flux<Integer>> stage = upstream -> upstream.map(i -> i * 2);
+      assertThat(manager.newStageMonitor("stage", stage)).isSameAs(stage);
+      MetricRegistry registry =
+          (MetricRegistry) ReflectionUtils.getInternalState(manager, "registry");
+      assertThat(registry.getNames()).noneMatch(name -> name.startsWith("stages/"));
+    }
+  }
+
+  @Test
+  void should_profile_operation(
+      @LogCapture(value = MetricsManager.class, level = INFO) LogInterceptor logs,
+      @StreamCapture(STDERR) StreamInterceptor stderr)
+      throws Exception {
+    assumeTrue(FlightRecording.isAvailable(), "Java Flight Recorder is not available");
+    Path executionDirectory = Files.createTempDirectory("test");
+    MetricsManager manager =
+        new MetricsManager(
+            new MetricRegistry(),
+            false,
+            "test",
+            Executors.newSingleThreadScheduledExecutor(),
+            SECONDS,
+            MILLISECONDS,
+            -1,
+            -1,
+            true,
+            false,
+            false,
+            false,
+            executionDirectory,
+            LogSettings.Verbosity.normal,
+            Duration.ofSeconds(5),
+            false,
+            protocolVersion,
+            codecRegistry,
+            RowType.REGULAR,
+            false,
+            true);
+    try {
+      manager.init();
+      manager.start();
+      long deadline = System.nanoTime() + SECONDS.toNanos(1);
+      double sink = 0;
+      while (System.nanoTime() < deadline) {
+        sink += Math.sqrt(sink + 1);
+      }
+      assertThat(sink).isPositive();
+    } finally {
+      manager.stop();
+      manager.close();
+    }
+    manager.reportFinalMetrics();
+    assertThat(executionDirectory.resolve("profile.jfr")).exists();
+    assertThat(logs).hasMessageContaining("Profile:").hasMessageContaining("execution samples");
+  }
 }
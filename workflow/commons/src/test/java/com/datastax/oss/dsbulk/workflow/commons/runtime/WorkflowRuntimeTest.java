@@ -0,0 +1,114 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class WorkflowRuntimeTest {
+
+  @Test
+  void should_read_cgroup_v2_cpu_quota() throws IOException {
+    Path root = Files.createTempDirectory("cgroup");
+    List<String> cgroups = Collections.singletonList("0::/");
+    Files.write(root.resolve("cpu.max"), "150000 100000\n".getBytes(StandardCharsets.US_ASCII));
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, cgroups)).hasValue(1.5);
+    Files.write(root.resolve("cpu.max"), "max 100000\n".getBytes(StandardCharsets.US_ASCII));
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, cgroups)).isEmpty();
+  }
+
+  @Test
+  void should_read_lowest_cgroup_v2_cpu_quota_of_process_cgroup_and_ancestors() throws IOException {
+    Path root = Files.createTempDirectory("cgroup");
+    Path parent = Files.createDirectories(root.resolve("dsbulk.slice"));
+    Path child = Files.createDirectories(parent.resolve("dsbulk.scope"));
+    List<String> cgroups = Collections.singletonList("0::/dsbulk.slice/dsbulk.scope");
+    Files.write(root.resolve("cpu.max"), "max 100000\n".getBytes(StandardCharsets.US_ASCII));
+    Files.write(child.resolve("cpu.max"), "400000 100000\n".getBytes(StandardCharsets.US_ASCII));
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, cgroups)).hasValue(4);
+    Files.write(parent.resolve("cpu.max"), "300000 100000\n".getBytes(StandardCharsets.US_ASCII));
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, cgroups)).hasValue(3);
+  }
+
+  @Test
+  void should_read_cgroup_v1_cpu_quota() throws IOException {
+    Path root = Files.createTempDirectory("cgroup");
+    Path cpu = Files.createDirectory(root.resolve("cpu,cpuacct"));
+    // the process's cgroup is not visible in the container, its root is used instead
+    List<String> cgroups =
+        Arrays.asList("5:memory:/docker/1234", "4:cpu,cpuacct:/docker/1234", "0::/");
+    Files.write(cpu.resolve("cpu.cfs_quota_us"), "200000\n".getBytes(StandardCharsets.US_ASCII));
+    Files.write(cpu.resolve("cpu.cfs_period_us"), "100000\n".getBytes(StandardCharsets.US_ASCII));
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, cgroups)).hasValue(2);
+    Files.write(cpu.resolve("cpu.cfs_quota_us"), "-1\n".getBytes(StandardCharsets.US_ASCII));
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, cgroups)).isEmpty();
+  }
+
+  @Test
+  void should_not_find_cpu_quota_when_no_cgroup() throws IOException {
+    Path root = Files.createTempDirectory("cgroup");
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, Collections.emptyList())).isEmpty();
+    assertThat(WorkflowRuntime.readCgroupCpuQuota(root, Collections.singletonList("0::/")))
+        .isEmpty();
+  }
+
+  @Test
+  void should_run_tasks_and_report_queue_depth_and_utilization() throws Exception {
+    try (WorkflowRuntime runtime = new WorkflowRuntime(2, 1, 4)) {
+      InstrumentedExecutor cpu = runtime.getExecutors().get("cpu");
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch blocked = new CountDownLatch(1);
+      cpu.execute(
+          () -> {
+            started.countDown();
+            try {
+              blocked.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+      started.await();
+      cpu.execute(() -> {});
+      cpu.execute(() -> {});
+      assertThat(cpu.getQueueDepth()).isEqualTo(2);
+      Thread.sleep(1100);
+      // the blocked task counts towards utilization even though it has not completed yet
+      assertThat(cpu.getUtilization()).isGreaterThan(0.5);
+      blocked.countDown();
+      assertThat(
+              Flux.range(0, 100)
+                  .publishOn(runtime.getCpuScheduler())
+                  .map(i -> Thread.currentThread().getName())
+                  .collectList()
+                  .block())
+          .allMatch(name -> name.startsWith("workflow-cpu"));
+      runtime.getReportingExecutor().schedule(() -> {}, 1, TimeUnit.MILLISECONDS).get();
+      assertThat(cpu.getQueueDepth()).isZero();
+      assertThat(cpu.getCompletedTaskCount()).isGreaterThanOrEqualTo(3);
+    }
+  }
+}
@@ -30,6 +30,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -56,10 +57,13 @@ import com.datastax.oss.dsbulk.codecs.api.util.ZonedTemporalFormat;
 import com.datastax.oss.dsbulk.codecs.text.string.StringToIntegerCodec;
 import com.datastax.oss.dsbulk.codecs.text.string.StringToLongCodec;
 import com.datastax.oss.dsbulk.codecs.text.string.StringToStringCodec;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
+import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.mapping.CQLWord;
 import com.datastax.oss.dsbulk.mapping.InvalidMappingException;
 import com.datastax.oss.dsbulk.mapping.Mapping;
@@ -67,6 +71,7 @@ import com.datastax.oss.dsbulk.tests.utils.ReflectionUtils;
 import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.UnmappableStatement;
 import io.netty.util.concurrent.FastThreadLocal;
+import java.net.URI;
 import java.nio.ByteBuffer;
 import java.text.NumberFormat;
 import java.time.Instant;
@@ -237,6 +242,63 @@ class DefaultRecordMapperTest {
     assertParameter(2, 2, TypeCodecs.TEXT.encode("foo", V4));
   }
 
+  @Test
+  void should_resolve_field_codecs_once() {
+    when(record.fields()).thenReturn(set(F1, F2, F3));
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            true,
+            true,
+            false,
+            statement -> boundStatementBuilder);
+    assertThat(mapper.map(record)).isInstanceOf(MappedBoundStatement.class);
+    assertThat(mapper.map(record)).isInstanceOf(MappedBoundStatement.class);
+    verify(boundStatementBuilder, times(6)).setBytesUnsafe(anyInt(), any(ByteBuffer.class));
+    verify(mapping, times(1)).codec(C1, DataTypes.INT, GenericType.STRING);
+    verify(mapping, times(1)).codec(C2, DataTypes.BIGINT, GenericType.STRING);
+    verify(mapping, times(1)).codec(C3, DataTypes.TEXT, GenericType.STRING);
+  }
+
+  @Test
+  void should_map_array_backed_record_by_index() {
+    RecordSchema schema = RecordSchema.mapped(F1, F2, F3).withIndexedFields();
+    Record record =
+        new ArrayBackedRecord(
+            "source", URI.create("file://file1"), 1, schema, new Object[] {"42", "4242", "foo"});
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            true,
+            true,
+            false,
+            statement -> boundStatementBuilder);
+    Statement<?> result = mapper.map(record);
+    assertThat(result).isInstanceOf(MappedBoundStatement.class);
+    assertThat(ReflectionUtils.getInternalState(result, "delegate")).isSameAs(boundStatement);
+    verify(boundStatementBuilder, times(3))
+        .setBytesUnsafe(variableCaptor.capture(), valueCaptor.capture());
+    assertParameter(0, 0, TypeCodecs.INT.encode(42, V4));
+    assertParameter(1, 1, TypeCodecs.BIGINT.encode(4242L, V4));
+    assertParameter(2, 2, TypeCodecs.TEXT.encode("foo", V4));
+    // field variables are resolved once per schema
+    mapper.map(
+        new ArrayBackedRecord(
+            "source", URI.create("file://file1"), 2, schema, new Object[] {"1", "2", "bar"}));
+    verify(mapping, times(1)).fieldToVariables(F1);
+    verify(mapping, times(1)).fieldToVariables(new DefaultIndexedField(0));
+  }
+
   @Test
   void should_bind_mapped_numeric_timestamp() {
     when(record.fields()).thenReturn(set(F1));
@@ -575,6 +637,79 @@ class DefaultRecordMapperTest {
                 + "or set schema.allowMissingFields to true.");
   }
 
+  @Test
+  void should_return_unmappable_statement_when_array_backed_record_has_extra_or_missing_field() {
+    when(mapping.fieldToVariables(F3)).thenReturn(emptySet());
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            false,
+            false,
+            false,
+            statement -> boundStatementBuilder);
+    Statement<?> result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source",
+                URI.create("file://file1"),
+                1,
+                RecordSchema.mapped(F1, F2, F3),
+                new Object[] {"42", "4242", "foo"}));
+    assertThat(result).isInstanceOf(UnmappableStatement.class);
+    assertThat(((UnmappableStatement) result).getError())
+        .isInstanceOf(InvalidMappingException.class)
+        .hasMessageContaining("Extraneous field field3 was found in record.");
+    result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source",
+                URI.create("file://file1"),
+                2,
+                RecordSchema.mapped(F1, F2),
+                new Object[] {"42", "4242"}));
+    assertThat(result).isInstanceOf(UnmappableStatement.class);
+    assertThat(((UnmappableStatement) result).getError())
+        .isInstanceOf(InvalidMappingException.class)
+        .hasMessageContaining("Required field field3 (mapped to column \"My Fancy Column Name\")");
+  }
+
+  @Test
+  void should_return_unmappable_statement_when_array_backed_record_has_null_pk() {
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            false,
+            true,
+            false,
+            statement -> boundStatementBuilder);
+    RecordSchema schema = RecordSchema.mapped(F1, F2, F3);
+    Statement<?> result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source", URI.create("file://file1"), 1, schema, new Object[] {null, "1", "a"}));
+    assertThat(result).isInstanceOf(UnmappableStatement.class);
+    assertThat(((UnmappableStatement) result).getError())
+        .isInstanceOf(InvalidMappingException.class)
+        .hasMessageContaining("Primary key column col1 cannot be set to null");
+    // the same plan still maps valid records
+    result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source", URI.create("file://file1"), 2, schema, new Object[] {"1", "2", "b"}));
+    assertThat(result).isInstanceOf(MappedBoundStatement.class);
+    verify(mapping, times(1)).codec(C1, DataTypes.INT, GenericType.STRING);
+  }
+
   @Test
   void should_map_when_pk_column_is_empty_blob() {
     when(record.fields()).thenReturn(set(F1, F2, F3));
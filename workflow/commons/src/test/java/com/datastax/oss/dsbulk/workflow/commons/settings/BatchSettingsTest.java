@@ -27,6 +27,7 @@ import com.datastax.oss.dsbulk.tests.driver.DriverUtils;
 import com.datastax.oss.dsbulk.tests.utils.ReflectionUtils;
 import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
 import com.typesafe.config.Config;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -234,7 +235,7 @@ class BatchSettingsTest {
     assertThatThrownBy(settings::init)
         .isInstanceOf(IllegalArgumentException.class)
         .hasMessageContaining(
-            "Invalid value for dsbulk.batch.mode, expecting one of DISABLED, PARTITION_KEY, REPLICA_SET, got: 'NotAMode'");
+            "Invalid value for dsbulk.batch.mode, expecting one of DISABLED, PARTITION_KEY, REPLICA_SET, SORTED_STREAM, got: 'NotAMode'");
   }
 
   @Test
@@ -341,4 +342,56 @@ class BatchSettingsTest {
     assertThat(ReflectionUtils.getInternalState(batcher, "maxSizeInBytes")).isEqualTo(1L);
     assertThat(ReflectionUtils.getInternalState(batcher, "maxBatchStatements")).isEqualTo(10);
   }
+
+  @Test
+  void should_not_enable_continuous_batching_by_default() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.batch");
+    BatchSettings settings = new BatchSettings(config);
+    settings.init();
+    assertThat(settings.isContinuous()).isFalse();
+    assertThat(settings.getMaxLinger()).isZero();
+  }
+
+  @Test
+  void should_enable_continuous_batching() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.batch", "continuous", true, "maxLinger", "200 milliseconds");
+    BatchSettings settings = new BatchSettings(config);
+    settings.init();
+    assertThat(settings.isContinuous()).isTrue();
+    assertThat(settings.getMaxLinger()).isEqualTo(Duration.ofMillis(200));
+  }
+
+  @Test
+  void should_throw_exception_when_max_linger_negative() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.batch", "maxLinger", "-1 second");
+    BatchSettings settings = new BatchSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Value for batch.maxLinger (-1 second) must be positive or zero");
+  }
+
+  @Test
+  void should_create_batcher_when_sorted_stream_mode_provided() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.batch", "mode", "SORTED_STREAM");
+    BatchSettings settings = new BatchSettings(config);
+    settings.init();
+    assertThat(settings.isBatchingEnabled()).isTrue();
+    assertThat(settings.isSortedStream()).isTrue();
+    ReactiveStatementBatcher batcher = settings.newStatementBatcher(session);
+    assertThat(ReflectionUtils.getInternalState(batcher, "batchMode")).isEqualTo(PARTITION_KEY);
+  }
+
+  @Test
+  void should_throw_exception_when_sorted_stream_mode_and_continuous() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.batch", "mode", "SORTED_STREAM", "continuous", true);
+    BatchSettings settings = new BatchSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Setting batch.continuous cannot be true when batch.mode is SORTED_STREAM");
+  }
 }
@@ -18,9 +18,15 @@ package com.datastax.oss.dsbulk.workflow.commons.settings;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.datastax.oss.dsbulk.tests.driver.DriverUtils;
+import com.datastax.oss.dsbulk.tests.utils.ReflectionUtils;
 import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
+import com.datastax.oss.dsbulk.workflow.commons.runtime.WorkflowRuntime;
+import com.datastax.oss.dsbulk.workflow.commons.statement.StatementSorter;
 import com.typesafe.config.Config;
+import java.nio.file.Paths;
 import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
 
 class EngineSettingsTest {
 
@@ -84,4 +90,109 @@ class EngineSettingsTest {
     settings.init();
     assertThat(settings.isDataSizeSamplingEnabled()).isFalse();
   }
+
+  @Test
+  void should_report_default_stub_disabled() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.engine");
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.isStubEnabled()).isFalse();
+  }
+
+  @Test
+  void should_create_custom_stub_enabled() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine",
+            "stub.enabled",
+            true,
+            "stub.schema",
+            "\"CREATE TABLE ks1.table1 (pk int PRIMARY KEY, v text)\"");
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.isStubEnabled()).isTrue();
+  }
+
+  @Test
+  void should_throw_when_stub_schema_missing() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.engine", "stub.enabled", true);
+    EngineSettings settings = new EngineSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Setting engine.stub.schema is mandatory when engine.stub.enabled is true");
+  }
+
+  @Test
+  void should_throw_when_stub_nodes_invalid() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine",
+            "stub.enabled",
+            true,
+            "stub.schema",
+            "\"CREATE TABLE ks1.table1 (pk int PRIMARY KEY, v text)\"",
+            "stub.nodes",
+            0);
+    EngineSettings settings = new EngineSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Value for engine.stub.nodes must be strictly positive, got: 0");
+  }
+
+  @Test
+  void should_create_custom_sort_enabled() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine", "sort.enabled", true, "sort.memoryBudget", "\"1 megabyte\"");
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.isSortEnabled()).isTrue();
+    StatementSorter sorter =
+        settings.newStatementSorter(DriverUtils.mockSession(), Schedulers.immediate());
+    assertThat(ReflectionUtils.getInternalState(sorter, "memoryBudget")).isEqualTo(1_000_000L);
+    assertThat(ReflectionUtils.getInternalState(sorter, "directory"))
+        .isEqualTo(Paths.get(System.getProperty("java.io.tmpdir")));
+  }
+
+  @Test
+  void should_throw_when_sort_memory_budget_invalid() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine", "sort.enabled", true, "sort.memoryBudget", 0);
+    EngineSettings settings = new EngineSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Value for engine.sort.memoryBudget must be strictly positive, got: 0");
+  }
+
+  @Test
+  void should_create_workflow_runtime_with_custom_settings() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine",
+            "runtime.cores",
+            8,
+            "runtime.reservedCores",
+            2,
+            "runtime.ioThreads",
+            3);
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    try (WorkflowRuntime runtime = settings.newWorkflowRuntime()) {
+      assertThat(runtime.getCores()).isEqualTo(8);
+      assertThat(runtime.getCpuThreads()).isEqualTo(6);
+      assertThat(runtime.getExecutors().get("io").getCorePoolSize()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  void should_throw_when_reserved_cores_invalid() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.engine", "runtime.reservedCores", -1);
+    EngineSettings settings = new EngineSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Value for engine.runtime.reservedCores must be positive, got: -1");
+  }
 }
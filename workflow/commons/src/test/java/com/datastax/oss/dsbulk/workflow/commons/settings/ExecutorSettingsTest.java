@@ -29,7 +29,13 @@ import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.AdaptiveConcurrencyLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.BytesLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.PerNodeInFlightLimiter;
+import com.datastax.oss.dsbulk.executor.api.limiter.ResizableSemaphore;
+import com.datastax.oss.dsbulk.executor.api.listener.MetricsCollectingExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.reader.ReactiveBulkReader;
+import com.datastax.oss.dsbulk.executor.api.subscription.PagingOptions;
 import com.datastax.oss.dsbulk.executor.api.writer.ReactiveBulkWriter;
 import com.datastax.oss.dsbulk.executor.reactor.ContinuousReactorBulkExecutor;
 import com.datastax.oss.dsbulk.executor.reactor.DefaultReactorBulkExecutor;
@@ -207,6 +213,221 @@ class ExecutorSettingsTest {
             "Invalid value for dsbulk.executor.maxInFlight, expecting NUMBER, got STRING");
   }
 
+  @Test
+  void should_enable_maxInFlightPerNode() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor", "maxInFlightPerNode", 10);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(executor, "maxConcurrentRequestsPerNode"))
+        .isInstanceOf(PerNodeInFlightLimiter.class);
+  }
+
+  @Test
+  void should_disable_maxInFlightPerNode() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor");
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(executor, "maxConcurrentRequestsPerNode")).isNull();
+  }
+
+  @Test
+  void should_enable_bytes_limits() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor", "maxBytesPerSecond", 1_000_000, "maxBytesInFlight", 1000);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    BytesLimiter bytesLimiter = (BytesLimiter) getInternalState(executor, "bytesLimiter");
+    assertThat(bytesLimiter).isNotNull();
+    assertThat(bytesLimiter.isInFlightLimited()).isTrue();
+    assertThat(bytesLimiter.availableInFlight()).isEqualTo(1000);
+    RateLimiter rateLimiter = (RateLimiter) getInternalState(bytesLimiter, "rateLimiter");
+    assertThat(rateLimiter.getRate()).isEqualTo(1_000_000);
+  }
+
+  @Test
+  void should_disable_bytes_limits() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor");
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(executor, "bytesLimiter")).isNull();
+  }
+
+  @Test
+  void should_configure_read_ahead() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor",
+            "readAhead.maxPages",
+            8,
+            "readAhead.maxBytes",
+            1_000_000,
+            "readAhead.prefetch",
+            false);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    PagingOptions pagingOptions = (PagingOptions) getInternalState(executor, "pagingOptions");
+    assertThat(pagingOptions.getMaxEnqueuedPages()).isEqualTo(8);
+    assertThat(pagingOptions.getMaxEnqueuedBytes()).isEqualTo(1_000_000);
+    assertThat(pagingOptions.isPrefetch()).isFalse();
+  }
+
+  @Test
+  void should_throw_exception_when_readAhead_maxPages_not_positive() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor", "readAhead.maxPages", 0);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Value for executor.readAhead.maxPages (0) must be strictly positive");
+  }
+
+  @Test
+  void should_enable_straggler_mitigation_for_reads() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor",
+            "stragglerMitigation.enabled",
+            true,
+            "continuousPaging.enabled",
+            false);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkReader executor =
+        settings.newReadExecutor(session, new MetricsCollectingExecutionListener(), false);
+    assertThat(getInternalState(executor, "stragglerMitigator")).isNotNull();
+    ((DefaultReactorBulkExecutor) executor).close();
+    ReactiveBulkWriter writer = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(writer, "stragglerMitigator")).isNull();
+  }
+
+  @Test
+  void should_throw_exception_when_straggler_percentile_invalid() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor",
+            "stragglerMitigation.enabled",
+            true,
+            "stragglerMitigation.percentile",
+            100);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Value for executor.stragglerMitigation.percentile (100.0) must be strictly between 0 and 100");
+  }
+
+  @Test
+  void should_throw_exception_when_maxBytesInFlight_too_large() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.executor", "maxBytesInFlight", 3_000_000_000L);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Value for executor.maxBytesInFlight (3000000000) must be lesser than or equal to 2147483647");
+  }
+
+  @Test
+  void should_enable_adaptive_concurrency() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor",
+            "maxInFlight",
+            1000,
+            "adaptiveConcurrency.enabled",
+            true,
+            "adaptiveConcurrency.minInFlight",
+            10,
+            "adaptiveConcurrency.maxInFlight",
+            500,
+            "adaptiveConcurrency.initialInFlight",
+            100);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    assertThat(settings.isAdaptiveConcurrencyEnabled()).isTrue();
+    assertThat(settings.getAdaptiveMaxInFlight()).isEqualTo(500);
+    ReactiveBulkWriter executor =
+        settings.newWriteExecutor(session, new MetricsCollectingExecutionListener());
+    Semaphore maxConcurrentRequests =
+        (Semaphore) getInternalState(executor, "maxConcurrentRequests");
+    assertThat(maxConcurrentRequests).isInstanceOf(ResizableSemaphore.class);
+    assertThat(((ResizableSemaphore) maxConcurrentRequests).getMaxPermits()).isEqualTo(100);
+    AdaptiveConcurrencyLimiter limiter =
+        (AdaptiveConcurrencyLimiter) getInternalState(executor, "concurrencyLimiter");
+    assertThat(limiter.getPermits()).isSameAs(maxConcurrentRequests);
+    ((DefaultReactorBulkExecutor) executor).close();
+  }
+
+  @Test
+  void should_disable_adaptive_concurrency_when_latencies_not_collected(
+      @LogCapture LogInterceptor logs) {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.executor", "adaptiveConcurrency.enabled", true);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(executor, "concurrencyLimiter")).isNull();
+    assertThat(logs)
+        .hasMessageContaining(
+            "Adaptive concurrency is enabled but latencies are not being collected; disabling");
+  }
+
+  @Test
+  void should_throw_exception_when_adaptive_concurrency_limits_invalid() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor",
+            "adaptiveConcurrency.enabled",
+            true,
+            "adaptiveConcurrency.minInFlight",
+            100,
+            "adaptiveConcurrency.maxInFlight",
+            10);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Values for executor.adaptiveConcurrency.minInFlight (100) and executor.adaptiveConcurrency.maxInFlight (10) must be positive");
+  }
+
+  @Test
+  void should_throw_exception_when_adaptive_concurrency_backoff_ratio_invalid() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor",
+            "adaptiveConcurrency.enabled",
+            true,
+            "adaptiveConcurrency.backoffRatio",
+            1.5);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Value for executor.adaptiveConcurrency.backoffRatio (1.5) must be strictly between 0 and 1");
+  }
+
+  @Test
+  void should_throw_exception_when_adaptive_concurrency_initial_limit_invalid() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.executor",
+            "adaptiveConcurrency.enabled",
+            true,
+            "adaptiveConcurrency.initialInFlight",
+            2000);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Value for executor.adaptiveConcurrency.initialInFlight (2000) must be between minInFlight (8) and maxInFlight (1024)");
+  }
+
   @Test
   void should_log_warning_when_concurrentMaxQueries_is_user_defined(
       @LogCapture LogInterceptor logs) {
@@ -32,6 +32,7 @@ import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
 import com.typesafe.config.Config;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.concurrent.Executors;
 import org.assertj.core.util.Files;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -56,7 +57,8 @@ class MonitoringSettingsTest {
             new MetricRegistry(),
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR);
+            RowType.REGULAR,
+            Executors.newSingleThreadScheduledExecutor());
     assertThat(metricsManager).isNotNull();
     assertThat(ReflectionUtils.getInternalState(metricsManager, "rateUnit")).isEqualTo(SECONDS);
     assertThat(ReflectionUtils.getInternalState(metricsManager, "durationUnit"))
@@ -102,7 +104,8 @@ class MonitoringSettingsTest {
             new MetricRegistry(),
             protocolVersion,
             codecRegistry,
-            RowType.REGULAR);
+            RowType.REGULAR,
+            Executors.newSingleThreadScheduledExecutor());
     assertThat(metricsManager).isNotNull();
     assertThat(ReflectionUtils.getInternalState(metricsManager, "rateUnit")).isEqualTo(MINUTES);
     assertThat(ReflectionUtils.getInternalState(metricsManager, "durationUnit")).isEqualTo(SECONDS);
@@ -0,0 +1,270 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.session.ProgrammaticArguments;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.context.DefaultDriverContext;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.tests.utils.FileUtils;
+import com.datastax.oss.dsbulk.workflow.commons.stub.StubSession;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+class StatementSorterTest {
+
+  private static final URI RESOURCE = URI.create("file://data.csv");
+
+  private StubSession session;
+  private PreparedStatement ps;
+  private TokenMap tokenMap;
+  private Path directory;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    session =
+        new StubSession(
+            new DefaultDriverContext(
+                DriverConfigLoader.programmaticBuilder()
+                    .withInt(DefaultDriverOption.NETTY_IO_SHUTDOWN_QUIET_PERIOD, 0)
+                    .withInt(DefaultDriverOption.NETTY_ADMIN_SHUTDOWN_QUIET_PERIOD, 0)
+                    .build(),
+                ProgrammaticArguments.builder().build()),
+            "CREATE TABLE ks.t (pk int, v text, PRIMARY KEY (pk))",
+            3,
+            Duration.ZERO,
+            0);
+    ps = session.prepare("INSERT INTO ks.t (pk, v) VALUES (:pk, :v)");
+    tokenMap = session.getMetadata().getTokenMap().orElseThrow(AssertionError::new);
+    directory = Files.createTempDirectory("test");
+  }
+
+  @AfterEach
+  void tearDown() {
+    session.close();
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  void should_sort_statements_in_memory() {
+    List<BatchableStatement<?>> statements = newStatements(100);
+    SimpleStatement unsortable = SimpleStatement.newInstance("INSERT INTO ks.t (pk) VALUES (0)");
+    List<BatchableStatement<?>> input = new ArrayList<>(statements);
+    input.add(50, unsortable);
+    StatementSorter sorter =
+        new StatementSorter(session, Long.MAX_VALUE, directory, Schedulers.boundedElastic());
+    List<BatchableStatement<?>> sorted =
+        sorter.sort(Flux.fromIterable(input)).collectList().block();
+    assertThat(sorted).hasSize(101).first().isSameAs(unsortable);
+    // statements that fit in memory are emitted as is
+    assertThat(sorted.subList(1, sorted.size())).containsExactlyInAnyOrderElementsOf(statements);
+    assertSortedByToken(sorted.subList(1, sorted.size()));
+  }
+
+  @Test
+  void should_sort_statements_with_spilled_runs() throws IOException {
+    List<BatchableStatement<?>> statements = newStatements(1000);
+    // force many runs
+    StatementSorter sorter =
+        new StatementSorter(session, 10_000, directory, Schedulers.boundedElastic());
+    List<BatchableStatement<?>> sorted =
+        sorter.sort(Flux.fromIterable(statements)).collectList().block();
+    assertThat(sorted).hasSize(1000);
+    assertSortedByToken(sorted);
+    List<Integer> pks = new ArrayList<>();
+    for (BatchableStatement<?> statement : sorted) {
+      MappedBoundStatement bs = (MappedBoundStatement) statement;
+      int pk = bs.getInt(0);
+      pks.add(pk);
+      assertThat(bs.getRecord().getResource()).isEqualTo(RESOURCE);
+      assertThat(bs.getRecord().getPosition()).isEqualTo(pk);
+      assertThat(bs.getRecord().getSource()).isEqualTo("line " + pk);
+      if (pk % 10 == 0) {
+        assertThat(bs.isSet(1)).isFalse();
+      } else if (pk % 10 == 1) {
+        assertThat(bs.isSet(1)).isTrue();
+        assertThat(bs.isNull(1)).isTrue();
+      } else {
+        assertThat(bs.getString(1)).isEqualTo("value " + pk);
+      }
+    }
+    Collections.sort(pks);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(pks.get(i)).isEqualTo(i);
+    }
+    // temporary files are deleted
+    assertThat(FileUtils.listAllFilesInDirectory(directory)).isEmpty();
+  }
+
+  @Test
+  void should_sort_statements_with_runs_larger_than_window() throws IOException {
+    List<BatchableStatement<?>> statements = newStatements(1000);
+    // windows smaller than a single statement
+    StatementSorter sorter =
+        new StatementSorter(session, 10_000, directory, Schedulers.boundedElastic(), 8, 64);
+    List<BatchableStatement<?>> sorted =
+        sorter.sort(Flux.fromIterable(statements)).collectList().block();
+    assertThat(sorted).hasSize(1000);
+    assertSortedByToken(sorted);
+    for (BatchableStatement<?> statement : sorted) {
+      MappedBoundStatement bs = (MappedBoundStatement) statement;
+      int pk = bs.getInt(0);
+      assertThat(bs.getRecord().getSource()).isEqualTo("line " + pk);
+      if (pk % 10 > 1) {
+        assertThat(bs.getString(1)).isEqualTo("value " + pk);
+      }
+    }
+    assertThat(FileUtils.listAllFilesInDirectory(directory)).isEmpty();
+  }
+
+  @Test
+  void should_sort_statements_with_more_runs_than_fan_in() throws IOException {
+    List<BatchableStatement<?>> statements = newStatements(1000);
+    // dozens of runs, merged two at a time
+    StatementSorter sorter =
+        new StatementSorter(session, 5_000, directory, Schedulers.boundedElastic(), 1024, 2);
+    List<BatchableStatement<?>> sorted =
+        sorter.sort(Flux.fromIterable(statements)).collectList().block();
+    assertThat(sorted).hasSize(1000);
+    assertSortedByToken(sorted);
+    List<Integer> pks = new ArrayList<>();
+    for (BatchableStatement<?> statement : sorted) {
+      MappedBoundStatement bs = (MappedBoundStatement) statement;
+      int pk = bs.getInt(0);
+      pks.add(pk);
+      assertThat(bs.getRecord().getSource()).isEqualTo("line " + pk);
+      if (pk % 10 > 1) {
+        assertThat(bs.getString(1)).isEqualTo("value " + pk);
+      }
+    }
+    Collections.sort(pks);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(pks.get(i)).isEqualTo(i);
+    }
+    assertThat(FileUtils.listAllFilesInDirectory(directory)).isEmpty();
+  }
+
+  @Test
+  void should_preserve_statement_attributes_when_spilled() {
+    Token token = tokenMap.newToken(TypeCodecs.INT.encode(42, ProtocolVersion.DEFAULT));
+    List<BatchableStatement<?>> statements = new ArrayList<>();
+    for (int pk = 0; pk < 100; pk++) {
+      BoundStatement bs =
+          ps.bind()
+              .setInt(0, pk)
+              .setConsistencyLevel(pk % 2 == 0 ? DefaultConsistencyLevel.ALL : null)
+              .setTimeout(Duration.ofSeconds(pk % 3))
+              .setQueryTimestamp(pk)
+              .setIdempotent(pk % 4 == 0 ? null : pk % 4 == 1);
+      if (pk == 0) {
+        bs = bs.setRoutingToken(token);
+      }
+      statements.add(
+          new MappedBoundStatement(DefaultRecord.indexed("line " + pk, RESOURCE, pk), bs));
+    }
+    StatementSorter sorter =
+        new StatementSorter(session, 1_000, directory, Schedulers.boundedElastic());
+    List<BatchableStatement<?>> sorted =
+        sorter.sort(Flux.fromIterable(statements)).collectList().block();
+    assertThat(sorted).hasSize(100);
+    for (BatchableStatement<?> statement : sorted) {
+      MappedBoundStatement bs = (MappedBoundStatement) statement;
+      int pk = bs.getInt(0);
+      assertThat(bs.getConsistencyLevel())
+          .isEqualTo(pk % 2 == 0 ? DefaultConsistencyLevel.ALL : null);
+      assertThat(bs.getTimeout()).isEqualTo(Duration.ofSeconds(pk % 3));
+      assertThat(bs.getQueryTimestamp()).isEqualTo(pk);
+      assertThat(bs.isIdempotent()).isEqualTo(pk % 4 == 0 ? null : pk % 4 == 1);
+      assertThat(bs.getRoutingToken()).isEqualTo(pk == 0 ? token : null);
+      // the routing key is computed from the statement's own values
+      assertThat(bs.getRoutingKey()).isEqualTo(TypeCodecs.INT.encode(pk, ProtocolVersion.DEFAULT));
+    }
+  }
+
+  @Test
+  void should_delete_runs_when_cancelled() throws IOException {
+    List<BatchableStatement<?>> statements = newStatements(1000);
+    StatementSorter sorter =
+        new StatementSorter(session, 10_000, directory, Schedulers.boundedElastic());
+    List<BatchableStatement<?>> sorted =
+        sorter.sort(Flux.fromIterable(statements)).take(10).collectList().block();
+    assertThat(sorted).hasSize(10);
+    assertThat(FileUtils.listAllFilesInDirectory(directory)).isEmpty();
+  }
+
+  @Test
+  void should_delete_runs_when_failed() throws IOException {
+    List<BatchableStatement<?>> statements = newStatements(1000);
+    StatementSorter sorter =
+        new StatementSorter(session, 10_000, directory, Schedulers.boundedElastic());
+    Flux<BatchableStatement<?>> failing =
+        Flux.concat(Flux.fromIterable(statements), Flux.error(new IllegalStateException("boom")));
+    assertThatThrownBy(() -> sorter.sort(failing).blockLast())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("boom");
+    assertThat(FileUtils.listAllFilesInDirectory(directory)).isEmpty();
+  }
+
+  private List<BatchableStatement<?>> newStatements(int count) {
+    List<BatchableStatement<?>> statements = new ArrayList<>();
+    for (int pk = 0; pk < count; pk++) {
+      BoundStatement bs = ps.bind().setInt(0, pk);
+      if (pk % 10 == 1) {
+        bs = bs.setToNull(1);
+      } else if (pk % 10 != 0) {
+        bs = bs.setString(1, "value " + pk);
+      }
+      statements.add(
+          new MappedBoundStatement(DefaultRecord.indexed("line " + pk, RESOURCE, pk), bs));
+    }
+    return statements;
+  }
+
+  private void assertSortedByToken(List<BatchableStatement<?>> statements) {
+    Token previous = null;
+    for (BatchableStatement<?> statement : statements) {
+      Token token = tokenMap.newToken(statement.getRoutingKey());
+      if (previous != null) {
+        assertThat(token).isGreaterThanOrEqualTo(previous);
+      }
+      previous = token;
+    }
+  }
+}
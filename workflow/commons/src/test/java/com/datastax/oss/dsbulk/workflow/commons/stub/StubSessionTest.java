@@ -0,0 +1,234 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.stub;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.dse.driver.api.core.cql.continuous.ContinuousAsyncResultSet;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.session.ProgrammaticArguments;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.internal.core.context.DefaultDriverContext;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StubSessionTest {
+
+  private static final String SCHEMA =
+      "CREATE TABLE IF NOT EXISTS ks1.table1 ("
+          + "pk int, cc1 text, cc2 timestamp, \"My Value\" list<frozen<map<text, int>>>, "
+          + "s bigint static, v uuid, "
+          + "PRIMARY KEY (pk, cc1, cc2)) "
+          + "WITH CLUSTERING ORDER BY (cc1 ASC, cc2 DESC) AND comment = 'stub';";
+
+  private StubSession session;
+
+  @BeforeEach
+  void createSession() {
+    DriverConfigLoader loader =
+        DriverConfigLoader.programmaticBuilder()
+            .withInt(DefaultDriverOption.REQUEST_PAGE_SIZE, 10)
+            .withInt(DefaultDriverOption.NETTY_IO_SHUTDOWN_QUIET_PERIOD, 0)
+            .withInt(DefaultDriverOption.NETTY_ADMIN_SHUTDOWN_QUIET_PERIOD, 0)
+            .build();
+    session =
+        new StubSession(
+            new DefaultDriverContext(loader, ProgrammaticArguments.builder().build()),
+            SCHEMA,
+            3,
+            Duration.ofMillis(1),
+            25);
+  }
+
+  @AfterEach
+  void closeSession() {
+    session.close();
+  }
+
+  @Test
+  void should_expose_stub_schema() {
+    TableMetadata table =
+        session.getMetadata().getKeyspace("ks1").flatMap(ks -> ks.getTable("table1")).orElse(null);
+    assertThat(table).isNotNull();
+    assertThat(table.getPartitionKey())
+        .extracting(c -> c.getName().asInternal())
+        .containsExactly("pk");
+    assertThat(table.getClusteringColumns().values())
+        .containsExactly(ClusteringOrder.ASC, ClusteringOrder.DESC);
+    assertThat(table.getColumns().keySet())
+        .extracting(CqlIdentifier::asInternal)
+        .containsExactly("pk", "cc1", "cc2", "My Value", "s", "v");
+    assertThat(table.getColumn("\"My Value\"").map(c -> c.getType()))
+        .contains(DataTypes.listOf(DataTypes.frozenMapOf(DataTypes.TEXT, DataTypes.INT)));
+    assertThat(table.getColumn("s").map(c -> c.isStatic())).contains(true);
+  }
+
+  @Test
+  void should_expose_nodes_and_token_map() {
+    assertThat(session.getMetadata().getNodes()).hasSize(3);
+    TokenMap tokenMap = session.getMetadata().getTokenMap().orElse(null);
+    assertThat(tokenMap).isNotNull();
+    assertThat(tokenMap.getPartitionerName())
+        .isEqualTo("org.apache.cassandra.dht.Murmur3Partitioner");
+    assertThat(tokenMap.getTokenRanges()).hasSize(3);
+    session
+        .getMetadata()
+        .getNodes()
+        .values()
+        .forEach(node -> assertThat(tokenMap.getTokenRanges("ks1", node)).hasSize(1));
+  }
+
+  @Test
+  void should_prepare_and_execute_write() {
+    PreparedStatement ps =
+        session.prepare(
+            "INSERT INTO ks1.table1 (pk, cc1, cc2, v) VALUES (:pk, :cc1, :cc2, :\"My Var\") "
+                + "USING TTL :\"[ttl]\" AND TIMESTAMP :\"[timestamp]\"");
+    ColumnDefinitions variables = ps.getVariableDefinitions();
+    assertThat(variables)
+        .extracting(def -> def.getName().asInternal())
+        .containsExactly("pk", "cc1", "cc2", "My Var", "[ttl]", "[timestamp]");
+    assertThat(variables)
+        .extracting(def -> def.getType())
+        .containsExactly(
+            DataTypes.INT,
+            DataTypes.TEXT,
+            DataTypes.TIMESTAMP,
+            DataTypes.UUID,
+            DataTypes.INT,
+            DataTypes.BIGINT);
+    assertThat(ps.getPartitionKeyIndices()).containsExactly(0);
+    assertThat(ps.getResultSetDefinitions()).isEmpty();
+    BoundStatement bs = ps.bind().setInt("pk", 42);
+    assertThat(bs.getRoutingKey()).isNotNull();
+    AsyncResultSet rs = CompletableFutures.getUninterruptibly(session.executeAsync(bs));
+    assertThat(rs.wasApplied()).isTrue();
+    assertThat(rs.remaining()).isZero();
+    assertThat(rs.hasMorePages()).isFalse();
+    assertThat(rs.getExecutionInfo().getCoordinator()).isNotNull();
+  }
+
+  @Test
+  void should_prepare_and_execute_read() {
+    session.execute("USE ks1");
+    assertThat(session.getKeyspace()).contains(CqlIdentifier.fromInternal("ks1"));
+    PreparedStatement ps =
+        session.prepare(
+            "SELECT pk, \"My Value\", writetime(v) AS \"writetime(v)\", ttl(v) FROM table1 "
+                + "WHERE token(pk) > :start AND token(pk) <= :end");
+    assertThat(ps.getVariableDefinitions())
+        .extracting(def -> def.getType())
+        .containsExactly(DataTypes.BIGINT, DataTypes.BIGINT);
+    ColumnDefinitions columns = ps.getResultSetDefinitions();
+    assertThat(columns)
+        .extracting(def -> def.getName().asInternal())
+        .containsExactly("pk", "My Value", "writetime(v)", "ttl(v)");
+    assertThat(columns)
+        .extracting(def -> def.getType())
+        .containsExactly(
+            DataTypes.INT,
+            DataTypes.listOf(DataTypes.frozenMapOf(DataTypes.TEXT, DataTypes.INT)),
+            DataTypes.BIGINT,
+            DataTypes.INT);
+    AsyncResultSet rs =
+        CompletableFutures.getUninterruptibly(session.executeAsync(ps.bind(0L, 100L)));
+    int pages = 1;
+    int rows = 0;
+    while (true) {
+      for (Row row : rs.currentPage()) {
+        assertThat(row.getInt("pk")).isEqualTo(rows);
+        assertThat((List<?>) row.getObject("\"My Value\"")).hasSize(1);
+        rows++;
+      }
+      if (!rs.hasMorePages()) {
+        break;
+      }
+      rs = CompletableFutures.getUninterruptibly(rs.fetchNextPage());
+      pages++;
+    }
+    assertThat(pages).isEqualTo(3);
+    assertThat(rows).isEqualTo(25);
+  }
+
+  @Test
+  void should_execute_continuous_read() {
+    PreparedStatement ps = session.prepare("SELECT * FROM ks1.table1");
+    assertThat(ps.getResultSetDefinitions()).hasSize(6);
+    ContinuousAsyncResultSet rs =
+        CompletableFutures.getUninterruptibly(
+            session.executeContinuouslyAsync(ps.bind().setPageSize(20)));
+    assertThat(rs.pageNumber()).isEqualTo(1);
+    assertThat(rs.remaining()).isEqualTo(20);
+    assertThat(rs.hasMorePages()).isTrue();
+    rs = CompletableFutures.getUninterruptibly(rs.fetchNextPage());
+    assertThat(rs.pageNumber()).isEqualTo(2);
+    assertThat(rs.remaining()).isEqualTo(5);
+    assertThat(rs.hasMorePages()).isFalse();
+  }
+
+  @Test
+  void should_reject_unknown_table_and_positional_markers() {
+    assertThatThrownBy(() -> session.prepare("SELECT * FROM ks1.table2"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Table ks1.table2 does not exist in the stub schema");
+    assertThatThrownBy(() -> session.prepare("INSERT INTO ks1.table1 (pk, cc1) VALUES (?, ?)"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Positional bind markers are not supported");
+  }
+
+  @Test
+  void should_close_driver_context() throws Exception {
+    InternalDriverContext context = (InternalDriverContext) session.getContext();
+    session.closeAsync().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    assertThat(context.getNettyOptions().ioEventLoopGroup().isTerminated()).isTrue();
+    assertThat(context.getNettyOptions().adminEventExecutorGroup().isTerminated()).isTrue();
+  }
+
+  @Test
+  void should_reject_invalid_schema() {
+    DefaultDriverContext context =
+        new DefaultDriverContext(
+            DriverConfigLoader.programmaticBuilder().build(),
+            ProgrammaticArguments.builder().build());
+    assertThatThrownBy(
+            () ->
+                new StubSession(
+                    context, "CREATE TABLE table1 (pk int PRIMARY KEY)", 1, Duration.ZERO, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Expecting table name to be qualified with a keyspace name");
+    assertThatThrownBy(
+            () -> new StubSession(context, "CREATE TABLE ks1.table1 (pk int)", 1, Duration.ZERO, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("No primary key defined");
+  }
+}
@@ -27,6 +27,7 @@ import com.datastax.oss.dsbulk.workflow.api.Workflow;
 import com.datastax.oss.dsbulk.workflow.api.utils.DurationUtils;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
+import com.datastax.oss.dsbulk.workflow.commons.runtime.WorkflowRuntime;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCounter;
 import com.datastax.oss.dsbulk.workflow.commons.settings.CodecSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.DriverSettings;
@@ -41,7 +42,6 @@ import com.datastax.oss.dsbulk.workflow.commons.settings.StatsSettings;
 import com.datastax.oss.dsbulk.workflow.commons.utils.CloseableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
 import com.typesafe.config.Config;
-import io.netty.util.concurrent.DefaultThreadFactory;
 import java.time.Duration;
 import java.util.EnumSet;
 import java.util.List;
@@ -51,8 +51,6 @@ import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 
 /** The main class for count workflows. */
 public class CountWorkflow implements Workflow {
@@ -63,7 +61,7 @@ public class CountWorkflow implements Workflow {
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
   private String executionId;
-  private Scheduler scheduler;
+  private WorkflowRuntime runtime;
   private ReadResultCounter readResultCounter;
   private MetricsManager metricsManager;
   private LogManager logManager;
@@ -108,7 +106,8 @@ public class CountWorkflow implements Workflow {
     monitoringSettings.init();
     executorSettings.init();
     statsSettings.init();
-    session = driverSettings.newSession(executionId);
+    runtime = engineSettings.newWorkflowRuntime();
+    session = driverSettings.newSession(executionId, engineSettings);
     ClusterInformationUtils.printDebugInfoAboutCluster(session);
     schemaSettings.init(SchemaGenerationType.READ_AND_COUNT, session, false, false);
     logManager = logSettings.newLogManager(session, false);
@@ -122,8 +121,10 @@ public class CountWorkflow implements Workflow {
             session.getMetrics().map(Metrics::getRegistry).orElse(new MetricRegistry()),
             session.getContext().getProtocolVersion(),
             session.getContext().getCodecRegistry(),
-            schemaSettings.getRowType());
+            schemaSettings.getRowType(),
+            runtime.getReportingExecutor());
     metricsManager.init();
+    metricsManager.registerRuntimeGauges(runtime);
     executor =
         executorSettings.newReadExecutor(session, metricsManager.getExecutionListener(), false);
     ConvertingCodecFactory codecFactory =
@@ -142,15 +143,14 @@ public class CountWorkflow implements Workflow {
     failedReadsHandler = logManager.newFailedReadsHandler();
     queryWarningsHandler = logManager.newQueryWarningsHandler();
     terminationHandler = logManager.newTerminationHandler();
-    int numCores = Runtime.getRuntime().availableProcessors();
     readConcurrency =
-        Math.min(readStatements.size(), engineSettings.getMaxConcurrentQueries().orElse(numCores));
+        Math.min(
+            readStatements.size(),
+            engineSettings.getMaxConcurrentQueries().orElse(runtime.getCores()));
     LOGGER.debug(
         "Using read concurrency: {} (user-supplied: {})",
         readConcurrency,
         engineSettings.getMaxConcurrentQueries().isPresent());
-    int numThreads = Math.min(readConcurrency, numCores);
-    scheduler = Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
   }
 
   @Override
@@ -175,7 +175,7 @@ public class CountWorkflow implements Workflow {
                     // (users cannot supply a custom query for these counting modes).
                     .doOnNext(readResultCounter.newCountingUnit()::update)
                     .then()
-                    .subscribeOn(scheduler),
+                    .subscribeOn(runtime.getCpuScheduler()),
             readConcurrency)
         .transform(terminationHandler)
         .blockLast();
@@ -201,7 +201,7 @@ public class CountWorkflow implements Workflow {
       Exception e = CloseableUtils.closeQuietly(readResultCounter, null);
       e = CloseableUtils.closeQuietly(metricsManager, e);
       e = CloseableUtils.closeQuietly(logManager, e);
-      e = CloseableUtils.closeQuietly(scheduler, e);
+      e = CloseableUtils.closeQuietly(runtime, e);
       e = CloseableUtils.closeQuietly(executor, e);
       e = CloseableUtils.closeQuietly(session, e);
       if (metricsManager != null) {
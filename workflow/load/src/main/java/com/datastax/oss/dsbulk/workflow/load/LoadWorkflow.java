@@ -24,6 +24,7 @@ import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metrics.Metrics;
 import com.datastax.oss.driver.shaded.guava.common.base.Stopwatch;
+import com.datastax.oss.dsbulk.batcher.api.ReactiveStatementBatcher;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.Connector;
@@ -37,6 +38,7 @@ import com.datastax.oss.dsbulk.workflow.api.utils.DurationUtils;
 import com.datastax.oss.dsbulk.workflow.api.utils.ThrowableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
+import com.datastax.oss.dsbulk.workflow.commons.runtime.WorkflowRuntime;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
 import com.datastax.oss.dsbulk.workflow.commons.settings.BatchSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.CodecSettings;
@@ -49,11 +51,14 @@ import com.datastax.oss.dsbulk.workflow.commons.settings.MonitoringSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.SchemaGenerationType;
 import com.datastax.oss.dsbulk.workflow.commons.settings.SchemaSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.SettingsManager;
+import com.datastax.oss.dsbulk.workflow.commons.statement.StatementSorter;
 import com.datastax.oss.dsbulk.workflow.commons.utils.CloseableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
 import com.typesafe.config.Config;
-import io.netty.util.concurrent.DefaultThreadFactory;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -62,7 +67,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 import reactor.util.concurrent.Queues;
 
 /** The main class for load workflows. */
@@ -73,6 +77,12 @@ public class LoadWorkflow implements Workflow {
   private static final int _1_KB = 1024;
   private static final int _10_KB = 10 * _1_KB;
 
+  /** Signals that a chunk may have lingered for too long, see {@link #window(Flux, int)}. */
+  private static final Object TICK = new Object();
+
+  /** Signals the completion of the upstream flow, see {@link #window(Flux, int)}. */
+  private static final Object END_OF_STREAM = new Object();
+
   private final SettingsManager settingsManager;
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
@@ -84,13 +94,18 @@ public class LoadWorkflow implements Workflow {
   private CqlSession session;
   private BulkWriter executor;
   private boolean batchingEnabled;
+  private boolean continuousBatching;
+  private boolean sortedBatching;
+  private StatementSorter sorter;
   private boolean dryRun;
   private int batchBufferSize;
-  private Scheduler scheduler;
+  private Duration maxLinger;
+  private WorkflowRuntime runtime;
   private int numCores;
   private int readConcurrency;
   private int writeConcurrency;
   private boolean hasManyReaders;
+  private boolean readsOnOwnThreads;
 
   private Function<Record, BatchableStatement<?>> mapper;
   private Function<Publisher<BatchableStatement<?>>, Publisher<Statement<?>>> batcher;
@@ -107,6 +122,12 @@ public class LoadWorkflow implements Workflow {
   private Function<Flux<WriteResult>, Flux<WriteResult>> failedWritesHandler;
   private Function<Flux<WriteResult>, Flux<Void>> resultPositionsHndler;
   private Function<Flux<WriteResult>, Flux<WriteResult>> queryWarningsHandler;
+  private Function<Flux<Record>, Flux<Record>> recordsStage;
+  private Function<Flux<Record>, Flux<BatchableStatement<?>>> mappingStage;
+  private Function<Flux<BatchableStatement<?>>, Flux<Statement<?>>> batchingStage;
+  private Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>> sortingStage;
+  private Function<Flux<Statement<?>>, Flux<WriteResult>> writingStage;
+  private Function<Flux<WriteResult>, Flux<WriteResult>> resultsStage;
 
   LoadWorkflow(Config config) {
     settingsManager = new SettingsManager(config);
@@ -137,7 +158,8 @@ public class LoadWorkflow implements Workflow {
     batchSettings.init();
     executorSettings.init();
     engineSettings.init();
-    session = driverSettings.newSession(executionId);
+    runtime = engineSettings.newWorkflowRuntime();
+    session = driverSettings.newSession(executionId, engineSettings);
     ClusterInformationUtils.printDebugInfoAboutCluster(session);
     schemaSettings.init(
         SchemaGenerationType.MAP_AND_WRITE,
@@ -146,6 +168,13 @@ public class LoadWorkflow implements Workflow {
         connector.supports(CommonConnectorFeature.MAPPED_RECORDS));
     batchingEnabled = batchSettings.isBatchingEnabled();
     batchBufferSize = batchSettings.getBufferSize();
+    maxLinger = batchSettings.getMaxLinger();
+    if (engineSettings.isSortEnabled()) {
+      sorter = engineSettings.newStatementSorter(session, runtime.getIoScheduler());
+      LOGGER.info("Sorting enabled: statements will be written once all records are read.");
+    }
+    continuousBatching = batchingEnabled && batchSettings.isContinuous() && sorter == null;
+    sortedBatching = batchingEnabled && batchSettings.isSortedStream();
     logManager = logSettings.newLogManager(session, true);
     logManager.init();
     metricsManager =
@@ -157,8 +186,10 @@ public class LoadWorkflow implements Workflow {
             session.getMetrics().map(Metrics::getRegistry).orElse(new MetricRegistry()),
             session.getContext().getProtocolVersion(),
             session.getContext().getCodecRegistry(),
-            schemaSettings.getRowType());
+            schemaSettings.getRowType(),
+            runtime.getReportingExecutor());
     metricsManager.init();
+    metricsManager.registerRuntimeGauges(runtime);
     executor = executorSettings.newWriteExecutor(session, metricsManager.getExecutionListener());
     ConvertingCodecFactory codecFactory =
         codecSettings.createCodecFactory(
@@ -167,7 +198,18 @@ public class LoadWorkflow implements Workflow {
         schemaSettings.createRecordMapper(session, connector.getRecordMetadata(), codecFactory);
     mapper = recordMapper::map;
     if (batchingEnabled) {
-      batcher = batchSettings.newStatementBatcher(session)::batchByGroupingKey;
+      ReactiveStatementBatcher statementBatcher = batchSettings.newStatementBatcher(session);
+      if (sorter != null) {
+        batcher = statementBatcher::batchSortedByGroupingKey;
+      } else if (continuousBatching) {
+        batcher =
+            stmts ->
+                statementBatcher.batchByGroupingKeyContinuously(stmts, batchBufferSize, maxLinger);
+      } else if (sortedBatching) {
+        batcher = statementBatcher::batchSortedByGroupingKey;
+      } else {
+        batcher = statementBatcher::batchByGroupingKey;
+      }
     }
     dryRun = engineSettings.isDryRun();
     if (dryRun) {
@@ -177,7 +219,9 @@ public class LoadWorkflow implements Workflow {
     totalItemsMonitor = metricsManager.newTotalItemsMonitor();
     failedRecordsMonitor = metricsManager.newFailedItemsMonitor();
     failedStatementsMonitor = metricsManager.newFailedItemsMonitor();
-    batcherMonitor = metricsManager.newBatcherMonitor();
+    batcherMonitor =
+        metricsManager.newBatcherMonitor(
+            batchSettings.getMaxBatchStatements(), batchSettings.getMaxSizeInBytes());
     totalItemsCounter = logManager.newTotalItemsCounter();
     failedRecordsHandler = logManager.newFailedRecordsHandler();
     unmappableStatementsHandler = logManager.newUnmappableStatementsHandler();
@@ -185,15 +229,56 @@ public class LoadWorkflow implements Workflow {
     failedWritesHandler = logManager.newFailedWritesHandler();
     resultPositionsHndler = logManager.newResultPositionsHandler();
     terminationHandler = logManager.newTerminationHandler();
-    numCores = Runtime.getRuntime().availableProcessors();
+    // stages are declared in pipeline order, which is also the order in which they are reported
+    recordsStage =
+        metricsManager.newStageMonitor(
+            "records",
+            records ->
+                records
+                    .transform(totalItemsMonitor)
+                    .transform(totalItemsCounter)
+                    .transform(failedRecordsMonitor)
+                    .transform(failedRecordsHandler));
+    mappingStage =
+        metricsManager.newStageMonitor(
+            "mapping",
+            records ->
+                records
+                    .map(mapper)
+                    .transform(failedStatementsMonitor)
+                    .transform(unmappableStatementsHandler));
+    if (sorter != null) {
+      sortingStage = metricsManager.newStageMonitor("sorting", sorter::sort);
+    }
+    if (batchingEnabled) {
+      batchingStage =
+          metricsManager.newStageMonitor(
+              "batching", stmts -> Flux.from(batcher.apply(stmts)).transform(batcherMonitor));
+    }
+    // each statement produces exactly one write result
+    writingStage = metricsManager.newStageMonitor("writing", this::executeStatements, true);
+    resultsStage =
+        metricsManager.newStageMonitor(
+            "results",
+            results -> results.transform(queryWarningsHandler).transform(failedWritesHandler));
+    numCores = runtime.getCores();
     if (connector.readConcurrency() < 1) {
       throw new IllegalArgumentException("Invalid read concurrency: " + 1);
     }
     readConcurrency = connector.readConcurrency();
     hasManyReaders = readConcurrency >= Math.max(4, numCores / 4);
+    readsOnOwnThreads = connector.supports(CommonConnectorFeature.READS_ON_OWN_THREADS);
     LOGGER.debug("Using read concurrency: {}", readConcurrency);
-    writeConcurrency =
-        engineSettings.getMaxConcurrentQueries().orElseGet(this::determineWriteConcurrency);
+    if (executorSettings.isAdaptiveConcurrencyEnabled()) {
+      // let the adaptive concurrency limiter regulate the number of in-flight requests
+      writeConcurrency =
+          engineSettings
+              .getMaxConcurrentQueries()
+              .orElseGet(executorSettings::getAdaptiveMaxInFlight);
+    } else {
+      writeConcurrency =
+          engineSettings.getMaxConcurrentQueries().orElseGet(this::determineWriteConcurrency);
+    }
     LOGGER.debug(
         "Using write concurrency: {} (user-supplied: {})",
         writeConcurrency,
@@ -212,9 +297,8 @@ public class LoadWorkflow implements Workflow {
       statements = fewReaders();
     }
     statements
-        .transform(this::executeStatements)
-        .transform(queryWarningsHandler)
-        .transform(failedWritesHandler)
+        .transform(writingStage)
+        .transform(resultsStage)
         .transform(resultPositionsHndler)
         .transform(terminationHandler)
         .blockLast();
@@ -235,26 +319,21 @@ public class LoadWorkflow implements Workflow {
   /**
    * Reads the resources in parallel with {@code readConcurrency} parallelism.
    *
-   * <p>Each thread in the workflow thread pool is responsible for reading one file and processing
+   * <p>Each task in the CPU-bound thread pool is responsible for reading one file and processing
    * its records.
    */
   private Flux<Statement<?>> manyReaders() {
-    int numThreads = Math.min(readConcurrency, numCores);
-    scheduler = Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
+    Scheduler scheduler = runtime.getCpuScheduler();
     return Flux.defer(() -> connector.read())
         .flatMap(
             records ->
-                Flux.from(records)
-                    .transform(totalItemsMonitor)
-                    .transform(totalItemsCounter)
-                    .transform(failedRecordsMonitor)
-                    .transform(failedRecordsHandler)
-                    .map(mapper)
-                    .transform(failedStatementsMonitor)
-                    .transform(unmappableStatementsHandler)
+                fromResource(records)
+                    .transform(recordsStage)
+                    .transform(mappingStage)
                     .transform(this::bufferAndBatch)
                     .subscribeOn(scheduler),
-            readConcurrency);
+            readConcurrency)
+        .transform(this::sortAndBatch);
   }
 
   /**
@@ -262,52 +341,155 @@ public class LoadWorkflow implements Workflow {
    *
    * <p>Even if resources are subscribed with {@code readConcurrency} parallelism, they are read one
    * by one by the main workflow thread. The chunks of parsed records are then dispatched to the
-   * workflow thread pool. Each thread in the workflow thread pool is responsible for processing a
-   * chunk of records, with {@code numCores} parallelism.
+   * CPU-bound thread pool. Each task in the CPU-bound thread pool is responsible for processing a
+   * chunk of records, with as much parallelism as there are threads in the pool.
    */
   private Flux<Statement<?>> fewReaders() {
-    scheduler = Schedulers.newParallel(numCores, new DefaultThreadFactory("workflow"));
+    Scheduler scheduler = runtime.getCpuScheduler();
     return Flux.defer(() -> connector.read())
         .flatMap(
             records ->
-                Flux.from(records)
-                    .window(batchingEnabled ? batchBufferSize : Queues.SMALL_BUFFER_SIZE),
+                window(
+                    isLingering()
+                        // read on a separate thread, to let lingering chunks be closed
+                        // while waiting for slow sources
+                        ? fromResource(records).subscribeOn(runtime.getIoScheduler())
+                        : fromResource(records),
+                    isBatchingPerChunk() ? batchBufferSize : Queues.SMALL_BUFFER_SIZE),
             readConcurrency)
-        .flatMap(
-            records ->
-                records
-                    .transform(totalItemsMonitor)
-                    .transform(totalItemsCounter)
-                    .transform(failedRecordsMonitor)
-                    .transform(failedRecordsHandler)
-                    .map(mapper)
-                    .transform(failedStatementsMonitor)
-                    .transform(unmappableStatementsHandler)
-                    .transform(this::batchBuffered)
-                    .subscribeOn(scheduler),
-            numCores);
+        .transform(
+            chunks -> {
+              Function<Flux<Record>, Flux<? extends Statement<?>>> processor =
+                  records ->
+                      records
+                          .transform(recordsStage)
+                          .transform(mappingStage)
+                          .transform(this::batchBuffered)
+                          .subscribeOn(scheduler);
+              // sorted-stream batching needs the chunks back in their original order
+              return sortedBatching
+                  ? chunks.flatMapSequential(processor, runtime.getCpuThreads())
+                  : chunks.flatMap(processor, runtime.getCpuThreads());
+            })
+        .transform(this::batchMerged)
+        .transform(this::sortAndBatch);
+  }
+
+  /**
+   * Returns the records of a resource; if the connector emits them on threads of its own, such as
+   * virtual threads, they are published back on the CPU-bound thread pool.
+   */
+  private Flux<Record> fromResource(Publisher<Record> records) {
+    return readsOnOwnThreads
+        ? Flux.from(records).publishOn(runtime.getCpuScheduler())
+        : Flux.from(records);
+  }
+
+  /** Whether statements are batched per chunk of {@code batchBufferSize} statements. */
+  private boolean isBatchingPerChunk() {
+    return batchingEnabled && !continuousBatching && !sortedBatching && sorter == null;
+  }
+
+  /** Whether chunks of statements are closed after {@code maxLinger}, even if not full. */
+  private boolean isLingering() {
+    return batchingEnabled && sorter == null && !maxLinger.isZero();
+  }
+
+  /**
+   * Splits the given flow in chunks of {@code size} elements.
+   *
+   * <p>If {@linkplain #isLingering() lingering} is enabled, a chunk is also closed once its first
+   * element has been waiting for {@code maxLinger}, so that slow or bursty sources do not keep
+   * elements unsent until the chunk fills up. The flow is checked for lingering chunks twice per
+   * linger period; checks are skipped when downstream is not ready to receive them, so this method
+   * honors backpressure, unlike {@link Flux#windowTimeout(int, Duration)}.
+   */
+  private <T> Flux<Flux<T>> window(Flux<T> elements, int size) {
+    if (!isLingering()) {
+      return elements.window(size);
+    }
+    Duration period = maxLinger.dividedBy(2);
+    if (period.isZero()) {
+      period = Duration.ofNanos(1);
+    }
+    Flux<Object> ticks = Flux.interval(period, period).onBackpressureDrop().map(tick -> TICK);
+    return Flux.defer(
+        () -> {
+          LingeringChunk<T> chunk = new LingeringChunk<>(size, maxLinger);
+          return Flux.merge(Flux.concat(elements, Flux.just(END_OF_STREAM)), ticks)
+              .takeUntil(signal -> signal == END_OF_STREAM)
+              .<List<T>>handle(
+                  (signal, sink) -> {
+                    List<T> completed = chunk.accept(signal);
+                    if (completed != null) {
+                      sink.next(completed);
+                    }
+                  })
+              .map(Flux::fromIterable);
+        });
   }
 
   /**
    * Batches the given statement flow, if batching is enabled; otherwise do nothing.
    *
    * <p>The flow is expected to be unbuffered, so this method first applies buffering by {@code
-   * batchBufferSize} before batching the resulting chunks.
+   * batchBufferSize} before batching the resulting chunks, unless batching is continuous or the
+   * flow is sorted. When statements are sorted by token, batching is applied after sorting, see
+   * {@link #sortAndBatch(Flux)}.
    */
   private Flux<? extends Statement<?>> bufferAndBatch(Flux<BatchableStatement<?>> stmts) {
-    return batchingEnabled
-        ? stmts.window(batchBufferSize).flatMap(batcher).transform(batcherMonitor)
-        : stmts;
+    if (sorter != null) {
+      return stmts;
+    }
+    if (continuousBatching || sortedBatching) {
+      return stmts.transform(batchingStage);
+    }
+    return batchingEnabled ? window(stmts, batchBufferSize).flatMap(batchingStage) : stmts;
   }
 
   /**
    * Batches the given statement flow, if batching is enabled; otherwise do nothing.
    *
    * <p>The flow is expected to be already buffered by {@code batchBufferSize} so this method
-   * applies batching immediately.
+   * applies batching immediately. Continuous batching is applied later on the merged flow, see
+   * {@link #batchMerged(Flux)}.
    */
   private Flux<? extends Statement<?>> batchBuffered(Flux<BatchableStatement<?>> stmts) {
-    return batchingEnabled ? stmts.transform(batcher).transform(batcherMonitor) : stmts;
+    return isBatchingPerChunk() ? stmts.transform(batchingStage) : stmts;
+  }
+
+  /**
+   * Batches the given merged statement flow, if continuous or sorted-stream batching is enabled;
+   * otherwise do nothing.
+   *
+   * <p>In these modes, {@link #batchBuffered(Flux)} lets statements through unbatched, so all
+   * elements of the flow are known to be batchable; in sorted-stream mode, the flow is also merged
+   * in its original order, so batches are not cut at chunk boundaries.
+   */
+  private Flux<Statement<?>> batchMerged(Flux<? extends Statement<?>> stmts) {
+    return continuousBatching || sortedBatching
+        ? stmts
+            .<BatchableStatement<?>>map(stmt -> (BatchableStatement<?>) stmt)
+            .transform(batchingStage)
+        : Flux.<Statement<?>>from(stmts);
+  }
+
+  /**
+   * Sorts the given merged statement flow by token, then batches it if batching is enabled; if
+   * sorting is disabled, do nothing.
+   *
+   * <p>When sorting is enabled, no batching is applied upstream, so all elements of the flow are
+   * known to be batchable.
+   */
+  private Flux<Statement<?>> sortAndBatch(Flux<? extends Statement<?>> stmts) {
+    if (sorter == null) {
+      return Flux.<Statement<?>>from(stmts);
+    }
+    Flux<BatchableStatement<?>> sorted =
+        stmts
+            .<BatchableStatement<?>>map(stmt -> (BatchableStatement<?>) stmt)
+            .transform(sortingStage);
+    return batchingEnabled ? sorted.transform(batchingStage) : Flux.<Statement<?>>from(sorted);
   }
 
   /**
@@ -317,7 +499,7 @@ public class LoadWorkflow implements Workflow {
   private Flux<WriteResult> executeStatements(Flux<? extends Statement<?>> stmts) {
     return dryRun
         ? stmts.map(EmptyWriteResult::new)
-        : stmts.flatMap(executor::writeReactive, writeConcurrency);
+        : Flux.from(executor.writeReactive(stmts, writeConcurrency));
   }
 
   @Override
@@ -327,7 +509,7 @@ public class LoadWorkflow implements Workflow {
       Exception e = CloseableUtils.closeQuietly(metricsManager, null);
       e = CloseableUtils.closeQuietly(logManager, e);
       e = CloseableUtils.closeQuietly(connector, e);
-      e = CloseableUtils.closeQuietly(scheduler, e);
+      e = CloseableUtils.closeQuietly(runtime, e);
       e = CloseableUtils.closeQuietly(executor, e);
       e = CloseableUtils.closeQuietly(session, e);
       if (metricsManager != null) {
@@ -425,4 +607,43 @@ public class LoadWorkflow implements Workflow {
     }
     return meanSize;
   }
+
+  /** The chunk being filled by {@link #window(Flux, int)}. */
+  private static class LingeringChunk<T> {
+
+    private final int size;
+    private final long maxLingerNanos;
+    private List<T> elements = new ArrayList<>();
+    private long startNanos;
+
+    private LingeringChunk(int size, Duration maxLinger) {
+      this.size = size;
+      this.maxLingerNanos = maxLinger.toNanos();
+    }
+
+    /** Accepts the given signal, and returns the chunk that it completed, if any. */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private List<T> accept(Object signal) {
+      if (signal == TICK) {
+        return !elements.isEmpty() && System.nanoTime() - startNanos >= maxLingerNanos
+            ? complete()
+            : null;
+      }
+      if (signal == END_OF_STREAM) {
+        return elements.isEmpty() ? null : complete();
+      }
+      if (elements.isEmpty()) {
+        startNanos = System.nanoTime();
+      }
+      elements.add((T) signal);
+      return elements.size() == size ? complete() : null;
+    }
+
+    private List<T> complete() {
+      List<T> completed = elements;
+      elements = new ArrayList<>();
+      return completed;
+    }
+  }
 }
@@ -31,6 +31,7 @@ import com.datastax.oss.dsbulk.workflow.api.Workflow;
 import com.datastax.oss.dsbulk.workflow.api.utils.DurationUtils;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
+import com.datastax.oss.dsbulk.workflow.commons.runtime.WorkflowRuntime;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.settings.CodecSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.ConnectorSettings;
@@ -45,11 +46,8 @@ import com.datastax.oss.dsbulk.workflow.commons.settings.SettingsManager;
 import com.datastax.oss.dsbulk.workflow.commons.utils.CloseableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
 import com.typesafe.config.Config;
-import io.netty.util.concurrent.DefaultThreadFactory;
 import java.time.Duration;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -70,7 +68,7 @@ public class UnloadWorkflow implements Workflow {
 
   private String executionId;
   private Connector connector;
-  private Set<Scheduler> schedulers;
+  private WorkflowRuntime runtime;
   private ReadResultMapper readResultMapper;
   private MetricsManager metricsManager;
   private LogManager logManager;
@@ -87,6 +85,9 @@ public class UnloadWorkflow implements Workflow {
   private Function<Flux<ReadResult>, Flux<ReadResult>> queryWarningsHandler;
   private Function<Flux<Record>, Flux<Record>> unmappableRecordsHandler;
   private Function<Flux<Void>, Flux<Void>> terminationHandler;
+  private Function<Flux<ReadResult>, Flux<ReadResult>> resultsStage;
+  private Function<Flux<ReadResult>, Flux<Record>> mappingStage;
+  private Function<Flux<Record>, Flux<Record>> writingStage;
   private int readConcurrency;
   private int numCores;
   private int writeConcurrency;
@@ -123,7 +124,8 @@ public class UnloadWorkflow implements Workflow {
     codecSettings.init();
     monitoringSettings.init();
     executorSettings.init();
-    session = driverSettings.newSession(executionId);
+    runtime = engineSettings.newWorkflowRuntime();
+    session = driverSettings.newSession(executionId, engineSettings);
     ClusterInformationUtils.printDebugInfoAboutCluster(session);
     schemaSettings.init(
         SchemaGenerationType.READ_AND_MAP,
@@ -141,8 +143,10 @@ public class UnloadWorkflow implements Workflow {
             session.getMetrics().map(Metrics::getRegistry).orElse(new MetricRegistry()),
             session.getContext().getProtocolVersion(),
             session.getContext().getCodecRegistry(),
-            schemaSettings.getRowType());
+            schemaSettings.getRowType(),
+            runtime.getReportingExecutor());
     metricsManager.init();
+    metricsManager.registerRuntimeGauges(runtime);
     RecordMetadata recordMetadata = connector.getRecordMetadata();
     ConvertingCodecFactory codecFactory =
         codecSettings.createCodecFactory(
@@ -165,7 +169,30 @@ public class UnloadWorkflow implements Workflow {
     queryWarningsHandler = logManager.newQueryWarningsHandler();
     unmappableRecordsHandler = logManager.newUnmappableRecordsHandler();
     terminationHandler = logManager.newTerminationHandler();
-    numCores = Runtime.getRuntime().availableProcessors();
+    // stages are declared in pipeline order, which is also the order in which they are reported
+    resultsStage =
+        metricsManager.newStageMonitor(
+            "results",
+            results ->
+                results
+                    .transform(queryWarningsHandler)
+                    .transform(totalItemsMonitor)
+                    .transform(totalItemsCounter)
+                    .transform(failedReadResultsMonitor)
+                    .transform(failedReadsHandler));
+    mappingStage =
+        metricsManager.newStageMonitor(
+            "mapping",
+            results ->
+                results
+                    .map(readResultMapper::map)
+                    .transform(failedRecordsMonitor)
+                    .transform(unmappableRecordsHandler));
+    // connectors re-emit each record they write
+    writingStage =
+        metricsManager.newStageMonitor(
+            "writing", records -> Flux.from(writer.apply(records)), true);
+    numCores = runtime.getCores();
     if (connector.writeConcurrency() < 1) {
       throw new IllegalArgumentException("Invalid write concurrency: " + 1);
     }
@@ -181,7 +208,6 @@ public class UnloadWorkflow implements Workflow {
         "Using read concurrency: {} (user-supplied: {})",
         readConcurrency,
         engineSettings.getMaxConcurrentQueries().isPresent());
-    schedulers = new HashSet<>();
   }
 
   @Override
@@ -213,57 +239,34 @@ public class UnloadWorkflow implements Workflow {
   }
 
   private Flux<Record> oneWriter() {
-    int numThreads = Math.min(numCores * 2, readConcurrency);
-    Scheduler scheduler =
-        numThreads == 1
-            ? Schedulers.immediate()
-            : Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
-    schedulers.add(scheduler);
+    Scheduler scheduler = readConcurrency == 1 ? Schedulers.immediate() : runtime.getCpuScheduler();
     return Flux.fromIterable(readStatements)
         .flatMap(
             results ->
                 Flux.from(executor.readReactive(results))
                     .publishOn(scheduler, 500)
-                    .transform(queryWarningsHandler)
-                    .transform(totalItemsMonitor)
-                    .transform(totalItemsCounter)
-                    .transform(failedReadResultsMonitor)
-                    .transform(failedReadsHandler)
-                    .map(readResultMapper::map)
-                    .transform(failedRecordsMonitor)
-                    .transform(unmappableRecordsHandler),
+                    .transform(resultsStage)
+                    .transform(mappingStage),
             readConcurrency,
             500)
-        .transform(writer)
+        .transform(writingStage)
         .transform(failedRecordsMonitor)
         .transform(failedRecordsHandler);
   }
 
   private Flux<Record> fewWriters() {
     // writeConcurrency cannot be 1 here, but readConcurrency can
-    int numThreadsForReads = Math.min(numCores, readConcurrency);
     Scheduler schedulerForReads =
-        numThreadsForReads == 1
-            ? Schedulers.immediate()
-            : Schedulers.newParallel(numThreadsForReads, new DefaultThreadFactory("workflow-read"));
-    int numThreadsForWrites = Math.min(numCores, writeConcurrency);
-    Scheduler schedulerForWrites =
-        Schedulers.newParallel(numThreadsForWrites, new DefaultThreadFactory("workflow-write"));
-    schedulers.add(schedulerForReads);
-    schedulers.add(schedulerForWrites);
+        readConcurrency == 1 ? Schedulers.immediate() : runtime.getCpuScheduler();
+    // writers may block while writing records
+    Scheduler schedulerForWrites = runtime.getIoScheduler();
     return Flux.fromIterable(readStatements)
         .flatMap(
             results ->
                 Flux.from(executor.readReactive(results))
                     .publishOn(schedulerForReads, 500)
-                    .transform(queryWarningsHandler)
-                    .transform(totalItemsMonitor)
-                    .transform(totalItemsCounter)
-                    .transform(failedReadResultsMonitor)
-                    .transform(failedReadsHandler)
-                    .map(readResultMapper::map)
-                    .transform(failedRecordsMonitor)
-                    .transform(unmappableRecordsHandler),
+                    .transform(resultsStage)
+                    .transform(mappingStage),
             readConcurrency,
             500)
         .parallel(writeConcurrency)
@@ -272,7 +275,7 @@ public class UnloadWorkflow implements Workflow {
         .flatMap(
             records ->
                 records
-                    .transform(writer)
+                    .transform(writingStage)
                     .transform(failedRecordsMonitor)
                     .transform(failedRecordsHandler),
             writeConcurrency,
@@ -282,25 +285,18 @@ public class UnloadWorkflow implements Workflow {
   private Flux<Record> manyWriters() {
     // writeConcurrency and readConcurrency are >= 0.5C here
     int actualConcurrency = Math.min(readConcurrency, writeConcurrency);
-    int numThreads = Math.min(numCores * 2, actualConcurrency);
-    Scheduler scheduler = Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
-    schedulers.add(scheduler);
+    // each inner flow maps and writes records, and writers may block while writing
+    Scheduler scheduler = runtime.getIoScheduler();
     return Flux.fromIterable(readStatements)
         .flatMap(
             results -> {
               Flux<Record> records =
                   Flux.from(executor.readReactive(results))
                       .publishOn(scheduler, 500)
-                      .transform(queryWarningsHandler)
-                      .transform(totalItemsMonitor)
-                      .transform(totalItemsCounter)
-                      .transform(failedReadResultsMonitor)
-                      .transform(failedReadsHandler)
-                      .map(readResultMapper::map)
-                      .transform(failedRecordsMonitor)
-                      .transform(unmappableRecordsHandler);
+                      .transform(resultsStage)
+                      .transform(mappingStage);
               if (actualConcurrency == writeConcurrency) {
-                records = records.transform(writer);
+                records = records.transform(writingStage);
               } else {
                 // If the actual concurrency is lesser than the connector's desired write
                 // concurrency, we need to give the connector a chance to switch writers
@@ -308,7 +304,8 @@ public class UnloadWorkflow implements Workflow {
                 // (to that many files on disk for example). If the connector is correctly
                 // implemented, each window will be redirected to a different destination
                 // in a round-robin fashion.
-                records = records.window(500).flatMap(window -> window.transform(writer), 1, 500);
+                records =
+                    records.window(500).flatMap(window -> window.transform(writingStage), 1, 500);
               }
               return records.transform(failedRecordsMonitor).transform(failedRecordsHandler);
             },
@@ -323,11 +320,7 @@ public class UnloadWorkflow implements Workflow {
       Exception e = CloseableUtils.closeQuietly(metricsManager, null);
       e = CloseableUtils.closeQuietly(logManager, e);
       e = CloseableUtils.closeQuietly(connector, e);
-      if (schedulers != null) {
-        for (Scheduler scheduler : schedulers) {
-          e = CloseableUtils.closeQuietly(scheduler, e);
-        }
-      }
+      e = CloseableUtils.closeQuietly(runtime, e);
       e = CloseableUtils.closeQuietly(executor, e);
       e = CloseableUtils.closeQuietly(session, e);
       if (metricsManager != null) {